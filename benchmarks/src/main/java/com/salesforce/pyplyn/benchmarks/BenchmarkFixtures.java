@@ -0,0 +1,276 @@
+/*
+ *  Copyright (c) 2016-2017, Salesforce.com, Inc.
+ *  All rights reserved.
+ *  Licensed under the BSD 3-Clause license.
+ *  For full license text, see the LICENSE.txt file in repo root
+ *    or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.pyplyn.benchmarks;
+
+import static java.util.Collections.emptyList;
+
+import java.nio.charset.Charset;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.salesforce.argus.ArgusClient;
+import com.salesforce.argus.model.ImmutableMetricResponse;
+import com.salesforce.argus.model.MetricDatapoints;
+import com.salesforce.argus.model.MetricResponse;
+import com.salesforce.pyplyn.cache.CacheFactory;
+import com.salesforce.pyplyn.cache.Cacheable;
+import com.salesforce.pyplyn.client.RemoteClient;
+import com.salesforce.pyplyn.configuration.Configuration;
+import com.salesforce.pyplyn.configuration.EndpointConnector;
+import com.salesforce.pyplyn.configuration.ImmutableConfiguration;
+import com.salesforce.pyplyn.configuration.ImmutableConnector;
+import com.salesforce.pyplyn.duct.appconfig.AppConfig;
+import com.salesforce.pyplyn.duct.appconfig.ImmutableAppConfig;
+import com.salesforce.pyplyn.duct.connector.AppConnectors;
+import com.salesforce.pyplyn.duct.etl.extract.argus.ImmutableArgus;
+import com.salesforce.pyplyn.duct.etl.load.refocus.ImmutableRefocus;
+import com.salesforce.pyplyn.duct.etl.transform.standard.*;
+import com.salesforce.pyplyn.model.*;
+import com.salesforce.pyplyn.status.MeterType;
+import com.salesforce.pyplyn.status.SystemStatus;
+import com.salesforce.refocus.RefocusClient;
+import com.salesforce.refocus.model.Sample;
+
+/**
+ * Shared objects and data generators used by the benchmarks
+ * <p/>
+ * <p/>Remote clients are replaced by in-process stubs, which return pre-generated responses without any IO,
+ *   so that the benchmarks only measure Pyplyn's own processing.
+ *
+ * @author Mihai Bojin &lt;mbojin@salesforce.com&gt;
+ * @since 10.0.0
+ */
+final class BenchmarkFixtures {
+    static final String ENDPOINT = "benchmark";
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * @return an application config which repeatedly runs tasks, does not wait to coalesce extract requests,
+     *   and upserts each task's samples separately
+     */
+    static AppConfig appConfig() {
+        return ImmutableAppConfig.builder()
+                .global(ImmutableAppConfig.Global.builder()
+                        .configurationsPath("")
+                        .connectorsPath("")
+                        .updateConfigurationIntervalMillis(0L)
+                        .extractCoalesceWindowMillis(0L)
+                        .loadAggregateWindowMillis(0L)
+                        .loadAggregateMaxSamples(1)
+                        .runOnce(false)
+                        .build())
+                .build();
+    }
+
+    static EndpointConnector connector() {
+        return ImmutableConnector.builder()
+                .id(ENDPOINT)
+                .endpoint("http://localhost/")
+                .password("password".getBytes(Charset.defaultCharset()))
+                .build();
+    }
+
+    /**
+     * Generates Argus responses, one per metric, with one datapoint per minute, ending at the current time
+     */
+    static List<MetricResponse> metricResponses(int metrics, int pointsPerMetric) {
+        final long now = Instant.now().toEpochMilli();
+        final Random random = new Random(42);
+
+        List<MetricResponse> responses = new ArrayList<>(metrics);
+        for (int metric = 0; metric < metrics; metric++) {
+            long[] times = new long[pointsPerMetric];
+            double[] values = new double[pointsPerMetric];
+            for (int i = 0; i < pointsPerMetric; i++) {
+                times[i] = now - TimeUnit.MINUTES.toMillis(pointsPerMetric - i);
+                values[i] = Math.round(random.nextDouble() * 10_000) / 100d;
+            }
+
+            responses.add(ImmutableMetricResponse.builder()
+                    .metric(metricName(metric))
+                    .scope("scope")
+                    .datapoints(MetricDatapoints.of(times, values, pointsPerMetric))
+                    .build());
+        }
+
+        return responses;
+    }
+
+    /**
+     * Generates a {@link Transmutation} matrix, with one datapoint per minute, ending at the current time
+     */
+    static List<List<Transmutation>> transmutations(int series, int pointsPerSeries) {
+        final ZonedDateTime now = ZonedDateTime.now(ZoneOffset.UTC);
+        final Random random = new Random(42);
+
+        List<List<Transmutation>> matrix = new ArrayList<>(series);
+        for (int s = 0; s < series; s++) {
+            Transmutation.Metadata metadata = ImmutableTransmutation.Metadata.builder().source(metricName(s)).build();
+
+            List<Transmutation> row = new ArrayList<>(pointsPerSeries);
+            for (int i = 0; i < pointsPerSeries; i++) {
+                double value = Math.round(random.nextDouble() * 10_000) / 100d;
+                row.add(ImmutableTransmutation.of(now.minusMinutes(pointsPerSeries - i), metricName(s), value, value, metadata));
+            }
+            matrix.add(row);
+        }
+
+        return matrix;
+    }
+
+    static String metricName(int index) {
+        return "metric" + index;
+    }
+
+    /**
+     * @return an instance of the specified standard transform, as it would typically be configured
+     */
+    static Transform standardTransform(String name) {
+        switch (name) {
+            case "HighestValue":
+                return ImmutableHighestValue.of(HighestValue.Display.ORIGINAL_VALUE, HighestValue.Display.ORIGINAL_TIMESTAMP);
+            case "InfoStatus":
+                return ImmutableInfoStatus.builder().build();
+            case "LastDatapoint":
+                return ImmutableLastDatapoint.builder().build();
+            case "Metadata":
+                return ImmutableMetadata.of(Collections.singletonMap("key", "value"));
+            case "SaveMetricMetadata":
+                return ImmutableSaveMetricMetadata.builder().build();
+            case "Threshold":
+                return ImmutableThreshold.of(null, 75d, 50d, 25d, ThresholdType.GREATER_THAN);
+            case "ThresholdMetForDuration":
+                return ImmutableThresholdMetForDuration.of(50d, ThresholdType.GREATER_THAN,
+                        TimeUnit.MINUTES.toMillis(30), TimeUnit.MINUTES.toMillis(20), TimeUnit.MINUTES.toMillis(10));
+            default:
+                throw new IllegalArgumentException("Unknown transform " + name);
+        }
+    }
+
+    /**
+     * Generates a typical configuration: extracting a number of Argus metrics, determining their status
+     *   and publishing the results to Refocus
+     */
+    static Configuration configuration(int index, int metrics) {
+        List<Extract> extract = new ArrayList<>(metrics);
+        for (int metric = 0; metric < metrics; metric++) {
+            extract.add(ImmutableArgus.of(ENDPOINT, "-1h:scope:" + metricName(metric) + ":avg", metricName(metric), 0, null));
+        }
+
+        List<Transform> transform = Arrays.asList(
+                standardTransform("LastDatapoint"),
+                standardTransform("Threshold"),
+                standardTransform("Metadata"));
+
+        List<Load> load = Collections.singletonList(
+                ImmutableRefocus.of(ENDPOINT, "subject" + index, "aspect", null, null, emptyList()));
+
+        return ImmutableConfiguration.of(60_000L, extract, transform, load, false);
+    }
+
+
+    /**
+     * Returns stub clients instead of building remote clients
+     */
+    static class StubAppConnectors extends AppConnectors {
+        private final Map<Class<?>, ClientAndCache<?, ?>> clients = new HashMap<>();
+
+        StubAppConnectors() {
+            super(Collections.emptySet(), new CacheFactory(), new LocalSystemStatus());
+        }
+
+        <CLIENT extends RemoteClient> StubAppConnectors register(Class<CLIENT> clientClass, CLIENT client) {
+            clients.put(clientClass, new ClientAndCache<>(client, new CacheFactory().newCache()));
+            return this;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <CLIENT extends RemoteClient, CACHE extends Cacheable> ClientAndCache<CLIENT, CACHE> retrieveOrBuildClient(final String connectorId,
+                                                                                   Class<CLIENT> clientClass,
+                                                                                   Class<CACHE> cacheClass) {
+            return (ClientAndCache<CLIENT, CACHE>)clients.get(clientClass);
+        }
+    }
+
+    /**
+     * Argus client which returns pre-generated responses
+     */
+    static class StubArgusClient extends ArgusClient {
+        private final List<MetricResponse> responses;
+
+        StubArgusClient(List<MetricResponse> responses) {
+            super(BenchmarkFixtures.connector());
+            this.responses = responses;
+        }
+
+        @Override
+        public boolean isAuthenticated() {
+            return true;
+        }
+
+        @Override
+        public List<MetricResponse> getMetrics(List<String> expressions) {
+            return responses;
+        }
+    }
+
+    /**
+     * Refocus client which accepts all samples, notifying the passed callback of each upsert
+     */
+    static class StubRefocusClient extends RefocusClient {
+        private final Runnable onUpsert;
+
+        StubRefocusClient(Runnable onUpsert) {
+            super(BenchmarkFixtures.connector());
+            this.onUpsert = onUpsert;
+        }
+
+        @Override
+        public boolean isAuthenticated() {
+            return true;
+        }
+
+        @Override
+        public boolean upsertSamplesBulk(List<Sample> samples) {
+            onUpsert.run();
+            return true;
+        }
+    }
+
+    /**
+     * Records meters and timers in a local registry
+     */
+    static class LocalSystemStatus implements SystemStatus {
+        private final MetricRegistry registry = new MetricRegistry();
+
+        @Override
+        public Meter meter(String name, MeterType type) {
+            return registry.meter(MetricRegistry.name(name, type.name()));
+        }
+
+        @Override
+        public Timer timer(String name, String method) {
+            return registry.timer(MetricRegistry.name(name, method));
+        }
+
+        @Override
+        public void run() {
+            // nothing to report
+        }
+    }
+}
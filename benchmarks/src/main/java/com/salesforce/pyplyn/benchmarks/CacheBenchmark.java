@@ -0,0 +1,94 @@
+/*
+ *  Copyright (c) 2016-2017, Salesforce.com, Inc.
+ *  All rights reserved.
+ *  Licensed under the BSD 3-Clause license.
+ *  For full license text, see the LICENSE.txt file in repo root
+ *    or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.pyplyn.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.salesforce.argus.model.MetricResponse;
+import com.salesforce.pyplyn.cache.BoundedCache;
+import com.salesforce.pyplyn.cache.Cache;
+import com.salesforce.pyplyn.cache.CacheFactory;
+import com.salesforce.pyplyn.cache.ConcurrentCacheMap;
+
+/**
+ * Measures {@link Cache} lookups and inserts under contention, comparing the unbounded {@link ConcurrentCacheMap}
+ *   with the {@link BoundedCache}
+ * <p/>
+ * <p/>Mirrors how extract processors use the cache: many tasks concurrently check if a metric is cached,
+ *   while fewer threads cache the responses of remote calls; half of the keys are never cached,
+ *   to account for misses.
+ * <p/>
+ * <p/>The bounded cache's budget fits half of the cached responses, to also measure evictions.
+ *
+ * @author Mihai Bojin &lt;mbojin@salesforce.com&gt;
+ * @since 10.0.0
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheBenchmark {
+    private static final long CACHE_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    @Param({"1000", "100000"})
+    public int keys;
+
+    @Param({"ConcurrentCacheMap", "BoundedCache"})
+    public String implementation;
+
+    @Param({"60"})
+    public int pointsPerMetric;
+
+    private Cache<MetricResponse> cache;
+    private MetricResponse[] values;
+    private String[] lookupKeys;
+
+
+    @Setup
+    public void setUp() {
+        if ("BoundedCache".equals(implementation)) {
+            cache = new CacheFactory((long)keys / 4 * pointsPerMetric, 0).newCache();
+        } else {
+            cache = new CacheFactory().newCache();
+        }
+
+        // cache every other metric, leaving the rest as misses
+        List<MetricResponse> responses = BenchmarkFixtures.metricResponses(keys, pointsPerMetric);
+        values = new MetricResponse[keys / 2];
+        lookupKeys = new String[keys];
+        for (int i = 0; i < keys; i++) {
+            MetricResponse response = responses.get(i);
+            lookupKeys[i] = response.cacheKey();
+            if (i % 2 == 0) {
+                values[i / 2] = response;
+                cache.cache(response, CACHE_MILLIS);
+            }
+        }
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(3)
+    public MetricResponse isCached() {
+        return cache.isCached(lookupKeys[ThreadLocalRandom.current().nextInt(lookupKeys.length)]);
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(1)
+    public void cache() {
+        cache.cache(values[ThreadLocalRandom.current().nextInt(values.length)], CACHE_MILLIS);
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ *  Copyright (c) 2016-2017, Salesforce.com, Inc.
+ *  All rights reserved.
+ *  Licensed under the BSD 3-Clause license.
+ *  For full license text, see the LICENSE.txt file in repo root
+ *    or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.pyplyn.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.inject.Guice;
+import com.hazelcast.config.SerializationConfig;
+import com.hazelcast.config.SerializerConfig;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.spi.serialization.SerializationService;
+import com.salesforce.pyplyn.configuration.Configuration;
+import com.salesforce.pyplyn.duct.app.AppBootstrap;
+import com.salesforce.pyplyn.duct.cluster.ConfigurationSerializer;
+
+/**
+ * Compares storing {@link Configuration}s in the cluster's maps using Java serialization,
+ *   with the Smile based {@link ConfigurationSerializer}
+ * <p/>
+ * <p/>Each configuration is serialized as Hazelcast would when putting it into a map; the "payloadBytes" counter
+ *   reports the size of the serialized configuration.
+ *
+ * @author Mihai Bojin &lt;mbojin@salesforce.com&gt;
+ * @since 10.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConfigurationSerializationBenchmark {
+    @Param({"1", "20"})
+    public int metricsPerConfiguration;
+
+    private Configuration configuration;
+    private SerializationService javaSerialization;
+    private SerializationService binarySerialization;
+    private Data javaData;
+    private Data binaryData;
+
+
+    @Setup
+    public void setUp() {
+        ObjectMapper mapper = Guice.createInjector(AppBootstrap.modelDeserializationModules()).getInstance(ObjectMapper.class);
+        configuration = BenchmarkFixtures.configuration(0, metricsPerConfiguration);
+
+        javaSerialization = new DefaultSerializationServiceBuilder().build();
+        binarySerialization = new DefaultSerializationServiceBuilder()
+                .setConfig(new SerializationConfig().addSerializerConfig(new SerializerConfig()
+                        .setTypeClass(Configuration.class)
+                        .setImplementation(new ConfigurationSerializer(mapper))))
+                .build();
+
+        javaData = javaSerialization.toData(configuration);
+        binaryData = binarySerialization.toData(configuration);
+    }
+
+    @Benchmark
+    public Data javaWrite(PayloadCounters counters) {
+        return counters.record(javaSerialization.toData(configuration));
+    }
+
+    @Benchmark
+    public Configuration javaRead() {
+        return javaSerialization.toObject(javaData);
+    }
+
+    @Benchmark
+    public Data smileWrite(PayloadCounters counters) {
+        return counters.record(binarySerialization.toData(configuration));
+    }
+
+    @Benchmark
+    public Configuration smileRead() {
+        return binarySerialization.toObject(binaryData);
+    }
+
+
+    /**
+     * Reports the size of a serialized configuration
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class PayloadCounters {
+        public long payloadBytes;
+
+        Data record(Data data) {
+            payloadBytes = data.totalSize();
+            return data;
+        }
+    }
+}
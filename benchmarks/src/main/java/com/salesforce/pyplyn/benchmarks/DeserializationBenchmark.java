@@ -0,0 +1,77 @@
+/*
+ *  Copyright (c) 2016-2017, Salesforce.com, Inc.
+ *  All rights reserved.
+ *  Licensed under the BSD 3-Clause license.
+ *  For full license text, see the LICENSE.txt file in repo root
+ *    or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.pyplyn.benchmarks;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.inject.Guice;
+import com.salesforce.argus.model.MetricResponse;
+import com.salesforce.pyplyn.configuration.Configuration;
+import com.salesforce.pyplyn.duct.app.AppBootstrap;
+
+/**
+ * Measures the deserialization of {@link Configuration}s, as read by the configuration intake,
+ *   and of {@link MetricResponse}s, as returned by Argus
+ *
+ * @author Mihai Bojin &lt;mbojin@salesforce.com&gt;
+ * @since 10.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DeserializationBenchmark {
+    private static final TypeReference<List<MetricResponse>> METRIC_RESPONSES = new TypeReference<List<MetricResponse>>() {};
+    private static final int CONFIGURATIONS = 100;
+    private static final int METRICS_PER_CONFIGURATION = 5;
+    private static final int METRICS = 5;
+
+    /**
+     * Number of datapoints returned for each metric: a week of hourly and one-minute datapoints
+     */
+    @Param({"168", "10080"})
+    public int pointsPerMetric;
+
+    private ObjectMapper configurationMapper;
+    private ObjectMapper argusMapper;
+    private byte[] configurationsJson;
+    private byte[] metricResponsesJson;
+
+
+    @Setup
+    public void setUp() throws IOException {
+        configurationMapper = Guice.createInjector(AppBootstrap.modelDeserializationModules()).getInstance(ObjectMapper.class);
+        argusMapper = new ObjectMapper();
+
+        Configuration[] configurations = IntStream.range(0, CONFIGURATIONS)
+                .mapToObj(i -> BenchmarkFixtures.configuration(i, METRICS_PER_CONFIGURATION))
+                .toArray(Configuration[]::new);
+        configurationsJson = configurationMapper.writeValueAsBytes(configurations);
+        metricResponsesJson = argusMapper.writeValueAsBytes(BenchmarkFixtures.metricResponses(METRICS, pointsPerMetric));
+    }
+
+    @Benchmark
+    public Configuration[] configurations() throws IOException {
+        return configurationMapper.readValue(configurationsJson, Configuration[].class);
+    }
+
+    @Benchmark
+    public List<MetricResponse> metricResponses() throws IOException {
+        return argusMapper.readValue(metricResponsesJson, METRIC_RESPONSES);
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ *  Copyright (c) 2016-2017, Salesforce.com, Inc.
+ *  All rights reserved.
+ *  Licensed under the BSD 3-Clause license.
+ *  For full license text, see the LICENSE.txt file in repo root
+ *    or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.pyplyn.benchmarks;
+
+import static java.util.stream.Collectors.toList;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.salesforce.argus.ArgusClient;
+import com.salesforce.pyplyn.configuration.Configuration;
+import com.salesforce.pyplyn.duct.app.ShutdownHook;
+import com.salesforce.pyplyn.duct.etl.extract.argus.Argus;
+import com.salesforce.pyplyn.duct.etl.extract.argus.ArgusExtractCoalescer;
+import com.salesforce.pyplyn.duct.etl.extract.argus.ArgusExtractProcessor;
+import com.salesforce.pyplyn.duct.etl.load.refocus.Refocus;
+import com.salesforce.pyplyn.duct.etl.load.refocus.RefocusDeltaFilter;
+import com.salesforce.pyplyn.duct.etl.load.refocus.RefocusLoadAggregator;
+import com.salesforce.pyplyn.duct.etl.load.refocus.RefocusLoadProcessor;
+import com.salesforce.pyplyn.model.Transmutation;
+import com.salesforce.refocus.RefocusClient;
+
+/**
+ * Measures {@link ArgusExtractProcessor#process(List)} and {@link RefocusLoadProcessor#process(List, List)},
+ *   against in-process clients which return immediately
+ * <p/>
+ * <p/>The results only include the time spent by Pyplyn in preparing requests and mapping responses.
+ *
+ * @author Mihai Bojin &lt;mbojin@salesforce.com&gt;
+ * @since 10.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExtractLoadBenchmark {
+    @Param({"5", "50"})
+    public int metrics;
+
+    @Param({"60", "10080"})
+    public int pointsPerMetric;
+
+    private ShutdownHook shutdownHook;
+    private ArgusExtractProcessor extractProcessor;
+    private RefocusLoadProcessor loadProcessor;
+    private List<Argus> extracts;
+    private List<Refocus> loads;
+    private List<Transmutation> loadData;
+
+
+    @Setup
+    public void setUp() {
+        shutdownHook = new ShutdownHook();
+        BenchmarkFixtures.StubAppConnectors appConnectors = new BenchmarkFixtures.StubAppConnectors()
+                .register(ArgusClient.class, new BenchmarkFixtures.StubArgusClient(BenchmarkFixtures.metricResponses(metrics, pointsPerMetric)))
+                .register(RefocusClient.class, new BenchmarkFixtures.StubRefocusClient(() -> { }));
+
+        extractProcessor = new ArgusExtractProcessor(appConnectors, shutdownHook, new ArgusExtractCoalescer(BenchmarkFixtures.appConfig()));
+        extractProcessor.setSystemStatus(new BenchmarkFixtures.LocalSystemStatus());
+        loadProcessor = new RefocusLoadProcessor(appConnectors, shutdownHook, new RefocusLoadAggregator(BenchmarkFixtures.appConfig()),
+                new RefocusDeltaFilter(BenchmarkFixtures.appConfig()));
+        loadProcessor.setSystemStatus(new BenchmarkFixtures.LocalSystemStatus());
+
+        Configuration configuration = BenchmarkFixtures.configuration(0, metrics);
+        extracts = configuration.extract().stream().map(Argus.class::cast).collect(toList());
+        loads = configuration.load().stream().map(Refocus.class::cast).collect(toList());
+
+        // load the last datapoint of each series, as the transforms in a typical configuration would
+        loadData = BenchmarkFixtures.transmutations(metrics, 1).stream()
+                .map(row -> row.get(0))
+                .collect(toList());
+    }
+
+    @TearDown
+    public void tearDown() {
+        shutdownHook.shutdown();
+    }
+
+    @Benchmark
+    public List<List<Transmutation>> extract() {
+        return extractProcessor.process(extracts);
+    }
+
+    @Benchmark
+    public List<Boolean> load() {
+        return loadProcessor.process(loadData, loads);
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ *  Copyright (c) 2016-2017, Salesforce.com, Inc.
+ *  All rights reserved.
+ *  Licensed under the BSD 3-Clause license.
+ *  For full license text, see the LICENSE.txt file in repo root
+ *    or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.pyplyn.benchmarks;
+
+import static java.util.stream.Collectors.toList;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.salesforce.argus.ArgusClient;
+import com.salesforce.pyplyn.configuration.Configuration;
+import com.salesforce.pyplyn.duct.app.ShutdownHook;
+import com.salesforce.pyplyn.duct.etl.load.refocus.Refocus;
+import com.salesforce.pyplyn.duct.etl.load.refocus.RefocusDeltaFilter;
+import com.salesforce.pyplyn.duct.etl.load.refocus.RefocusLoadAggregator;
+import com.salesforce.pyplyn.duct.etl.load.refocus.RefocusLoadProcessor;
+import com.salesforce.pyplyn.model.Transmutation;
+import com.salesforce.refocus.RefocusClient;
+
+import io.reactivex.Flowable;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Compares loading a task's results one row at a time (each row loaded in parallel, on the IO scheduler),
+ *   with loading all of them in a single {@link RefocusLoadProcessor#process(List, List)} call
+ * <p/>
+ * <p/>Each upsert simulates a round-trip to Refocus; the "upserts" and "tasks" counters report the number of
+ *   HTTP calls and the number of loaded tasks, in each iteration.
+ *
+ * @author Mihai Bojin &lt;mbojin@salesforce.com&gt;
+ * @since 10.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoadBatchingBenchmark {
+    @Param({"5", "50"})
+    public int rows;
+
+    @Param({"5"})
+    public long roundTripMillis;
+
+    private final AtomicLong upserts = new AtomicLong();
+    private ShutdownHook shutdownHook;
+    private RefocusLoadProcessor loadProcessor;
+    private List<Refocus> loads;
+    private List<List<Transmutation>> results;
+
+
+    @Setup
+    public void setUp() {
+        shutdownHook = new ShutdownHook();
+        BenchmarkFixtures.StubAppConnectors appConnectors = new BenchmarkFixtures.StubAppConnectors()
+                .register(ArgusClient.class, new BenchmarkFixtures.StubArgusClient(Collections.emptyList()))
+                .register(RefocusClient.class, new BenchmarkFixtures.StubRefocusClient(this::roundTrip));
+
+        loadProcessor = new RefocusLoadProcessor(appConnectors, shutdownHook, new RefocusLoadAggregator(BenchmarkFixtures.appConfig()),
+                new RefocusDeltaFilter(BenchmarkFixtures.appConfig()));
+        loadProcessor.setSystemStatus(new BenchmarkFixtures.LocalSystemStatus());
+
+        Configuration configuration = BenchmarkFixtures.configuration(0, rows);
+        loads = configuration.load().stream().map(Refocus.class::cast).collect(toList());
+
+        // one row per series, holding the last datapoint, as the transforms in a typical configuration would
+        results = BenchmarkFixtures.transmutations(rows, 1);
+    }
+
+    @TearDown
+    public void tearDown() {
+        shutdownHook.shutdown();
+    }
+
+    /**
+     * Loads each row separately
+     */
+    @Benchmark
+    public void perRow(UpsertCounters counters) {
+        long before = upserts.get();
+        Flowable.fromIterable(results)
+                .parallel()
+                .runOn(Schedulers.io())
+                .map(row -> loadProcessor.process(row, loads))
+                .sequential()
+                .blockingLast();
+        counters.record(upserts.get() - before);
+    }
+
+    /**
+     * Loads all rows in one call
+     */
+    @Benchmark
+    public void perTask(UpsertCounters counters) {
+        long before = upserts.get();
+        loadProcessor.process(results.stream().flatMap(List::stream).collect(toList()), loads);
+        counters.record(upserts.get() - before);
+    }
+
+    /**
+     * Counts the upsert and simulates the time spent waiting for Refocus to respond
+     */
+    private void roundTrip() {
+        upserts.incrementAndGet();
+        try {
+            Thread.sleep(roundTripMillis);
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+
+    /**
+     * Reports the number of upserts made for the tasks loaded in each iteration
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class UpsertCounters {
+        public long upserts;
+        public long tasks;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            upserts = 0;
+            tasks = 0;
+        }
+
+        void record(long taskUpserts) {
+            upserts += taskUpserts;
+            tasks++;
+        }
+    }
+}
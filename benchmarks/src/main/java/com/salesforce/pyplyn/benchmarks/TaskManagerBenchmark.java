@@ -0,0 +1,116 @@
+/*
+ *  Copyright (c) 2016-2017, Salesforce.com, Inc.
+ *  All rights reserved.
+ *  Licensed under the BSD 3-Clause license.
+ *  For full license text, see the LICENSE.txt file in repo root
+ *    or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.pyplyn.benchmarks;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.salesforce.argus.ArgusClient;
+import com.salesforce.pyplyn.configuration.Configuration;
+import com.salesforce.pyplyn.duct.app.ShutdownHook;
+import com.salesforce.pyplyn.duct.appconfig.AppConfig;
+import com.salesforce.pyplyn.duct.etl.configuration.TaskManager;
+import com.salesforce.pyplyn.duct.etl.extract.argus.ArgusExtractCoalescer;
+import com.salesforce.pyplyn.duct.etl.extract.argus.ArgusExtractProcessor;
+import com.salesforce.pyplyn.duct.etl.load.refocus.RefocusDeltaFilter;
+import com.salesforce.pyplyn.duct.etl.load.refocus.RefocusLoadAggregator;
+import com.salesforce.pyplyn.duct.etl.load.refocus.RefocusLoadProcessor;
+import com.salesforce.pyplyn.model.Extract;
+import com.salesforce.pyplyn.model.Load;
+import com.salesforce.pyplyn.processor.ExtractProcessor;
+import com.salesforce.pyplyn.processor.LoadProcessor;
+import com.salesforce.refocus.RefocusClient;
+
+/**
+ * Measures a full ETL cycle, as scheduled by the {@link TaskManager}: a number of configurations are upserted
+ *   and the benchmark waits until all their results were loaded
+ * <p/>
+ * <p/>The results include the latency introduced by the task scheduler's resolution.
+ *
+ * @author Mihai Bojin &lt;mbojin@salesforce.com&gt;
+ * @since 10.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskManagerBenchmark {
+    private static final int METRICS_PER_CONFIGURATION = 5;
+
+    @Param({"1", "100"})
+    public int configurations;
+
+    @Param({"60"})
+    public int pointsPerMetric;
+
+    private ShutdownHook shutdownHook;
+    private TaskManager<Configuration> taskManager;
+    private List<Configuration> tasks;
+
+    // counts down each load, for the current cycle
+    private volatile CountDownLatch loaded = new CountDownLatch(0);
+
+
+    @Setup
+    public void setUp() {
+        shutdownHook = new ShutdownHook();
+        AppConfig config = BenchmarkFixtures.appConfig();
+
+        BenchmarkFixtures.StubAppConnectors appConnectors = new BenchmarkFixtures.StubAppConnectors()
+                .register(ArgusClient.class, new BenchmarkFixtures.StubArgusClient(BenchmarkFixtures.metricResponses(METRICS_PER_CONFIGURATION, pointsPerMetric)))
+                .register(RefocusClient.class, new BenchmarkFixtures.StubRefocusClient(() -> loaded.countDown()));
+
+        ArgusExtractProcessor extractProcessor = new ArgusExtractProcessor(appConnectors, shutdownHook, new ArgusExtractCoalescer(config));
+        extractProcessor.setSystemStatus(new BenchmarkFixtures.LocalSystemStatus());
+        RefocusLoadProcessor loadProcessor = new RefocusLoadProcessor(appConnectors, shutdownHook, new RefocusLoadAggregator(config),
+                new RefocusDeltaFilter(config));
+        loadProcessor.setSystemStatus(new BenchmarkFixtures.LocalSystemStatus());
+
+        Set<ExtractProcessor<? extends Extract>> extractProcessors = Collections.singleton(extractProcessor);
+        Set<LoadProcessor<? extends Load>> loadProcessors = Collections.singleton(loadProcessor);
+        taskManager = new TaskManager<>(config, extractProcessors, loadProcessors, shutdownHook, new BenchmarkFixtures.LocalSystemStatus());
+
+        tasks = IntStream.range(0, configurations)
+                .mapToObj(i -> BenchmarkFixtures.configuration(i, METRICS_PER_CONFIGURATION))
+                .collect(Collectors.toList());
+    }
+
+    @TearDown
+    public void tearDown() {
+        shutdownHook.shutdown();
+    }
+
+    /**
+     * Runs one ETL cycle for all configurations; each configuration loads all its samples in one upsert
+     */
+    @Benchmark
+    public void etlCycle() throws InterruptedException {
+        loaded = new CountDownLatch(configurations);
+        tasks.forEach(taskManager::upsert);
+
+        try {
+            if (!loaded.await(1, TimeUnit.MINUTES)) {
+                throw new IllegalStateException("ETL cycle did not complete; remaining loads: " + loaded.getCount());
+            }
+
+        } finally {
+            // removing the tasks allows them to run immediately in the next cycle
+            tasks.forEach(taskManager::remove);
+        }
+    }
+}
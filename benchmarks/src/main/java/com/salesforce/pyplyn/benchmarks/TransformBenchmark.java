@@ -0,0 +1,79 @@
+/*
+ *  Copyright (c) 2016-2017, Salesforce.com, Inc.
+ *  All rights reserved.
+ *  Licensed under the BSD 3-Clause license.
+ *  For full license text, see the LICENSE.txt file in repo root
+ *    or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.pyplyn.benchmarks;
+
+import static java.util.stream.Collectors.toList;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.salesforce.pyplyn.duct.etl.transform.standard.SaveMetricMetadata;
+import com.salesforce.pyplyn.model.BatchTransform;
+import com.salesforce.pyplyn.model.Transform;
+import com.salesforce.pyplyn.model.Transmutation;
+import com.salesforce.pyplyn.model.TransmutationBatch;
+
+/**
+ * Measures each standard {@link Transform}, applied on a matrix of {@link Transmutation}s
+ *   and on the equivalent {@link TransmutationBatch}
+ * <p/>
+ * <p/>The default sizes correspond to an hour and a week of one-minute datapoints.
+ *
+ * @author Mihai Bojin &lt;mbojin@salesforce.com&gt;
+ * @since 10.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransformBenchmark {
+    @Param({"HighestValue", "InfoStatus", "LastDatapoint", "Metadata", "SaveMetricMetadata", "Threshold", "ThresholdMetForDuration"})
+    public String transformName;
+
+    @Param({"5"})
+    public int series;
+
+    @Param({"60", "10080"})
+    public int pointsPerSeries;
+
+    private Transform transform;
+    private List<List<Transmutation>> matrix;
+    private TransmutationBatch batch;
+
+
+    @Setup
+    public void setUp() {
+        transform = BenchmarkFixtures.standardTransform(transformName);
+        matrix = BenchmarkFixtures.transmutations(series, pointsPerSeries);
+
+        // SaveMetricMetadata only accepts one datapoint per series, which is what it receives in a typical configuration
+        if (transform instanceof SaveMetricMetadata) {
+            matrix = matrix.stream()
+                    .map(row -> Collections.singletonList(row.get(row.size() - 1)))
+                    .collect(toList());
+        }
+
+        batch = TransmutationBatch.from(matrix);
+    }
+
+    @Benchmark
+    public List<List<Transmutation>> matrix() {
+        return transform.apply(matrix);
+    }
+
+    @Benchmark
+    public TransmutationBatch batch() {
+        return BatchTransform.applyTo(transform, batch);
+    }
+}
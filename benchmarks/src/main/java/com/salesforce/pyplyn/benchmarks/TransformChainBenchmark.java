@@ -0,0 +1,77 @@
+/*
+ *  Copyright (c) 2016-2017, Salesforce.com, Inc.
+ *  All rights reserved.
+ *  Licensed under the BSD 3-Clause license.
+ *  For full license text, see the LICENSE.txt file in repo root
+ *    or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.pyplyn.benchmarks;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.salesforce.pyplyn.duct.etl.configuration.TransformChain;
+import com.salesforce.pyplyn.model.BatchTransform;
+import com.salesforce.pyplyn.model.Transform;
+import com.salesforce.pyplyn.model.TransmutationBatch;
+
+import io.reactivex.Flowable;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Measures the per-task latency of a typical transform chain, comparing the fused {@link TransformChain}
+ *   with running each transform in its own stage, observed on the computation scheduler
+ *
+ * @author Mihai Bojin &lt;mbojin@salesforce.com&gt;
+ * @since 10.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransformChainBenchmark {
+    @Param({"5"})
+    public int series;
+
+    @Param({"60"})
+    public int pointsPerSeries;
+
+    private List<Transform> transforms;
+    private TransformChain chain;
+    private TransmutationBatch input;
+
+
+    @Setup
+    public void setUp() {
+        transforms = Arrays.asList(
+                BenchmarkFixtures.standardTransform("Threshold"),
+                BenchmarkFixtures.standardTransform("InfoStatus"),
+                BenchmarkFixtures.standardTransform("Metadata"),
+                BenchmarkFixtures.standardTransform("LastDatapoint"));
+        chain = TransformChain.compile(transforms);
+        input = TransmutationBatch.from(BenchmarkFixtures.transmutations(series, pointsPerSeries));
+    }
+
+    /**
+     * One stage (and one scheduler hop) per transform
+     */
+    @Benchmark
+    public TransmutationBatch perStage() {
+        Flowable<TransmutationBatch> result = Flowable.just(input);
+        for (Transform transform : transforms) {
+            result = result.flatMap(batch -> BatchTransform.applyAsyncTo(transform, batch, Schedulers.computation()));
+        }
+        return result.blockingFirst();
+    }
+
+    @Benchmark
+    public TransmutationBatch fused() {
+        return chain.apply(Flowable.just(input), Schedulers.computation()).blockingFirst();
+    }
+}
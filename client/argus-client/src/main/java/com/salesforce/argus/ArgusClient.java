@@ -14,6 +14,7 @@ import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 import com.google.common.base.Preconditions;
@@ -144,6 +145,20 @@ public class ArgusClient extends AbstractRemoteClient<ArgusService> {
         return executeAndRetrieveBody(svc().getMetrics(authorizationHeader(), expressions), null);
     }
 
+    /**
+     * Retrieve metrics for a list of expressions, without blocking the calling thread
+     *
+     * @param expressions the list of expressions to retrieve
+     * @throws IllegalArgumentException if null expressions were passed
+     * @return a future holding the list of metric responses, or null if an error during the API call occurred;
+     *         the future is completed exceptionally with {@link UnauthorizedException} if the endpoint
+     *         could not be authenticated
+     */
+    public CompletableFuture<List<MetricResponse>> getMetricsAsync(List<String> expressions) {
+        Preconditions.checkNotNull(expressions, "Expressions should not be null");
+        return executeAsync(() -> svc().getMetrics(authorizationHeader(), expressions), null);
+    }
+
     /**
      * Create a new alert
      *
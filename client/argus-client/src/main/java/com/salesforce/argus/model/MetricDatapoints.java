@@ -0,0 +1,350 @@
+/*
+ *  Copyright (c) 2016-2017, Salesforce.com, Inc.
+ *  All rights reserved.
+ *  Licensed under the BSD 3-Clause license.
+ *  For full license text, see the LICENSE.txt file in repo root
+ *    or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.argus.model;
+
+import static com.salesforce.pyplyn.util.FormatUtils.parseUTCTime;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.*;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+/**
+ * Datapoints of a {@link MetricResponse}, stored as primitive arrays of times (epoch millis) and values
+ * <p/>
+ * <p/>Points are sorted by time and each time is unique. For compatibility, this object is also a read-only
+ *   {@link SortedMap} of time (epoch millis) to value, as returned by Argus; the map's keys and values are only
+ *   formatted as strings when they are accessed.
+ * <p/>
+ * <p/>Since only the parsed values are stored, the map view is normalized: times are always formatted as epoch millis
+ *   and values as plain decimals, without exponents or trailing zeros (e.g. "1.0" is returned as "1" and "1.5E7"
+ *   as "15000000"). Values that Argus returns in this form are returned unchanged.
+ * <p/>
+ * <p/>Use {@link #timeMillis(int)} and {@link #value(int)} to read datapoints without creating any objects.
+ *
+ * @author Mihai Bojin &lt;mbojin@salesforce.com&gt;
+ * @since 10.0.0
+ */
+@JsonDeserialize(using = MetricDatapointsDeserializer.class)
+@JsonSerialize(using = MetricDatapointsSerializer.class)
+public final class MetricDatapoints extends AbstractMap<String, String> implements SortedMap<String, String>, Serializable {
+    private static final long serialVersionUID = -6285216512046946114L;
+    private static final MetricDatapoints EMPTY = new MetricDatapoints(new long[0], new double[0]);
+    private static final double MAX_EXACT_LONG = 1L << 53;
+    private static final Comparator<String> KEY_ORDER = Comparator.comparingLong(MetricDatapoints::parseKey);
+
+    private final long[] times;
+    private final double[] values;
+
+    private transient Set<Entry<String, String>> entrySet;
+    private transient int hashCode;
+
+
+    /**
+     * Only called with sorted arrays of the same length, which are not referenced by any other object
+     */
+    private MetricDatapoints(long[] times, double[] values) {
+        this.times = times;
+        this.values = values;
+    }
+
+    /**
+     * @return an object that holds no datapoints
+     */
+    public static MetricDatapoints empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Creates a new object from the specified datapoints
+     * <p/>
+     * <p/>The first <code>size</code> elements of each array are copied, sorted by time; if a time is specified
+     *   more than once, the last value is kept.
+     */
+    public static MetricDatapoints of(long[] times, double[] values, int size) {
+        if (size == 0) {
+            return EMPTY;
+        }
+
+        long[] sortedTimes = Arrays.copyOf(times, size);
+        double[] sortedValues = Arrays.copyOf(values, size);
+
+        // Argus returns sorted datapoints; only sort if required
+        for (int i = 1; i < size; i++) {
+            if (sortedTimes[i - 1] >= sortedTimes[i]) {
+                return sortAndDeduplicate(sortedTimes, sortedValues);
+            }
+        }
+
+        return new MetricDatapoints(sortedTimes, sortedValues);
+    }
+
+    /**
+     * Creates a new object from a map of time (epoch millis or ISO-8601 date) to value
+     *
+     * @throws java.time.format.DateTimeParseException if any of the times cannot be parsed
+     * @throws NumberFormatException if any of the values cannot be parsed
+     */
+    public static MetricDatapoints from(Map<String, ? extends String> datapoints) {
+        if (datapoints instanceof MetricDatapoints) {
+            return (MetricDatapoints)datapoints;
+        }
+
+        long[] times = new long[datapoints.size()];
+        double[] values = new double[datapoints.size()];
+        int size = 0;
+        for (Entry<String, ? extends String> datapoint : datapoints.entrySet()) {
+            times[size] = parseKey(datapoint.getKey());
+            values[size] = Double.parseDouble(datapoint.getValue());
+            size++;
+        }
+
+        return of(times, values, size);
+    }
+
+    /**
+     * Sorts by time, keeping the last specified value for duplicate times
+     */
+    private static MetricDatapoints sortAndDeduplicate(long[] times, double[] values) {
+        Integer[] order = new Integer[times.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+
+        // stable sort, so that the last value of a duplicated time is also the last one in its run
+        Arrays.sort(order, Comparator.comparingLong(i -> times[i]));
+
+        long[] sortedTimes = new long[times.length];
+        double[] sortedValues = new double[values.length];
+        int size = 0;
+        for (Integer index : order) {
+            if (size > 0 && sortedTimes[size - 1] == times[index]) {
+                sortedValues[size - 1] = values[index];
+                continue;
+            }
+
+            sortedTimes[size] = times[index];
+            sortedValues[size] = values[index];
+            size++;
+        }
+
+        return new MetricDatapoints(Arrays.copyOf(sortedTimes, size), Arrays.copyOf(sortedValues, size));
+    }
+
+    /**
+     * @return the time of the specified datapoint, in epoch millis
+     */
+    public long timeMillis(int index) {
+        return times[index];
+    }
+
+    /**
+     * @return the value of the specified datapoint
+     */
+    public double value(int index) {
+        return values[index];
+    }
+
+    @Override
+    public int size() {
+        return times.length;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return times.length == 0;
+    }
+
+
+    //
+    // SortedMap view
+    //
+
+    /**
+     * Formats a time as a map key
+     */
+    static String formatKey(long time) {
+        return Long.toString(time);
+    }
+
+    /**
+     * Formats a value as a map value: integers are formatted without a fractional part, and no value
+     *   is formatted using an exponent
+     */
+    static String formatValue(double value) {
+        if (value == Math.rint(value) && Math.abs(value) < MAX_EXACT_LONG) {
+            return Long.toString((long)value);
+        }
+
+        String formatted = Double.toString(value);
+        if (formatted.indexOf('E') < 0 || Double.isNaN(value) || Double.isInfinite(value)) {
+            return formatted;
+        }
+
+        return BigDecimal.valueOf(value).stripTrailingZeros().toPlainString();
+    }
+
+    /**
+     * Parses a map key, accepting the same formats as {@link com.salesforce.pyplyn.util.FormatUtils#parseUTCTime(String)}
+     */
+    private static long parseKey(String key) {
+        return parseUTCTime(key).toInstant().toEpochMilli();
+    }
+
+    /**
+     * @return the index of the specified key, or a negative value if not found (see {@link Arrays#binarySearch(long[], long)})
+     */
+    private int indexOf(Object key) {
+        if (!(key instanceof String)) {
+            return -1;
+        }
+
+        try {
+            return Arrays.binarySearch(times, parseKey((String)key));
+
+        } catch (RuntimeException e) {
+            // keys that cannot be parsed are not found
+            return -1;
+        }
+    }
+
+    /**
+     * @return the index of the first datapoint with a time greater or equal to the specified key
+     */
+    private int lowerBound(String key) {
+        int index = Arrays.binarySearch(times, parseKey(key));
+        return index >= 0 ? index : -index - 1;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public String get(Object key) {
+        int index = indexOf(key);
+        if (index < 0) {
+            return null;
+        }
+        return formatValue(values[index]);
+    }
+
+    /**
+     * Datapoints are ordered by time, which for epoch millis of the same length matches their natural ordering
+     */
+    @Override
+    public Comparator<? super String> comparator() {
+        return KEY_ORDER;
+    }
+
+    @Override
+    public SortedMap<String, String> subMap(String fromKey, String toKey) {
+        return range(lowerBound(fromKey), lowerBound(toKey));
+    }
+
+    @Override
+    public SortedMap<String, String> headMap(String toKey) {
+        return range(0, lowerBound(toKey));
+    }
+
+    @Override
+    public SortedMap<String, String> tailMap(String fromKey) {
+        return range(lowerBound(fromKey), times.length);
+    }
+
+    private MetricDatapoints range(int from, int to) {
+        if (from == 0 && to == times.length) {
+            return this;
+        }
+        if (from >= to) {
+            return EMPTY;
+        }
+        return new MetricDatapoints(Arrays.copyOfRange(times, from, to), Arrays.copyOfRange(values, from, to));
+    }
+
+    @Override
+    public String firstKey() {
+        if (isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        return formatKey(times[0]);
+    }
+
+    @Override
+    public String lastKey() {
+        if (isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        return formatKey(times[times.length - 1]);
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new AbstractSet<Entry<String, String>>() {
+                @Override
+                public Iterator<Entry<String, String>> iterator() {
+                    return new Iterator<Entry<String, String>>() {
+                        private int index;
+
+                        @Override
+                        public boolean hasNext() {
+                            return index < times.length;
+                        }
+
+                        @Override
+                        public Entry<String, String> next() {
+                            if (!hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+
+                            Entry<String, String> entry = new SimpleImmutableEntry<>(formatKey(times[index]), formatValue(values[index]));
+                            index++;
+                            return entry;
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return times.length;
+                }
+            };
+        }
+
+        return entrySet;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        // avoid formatting datapoints when comparing two objects of this type
+        if (o instanceof MetricDatapoints) {
+            MetricDatapoints that = (MetricDatapoints)o;
+            return Arrays.equals(times, that.times) && Arrays.equals(values, that.values);
+        }
+
+        return super.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        // consistent with AbstractMap.hashCode(), as required by the Map contract; cached, since it formats all datapoints
+        if (hashCode == 0) {
+            hashCode = super.hashCode();
+        }
+        return hashCode;
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ *  Copyright (c) 2016-2017, Salesforce.com, Inc.
+ *  All rights reserved.
+ *  Licensed under the BSD 3-Clause license.
+ *  For full license text, see the LICENSE.txt file in repo root
+ *    or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.argus.model;
+
+import static com.salesforce.pyplyn.util.FormatUtils.parseUTCTime;
+
+import java.io.IOException;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+/**
+ * Streaming deserializer for the datapoints returned by Argus
+ * <p/>
+ * <p/>Argus returns datapoints as a JSON object of time (epoch millis) to value, both formatted as strings.
+ *   This deserializer reads the parser's character buffers directly into primitive arrays, without creating
+ *   any intermediary strings or maps; strings are only created for times and values that are not plain
+ *   epoch millis or decimals.
+ * <p/>
+ * <p/>Datapoints with times or values that cannot be parsed are skipped.
+ *
+ * @author Mihai Bojin &lt;mbojin@salesforce.com&gt;
+ * @since 10.0.0
+ */
+public class MetricDatapointsDeserializer extends StdDeserializer<MetricDatapoints> {
+    private static final long serialVersionUID = 3720184750927165128L;
+    private static final Logger logger = LoggerFactory.getLogger(MetricDatapointsDeserializer.class);
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    // largest number of digits that are guaranteed to fit in a double's mantissa
+    private static final int MAX_EXACT_DIGITS = 15;
+
+    // powers of ten that are exactly representable as doubles
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+
+    public MetricDatapointsDeserializer() {
+        super(MetricDatapoints.class);
+    }
+
+    @Override
+    public MetricDatapoints deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        JsonToken token = p.getCurrentToken();
+        if (token == JsonToken.START_OBJECT) {
+            token = p.nextToken();
+
+        } else if (token != JsonToken.FIELD_NAME && token != JsonToken.END_OBJECT) {
+            return (MetricDatapoints)ctxt.handleUnexpectedToken(MetricDatapoints.class, p);
+        }
+
+        long[] times = new long[INITIAL_CAPACITY];
+        double[] values = new double[INITIAL_CAPACITY];
+        int size = 0;
+
+        for (; token == JsonToken.FIELD_NAME; token = p.nextToken()) {
+            // grow arrays, if required
+            if (size == times.length) {
+                times = Arrays.copyOf(times, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+
+            try {
+                times[size] = parseTime(p.getTextCharacters(), p.getTextOffset(), p.getTextLength());
+                JsonToken valueToken = p.nextToken();
+                if (valueToken == JsonToken.VALUE_STRING) {
+                    values[size] = parseValue(p.getTextCharacters(), p.getTextOffset(), p.getTextLength());
+
+                } else if (valueToken.isNumeric()) {
+                    values[size] = p.getDoubleValue();
+
+                } else {
+                    // skip nulls and any unexpected structures
+                    p.skipChildren();
+                    continue;
+                }
+                size++;
+
+            } catch (DateTimeParseException | NumberFormatException e) {
+                logger.warn("Skipping invalid datapoint: {}", e.getMessage());
+
+                // skip the value, if the time could not be parsed
+                if (p.getCurrentToken() == JsonToken.FIELD_NAME) {
+                    p.nextToken();
+                    p.skipChildren();
+                }
+            }
+        }
+
+        return MetricDatapoints.of(times, values, size);
+    }
+
+    /**
+     * Missing or null datapoints are deserialized as an empty object
+     */
+    @Override
+    public MetricDatapoints getNullValue(DeserializationContext ctxt) {
+        return MetricDatapoints.empty();
+    }
+
+    /**
+     * Parses epoch millis, falling back to {@link com.salesforce.pyplyn.util.FormatUtils#parseUTCTime(String)}
+     *   for any other formats
+     */
+    static long parseTime(char[] buffer, int offset, int length) {
+        int end = offset + length;
+        int i = offset;
+        boolean negative = length > 1 && buffer[i] == '-';
+        if (negative) {
+            i++;
+        }
+
+        // the maximum value of a long has 19 digits; only parse up to 18, to avoid overflows
+        if (length > 0 && end - i <= 18) {
+            long result = 0;
+            for (; i < end; i++) {
+                char c = buffer[i];
+                if (c < '0' || c > '9') {
+                    break;
+                }
+                result = result * 10 + (c - '0');
+            }
+
+            if (i == end) {
+                return negative ? -result : result;
+            }
+        }
+
+        return parseUTCTime(new String(buffer, offset, length)).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Parses decimals of up to {@link #MAX_EXACT_DIGITS} digits, without creating a string; the result is exact,
+     *   since both the digits and the power of ten are exactly representable as doubles, and a single division
+     *   is correctly rounded.
+     * <p/>
+     * <p/>Falls back to {@link Double#parseDouble(String)} for any other formats (i.e.: exponents, NaN, or longer numbers).
+     */
+    static double parseValue(char[] buffer, int offset, int length) {
+        int end = offset + length;
+        int i = offset;
+        boolean negative = length > 1 && buffer[i] == '-';
+        if (negative) {
+            i++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = -1;
+        boolean plainDecimal = i < end;
+        for (; i < end && plainDecimal; i++) {
+            char c = buffer[i];
+            if (c >= '0' && c <= '9') {
+                mantissa = mantissa * 10 + (c - '0');
+                digits++;
+                if (fractionDigits >= 0) {
+                    fractionDigits++;
+                }
+
+            } else if (c == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+
+            } else {
+                plainDecimal = false;
+            }
+        }
+
+        if (plainDecimal && digits > 0 && digits <= MAX_EXACT_DIGITS) {
+            double result = fractionDigits > 0 ? mantissa / POWERS_OF_TEN[fractionDigits] : mantissa;
+            return negative ? -result : result;
+        }
+
+        return Double.parseDouble(new String(buffer, offset, length));
+    }
+}
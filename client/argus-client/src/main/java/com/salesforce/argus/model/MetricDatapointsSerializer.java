@@ -0,0 +1,46 @@
+/*
+ *  Copyright (c) 2016-2017, Salesforce.com, Inc.
+ *  All rights reserved.
+ *  Licensed under the BSD 3-Clause license.
+ *  For full license text, see the LICENSE.txt file in repo root
+ *    or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.argus.model;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+/**
+ * Serializes {@link MetricDatapoints} in the same format returned by Argus: an object of time (epoch millis) to value,
+ *   both formatted as strings; values are normalized, as described in {@link MetricDatapoints}
+ *
+ * @author Mihai Bojin &lt;mbojin@salesforce.com&gt;
+ * @since 10.0.0
+ */
+public class MetricDatapointsSerializer extends StdSerializer<MetricDatapoints> {
+    private static final long serialVersionUID = -1520738297410947735L;
+
+
+    public MetricDatapointsSerializer() {
+        super(MetricDatapoints.class);
+    }
+
+    @Override
+    public void serialize(MetricDatapoints value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject();
+        for (int i = 0; i < value.size(); i++) {
+            gen.writeFieldName(MetricDatapoints.formatKey(value.timeMillis(i)));
+            gen.writeString(MetricDatapoints.formatValue(value.value(i)));
+        }
+        gen.writeEndObject();
+    }
+
+    @Override
+    public boolean isEmpty(SerializerProvider provider, MetricDatapoints value) {
+        return value.isEmpty();
+    }
+}
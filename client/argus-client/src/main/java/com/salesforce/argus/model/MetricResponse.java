@@ -21,7 +21,6 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
-import com.google.common.collect.Iterables;
 import com.salesforce.pyplyn.annotations.PyplynImmutableStyle;
 import com.salesforce.pyplyn.cache.Cacheable;
 
@@ -54,8 +53,37 @@ public abstract class MetricResponse implements Cacheable {
     @Nullable
     public abstract String units();
 
-    @Value.NaturalOrder
-    public abstract SortedMap<String, String> datapoints();
+    /**
+     * @return the datapoints returned by Argus; these can be read as a {@link SortedMap} of time (epoch millis) to value,
+     *         or directly as primitives, using {@link MetricDatapoints#timeMillis(int)} and {@link MetricDatapoints#value(int)}
+     */
+    @Value.Default
+    public MetricDatapoints datapoints() {
+        return MetricDatapoints.empty();
+    }
+
+    /**
+     * @return a builder for {@link MetricResponse} objects
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Builds {@link MetricResponse} objects; also accepts datapoints as a map of time to value
+     */
+    public static class Builder extends ImmutableMetricResponse.Builder {
+        /**
+         * Sets the datapoints from a map of time (epoch millis or ISO-8601 date) to value
+         *
+         * @throws java.time.format.DateTimeParseException if any of the times cannot be parsed
+         * @throws NumberFormatException if any of the values cannot be parsed
+         * @see MetricDatapoints#from(Map)
+         */
+        public final Builder datapoints(Map<String, ? extends String> datapoints) {
+            return datapoints(MetricDatapoints.from(datapoints));
+        }
+    }
 
     @Override
     @Value.Derived
@@ -64,6 +92,14 @@ public abstract class MetricResponse implements Cacheable {
         return metric();
     }
 
+    /**
+     * Responses are weighed by the number of datapoints they hold, since these make up most of their size
+     */
+    @Override
+    public int cacheWeight() {
+        return Math.max(1, datapoints().size());
+    }
+
     /**
      * Generates a "name"=value string; the total number of retrieved datapoints will be printed
      * <p/>  if a datapoint map is defined, and it is not empty, the last value will also be printed
@@ -73,8 +109,9 @@ public abstract class MetricResponse implements Cacheable {
         StringBuilder sb = new StringBuilder().append('"').append(metric()).append('"');
 
         // print information about the datapoints (if data is available)
-        if (!datapoints().isEmpty()) {
-            String lastValue = Iterables.getLast(datapoints().values());
+        final MetricDatapoints datapoints = datapoints();
+        if (!datapoints.isEmpty()) {
+            String lastValue = MetricDatapoints.formatValue(datapoints.value(datapoints.size() - 1));
             sb.append('=').append(lastValue);
         }
 
@@ -32,6 +32,7 @@ import okhttp3.MediaType;
 import okhttp3.Request;
 import okhttp3.ResponseBody;
 import retrofit2.Call;
+import retrofit2.Callback;
 import retrofit2.Response;
 
 /**
@@ -297,6 +298,30 @@ public class ArgusClientTest {
         assertThat(expectedMetric.datapoints().entrySet(), empty());
         assertThat(expectedMetric.metric(), is("metric"));
     }
+
+    @Test
+    public void getMetricsAsync() throws Exception {
+        // ARRANGE
+        MetricResponse expectedMetric = ImmutableMetricResponse.builder().metric("metric").build();
+        Response<List<MetricResponse>> response = Response.success(Collections.singletonList(expectedMetric));
+
+        @SuppressWarnings("unchecked")
+        Call<List<MetricResponse>> responseCall = mock(Call.class);
+        doAnswer(invocation -> {
+            Callback<List<MetricResponse>> callback = invocation.getArgument(0);
+            callback.onResponse(responseCall, response);
+            return null;
+        }).when(responseCall).enqueue(any());
+        doReturn(request).when(responseCall).request();
+        doReturn(responseCall).when(svc).getMetrics(any(), any());
+
+        // ACT
+        List<MetricResponse> getMetrics = argus.getMetricsAsync(Collections.singletonList("metric")).get();
+
+        // ASSERT
+        assertThat(getMetrics, contains(expectedMetric));
+        verify(responseCall, times(0)).execute();
+    }
     
     @Test
     public void createAlert() throws Exception {
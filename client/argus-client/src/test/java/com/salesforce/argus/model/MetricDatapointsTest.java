@@ -0,0 +1,150 @@
+/*
+ *  Copyright (c) 2016-2017, Salesforce.com, Inc.
+ *  All rights reserved.
+ *  Licensed under the BSD 3-Clause license.
+ *  For full license text, see the LICENSE.txt file in repo root
+ *    or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.argus.model;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.testng.annotations.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Test class
+ *
+ * @author Mihai Bojin &lt;mbojin@salesforce.com&gt;
+ * @since 10.0.0
+ */
+public class MetricDatapointsTest {
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    public void testDatapointsAreDecodedAsPrimitives() throws Exception {
+        // ARRANGE
+        String json = "{\"metric\":\"metric\",\"datapoints\":{\"1500000000000\":\"1.5\",\"1500000060000\":\"-2\",\"1500000120000\":\"3.25E2\"}}";
+
+        // ACT
+        MetricResponse response = mapper.readValue(json, MetricResponse.class);
+        MetricDatapoints datapoints = response.datapoints();
+
+        // ASSERT
+        assertThat(datapoints.size(), equalTo(3));
+        assertThat(datapoints.timeMillis(0), equalTo(1500000000000L));
+        assertThat(datapoints.value(0), equalTo(1.5d));
+        assertThat(datapoints.value(1), equalTo(-2d));
+        assertThat(datapoints.value(2), equalTo(325d));
+    }
+
+    @Test
+    public void testDatapointsAreSortedAndDeduplicated() throws Exception {
+        // ARRANGE
+        String json = "{\"metric\":\"metric\",\"datapoints\":{\"3000\":\"3\",\"1000\":\"1\",\"2000\":\"2\",\"1000\":\"4\"}}";
+
+        // ACT
+        MetricDatapoints datapoints = mapper.readValue(json, MetricResponse.class).datapoints();
+
+        // ASSERT
+        assertThat(datapoints.size(), equalTo(3));
+        assertThat(datapoints.keySet(), contains("1000", "2000", "3000"));
+        assertThat("Expecting the last value of a duplicated time to be kept", datapoints.get("1000"), equalTo("4"));
+    }
+
+    @Test
+    public void testInvalidDatapointsAreSkipped() throws Exception {
+        // ARRANGE
+        String json = "{\"metric\":\"metric\",\"datapoints\":{\"invalid\":\"1\",\"1000\":\"not-a-number\",\"2000\":null,\"3000\":\"3\"}}";
+
+        // ACT
+        MetricDatapoints datapoints = mapper.readValue(json, MetricResponse.class).datapoints();
+
+        // ASSERT
+        assertThat(datapoints.size(), equalTo(1));
+        assertThat(datapoints.timeMillis(0), equalTo(3000L));
+    }
+
+    @Test
+    public void testMissingOrNullDatapointsAreEmpty() throws Exception {
+        // ACT
+        MetricResponse missing = mapper.readValue("{\"metric\":\"metric\"}", MetricResponse.class);
+        MetricResponse nullDatapoints = mapper.readValue("{\"metric\":\"metric\",\"datapoints\":null}", MetricResponse.class);
+
+        // ASSERT
+        assertThat(missing.datapoints().isEmpty(), is(true));
+        assertThat(nullDatapoints.datapoints().isEmpty(), is(true));
+    }
+
+    @Test
+    public void testSerializationRoundTrip() throws Exception {
+        // ARRANGE
+        String json = "{\"metric\":\"metric\",\"datapoints\":{\"1000\":\"1.5\",\"2000\":\"2.5\"}}";
+        MetricResponse response = mapper.readValue(json, MetricResponse.class);
+
+        // ACT
+        MetricResponse result = mapper.readValue(mapper.writeValueAsString(response), MetricResponse.class);
+
+        // ASSERT
+        assertThat(result, equalTo(response));
+        assertThat(result.datapoints().entrySet(), equalTo(response.datapoints().entrySet()));
+    }
+
+    @Test
+    public void testSortedMapView() throws Exception {
+        // ARRANGE
+        MetricDatapoints datapoints = MetricDatapoints.of(new long[]{1000L, 2000L, 3000L}, new double[]{1, 2, 3}, 3);
+
+        // ACT/ASSERT
+        assertThat(datapoints.firstKey(), equalTo("1000"));
+        assertThat(datapoints.lastKey(), equalTo("3000"));
+        assertThat(datapoints.get("2000"), equalTo("2"));
+        assertThat(datapoints.get("2500"), nullValue());
+        assertThat(datapoints.headMap("2000").keySet(), contains("1000"));
+        assertThat(datapoints.tailMap("2000").keySet(), contains("2000", "3000"));
+        assertThat(datapoints.subMap("1500", "3000").keySet(), contains("2000"));
+    }
+
+    @Test
+    public void testValuesAreFormattedAsPlainDecimals() throws Exception {
+        // ARRANGE
+        Map<String, String> map = new LinkedHashMap<>();
+        map.put("1000", "1");
+        map.put("2000", "10000000");
+        map.put("3000", "1.5");
+        map.put("4000", "0.00001");
+        map.put("5000", "-2.50");
+        map.put("6000", "1.0");
+
+        // ACT
+        MetricDatapoints datapoints = MetricDatapoints.from(map);
+
+        // ASSERT
+        assertThat(datapoints.values(), contains("1", "10000000", "1.5", "0.00001", "-2.5", "1"));
+    }
+
+    @Test
+    public void testFastValueParsingMatchesDoubleParsing() throws Exception {
+        // ARRANGE
+        Random random = new Random(42);
+
+        for (int i = 0; i < 100_000; i++) {
+            String value = String.format("%d.%0" + (1 + random.nextInt(8)) + "d",
+                    random.nextInt(1_000_000) - 500_000, random.nextInt(10_000_000));
+            char[] chars = value.toCharArray();
+
+            // ACT
+            double parsed = MetricDatapointsDeserializer.parseValue(chars, 0, chars.length);
+
+            // ASSERT
+            assertThat(value, parsed, equalTo(Double.parseDouble(value)));
+        }
+    }
+}
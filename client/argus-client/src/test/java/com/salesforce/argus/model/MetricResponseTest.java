@@ -54,8 +54,8 @@ public class MetricResponseTest {
 
         // ASSERT
         assertThat(stringResponse, containsString("metric"));
-        assertThat(stringResponse, containsString("3.0"));
-        assertThat(stringResponse, not(containsString("2.0")));
-        assertThat(stringResponse, not(containsString("1.0")));
+        assertThat(stringResponse, containsString("=3 "));
+        assertThat(stringResponse, not(containsString("=2")));
+        assertThat(stringResponse, not(containsString("=1")));
     }
 }
\ No newline at end of file
@@ -14,7 +14,9 @@ import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import com.google.common.base.Preconditions;
 import com.salesforce.pyplyn.client.AbstractRemoteClient;
@@ -135,6 +137,19 @@ public class RefocusClient extends AbstractRemoteClient<RefocusService> {
         return executeAndRetrieveBody(svc().getSample(authorizationHeader(), name), emptyList());
     }
 
+    /**
+     * Retrieves samples by name from the remote endpoint, without blocking the calling thread
+     *
+     * @param name Name of sample; can include wildcards, i.e.: Subject.Path.*|ASPECT_NAME
+     * @throws IllegalArgumentException if a null name was passed
+     * @return a future holding the samples, or an empty list if not found; the future is completed
+     *         exceptionally with {@link UnauthorizedException} if the endpoint could not be authenticated
+     */
+    public CompletableFuture<List<Sample>> getSamplesAsync(String name) {
+        Preconditions.checkNotNull(name, "Name should not be null");
+        return executeAsync(() -> svc().getSample(authorizationHeader(), name), emptyList());
+    }
+
 
     /**
      * Upsert a list of samples
@@ -147,6 +162,19 @@ public class RefocusClient extends AbstractRemoteClient<RefocusService> {
         return nonNull(executeAndRetrieveBody(svc().upsertSamplesBulk(authorizationHeader(), samples), null));
     }
 
+    /**
+     * Upsert a list of samples, without blocking the calling thread
+     *
+     * @throws IllegalArgumentException if null samples were passed
+     * @return a future holding true if the operation succeeded; the future is completed
+     *         exceptionally with {@link UnauthorizedException} if the endpoint could not be authenticated
+     */
+    public CompletableFuture<Boolean> upsertSamplesBulkAsync(List<Sample> samples) {
+        Preconditions.checkNotNull(samples, "Samples should not be null");
+        return executeAsync(() -> svc().upsertSamplesBulk(authorizationHeader(), samples), null)
+                .thenApply(Objects::nonNull);
+    }
+
 
     /**
      * Delete sample from endpoint
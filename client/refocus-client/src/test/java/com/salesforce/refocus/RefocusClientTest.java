@@ -34,6 +34,7 @@ import okhttp3.MediaType;
 import okhttp3.Request;
 import okhttp3.ResponseBody;
 import retrofit2.Call;
+import retrofit2.Callback;
 import retrofit2.Response;
 
 /**
@@ -362,6 +363,45 @@ public class RefocusClientTest {
         // ASSERT
         assertThat(result, is(true));
     }
+
+    @Test
+    public void getSamplesAsync() throws Exception {
+        // ARRANGE
+        Response<List<Sample>> response = Response.success(Collections.singletonList(sample));
+
+        @SuppressWarnings("unchecked")
+        Call<List<Sample>> responseCall = mock(Call.class);
+        respondAsync(responseCall, response);
+        doReturn(request).when(responseCall).request();
+        doReturn(responseCall).when(svc).getSample(any(), anyString());
+
+        // ACT
+        List<Sample> results = refocus.getSamplesAsync("name").get();
+
+        // ASSERT
+        assertThat(results, hasSize(1));
+        assertThat(results.get(0).name(), is("name"));
+        verify(responseCall, times(0)).execute();
+    }
+
+    @Test
+    public void upsertSamplesBulkAsync() throws Exception {
+        // ARRANGE
+        Response<ResponseBody> response = Response.success(ResponseBody.create(MediaType.parse("application/json"), "{}"));
+
+        @SuppressWarnings("unchecked")
+        Call<ResponseBody> responseCall = mock(Call.class);
+        respondAsync(responseCall, response);
+        doReturn(request).when(responseCall).request();
+        doReturn(responseCall).when(svc).upsertSamplesBulk(any(), any());
+
+        // ACT
+        boolean result = refocus.upsertSamplesBulkAsync(Collections.singletonList(sample)).get();
+
+        // ASSERT
+        assertThat(result, is(true));
+        verify(responseCall, times(0)).execute();
+    }
     
     @Test
     public void deleteSample() throws Exception {
@@ -697,4 +737,15 @@ public class RefocusClientTest {
     	// ASSERT
     	assertThat(result.name(), is("name"));
     }
-}
\ No newline at end of file
+
+    /**
+     * Completes any enqueued <b>call</b> with the specified <b>response</b>, on the calling thread
+     */
+    private static <T> void respondAsync(Call<T> call, Response<T> response) {
+        doAnswer(invocation -> {
+            Callback<T> callback = invocation.getArgument(0);
+            callback.onResponse(call, response);
+            return null;
+        }).when(call).enqueue(any());
+    }
+}
@@ -9,10 +9,13 @@
 package com.salesforce.pyplyn.duct.app;
 
 import static com.salesforce.pyplyn.duct.appconfig.AppConfigFileLoader.loadFromCLI;
+import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
 
+import java.io.IOException;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -20,11 +23,13 @@ import java.util.concurrent.TimeUnit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.inject.Key;
 import com.salesforce.pyplyn.configuration.Configuration;
 import com.salesforce.pyplyn.duct.appconfig.AppConfig;
 import com.salesforce.pyplyn.duct.appconfig.ConfigParseException;
 import com.salesforce.pyplyn.duct.etl.configuration.ConfigurationUpdateManager;
+import com.salesforce.pyplyn.duct.etl.configuration.ConfigurationWatcher;
 import com.salesforce.pyplyn.duct.etl.configuration.TaskManager;
 import com.salesforce.pyplyn.status.SystemStatus;
 
@@ -102,7 +107,7 @@ public final class DuctMain {
                 if (appConfig.global().runOnce()) {
                     runOnceMode(executor, configurationManager, taskManager, shutdownHook);
                 } else {
-                    runAsService(executor, appConfig, configurationManager, systemStatus);
+                    runAsService(executor, appConfig, configurationManager, systemStatus, shutdownHook);
                 }
 
                 // await termination and shutdown executor
@@ -141,14 +146,51 @@ public final class DuctMain {
     /**
      * Runs the program as a service
      */
-    private static void runAsService(ScheduledExecutorService EXECUTOR, AppConfig appConfig, ConfigurationUpdateManager configurationManager, SystemStatus systemStatus) {
+    private static void runAsService(ScheduledExecutorService EXECUTOR, AppConfig appConfig, ConfigurationUpdateManager configurationManager, SystemStatus systemStatus, ShutdownHook shutdownHook) {
         // schedule service and execute immediately with initialDelay=0
         EXECUTOR.scheduleAtFixedRate(configurationManager, 0, appConfig.global().updateConfigurationIntervalMillis(), TimeUnit.MILLISECONDS);
 
+        // reload configurations as soon as they change on disk; the scheduled update acts as a safety net
+        watchConfigurations(appConfig.global().configurationsPath(), configurationManager, shutdownHook);
+
         // schedule the system status task (if enabled)
         if (nonNull(appConfig.alert()) && appConfig.alert().isEnabled()) {
             Long interval = appConfig.alert().checkIntervalMillis();
             EXECUTOR.scheduleAtFixedRate(systemStatus, interval, interval, TimeUnit.MILLISECONDS);
         }
     }
+
+    /**
+     * Watches the configurations directory and triggers an update whenever configuration files change
+     */
+    private static void watchConfigurations(String configurationsPath, ConfigurationUpdateManager configurationManager, ShutdownHook shutdownHook) {
+        if (isNull(configurationsPath)) {
+            return;
+        }
+
+        try {
+            final ConfigurationWatcher watcher = new ConfigurationWatcher(configurationsPath, configurationManager);
+            final ExecutorService watcherExecutor = Executors.newSingleThreadExecutor(
+                    new ThreadFactoryBuilder().setNameFormat("ConfigurationWatcher-%s").setDaemon(true).build());
+
+            shutdownHook.registerOperation(() -> closeWatcher(watcher));
+            shutdownHook.registerExecutor(watcherExecutor);
+            watcherExecutor.execute(watcher);
+
+        } catch (IOException | UnsupportedOperationException e) {
+            logger.warn("Cannot watch {} for changes; configurations will only be reloaded periodically", configurationsPath, e);
+        }
+    }
+
+    /**
+     * Stops watching for configuration changes
+     */
+    private static void closeWatcher(ConfigurationWatcher watcher) {
+        try {
+            watcher.close();
+
+        } catch (IOException e) {
+            logger.warn("Could not close configuration watcher", e);
+        }
+    }
 }
@@ -49,6 +49,12 @@ public abstract class AppConfig {
     @Nullable
     public abstract Hazelcast hazelcast();
 
+    @Nullable
+    public abstract Cache cache();
+
+    @Nullable
+    public abstract Sharding sharding();
+
 
     @Value.Immutable
     @PyplynImmutableStyle
@@ -66,6 +72,85 @@ public abstract class AppConfig {
             return 100;
         }
 
+        /**
+         * How long to wait for other tasks to request data from the same endpoint,
+         *   before executing a single, coalesced extract call; only applies while another call to the endpoint
+         *   is in progress
+         */
+        @Value.Default
+        public long extractCoalesceWindowMillis() {
+            return 100L;
+        }
+
+        /**
+         * Maximum number of requests a single task can run in parallel, when extracting data from Refocus
+         */
+        @Value.Default
+        public int extractMaxParallelLookups() {
+            return 8;
+        }
+
+        /**
+         * How long to wait for other tasks to post samples to the same Refocus endpoint,
+         *   before executing a single, aggregated upsert call; only applies while another upsert to the endpoint
+         *   is in progress
+         */
+        @Value.Default
+        public long loadAggregateWindowMillis() {
+            return 100L;
+        }
+
+        /**
+         * Maximum number of samples to aggregate before upserting them without waiting for the window to close;
+         *   0 disables the limit
+         */
+        @Value.Default
+        public int loadAggregateMaxSamples() {
+            return 1000;
+        }
+
+        /**
+         * Maximum number of samples sent in a single Refocus bulk upsert; larger batches are split into chunks,
+         *   which are upserted in parallel. 0 disables the limit
+         */
+        @Value.Default
+        public int loadChunkMaxSamples() {
+            return 500;
+        }
+
+        /**
+         * Maximum (estimated) size of a single Refocus bulk upsert payload, in bytes. 0 disables the limit
+         */
+        @Value.Default
+        public long loadChunkMaxBytes() {
+            return 512 * 1024L;
+        }
+
+        /**
+         * How many times to retry upserting a chunk of samples that failed
+         */
+        @Value.Default
+        public int loadChunkRetries() {
+            return 1;
+        }
+
+        /**
+         * How long to wait before retrying a chunk of samples that failed; doubles with each subsequent retry
+         */
+        @Value.Default
+        public long loadChunkRetryBackoffMillis() {
+            return 250L;
+        }
+
+        /**
+         * How often to upsert Refocus samples which did not change since they were last upserted;
+         *   should be lower than the timeout of their aspects. 0 disables suppression, upserting all samples.
+         */
+        @Value.Default
+        public long loadDeltaRefreshMillis() {
+            return 0L;
+        }
+
         /**
          * This parameter will be removed in future versions
          *
@@ -96,6 +181,108 @@ public abstract class AppConfig {
         }
 
         public abstract String config();
+
+        /**
+         * If true, tasks are assigned to cluster members based on their cost (the average duration of their runs),
+         *   balancing the total cost of each member, instead of being run by the member which owns their configuration
+         */
+        @Value.Default
+        public boolean balanceByCost() {
+            return false;
+        }
+
+        /**
+         * Acceptable difference between the most and least loaded members, relative to the average load,
+         *   when balancing tasks by cost; higher values cause fewer tasks to be moved
+         */
+        @Value.Default
+        public double balanceTolerance() {
+            return 0.2d;
+        }
+
+        /**
+         * If true, configurations are stored in the cluster's maps as Smile (binary JSON), instead of using
+         *   Java serialization; all members of the cluster must use the same setting
+         */
+        @Value.Default
+        public boolean binarySerialization() {
+            return false;
+        }
+    }
+
+    /**
+     * Splits configurations between multiple stateless nodes, without requiring a Hazelcast cluster;
+     *   each node only runs the configurations whose fingerprints hash into its shard
+     * <p/>
+     * <p/>The number of shards is read from {@link #countFile()} on each configuration update, if specified,
+     *   or from {@link #count()} otherwise. Only applies if Hazelcast is not enabled.
+     */
+    @Value.Immutable
+    @PyplynImmutableStyle
+    @JsonDeserialize(as = ImmutableAppConfig.Sharding.class)
+    @JsonSerialize(as = ImmutableAppConfig.Sharding.class)
+    public static abstract class Sharding {
+        /**
+         * Index of the shard handled by this node, between 0 and the number of shards - 1
+         */
+        public abstract int index();
+
+        /**
+         * Total number of shards
+         */
+        @Value.Default
+        public int count() {
+            return 1;
+        }
+
+        /**
+         * Path to a file holding the total number of shards, allowing it to be changed without restarting the nodes
+         */
+        @Nullable
+        public abstract String countFile();
+    }
+
+    /**
+     * Bounds the caches used by extract processors; if not specified, caches are unbounded
+     *   and their entries are only removed when they expire and are read again
+     * <p/>
+     * <p/>When running in cluster mode, caches can also be shared between all nodes (see {@link #distributed()}).
+     */
+    @Value.Immutable
+    @PyplynImmutableStyle
+    @JsonDeserialize(as = ImmutableAppConfig.Cache.class)
+    @JsonSerialize(as = ImmutableAppConfig.Cache.class)
+    public static abstract class Cache {
+        /**
+         * Total weight of the objects that can be held by each endpoint's cache;
+         *   Argus responses weigh as much as the number of datapoints they contain
+         */
+        public abstract long maximumWeight();
+
+        /**
+         * How often to remove expired entries
+         */
+        @Value.Default
+        public long sweepIntervalMillis() {
+            return 60_000L;
+        }
+
+        /**
+         * If true and running in cluster mode, cached objects are shared with all nodes, through Hazelcast
+         */
+        @Value.Default
+        public boolean distributed() {
+            return false;
+        }
+
+        /**
+         * How long objects retrieved from the distributed cache are kept on the local node,
+         *   before being read from the cluster again
+         */
+        @Value.Default
+        public long nearCacheMillis() {
+            return 10_000L;
+        }
     }
 
     @Value.Immutable
@@ -14,13 +14,16 @@ import static java.util.Objects.nonNull;
 
 import java.io.FileNotFoundException;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import com.hazelcast.config.Config;
+import com.hazelcast.config.SerializerConfig;
 import com.hazelcast.config.XmlConfigBuilder;
 import com.hazelcast.core.*;
 import com.hazelcast.util.Preconditions;
+import com.salesforce.pyplyn.configuration.Configuration;
 import com.salesforce.pyplyn.duct.app.ShutdownHook;
 import com.salesforce.pyplyn.duct.appconfig.AppConfig;
 
@@ -35,6 +38,7 @@ import com.salesforce.pyplyn.duct.appconfig.AppConfig;
 public class Cluster {
     private final AppConfig.Hazelcast hazelcastConfig;
     private final ShutdownHook shutdownHook;
+    private final ConfigurationSerializer configurationSerializer;
     private HazelcastInstance hazelcast;
     private boolean clusterEnabled = false;
 
@@ -42,9 +46,10 @@ public class Cluster {
      * Default constructor
      */
     @Inject
-    public Cluster(AppConfig appConfig, ShutdownHook shutdownHook) {
+    public Cluster(AppConfig appConfig, ShutdownHook shutdownHook, ConfigurationSerializer configurationSerializer) {
         this.hazelcastConfig = appConfig.hazelcast();
         this.shutdownHook = shutdownHook;
+        this.configurationSerializer = configurationSerializer;
     }
 
     /**
@@ -88,6 +93,40 @@ public class Cluster {
         return hazelcast.getMap(name);
     }
 
+    /**
+     * @return the id of the partition which holds the specified key
+     */
+    public int partitionId(Object key) {
+        guardAgainstInitializationFailures();
+        return hazelcast.getPartitionService().getPartition(key).getPartitionId();
+    }
+
+    /**
+     * @return true if the specified partition is currently owned by the local member;
+     *   false if it is owned by another member, or if it does not have an owner (i.e.: while it is migrating)
+     */
+    public boolean isLocalPartition(int partitionId) {
+        guardAgainstInitializationFailures();
+        Member owner = hazelcast.getPartitionService().getPartition(partitionId).getOwner();
+        return nonNull(owner) && owner.localMember();
+    }
+
+    /**
+     * @return the unique identifier of the local member
+     */
+    public String localMemberId() {
+        guardAgainstInitializationFailures();
+        return hazelcast.getCluster().getLocalMember().getUuid();
+    }
+
+    /**
+     * @return the unique identifiers of all cluster members
+     */
+    public Set<String> memberIds() {
+        guardAgainstInitializationFailures();
+        return hazelcast.getCluster().getMembers().stream().map(Member::getUuid).collect(Collectors.toSet());
+    }
+
     /**
      * Returns true if the code is executed on the master (oldest member of the cluster)
      *   if Hazelcast is not running, returns true, as the only existing node is a master node
@@ -123,6 +162,14 @@ public class Cluster {
      */
     HazelcastInstance initHazelcast() throws FileNotFoundException {
         Config clusterConfig = new XmlConfigBuilder(loadResourceInsecure(hazelcastConfig.config())).build();
+
+        // store configurations as Smile, instead of using Java serialization
+        if (hazelcastConfig.binarySerialization()) {
+            clusterConfig.getSerializationConfig().addSerializerConfig(new SerializerConfig()
+                    .setTypeClass(Configuration.class)
+                    .setImplementation(configurationSerializer));
+        }
+
         return Hazelcast.newHazelcastInstance(clusterConfig);
     }
 }
@@ -21,8 +21,9 @@ public class ClusterModule extends AbstractModule {
 
     @Provides
     @Singleton
-    Cluster getCluster(AppConfig appConfig, ShutdownHook shutdownHook) throws FileNotFoundException {
-        Cluster cluster = new Cluster(appConfig, shutdownHook);
+    Cluster getCluster(AppConfig appConfig, ShutdownHook shutdownHook, ConfigurationSerializer configurationSerializer)
+            throws FileNotFoundException {
+        Cluster cluster = new Cluster(appConfig, shutdownHook, configurationSerializer);
         cluster.initialize();
         return cluster;
     }
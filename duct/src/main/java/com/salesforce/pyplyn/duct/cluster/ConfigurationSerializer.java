@@ -0,0 +1,76 @@
+/*
+ *  Copyright (c) 2016-2017, Salesforce.com, Inc.
+ *  All rights reserved.
+ *  Licensed under the BSD 3-Clause license.
+ *  For full license text, see the LICENSE.txt file in repo root
+ *    or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.pyplyn.duct.cluster;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.StreamSerializer;
+import com.salesforce.pyplyn.configuration.Configuration;
+
+/**
+ * Serializes {@link Configuration}s stored in Hazelcast maps as Smile (binary JSON), instead of relying
+ *   on Java serialization
+ * <p/>
+ * <p/>Uses the same {@link ObjectMapper} that deserializes configurations from JSON, so that all registered
+ *   {@link com.salesforce.pyplyn.model.Extract}, {@link com.salesforce.pyplyn.model.Transform} and
+ *   {@link com.salesforce.pyplyn.model.Load} subtypes are resolved by their type names, rather than by class.
+ * <p/>
+ * <p/>Only registered if {@link com.salesforce.pyplyn.duct.appconfig.AppConfig.Hazelcast#binarySerialization()}
+ *   is set; all cluster members must use the same setting.
+ *
+ * @author Mihai Bojin &lt;mbojin@salesforce.com&gt;
+ * @since 10.0.0
+ */
+@Singleton
+public class ConfigurationSerializer implements StreamSerializer<Configuration> {
+    /**
+     * Hazelcast type id; must be positive and unique among all custom serializers
+     */
+    static final int TYPE_ID = 1001;
+
+    private final ObjectWriter writer;
+    private final ObjectReader reader;
+
+
+    @Inject
+    public ConfigurationSerializer(ObjectMapper mapper) {
+        SmileFactory smileFactory = new SmileFactory();
+        this.writer = mapper.writerFor(Configuration.class).without(SerializationFeature.INDENT_OUTPUT).with(smileFactory);
+        this.reader = mapper.readerFor(Configuration.class).with(smileFactory);
+    }
+
+    @Override
+    public void write(ObjectDataOutput out, Configuration configuration) throws IOException {
+        out.writeByteArray(writer.writeValueAsBytes(configuration));
+    }
+
+    @Override
+    public Configuration read(ObjectDataInput in) throws IOException {
+        return reader.readValue(in.readByteArray());
+    }
+
+    @Override
+    public int getTypeId() {
+        return TYPE_ID;
+    }
+
+    @Override
+    public void destroy() {
+        // nothing to do
+    }
+}
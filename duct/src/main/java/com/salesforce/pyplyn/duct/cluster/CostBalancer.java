@@ -0,0 +1,140 @@
+/*
+ *  Copyright (c) 2016-2017, Salesforce.com, Inc.
+ *  All rights reserved.
+ *  Licensed under the BSD 3-Clause license.
+ *  For full license text, see the LICENSE.txt file in repo root
+ *    or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.pyplyn.duct.cluster;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Assigns tasks to cluster members, balancing the total cost of the tasks run by each member
+ * <p/>
+ * <p/>Tasks keep their current member if it is still part of the cluster; unassigned tasks are placed on the least
+ *   loaded member, in decreasing order of their cost. Afterwards, tasks are moved from the most loaded member to
+ *   the least loaded one, until the difference between them is within the specified <b>tolerance</b>
+ *   (relative to the average load), or until no task can be moved without increasing the imbalance.
+ *   This keeps the number of moved (and restarted) tasks low.
+ *
+ * @author Mihai Bojin &lt;mbojin@salesforce.com&gt;
+ * @since 10.0.0
+ */
+public class CostBalancer {
+    private CostBalancer() { }
+
+    /**
+     * Computes the assignment of tasks to members
+     *
+     * @param costs cost of each task, indexed by the task's key; tasks with an unknown cost should be specified
+     *   with an estimated cost
+     * @param members identifiers of the members which can run tasks
+     * @param current current assignment of tasks to members
+     * @param tolerance acceptable difference between the most and least loaded members, relative to the average load
+     * @return the assignment of each task to a member
+     */
+    public static Map<String, String> assign(Map<String, Double> costs, Collection<String> members,
+                                             Map<String, String> current, double tolerance) {
+        Map<String, String> assignment = new HashMap<>();
+        if (members.isEmpty()) {
+            return assignment;
+        }
+
+        // keep the current assignments of tasks whose member is still available
+        Map<String, Load> loads = members.stream().collect(Collectors.toMap(member -> member, Load::new));
+        List<String> unassigned = new ArrayList<>();
+        costs.forEach((task, cost) -> {
+            Load load = loads.get(current.get(task));
+            if (nonNull(load)) {
+                load.add(task, cost);
+                assignment.put(task, load.member);
+
+            } else {
+                unassigned.add(task);
+            }
+        });
+
+        // place the most expensive unassigned tasks first, on the least loaded member
+        unassigned.sort(Comparator.comparing(costs::get).reversed());
+        for (String task : unassigned) {
+            Load load = Collections.min(loads.values());
+            load.add(task, costs.get(task));
+            assignment.put(task, load.member);
+        }
+
+        // move tasks from the most loaded member, to the least loaded one
+        double maxDifference = tolerance * costs.values().stream().mapToDouble(Double::doubleValue).sum() / members.size();
+        for (int moves = 0; moves < costs.size(); moves++) {
+            Load least = Collections.min(loads.values());
+            Load most = Collections.max(loads.values());
+            double difference = most.total - least.total;
+            if (difference <= maxDifference) {
+                break;
+            }
+
+            // moving a task reduces the imbalance if it costs less than the difference; move the largest one
+            String task = most.largestTaskBelow(difference, costs);
+            if (isNull(task)) {
+                break;
+            }
+
+            most.remove(task, costs.get(task));
+            least.add(task, costs.get(task));
+            assignment.put(task, least.member);
+        }
+
+        return assignment;
+    }
+
+    /**
+     * @return the total cost of the tasks assigned to each member
+     */
+    public static Map<String, Double> loads(Map<String, Double> costs, Map<String, String> assignment) {
+        Map<String, Double> loads = new HashMap<>();
+        assignment.forEach((task, member) -> loads.merge(member, costs.getOrDefault(task, 0d), Double::sum));
+        return loads;
+    }
+
+
+    /**
+     * Tasks assigned to a member and their total cost
+     */
+    private static class Load implements Comparable<Load> {
+        private final String member;
+        private final Set<String> tasks = new HashSet<>();
+        private double total;
+
+        Load(String member) {
+            this.member = member;
+        }
+
+        void add(String task, double cost) {
+            tasks.add(task);
+            total += cost;
+        }
+
+        void remove(String task, double cost) {
+            tasks.remove(task);
+            total -= cost;
+        }
+
+        String largestTaskBelow(double limit, Map<String, Double> costs) {
+            return tasks.stream()
+                    .filter(task -> costs.get(task) > 0 && costs.get(task) < limit)
+                    .max(Comparator.comparing(costs::get))
+                    .orElse(null);
+        }
+
+        @Override
+        public int compareTo(Load other) {
+            int byTotal = Double.compare(total, other.total);
+            return byTotal != 0 ? byTotal : member.compareTo(other.member);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ *  Copyright (c) 2016-2017, Salesforce.com, Inc.
+ *  All rights reserved.
+ *  Licensed under the BSD 3-Clause license.
+ *  For full license text, see the LICENSE.txt file in repo root
+ *    or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.pyplyn.duct.cluster;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hazelcast.core.EntryView;
+import com.hazelcast.core.IMap;
+import com.salesforce.pyplyn.cache.Cache;
+import com.salesforce.pyplyn.cache.Cacheable;
+import com.salesforce.pyplyn.status.MeterType;
+import com.salesforce.pyplyn.status.SystemStatus;
+
+/**
+ * Cache shared by all nodes in the cluster, backed by a Hazelcast {@link IMap}
+ * <p/>
+ * <p/>Objects are stored in the map as JSON, for as long as they were cached for, and are also kept in a local
+ *   near cache for at most <b>nearCacheMillis</b>, to avoid retrieving frequently read objects from other nodes.
+ *   Objects found in the distributed map are kept locally for at most the time-to-live they were shared with;
+ *   expiration is left to the map, avoiding comparisons between the clocks of different nodes.
+ * <p/>
+ * <p/>Local hits, remote hits, and misses are reported with the {@link MeterType#CacheLocalHit},
+ *   {@link MeterType#CacheRemoteHit}, and {@link MeterType#CacheMiss} meters.
+ *
+ * @author Mihai Bojin &lt;mbojin@salesforce.com&gt;
+ * @since 10.0.0
+ */
+public class DistributedCache<T extends Cacheable> implements Cache<T> {
+    private static final Logger logger = LoggerFactory.getLogger(DistributedCache.class);
+
+    private final String name;
+    private final IMap<String, byte[]> map;
+    private final Cache<T> nearCache;
+    private final Class<T> type;
+    private final ObjectMapper mapper;
+    private final long nearCacheMillis;
+    private final SystemStatus systemStatus;
+
+
+    /**
+     * Class constructor
+     *
+     * @param name identifies the cache in the reported meters
+     * @param map distributed map which holds the serialized objects
+     * @param nearCache local cache which holds recently read objects
+     * @param type class of the cached objects, used to deserialize them
+     * @param mapper serializes objects to JSON
+     * @param nearCacheMillis maximum duration for which objects are held in the near cache
+     * @param systemStatus reports hits and misses
+     */
+    public DistributedCache(String name, IMap<String, byte[]> map, Cache<T> nearCache, Class<T> type, ObjectMapper mapper,
+                            long nearCacheMillis, SystemStatus systemStatus) {
+        this.name = name;
+        this.map = map;
+        this.nearCache = nearCache;
+        this.type = type;
+        this.mapper = mapper;
+        this.nearCacheMillis = nearCacheMillis;
+        this.systemStatus = systemStatus;
+    }
+
+    /**
+     * Caches the <b>object</b> locally and in the cluster, for <b>millis</b> milliseconds
+     * <p/>
+     * <p/>If the object cannot be serialized, it is only cached locally.
+     */
+    @Override
+    public void cache(T object, long millis) {
+        nearCache.cache(object, Math.min(millis, nearCacheMillis));
+
+        try {
+            // set() does not return the previous value, avoiding its transfer from the owning member
+            map.set(object.cacheKey(), mapper.writeValueAsBytes(object), millis, TimeUnit.MILLISECONDS);
+
+        } catch (IOException e) {
+            logger.warn("Could not share {} with the cluster; due to {}", object.cacheKey(), e.getMessage());
+        }
+    }
+
+    /**
+     * @return the object from the near cache, or from the cluster if not held locally, or null if it is not cached
+     */
+    @Override
+    public T isCached(String key) {
+        T object = nearCache.isCached(key);
+        if (nonNull(object)) {
+            systemStatus.meter(name, MeterType.CacheLocalHit).mark();
+            return object;
+        }
+
+        // retrieve the object, along with its time-to-live; expired entries are not returned by the map
+        EntryView<String, byte[]> entry = map.getEntryView(key);
+        if (isNull(entry)) {
+            systemStatus.meter(name, MeterType.CacheMiss).mark();
+            return null;
+        }
+
+        try {
+            object = mapper.readValue(entry.getValue(), type);
+
+        } catch (IOException e) {
+            logger.warn("Could not read {} from the cluster; due to {}", key, e.getMessage());
+            systemStatus.meter(name, MeterType.CacheMiss).mark();
+            return null;
+        }
+
+        // keep the object locally, but not for longer than it was shared with the cluster
+        long ttlMillis = entry.getTtl();
+        nearCache.cache(object, ttlMillis > 0 ? Math.min(ttlMillis, nearCacheMillis) : nearCacheMillis);
+        systemStatus.meter(name, MeterType.CacheRemoteHit).mark();
+        return object;
+    }
+}
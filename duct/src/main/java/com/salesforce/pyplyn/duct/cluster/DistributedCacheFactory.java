@@ -0,0 +1,64 @@
+/*
+ *  Copyright (c) 2016-2017, Salesforce.com, Inc.
+ *  All rights reserved.
+ *  Licensed under the BSD 3-Clause license.
+ *  For full license text, see the LICENSE.txt file in repo root
+ *    or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.pyplyn.duct.cluster;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.salesforce.pyplyn.cache.Cache;
+import com.salesforce.pyplyn.cache.CacheFactory;
+import com.salesforce.pyplyn.cache.Cacheable;
+import com.salesforce.pyplyn.status.SystemStatus;
+
+/**
+ * Constructs {@link DistributedCache}s when running in cluster mode, allowing extract results
+ *   to be shared between all nodes; near caches, and caches constructed when not running in a cluster,
+ *   are bounded as configured in {@link CacheFactory}
+ *
+ * @author Mihai Bojin &lt;mbojin@salesforce.com&gt;
+ * @since 10.0.0
+ */
+public class DistributedCacheFactory extends CacheFactory {
+    private static final String MAP_PREFIX = "cache.";
+
+    private final Cluster cluster;
+    private final ObjectMapper mapper;
+    private final SystemStatus systemStatus;
+    private final long nearCacheMillis;
+
+
+    /**
+     * Class constructor
+     *
+     * @param maximumWeight the total weight of objects each near cache can hold; if not positive, near caches are unbounded
+     * @param sweepIntervalMillis how often to remove expired entries from near caches
+     * @param nearCacheMillis maximum duration for which objects retrieved from the cluster are held locally
+     */
+    public DistributedCacheFactory(long maximumWeight, long sweepIntervalMillis, long nearCacheMillis,
+                                   Cluster cluster, ObjectMapper mapper, SystemStatus systemStatus) {
+        super(maximumWeight, sweepIntervalMillis, systemStatus);
+        this.nearCacheMillis = nearCacheMillis;
+        this.cluster = cluster;
+        this.mapper = mapper;
+        this.systemStatus = systemStatus;
+    }
+
+    /**
+     * @return a {@link DistributedCache} backed by the map identified by <b>name</b>, if running in cluster mode,
+     *   or a local cache otherwise
+     */
+    @Override
+    public <T extends Cacheable> Cache<T> newCache(String name, Class<T> type) {
+        if (!cluster.isEnabled()) {
+            return super.newCache(name, type);
+        }
+
+        // the near cache does not report meters, since the distributed cache reports its hits and misses
+        return new DistributedCache<>(name, cluster.distributedMap(MAP_PREFIX + name), newCache(), type, mapper,
+                nearCacheMillis, systemStatus);
+    }
+}
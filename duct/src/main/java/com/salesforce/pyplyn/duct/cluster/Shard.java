@@ -0,0 +1,116 @@
+/*
+ *  Copyright (c) 2016-2017, Salesforce.com, Inc.
+ *  All rights reserved.
+ *  Licensed under the BSD 3-Clause license.
+ *  For full license text, see the LICENSE.txt file in repo root
+ *    or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.pyplyn.duct.cluster;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.function.Predicate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.salesforce.pyplyn.configuration.Configuration;
+import com.salesforce.pyplyn.duct.appconfig.AppConfig;
+
+/**
+ * Determines which configurations should run on the local node, when splitting them between a number of
+ *   stateless nodes, as configured in {@link AppConfig#sharding()}
+ * <p/>
+ * <p/>Configurations are assigned to shards by jump consistent hashing their fingerprints; when the number of shards
+ *   changes from N to N+1, only 1/(N+1) of the configurations move, all of them to the new shard.
+ *   No communication between nodes is required.
+ *
+ * @author Mihai Bojin &lt;mbojin@salesforce.com&gt;
+ * @since 10.0.0
+ */
+@Singleton
+public class Shard {
+    private static final Logger logger = LoggerFactory.getLogger(Shard.class);
+    private static final HashFunction HASH = Hashing.murmur3_128();
+
+    private final AppConfig.Sharding sharding;
+    private int lastCount;
+
+
+    @Inject
+    public Shard(AppConfig appConfig) {
+        this.sharding = appConfig.sharding();
+        this.lastCount = nonNull(sharding) ? sharding.count() : 1;
+    }
+
+    /**
+     * @return true if configurations should be split between nodes
+     */
+    public boolean isEnabled() {
+        return nonNull(sharding);
+    }
+
+    /**
+     * Reads the current number of shards and returns a predicate matching the configurations assigned to
+     *   the local shard; matches all configurations, if sharding is not enabled
+     */
+    public Predicate<Configuration> localConfigurations() {
+        if (!isEnabled()) {
+            return configuration -> true;
+        }
+
+        final int count = count();
+        final int index = sharding.index();
+        if (index < 0 || index >= count) {
+            logger.warn("Shard index {} is outside of the configured number of shards ({}); no configurations will run on this node",
+                    index, count);
+        }
+
+        return configuration -> shardOf(configuration.fingerprint(), count) == index;
+    }
+
+    /**
+     * @return the shard that the specified key is assigned to, out of <b>count</b> shards
+     */
+    static int shardOf(String key, int count) {
+        return Hashing.consistentHash(HASH.hashString(key, StandardCharsets.UTF_8), count);
+    }
+
+    /**
+     * Reads the number of shards from the configured file, if specified;
+     *   if the file cannot be read, the last known number of shards is used
+     */
+    synchronized int count() {
+        String countFile = sharding.countFile();
+        if (isNull(countFile)) {
+            return sharding.count();
+        }
+
+        try {
+            int count = Integer.parseInt(new String(Files.readAllBytes(Paths.get(countFile)), StandardCharsets.UTF_8).trim());
+            if (count <= 0) {
+                throw new NumberFormatException("the number of shards must be positive: " + count);
+            }
+
+            if (count != lastCount) {
+                logger.info("Number of shards changed from {} to {}", lastCount, count);
+                lastCount = count;
+            }
+
+        } catch (IOException | NumberFormatException e) {
+            logger.warn("Could not read the number of shards from {}, using {}; due to {}", countFile, lastCount, e.getMessage());
+        }
+
+        return lastCount;
+    }
+}
@@ -8,13 +8,21 @@
 
 package com.salesforce.pyplyn.duct.connector;
 
-import com.google.inject.AbstractModule;
-import com.google.inject.Inject;
+import static java.util.Objects.isNull;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.inject.*;
+import com.salesforce.pyplyn.cache.CacheFactory;
+import com.salesforce.pyplyn.duct.app.ShutdownHook;
 import com.salesforce.pyplyn.duct.appconfig.AppConfig;
+import com.salesforce.pyplyn.duct.cluster.Cluster;
+import com.salesforce.pyplyn.duct.cluster.DistributedCacheFactory;
+import com.salesforce.pyplyn.status.SystemStatus;
 import com.salesforce.pyplyn.util.MultibinderFactory;
 
 /**
- * Defines the {@link AppConnectors} binding and the default file-based connector configuration provider
+ * Defines the {@link AppConnectors} binding, the default file-based connector configuration provider,
+ *   and the {@link CacheFactory} used to construct each connector's cache
  *
  * @author Mihai Bojin &lt;mbojin@salesforce.com&gt;
  * @since 3.0
@@ -32,4 +40,30 @@ public class AppConnectorModule extends AbstractModule {
         //   this allows extenders of this library to define other connectors using Guice modules
         MultibinderFactory.appConnectors(binder()).addBinding().toProvider(SimpleConnectorProvider.class);
     }
+
+    /**
+     * Returns bounded caches, if configured in {@link AppConfig#cache()}, or unbounded caches otherwise;
+     *   caches are shared between all nodes, if configured as {@link AppConfig.Cache#distributed()}
+     */
+    @Provides
+    @Singleton
+    CacheFactory cacheFactory(AppConfig appConfig, ShutdownHook shutdownHook, Provider<Cluster> cluster,
+                              ObjectMapper mapper, SystemStatus systemStatus) {
+        AppConfig.Cache cache = appConfig.cache();
+        if (isNull(cache)) {
+            return new CacheFactory();
+        }
+
+        CacheFactory cacheFactory;
+        if (cache.distributed()) {
+            cacheFactory = new DistributedCacheFactory(cache.maximumWeight(), cache.sweepIntervalMillis(), cache.nearCacheMillis(),
+                    cluster.get(), mapper, systemStatus);
+
+        } else {
+            cacheFactory = new CacheFactory(cache.maximumWeight(), cache.sweepIntervalMillis(), systemStatus);
+        }
+
+        shutdownHook.registerOperation(cacheFactory::shutdown);
+        return cacheFactory;
+    }
 }
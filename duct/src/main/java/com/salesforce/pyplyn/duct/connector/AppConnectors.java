@@ -20,13 +20,14 @@ import java.util.concurrent.ConcurrentHashMap;
 
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
+import com.salesforce.pyplyn.cache.Cache;
 import com.salesforce.pyplyn.cache.CacheFactory;
 import com.salesforce.pyplyn.cache.Cacheable;
-import com.salesforce.pyplyn.cache.ConcurrentCacheMap;
 import com.salesforce.pyplyn.client.RemoteClient;
 import com.salesforce.pyplyn.configuration.Connector;
 import com.salesforce.pyplyn.configuration.EndpointConnector;
 import com.salesforce.pyplyn.duct.app.BootstrapException;
+import com.salesforce.pyplyn.status.SystemStatus;
 
 /**
  * Allows multiple {@link com.google.inject.Guice} modules to specify their own {@link Connector}s and collects
@@ -34,6 +35,8 @@ import com.salesforce.pyplyn.duct.app.BootstrapException;
  * <p/>
  * <p/>This implementation will ensure that no duplicate connectors exist and will throw a {@link BootstrapException} if
  *   duplicates are detected.
+ * <p/>
+ * <p/>Each client is paired with a {@link Bulkhead}, which enforces the connector's concurrency limits.
  *
  * @author Mihai Bojin &lt;mbojin@salesforce.com&gt;
  * @since 3.0
@@ -44,6 +47,7 @@ public class AppConnectors {
     private final Map<String, EndpointConnector> connectors;
     private final Map<String, ClientAndCache<? extends RemoteClient, ? extends Cacheable>> registeredClients;
     private final CacheFactory cacheFactory;
+    private final SystemStatus systemStatus;
 
 
     /**
@@ -52,8 +56,9 @@ public class AppConnectors {
      * @throws BootstrapException if the same connectorId is specified in more than one connector list
      */
     @Inject
-    public AppConnectors(Set<List<EndpointConnector>> allConnectors, CacheFactory cacheFactory) {
+    public AppConnectors(Set<List<EndpointConnector>> allConnectors, CacheFactory cacheFactory, SystemStatus systemStatus) {
         this.cacheFactory = cacheFactory;
+        this.systemStatus = systemStatus;
         this.connectors = new HashMap<>();
 
         // iterate through all passed connectors and add them to our list of known connectors
@@ -78,7 +83,7 @@ public class AppConnectors {
     }
 
     /**
-     * Returns a (client, cache) pair, either by retrieving it from a cache,
+     * Returns a (client, cache, bulkhead) tuple, either by retrieving it from a cache,
      *   or by constructing the required objects on demand
      *
      *   TODO: define an interface for this class in plugin-api
@@ -92,13 +97,17 @@ public class AppConnectors {
             try {
                 // init client
                 Constructor<CLIENT> constructor = clientClass.getConstructor(EndpointConnector.class);
-                CLIENT client = constructor.newInstance(findConnector(key));
+                EndpointConnector connector = findConnector(key);
+                CLIENT client = constructor.newInstance(connector);
 
                 // init cache
-                ConcurrentCacheMap<CACHE> cache = cacheFactory.newCache();
+                Cache<CACHE> cache = cacheFactory.newCache(key + "." + cacheClass.getSimpleName(), cacheClass);
+
+                // init bulkhead
+                Bulkhead bulkhead = Bulkhead.forConnector(connector, systemStatus);
 
                 // return
-                return new ClientAndCache<>(client, cache);
+                return new ClientAndCache<>(client, cache, bulkhead);
 
             } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException | InstantiationException e) {
                 // this signals an implementation error (development error) and as such we can't do anything but stop
@@ -113,23 +122,33 @@ public class AppConnectors {
     }
 
     /**
-     * Used to store a client and its corresponding cache object
+     * Used to store a client, its corresponding cache object, and the bulkhead limiting its requests
      */
     public static class ClientAndCache<CLIENT, CACHE extends Cacheable> {
         final CLIENT client;
-        final ConcurrentCacheMap<CACHE> cache;
+        final Cache<CACHE> cache;
+        final Bulkhead bulkhead;
+
+        public ClientAndCache(CLIENT client, Cache<CACHE> cache) {
+            this(client, cache, Bulkhead.unbounded());
+        }
 
-        public ClientAndCache(CLIENT client, ConcurrentCacheMap<CACHE> cache) {
+        public ClientAndCache(CLIENT client, Cache<CACHE> cache, Bulkhead bulkhead) {
             this.client = client;
             this.cache = cache;
+            this.bulkhead = bulkhead;
         }
 
         public CLIENT client() {
             return client;
         }
 
-        public ConcurrentCacheMap<CACHE> cache() {
+        public Cache<CACHE> cache() {
             return cache;
         }
+
+        public Bulkhead bulkhead() {
+            return bulkhead;
+        }
     }
 }
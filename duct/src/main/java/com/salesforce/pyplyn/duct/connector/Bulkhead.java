@@ -0,0 +1,206 @@
+/*
+ *  Copyright (c) 2016-2017, Salesforce.com, Inc.
+ *  All rights reserved.
+ *  Licensed under the BSD 3-Clause license.
+ *  For full license text, see the LICENSE.txt file in repo root
+ *    or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.pyplyn.duct.connector;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.codahale.metrics.Timer;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.salesforce.pyplyn.client.UnauthorizedException;
+import com.salesforce.pyplyn.configuration.EndpointConnector;
+import com.salesforce.pyplyn.configuration.EndpointConnector.RejectionPolicy;
+import com.salesforce.pyplyn.status.MeterType;
+import com.salesforce.pyplyn.status.SystemStatus;
+
+import io.reactivex.Scheduler;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Limits the number of concurrent requests made to a single endpoint
+ * <p/>
+ * <p/>All endpoints share the same extract and load schedulers; without a limit, a slow endpoint can end up holding
+ *   all their threads and delay the processing of every other endpoint. Each {@link EndpointConnector} is assigned
+ *   its own bulkhead, which allows at most {@link EndpointConnector#maxConcurrentRequests()} requests to run at once;
+ *   up to {@link EndpointConnector#maxQueuedRequests()} callers wait for a permit, after which requests are handled
+ *   according to the connector's {@link EndpointConnector#rejectionPolicy()}. Callers never wait for more than
+ *   {@link EndpointConnector#queueTimeoutMillis()}, and a request never runs without a permit.
+ * <p/>
+ * <p/>Queued and rejected requests are published as {@link MeterType#BulkheadQueued} and {@link MeterType#BulkheadRejected},
+ *   and the time spent waiting for a permit is recorded in the endpoint's "bulkhead-wait" timer.
+ * <p/>
+ * <p/>Callers that split their work into multiple requests should run them on the bulkhead's {@link #scheduler()},
+ *   which never holds more threads than the endpoint can serve at once.
+ *
+ * @author Mihai Bojin &lt;mbojin@salesforce.com&gt;
+ * @since 10.0.0
+ */
+public class Bulkhead {
+    private static final Bulkhead UNBOUNDED = new Bulkhead(null, 0, 0, RejectionPolicy.REJECT, 0, null);
+
+    // number of threads that unbounded bulkheads use to run requests in parallel; shared by all such endpoints
+    static final int UNBOUNDED_PARALLELISM = 8;
+
+    // how long the scheduler's threads are kept alive, while idle
+    private static final long IDLE_THREAD_MILLIS = 60_000L;
+
+    private final String endpointId;
+    private final Semaphore permits;
+    private final int maxQueued;
+    private final RejectionPolicy rejectionPolicy;
+    private final long queueTimeoutMillis;
+    private final SystemStatus systemStatus;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final int parallelism;
+    private volatile Scheduler scheduler;
+
+
+    /**
+     * Class constructor
+     *
+     * @param endpointId used to identify this bulkhead's metrics
+     * @param maxConcurrent maximum number of concurrent requests; 0 disables the limit
+     * @param maxQueued maximum number of callers waiting for a permit
+     * @param rejectionPolicy specifies what happens when both permits and queue are exhausted
+     * @param queueTimeoutMillis maximum time a caller waits for a permit
+     * @param systemStatus used to publish saturation metrics
+     */
+    Bulkhead(String endpointId, int maxConcurrent, int maxQueued, RejectionPolicy rejectionPolicy, long queueTimeoutMillis,
+             SystemStatus systemStatus) {
+        this.endpointId = endpointId;
+        this.permits = maxConcurrent > 0 ? new Semaphore(maxConcurrent, true) : null;
+        this.maxQueued = maxQueued;
+        this.rejectionPolicy = rejectionPolicy;
+        this.queueTimeoutMillis = queueTimeoutMillis;
+        this.systemStatus = systemStatus;
+        this.parallelism = maxConcurrent > 0 ? maxConcurrent : UNBOUNDED_PARALLELISM;
+    }
+
+    /**
+     * Creates a bulkhead according to the specified connector's settings
+     */
+    public static Bulkhead forConnector(EndpointConnector connector, SystemStatus systemStatus) {
+        if (connector.maxConcurrentRequests() <= 0) {
+            return UNBOUNDED;
+        }
+
+        return new Bulkhead(connector.id(), connector.maxConcurrentRequests(), connector.maxQueuedRequests(),
+                connector.rejectionPolicy(), connector.queueTimeoutMillis(), systemStatus);
+    }
+
+    /**
+     * @return a bulkhead that does not limit requests
+     */
+    public static Bulkhead unbounded() {
+        return UNBOUNDED;
+    }
+
+    /**
+     * Executes the specified remote call, once a permit becomes available
+     *
+     * @throws RejectedExecutionException if the endpoint is saturated and the rejection policy is {@link RejectionPolicy#REJECT},
+     *   if a permit did not become available in time, or if the calling thread was interrupted while waiting
+     * @throws UnauthorizedException if the call fails to authenticate
+     */
+    public <T> T call(RemoteCall<T> remoteCall) throws UnauthorizedException {
+        // no limit defined
+        if (isNull(permits)) {
+            return remoteCall.call();
+        }
+
+        if (!permits.tryAcquire() && !acquireQueued()) {
+            systemStatus.meter(endpointId, MeterType.BulkheadRejected).mark();
+            throw new RejectedExecutionException(String.format("Endpoint %s is saturated; request rejected", endpointId));
+        }
+
+        try {
+            return remoteCall.call();
+
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Waits for a permit, for at most {@link #queueTimeoutMillis}, if the queue is not already full;
+     *   the {@link RejectionPolicy#WAIT} policy ignores the queue limit
+     *
+     * @return true if a permit was acquired, or false if the queue was full or the wait timed out
+     */
+    private boolean acquireQueued() {
+        if (queued.incrementAndGet() > maxQueued && rejectionPolicy != RejectionPolicy.WAIT) {
+            queued.decrementAndGet();
+            return false;
+        }
+
+        systemStatus.meter(endpointId, MeterType.BulkheadQueued).mark();
+        try (Timer.Context ignored = systemStatus.timer(endpointId, "bulkhead-wait").time()) {
+            return permits.tryAcquire(queueTimeoutMillis, TimeUnit.MILLISECONDS);
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException(String.format("Interrupted while waiting for endpoint %s", endpointId), e);
+
+        } finally {
+            queued.decrementAndGet();
+        }
+    }
+
+    /**
+     * @return the number of permits currently available, or {@link Integer#MAX_VALUE} if the bulkhead is unbounded
+     */
+    public int availablePermits() {
+        return isNull(permits) ? Integer.MAX_VALUE : permits.availablePermits();
+    }
+
+    /**
+     * @return the maximum number of requests that can run in parallel on this bulkhead's {@link #scheduler()}
+     */
+    public int parallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Returns a scheduler which runs at most {@link #parallelism()} requests at once, queueing the others
+     * <p/>
+     * <p/>Its threads are created on first use and expire when idle, so endpoints which do not split their
+     *   requests do not hold any threads.
+     */
+    public Scheduler scheduler() {
+        Scheduler result = scheduler;
+        if (nonNull(result)) {
+            return result;
+        }
+
+        synchronized (this) {
+            if (isNull(scheduler)) {
+                ThreadFactory factory = new ThreadFactoryBuilder()
+                        .setNameFormat("Bulkhead-" + (isNull(endpointId) ? "unbounded" : endpointId) + "-%s")
+                        .setDaemon(true)
+                        .build();
+                ThreadPoolExecutor executor = new ThreadPoolExecutor(parallelism, parallelism,
+                        IDLE_THREAD_MILLIS, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), factory);
+                executor.allowCoreThreadTimeOut(true);
+                scheduler = Schedulers.from(executor);
+            }
+            return scheduler;
+        }
+    }
+
+    /**
+     * A request made to a remote endpoint
+     */
+    @FunctionalInterface
+    public interface RemoteCall<T> {
+        T call() throws UnauthorizedException;
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ *  Copyright (c) 2016-2017, Salesforce.com, Inc.
+ *  All rights reserved.
+ *  Licensed under the BSD 3-Clause license.
+ *  For full license text, see the LICENSE.txt file in repo root
+ *    or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.pyplyn.duct.etl.configuration;
+
+import static java.util.Objects.isNull;
+
+import java.util.*;
+
+import com.google.common.collect.ImmutableSet;
+import com.salesforce.pyplyn.configuration.Configuration;
+
+/**
+ * Difference between the previously known and the latest set of {@link Configuration}s
+ * <p/>
+ * <p/>Configurations are identified by their {@link Configuration#fingerprint()}, which ignores auxiliary fields
+ *   such as {@link Configuration#repeatIntervalMillis()}; configurations with the same identity, but with a different
+ *   {@link Configuration#contentFingerprint()}, are considered changed.
+ * <p/>
+ * <p/>This allows updating only the tasks that are affected by a configuration reload, leaving running
+ *   pipelines untouched.
+ *
+ * @author Mihai Bojin &lt;mbojin@salesforce.com&gt;
+ * @since 10.0.0
+ */
+public class ConfigurationDiff {
+    private final Set<Configuration> added;
+    private final Set<Configuration> removed;
+    private final Set<Configuration> changed;
+    private final int unchanged;
+
+
+    /**
+     * Class constructor
+     */
+    private ConfigurationDiff(Set<Configuration> added, Set<Configuration> removed, Set<Configuration> changed, int unchanged) {
+        this.added = ImmutableSet.copyOf(added);
+        this.removed = ImmutableSet.copyOf(removed);
+        this.changed = ImmutableSet.copyOf(changed);
+        this.unchanged = unchanged;
+    }
+
+    /**
+     * Computes the difference between two sets of configurations
+     *
+     * @param previous the configurations that are currently known
+     * @param latest the configurations that should be known after the update
+     */
+    public static ConfigurationDiff between(Collection<Configuration> previous, Collection<Configuration> latest) {
+        // index the previous configurations by identity, to retrieve their full content
+        Map<String, Configuration> known = new HashMap<>();
+        previous.forEach(configuration -> known.put(configuration.fingerprint(), configuration));
+
+        Set<Configuration> added = new HashSet<>();
+        Set<Configuration> changed = new HashSet<>();
+        int unchanged = 0;
+
+        for (Configuration configuration : latest) {
+            Configuration existing = known.remove(configuration.fingerprint());
+            if (isNull(existing)) {
+                added.add(configuration);
+
+            } else if (!hasSameContent(existing, configuration)) {
+                changed.add(configuration);
+
+            } else {
+                unchanged++;
+            }
+        }
+
+        // any previous configurations which were not matched were removed
+        return new ConfigurationDiff(added, new HashSet<>(known.values()), changed, unchanged);
+    }
+
+    /**
+     * @return true if both configurations have the same identity and the same content
+     */
+    static boolean isIdentical(Configuration configuration, Configuration other) {
+        return configuration.fingerprint().equals(other.fingerprint()) && hasSameContent(configuration, other);
+    }
+
+    /**
+     * Compares the full content, including auxiliary fields, of two configurations with the same identity
+     */
+    private static boolean hasSameContent(Configuration existing, Configuration latest) {
+        return existing.contentFingerprint().equals(latest.contentFingerprint());
+    }
+
+    /**
+     * @return configurations that were not previously known
+     */
+    public Set<Configuration> added() {
+        return added;
+    }
+
+    /**
+     * @return previously known configurations which are not part of the latest set
+     */
+    public Set<Configuration> removed() {
+        return removed;
+    }
+
+    /**
+     * @return configurations that were previously known, but whose auxiliary fields have changed
+     *         (including auxiliary fields of their extract, transform, or load definitions)
+     */
+    public Set<Configuration> changed() {
+        return changed;
+    }
+
+    /**
+     * @return configurations which need to be inserted or updated (added or changed)
+     */
+    public Set<Configuration> upserted() {
+        return ImmutableSet.<Configuration>builder().addAll(added).addAll(changed).build();
+    }
+
+    /**
+     * @return the number of configurations which are identical in both sets
+     */
+    public int unchanged() {
+        return unchanged;
+    }
+}
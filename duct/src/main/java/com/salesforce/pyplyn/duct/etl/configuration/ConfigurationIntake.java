@@ -8,15 +8,19 @@
 
 package com.salesforce.pyplyn.duct.etl.configuration;
 
-import static com.salesforce.pyplyn.util.SerializationHelper.loadResourceInsecure;
 import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
 
 import java.io.IOException;
 import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 
@@ -24,12 +28,17 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
 import com.google.inject.Inject;
 import com.salesforce.pyplyn.configuration.Configuration;
 import com.salesforce.pyplyn.duct.app.BootstrapException;
 
 /**
  * Parses configuration files
+ * <p/>
+ * <p/>The results of parsing each file are cached, along with the file's content hash; subsequent calls
+ *   to {@link #parseAll(String)} only parse files that were added or modified since.
  *
  * @author Mihai Bojin &lt;mbojin@salesforce.com&gt;
  * @since 3.0
@@ -38,7 +47,13 @@ public class ConfigurationIntake {
     public static final String CONFIGURATIONS_READ_ERROR = "Errors encountered reading configurations: ";
 
     private static final Logger logger = LoggerFactory.getLogger(ConfigurationIntake.class);
-    private final List<Throwable> errors = new ArrayList<>();
+
+    // files modified this close to the time they were read are re-hashed on the next call,
+    //   since filesystem timestamps may not be precise enough to detect subsequent changes
+    private static final long TIMESTAMP_GRANULARITY_MILLIS = TimeUnit.SECONDS.toMillis(2);
+
+    private final Queue<Throwable> errors = new ConcurrentLinkedQueue<>();
+    private final ConcurrentHashMap<Path, ParsedFile> parsedFiles = new ConcurrentHashMap<>();
     private final ObjectMapper mapper;
 
 
@@ -83,13 +98,26 @@ public class ConfigurationIntake {
 
     /**
      * Parses all configuration files and deserializes the {@link Configuration} objects
+     * <p/>
+     * <p/>Files that have not changed since the previous call are not parsed again; new or modified files
+     *   are parsed in parallel.
      *
      * @param configurationsPath Path to configurations dir
      */
     public Set<Configuration> parseAll(String configurationsPath) {
+        // only report errors encountered during the current operation
+        errors.clear();
+
         try {
-            return getAllConfigurationsFromDisk(configurationsPath).stream()
-                    .map(this::parseConfigurationFile)
+            Set<Path> files = getAllConfigurationsFromDisk(configurationsPath).stream()
+                    .map(Paths::get)
+                    .collect(Collectors.toSet());
+
+            // forget files which were deleted
+            parsedFiles.keySet().retainAll(files);
+
+            return files.parallelStream()
+                    .map(this::parseIfModified)
                     .flatMap(Collection::stream)
                     .collect(Collectors.toSet());
 
@@ -100,23 +128,55 @@ public class ConfigurationIntake {
     }
 
     /**
-     * Parses a single configuration file and returns the list of defined Configuration objects
+     * Returns the configurations defined in the specified file, only parsing it if it was modified
+     *   since it was last read
      *
      * @param file Configuration file
      * @return A collection containing the required objects, or empty if none found
      */
-    private Set<Configuration> parseConfigurationFile(String file) {
+    private Set<Configuration> parseIfModified(Path file) {
         try {
-            return new HashSet<>(Arrays.asList(mapper.readValue(loadResourceInsecure(file), Configuration[].class)));
+            final long readAt = System.currentTimeMillis();
+            FileTime lastModified = Files.getLastModifiedTime(file);
+            long size = Files.size(file);
+
+            // the file's attributes have not changed
+            ParsedFile cached = parsedFiles.get(file);
+            if (nonNull(cached) && cached.isUnmodified(lastModified, size)) {
+                return cached.configurations;
+            }
+
+            // the file's contents have not changed
+            byte[] content = Files.readAllBytes(file);
+            HashCode hash = Hashing.murmur3_128().hashBytes(content);
+            if (nonNull(cached) && cached.hash.equals(hash)) {
+                parsedFiles.put(file, new ParsedFile(lastModified, size, readAt, hash, cached.configurations));
+                return cached.configurations;
+            }
+
+            Set<Configuration> configurations = parseConfigurationFile(file, content);
+            parsedFiles.put(file, new ParsedFile(lastModified, size, readAt, hash, configurations));
+            return configurations;
 
         } catch (IOException e) {
-            // store error and return empty list
+            // store error, forget any previous results, and return empty list
             addError(new ReadError("Could not deserialize " + file, e));
+            parsedFiles.remove(file);
 
             return Collections.emptySet();
         }
     }
 
+    /**
+     * Parses the contents of a single configuration file and returns the list of defined Configuration objects
+     *
+     * @throws IOException if the file's contents could not be deserialized
+     */
+    private Set<Configuration> parseConfigurationFile(Path file, byte[] content) throws IOException {
+        logger.debug("Parsing {}", file);
+        return Collections.unmodifiableSet(new HashSet<>(Arrays.asList(mapper.readValue(content, Configuration[].class))));
+    }
+
     /**
      * Make note of any errors, as we require them later for debugging purposes
      */
@@ -149,6 +209,35 @@ public class ConfigurationIntake {
         }
     }
 
+    /**
+     * Configurations parsed from a file, along with the file's attributes and content hash at the time it was read
+     */
+    private static class ParsedFile {
+        private final FileTime lastModified;
+        private final long size;
+        private final long readAt;
+        private final HashCode hash;
+        private final Set<Configuration> configurations;
+
+        ParsedFile(FileTime lastModified, long size, long readAt, HashCode hash, Set<Configuration> configurations) {
+            this.lastModified = lastModified;
+            this.size = size;
+            this.readAt = readAt;
+            this.hash = hash;
+            this.configurations = configurations;
+        }
+
+        /**
+         * @return true if the file's attributes match the ones observed when it was read, and it was not
+         *         modified so close to that time that a subsequent change could have gone unnoticed
+         */
+        boolean isUnmodified(FileTime lastModified, long size) {
+            return this.lastModified.equals(lastModified)
+                    && this.size == size
+                    && lastModified.toMillis() < readAt - TIMESTAMP_GRANULARITY_MILLIS;
+        }
+    }
+
     /**
      * Thrown when {@link ConfigurationIntake} cannot deserialize a configuration file
      *
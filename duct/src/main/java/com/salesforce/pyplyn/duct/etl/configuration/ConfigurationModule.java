@@ -17,6 +17,8 @@ import com.google.inject.TypeLiteral;
 import com.salesforce.pyplyn.configuration.Configuration;
 import com.salesforce.pyplyn.duct.app.ShutdownHook;
 import com.salesforce.pyplyn.duct.cluster.Cluster;
+import com.salesforce.pyplyn.duct.cluster.Shard;
+import com.salesforce.pyplyn.status.SystemStatus;
 
 /**
  * Binds the {@link ConfigurationLoader}, returning the set of {@link Configuration}s that should be processed
@@ -35,8 +37,9 @@ public class ConfigurationModule extends AbstractModule {
 
     @Provides
     @Singleton
-    ConfigurationUpdateManager configurationManager(ConfigurationLoader loader, TaskManager<Configuration> taskRegistry, Cluster cluster, ShutdownHook shutdownHook) {
-        ConfigurationUpdateManager manager = new ConfigurationUpdateManager(loader, taskRegistry, cluster, shutdownHook);
+    ConfigurationUpdateManager configurationManager(ConfigurationLoader loader, TaskManager<Configuration> taskRegistry, Cluster cluster, Shard shard,
+                                                    TaskPlacement placement, ShutdownHook shutdownHook, SystemStatus systemStatus) {
+        ConfigurationUpdateManager manager = new ConfigurationUpdateManager(loader, taskRegistry, cluster, shard, placement, shutdownHook, systemStatus);
         manager.initialize();
         return manager;
     }
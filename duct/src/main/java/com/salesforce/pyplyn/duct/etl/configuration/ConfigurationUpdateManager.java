@@ -2,22 +2,20 @@ package com.salesforce.pyplyn.duct.etl.configuration;
 
 import static com.salesforce.pyplyn.util.CollectionUtils.immutableOrEmptySet;
 import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
 
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
+import java.util.*;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.Sets;
+import com.codahale.metrics.Timer;
 import com.google.inject.Inject;
 import com.google.inject.Provider;
 import com.google.inject.Singleton;
@@ -30,6 +28,9 @@ import com.hazelcast.util.Preconditions;
 import com.salesforce.pyplyn.configuration.Configuration;
 import com.salesforce.pyplyn.duct.app.ShutdownHook;
 import com.salesforce.pyplyn.duct.cluster.Cluster;
+import com.salesforce.pyplyn.duct.cluster.Shard;
+import com.salesforce.pyplyn.status.MeterType;
+import com.salesforce.pyplyn.status.SystemStatus;
 
 import io.reactivex.schedulers.Schedulers;
 import io.reactivex.subjects.PublishSubject;
@@ -40,6 +41,9 @@ import io.reactivex.subjects.Subject;
  * <p/>
  * <p/> If exceptions occur while processing configurations, the errors are logged and no task is updated.
  * <p/> If any configuration exceptions occur during the program's bootstrap, execution is stopped altogether.
+ * <p/>
+ * <p/> When running in cluster mode, configurations are distributed by Hazelcast; otherwise, if sharding is configured,
+ *   only the configurations assigned to the local {@link Shard} are run.
  *
  * TODO: write integration tests for this functionality
  *
@@ -51,20 +55,33 @@ public class ConfigurationUpdateManager implements Runnable, Provider<Set<Config
     protected static final Logger logger = LoggerFactory.getLogger(ConfigurationUpdateManager.class);
     private static final String CONFIGURATION_MAP_KEY = "configurations";
 
+    // how long to collect partition migration events for, before rebalancing tasks
+    private static final long MIGRATION_BUFFER_MILLIS = 1000L;
+
+    // configuration meters are not specific to a plugin, and are identified by their type (i.e.: ConfigurationUpdateFailure)
+    private static final String METER_NAME = "";
+
     private final ConfigurationLoader loader;
     private final TaskManager<Configuration> taskManager;
     private final Cluster cluster;
+    private final Shard shard;
+    private final TaskPlacement placement;
     private final ShutdownHook shutdownHook;
+    private final SystemStatus systemStatus;
 
     private Map<String, Configuration> configurations;
     private final CountDownLatch IS_CONFIGURED_LATCH = new CountDownLatch(1);
 
     @Inject
-    public ConfigurationUpdateManager(ConfigurationLoader loader, TaskManager<Configuration> taskManager, Cluster cluster, ShutdownHook shutdownHook) {
+    public ConfigurationUpdateManager(ConfigurationLoader loader, TaskManager<Configuration> taskManager, Cluster cluster,
+                                      Shard shard, TaskPlacement placement, ShutdownHook shutdownHook, SystemStatus systemStatus) {
         this.loader = loader;
         this.taskManager = taskManager;
         this.cluster = cluster;
+        this.shard = shard;
+        this.placement = placement;
         this.shutdownHook = shutdownHook;
+        this.systemStatus = systemStatus;
     }
 
     /**
@@ -78,27 +95,44 @@ public class ConfigurationUpdateManager implements Runnable, Provider<Set<Config
             // manage cluster node events
             cluster.registerListener(new ClusterEventListener());
 
-            // manage cluster partition migration events
-            cluster.registerListener(new ClusterMigrationListener());
-
-            // registers task listener to manage changes in the configuration map
             IMap<String, Configuration> hzMap = cluster.distributedMap(CONFIGURATION_MAP_KEY);
-            hzMap.addLocalEntryListener(new ConfigurationMapListener());
+            if (placement.isEnabled()) {
+                // tasks are run by the member they are assigned to, regardless of which member owns their configuration
+                placement.addListener(new TaskPlacementListener());
+                hzMap.addEntryListener(new ConfigurationMapListener(), true);
+
+            } else {
+                // manage cluster partition migration events
+                cluster.registerListener(new ClusterMigrationListener());
+
+                // registers task listener to manage changes in the configuration map
+                hzMap.addLocalEntryListener(new ConfigurationMapListener());
+            }
             configurations = hzMap;
 
         } else {
             configurations = new HashMap<>();
         }
+
+        if (shard.isEnabled() && cluster.isEnabled()) {
+            logger.warn("Sharding is ignored, since configurations are distributed by the Hazelcast cluster");
+        }
     }
 
     /**
      * Periodically updates the set of known configurations
+     * <p/>
+     * <p/>Synchronized, since updates can also be triggered by {@link ConfigurationWatcher}.
      */
     @Override
-    public void run() {
+    public synchronized void run() {
         if (cluster.isEnabled() && !cluster.isMaster()) {
             logger.info("Skipping configuration update on this node (not master)");
 
+            if (placement.isEnabled()) {
+                placement.publishCosts();
+            }
+
             updateTasksAfterClusterEvent();
             return;
         }
@@ -107,13 +141,36 @@ public class ConfigurationUpdateManager implements Runnable, Provider<Set<Config
         try {
             Set<Configuration> latestConfigurationSet = loader.load().stream().filter(c -> !c.disabled()).collect(Collectors.toSet());
 
-            // delete configurations
-            ImmutableSet<Configuration> deleted = ImmutableSet.copyOf(Sets.difference(configurations(), latestConfigurationSet));
-            deleted.forEach(new DeleteTaskConsumer().andThen(new DeleteConfigurationConsumer()));
+            // when sharding, only keep the configurations assigned to the local node;
+            //   if the number of shards changes, the diff below stops the tasks that moved to other nodes
+            if (shard.isEnabled() && !cluster.isEnabled()) {
+                int total = latestConfigurationSet.size();
+                latestConfigurationSet = latestConfigurationSet.stream().filter(shard.localConfigurations()).collect(Collectors.toSet());
+                logger.info("Running {} out of {} configurations on the local shard", latestConfigurationSet.size(), total);
+            }
 
-            // insert or update new configurations
-            latestConfigurationSet.forEach(new UpsertTaskConsumer().andThen(new UpsertConfigurationConsumer()));
-            logger.info("Updated configuration set; {} configs upserted, {} configs deleted", latestConfigurationSet.size(), deleted.size());
+            // determine which configurations were added, changed, or removed;
+            //   tasks for unchanged configurations are left running
+            ConfigurationDiff diff = ConfigurationDiff.between(configurations(), latestConfigurationSet);
+
+            // delete configurations
+            DeleteConfigurationConsumer deleteConfiguration = new DeleteConfigurationConsumer();
+            diff.removed().forEach(new DeleteTaskConsumer().andThen(deleteConfiguration));
+
+            // insert new configurations and update changed ones
+            UpsertConfigurationConsumer upsertConfiguration = new UpsertConfigurationConsumer();
+            diff.upserted().forEach(new UpsertTaskConsumer().andThen(upsertConfiguration));
+
+            int written = upsertConfiguration.written() + deleteConfiguration.written();
+            logger.info("Updated configuration set; {} configs added, {} changed, {} deleted, {} unchanged; {} entries written",
+                    diff.added().size(), diff.changed().size(), diff.removed().size(), diff.unchanged(), written);
+            markChurn(diff, written);
+
+            // assign all tasks to members, based on the latest known costs
+            if (placement.isEnabled()) {
+                placement.publishCosts();
+                placement.place(configurations.keySet());
+            }
 
             // if running in runOnce mode, stop immediately if there are no configurations to process
             if (latestConfigurationSet.isEmpty()) {
@@ -122,6 +179,7 @@ public class ConfigurationUpdateManager implements Runnable, Provider<Set<Config
 
         } catch (RuntimeException e) {
             logger.warn("Unexpected exception while processing configurations", e);
+            systemStatus.meter(METER_NAME, MeterType.ConfigurationUpdateFailure).mark();
 
             // if this is the first run, rethrow the exception to cause the program to stop
             if (IS_CONFIGURED_LATCH.getCount() > 0) {
@@ -136,6 +194,16 @@ public class ConfigurationUpdateManager implements Runnable, Provider<Set<Config
         }
     }
 
+    /**
+     * Reports the number of configurations that were added, changed, or removed during a reload
+     */
+    private void markChurn(ConfigurationDiff diff, int written) {
+        systemStatus.meter(METER_NAME, MeterType.ConfigurationAdded).mark(diff.added().size());
+        systemStatus.meter(METER_NAME, MeterType.ConfigurationChanged).mark(diff.changed().size());
+        systemStatus.meter(METER_NAME, MeterType.ConfigurationRemoved).mark(diff.removed().size());
+        systemStatus.meter(METER_NAME, MeterType.ConfigurationWritten).mark(written);
+    }
+
     /**
      * @return Set of {@link Configuration}s associated with the current node, or all configurations if not running in a cluster
      */
@@ -146,7 +214,7 @@ public class ConfigurationUpdateManager implements Runnable, Provider<Set<Config
         // load local configurations from Hazelcast
         if (cluster.isEnabled()) {
             IMap<String, Configuration> map = (IMap<String, Configuration>) configurations;
-            localConfigurations = map.getAll(map.localKeySet());
+            localConfigurations = map.getAll(localKeys(map));
 
             // or return all known configurations
         } else {
@@ -167,19 +235,109 @@ public class ConfigurationUpdateManager implements Runnable, Provider<Set<Config
 
     /**
      * Ensures only tasks that should be running are running
+     * <p/>
+     * <p/>Only the local keys are compared to the running tasks; tasks which are already running are left alone,
+     *   and only the configurations of tasks which should be started are retrieved from the cluster.
      */
     private void updateTasksAfterClusterEvent() {
         logger.info("Synchronizing tasks on local node...");
 
-        // compute the difference between currently executing tasks and locally managed configurations
-        Set<Configuration> localConfigurations = get();
-        Set<Configuration> localTasks = taskManager.allTasks();
-        ImmutableSet.copyOf(Sets.difference(localTasks, localConfigurations))
-                // and delete all the tasks that should not run on the local node
-                .forEach(new DeleteTaskConsumer((always) -> true));
+        try (Timer.Context context = systemStatus.timer(METER_NAME, "rebalance").time()) {
+            IMap<String, Configuration> map = hazelcastMap();
+            Set<String> localKeys = localKeys(map);
+            Map<String, Configuration> runningTasks = runningTasks();
+
+            // stop all the tasks that should not run on the local node
+            Set<Configuration> stopped = runningTasks.values().stream()
+                    .filter(task -> !localKeys.contains(task.fingerprint()))
+                    .collect(Collectors.toSet());
+
+            // and start the local configurations which are not already running
+            Set<String> toStart = localKeys.stream()
+                    .filter(key -> !runningTasks.containsKey(key))
+                    .collect(Collectors.toSet());
+
+            updateTasks(map, stopped, toStart);
+        }
+    }
+
+    /**
+     * Starts the tasks whose configurations were migrated to the local node, and stops the ones that migrated away
+     * <p/>
+     * <p/>Only tasks in the specified partitions are affected; all other tasks keep running.
+     *
+     * @param partitionIds partitions which were migrated to, or from, the local node
+     */
+    void rebalance(Set<Integer> partitionIds) {
+        logger.info("Rebalancing tasks on local node, for {} migrated partitions...", partitionIds.size());
+
+        try (Timer.Context context = systemStatus.timer(METER_NAME, "rebalance").time()) {
+            // determine which of the partitions are currently owned by the local node
+            Set<Integer> localPartitions = partitionIds.stream().filter(cluster::isLocalPartition).collect(Collectors.toSet());
+            IMap<String, Configuration> map = hazelcastMap();
+            Map<String, Configuration> runningTasks = runningTasks();
+
+            // stop the tasks in partitions that migrated away
+            Set<Configuration> stopped = runningTasks.values().stream()
+                    .filter(task -> {
+                        int partitionId = cluster.partitionId(task.fingerprint());
+                        return partitionIds.contains(partitionId) && !localPartitions.contains(partitionId);
+                    })
+                    .collect(Collectors.toSet());
+
+            // start the tasks in partitions that migrated to the local node, which are not already running
+            Set<String> toStart = localPartitions.isEmpty() ? Collections.emptySet() : map.localKeySet().stream()
+                    .filter(key -> !runningTasks.containsKey(key))
+                    .filter(key -> localPartitions.contains(cluster.partitionId(key)))
+                    .collect(Collectors.toSet());
+
+            updateTasks(map, stopped, toStart);
+        }
+    }
+
+    /**
+     * Stops the specified tasks, retrieves the configurations for the specified keys and starts their tasks
+     */
+    private void updateTasks(IMap<String, Configuration> map, Set<Configuration> stopped, Set<String> toStart) {
+        stopped.forEach(new DeleteTaskConsumer((always) -> true));
+
+        Collection<Configuration> started = toStart.isEmpty() ? Collections.emptySet() : map.getAll(toStart).values();
+        started.forEach(new UpsertTaskConsumer((always) -> true));
+
+        logger.info("[CLUSTER] Rebalanced tasks on local node; {} started, {} stopped", started.size(), stopped.size());
+        systemStatus.meter(METER_NAME, MeterType.ClusterTasksStarted).mark(started.size());
+        systemStatus.meter(METER_NAME, MeterType.ClusterTasksStopped).mark(stopped.size());
+    }
+
+    /**
+     * @return the keys of the configurations whose tasks should run on the local node: the ones assigned to it,
+     *   if balancing tasks by cost, or the ones it owns otherwise
+     */
+    private Set<String> localKeys(IMap<String, Configuration> map) {
+        return placement.isEnabled() ? placement.localKeys() : map.localKeySet();
+    }
+
+    /**
+     * Stops the task corresponding to the specified key, if it is running
+     */
+    private void stopTask(String key) {
+        Optional.ofNullable(runningTasks().get(key)).ifPresent(taskManager::remove);
+    }
+
+    /**
+     * @return the tasks running on the local node, indexed by fingerprint
+     */
+    private Map<String, Configuration> runningTasks() {
+        return taskManager.allTasks().stream()
+                .collect(Collectors.toMap(Configuration::fingerprint, Function.identity(), (first, second) -> first));
+    }
 
-        // upsert all local configurations, to ensure all that should be running are running
-        localConfigurations.forEach(new UpsertTaskConsumer((always) -> true));
+    /**
+     * @return the cluster's configuration map
+     */
+    @SuppressWarnings("unchecked")
+    private IMap<String, Configuration> hazelcastMap() {
+        return (IMap<String, Configuration>) configurations;
     }
 
 
@@ -197,21 +355,57 @@ public class ConfigurationUpdateManager implements Runnable, Provider<Set<Config
 
     /**
      * Upserts objects in the configuration map
+     * <p/>
+     * <p/>When running in cluster mode, entries are written with {@link IMap#set(Object, Object)}, which
+     *   does not return the previous value, avoiding its transfer from the owning member
      */
     class UpsertConfigurationConsumer implements Consumer<Configuration> {
+        private int written;
+
         @Override
+        @SuppressWarnings("unchecked")
         public void accept(Configuration configuration) {
-            configurations.put(configuration.toString(), configuration);
+            if (cluster.isEnabled()) {
+                ((IMap<String, Configuration>) configurations).set(configuration.fingerprint(), configuration);
+            } else {
+                configurations.put(configuration.fingerprint(), configuration);
+            }
+            written++;
+        }
+
+        /**
+         * @return the number of entries written by this consumer
+         */
+        int written() {
+            return written;
         }
     }
 
     /**
      * Deletes objects from the configuration map
+     * <p/>
+     * <p/>When running in cluster mode, entries are removed with {@link IMap#delete(Object)}, which
+     *   does not return the previous value
      */
     class DeleteConfigurationConsumer implements Consumer<Configuration> {
+        private int written;
+
         @Override
+        @SuppressWarnings("unchecked")
         public void accept(Configuration configuration) {
-            configurations.remove(configuration.toString());
+            if (cluster.isEnabled()) {
+                ((IMap<String, Configuration>) configurations).delete(configuration.fingerprint());
+            } else {
+                configurations.remove(configuration.fingerprint());
+            }
+            written++;
+        }
+
+        /**
+         * @return the number of entries removed by this consumer
+         */
+        int written() {
+            return written;
         }
     }
 
@@ -288,6 +482,9 @@ public class ConfigurationUpdateManager implements Runnable, Provider<Set<Config
 
     /**
      * Handles events on Hazelcast nodes
+     * <p/>
+     * <p/>Only receives events for the configurations owned by the local member, unless balancing tasks by cost,
+     *   in which case it receives all events; removing a task which is not running has no effect.
      */
     class ConfigurationMapListener implements EntryAddedListener<String, Configuration>,
             EntryRemovedListener<String, Configuration>,
@@ -295,9 +492,15 @@ public class ConfigurationUpdateManager implements Runnable, Provider<Set<Config
             EntryEvictedListener<String, Configuration> {
         @Override
         public void entryAdded(EntryEvent<String, Configuration> event) {
+            IS_CONFIGURED_LATCH.countDown();
+
+            // when balancing by cost, new tasks are started once they are assigned to a member (see TaskPlacementListener)
+            if (placement.isEnabled()) {
+                return;
+            }
+
             logger.info("[CLUSTER] Added task for {}", event.getKey());
             taskManager.upsert(event.getValue());
-            IS_CONFIGURED_LATCH.countDown();
         }
 
         @Override
@@ -308,6 +511,18 @@ public class ConfigurationUpdateManager implements Runnable, Provider<Set<Config
 
         @Override
         public void entryUpdated(EntryEvent<String, Configuration> event) {
+            // do not restart running tasks, if the configuration's content has not changed
+            Configuration previous = event.getOldValue();
+            if (nonNull(previous) && ConfigurationDiff.isIdentical(previous, event.getValue())) {
+                logger.debug("[CLUSTER] Ignored identical update for {}", event.getKey());
+                return;
+            }
+
+            // when balancing by cost, only update tasks assigned to the local member
+            if (placement.isEnabled() && !placement.isLocal(event.getKey())) {
+                return;
+            }
+
             logger.info("[CLUSTER] Updated task for {}", event.getKey());
             taskManager.upsert(event.getValue());
         }
@@ -321,24 +536,87 @@ public class ConfigurationUpdateManager implements Runnable, Provider<Set<Config
 
 
 
+    /* Cost-based task placement events */
+
+    /**
+     * Starts and stops tasks as they are assigned to, or removed from, the local member
+     */
+    class TaskPlacementListener implements EntryAddedListener<String, String>,
+            EntryUpdatedListener<String, String>,
+            EntryRemovedListener<String, String> {
+        @Override
+        public void entryAdded(EntryEvent<String, String> event) {
+            if (placement.isLocalMember(event.getValue())) {
+                startTask(event.getKey());
+            }
+        }
+
+        @Override
+        public void entryUpdated(EntryEvent<String, String> event) {
+            boolean wasLocal = placement.isLocalMember(event.getOldValue());
+            boolean isLocal = placement.isLocalMember(event.getValue());
+
+            if (isLocal && !wasLocal) {
+                startTask(event.getKey());
+
+            } else if (wasLocal && !isLocal) {
+                logger.info("[CLUSTER] Task {} was moved to another member", event.getKey());
+                stopTask(event.getKey());
+                systemStatus.meter(METER_NAME, MeterType.ClusterTasksStopped).mark();
+            }
+        }
+
+        @Override
+        public void entryRemoved(EntryEvent<String, String> event) {
+            stopTask(event.getKey());
+        }
+
+        private void startTask(String key) {
+            Configuration configuration = configurations.get(key);
+            if (nonNull(configuration)) {
+                logger.info("[CLUSTER] Task {} was assigned to the local member", key);
+                taskManager.upsert(configuration);
+                systemStatus.meter(METER_NAME, MeterType.ClusterTasksStarted).mark();
+            }
+        }
+    }
+
+
+
     /* Cluster membership events */
 
     /**
      * Handles events pertaining to the whole cluster
+     * <p/>
+     * <p/>Partitions are migrated to new members after they join, which is handled by {@link ClusterMigrationListener};
+     *   when a member leaves, its partitions are taken over by promoting their backups, which is not reported
+     *   as a migration, and requires comparing the local keys with the running tasks.
+     * <p/>
+     * <p/>When balancing tasks by cost, the master reassigns all tasks to the current members instead.
      */
     class ClusterEventListener implements MembershipListener {
         @Override
         public void memberAdded(MembershipEvent event) {
-            logger.info("[CLUSTER] Member(s) added: {}; rebalancing tasks...", event.getMembers());
-            updateTasksAfterClusterEvent();
+            logger.info("[CLUSTER] Member(s) added: {}; tasks will be rebalanced as partitions are migrated", event.getMembers());
+            placeTasks();
         }
 
         @Override
         public void memberRemoved(MembershipEvent event) {
             logger.info("[CLUSTER] Member(s) removed: {}; rebalancing tasks...", event.getMembers());
+            placeTasks();
             updateTasksAfterClusterEvent();
         }
 
+        /**
+         * When balancing tasks by cost, the master reassigns tasks to the current members
+         */
+        private void placeTasks() {
+            if (placement.isEnabled() && cluster.isMaster()) {
+                placement.place(configurations.keySet());
+            }
+        }
+
         @Override
         public void memberAttributeChanged(MemberAttributeEvent event) {
             // nothing to do
@@ -351,6 +629,8 @@ public class ConfigurationUpdateManager implements Runnable, Provider<Set<Config
 
     /**
      * Manages partition migrations
+     * <p/>
+     * <p/>Only the tasks in partitions that migrated to, or from, the local node are started or stopped.
      */
     class ClusterMigrationListener implements MigrationListener {
         private final Subject<MigrationEvent> migrationEvent;
@@ -360,16 +640,16 @@ public class ConfigurationUpdateManager implements Runnable, Provider<Set<Config
             Subject<MigrationEvent> subj = PublishSubject.create();
             migrationEvent = subj.toSerialized();
 
-            // collect migration events every 10 seconds and remove any redundant tasks on every node
-            migrationEvent.buffer(10, TimeUnit.SECONDS)
+            // collect migration events every second and rebalance the tasks in the affected partitions
+            migrationEvent.buffer(MIGRATION_BUFFER_MILLIS, TimeUnit.MILLISECONDS)
                     // filter our windows when no events have been observed
                     .filter(events -> !events.isEmpty())
 
                     // log partition migration event
                     .doOnNext(events -> logger.info("[CLUSTER] Migrated {} partition", events.size()))
 
-                    // and update tasks
-                    .doOnNext(events -> updateTasksAfterClusterEvent())
+                    // and update the tasks in the migrated partitions
+                    .doOnNext(events -> rebalance(events.stream().map(MigrationEvent::getPartitionId).collect(Collectors.toSet())))
 
                     // process async
                     .subscribeOn(Schedulers.computation())
@@ -383,12 +663,16 @@ public class ConfigurationUpdateManager implements Runnable, Provider<Set<Config
 
         @Override
         public void migrationCompleted(MigrationEvent event) {
-            // if data was moved
-            if (event.getOldOwner() != event.getNewOwner()) {
+            // if data was moved to, or from, the local node
+            if (event.getOldOwner() != event.getNewOwner() && (isLocal(event.getOldOwner()) || isLocal(event.getNewOwner()))) {
                 migrationEvent.onNext(event);
             }
         }
 
+        private boolean isLocal(Member member) {
+            return nonNull(member) && member.localMember();
+        }
+
         @Override
         public void migrationFailed(MigrationEvent event) {
             logger.warn("[CLUSTER] Unexpected migration failure event {}", event);
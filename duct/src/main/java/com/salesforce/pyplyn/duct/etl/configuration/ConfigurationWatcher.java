@@ -0,0 +1,143 @@
+/*
+ *  Copyright (c) 2016-2017, Salesforce.com, Inc.
+ *  All rights reserved.
+ *  Licensed under the BSD 3-Clause license.
+ *  For full license text, see the LICENSE.txt file in repo root
+ *    or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.pyplyn.duct.etl.configuration;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+import static java.util.Objects.nonNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Watches the configurations directory and triggers a reload when configuration files are created,
+ *   modified, or deleted
+ * <p/>
+ * <p/>Events are coalesced until no further changes are observed for {@link #QUIET_PERIOD_MILLIS}, so that
+ *   editing several files (or writing a single file in multiple steps) only results in one reload.
+ * <p/>
+ * <p/>Filesystem events are not guaranteed to be delivered (e.g. on network filesystems), so this class
+ *   should only be used to speed up reloads; the periodic reload should remain scheduled as a safety net.
+ *
+ * @author Mihai Bojin &lt;mbojin@salesforce.com&gt;
+ * @since 10.0.0
+ */
+public class ConfigurationWatcher implements Runnable, Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(ConfigurationWatcher.class);
+    static final long QUIET_PERIOD_MILLIS = 500L;
+
+    private final Path dir;
+    private final WatchService watchService;
+    private final Runnable onChange;
+
+
+    /**
+     * Class constructor
+     *
+     * @param configurationsPath directory to watch
+     * @param onChange operation to run after configuration files have changed
+     * @throws IOException if the directory cannot be watched
+     */
+    public ConfigurationWatcher(String configurationsPath, Runnable onChange) throws IOException {
+        this.dir = Paths.get(configurationsPath);
+        this.onChange = onChange;
+        this.watchService = dir.getFileSystem().newWatchService();
+
+        try {
+            dir.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+
+        } catch (IOException e) {
+            watchService.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Waits for changes until {@link #close()} is called or the thread is interrupted
+     */
+    @Override
+    public void run() {
+        logger.info("Watching {} for configuration changes", dir);
+
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                // wait for the first change
+                WatchKey key = watchService.take();
+                boolean changed = processEvents(key);
+
+                // coalesce subsequent changes
+                while (nonNull(key = watchService.poll(QUIET_PERIOD_MILLIS, TimeUnit.MILLISECONDS))) {
+                    changed |= processEvents(key);
+                }
+
+                if (changed) {
+                    logger.info("Configuration changes detected in {}, reloading", dir);
+                    reload();
+                }
+            }
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+        } catch (ClosedWatchServiceException e) {
+            // nothing to do, the watcher was closed
+
+        } finally {
+            logger.info("Stopped watching {}", dir);
+        }
+    }
+
+    /**
+     * Runs the reload operation, ensuring that any failures do not stop the watcher
+     */
+    private void reload() {
+        try {
+            onChange.run();
+
+        } catch (RuntimeException e) {
+            logger.warn("Unexpected exception while reloading configurations", e);
+        }
+    }
+
+    /**
+     * Consumes all events associated with the specified key and resets it
+     *
+     * @return true if any configuration file was affected, or if events were lost
+     */
+    private static boolean processEvents(WatchKey key) {
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == OVERFLOW || isJsonFile(event.context())) {
+                changed = true;
+            }
+        }
+
+        key.reset();
+        return changed;
+    }
+
+    /**
+     * @return true if the event's context denotes a json file
+     */
+    private static boolean isJsonFile(Object context) {
+        return context instanceof Path && ((Path)context).getFileName().toString().endsWith(".json");
+    }
+
+    /**
+     * Stops watching the directory, causing {@link #run()} to return
+     */
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ *  Copyright (c) 2016-2017, Salesforce.com, Inc.
+ *  All rights reserved.
+ *  Licensed under the BSD 3-Clause license.
+ *  For full license text, see the LICENSE.txt file in repo root
+ *    or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.pyplyn.duct.etl.configuration;
+
+import static java.util.Objects.nonNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import com.salesforce.pyplyn.configuration.Configuration;
+import com.salesforce.pyplyn.model.Extract;
+import com.salesforce.pyplyn.model.Load;
+import com.salesforce.pyplyn.processor.ExtractPlan;
+import com.salesforce.pyplyn.processor.ExtractProcessor;
+import com.salesforce.pyplyn.processor.LoadPlan;
+import com.salesforce.pyplyn.processor.LoadProcessor;
+
+/**
+ * Compiled form of a {@link Configuration}, created once when the configuration is scheduled
+ * <p/>
+ * <p/>Each processor filters and prepares the definitions it handles when the plan is compiled
+ *   (see {@link ExtractProcessor#compile(List)} and {@link LoadProcessor#compile(List)}); processors that do not
+ *   handle any of the configuration's definitions are not part of the plan. As a result, each run only performs
+ *   IO and transforms.
+ *
+ * @author Mihai Bojin &lt;mbojin@salesforce.com&gt;
+ * @since 10.0.0
+ */
+public class ExecutionPlan {
+    private final List<ExtractPlan> extracts;
+    private final TransformChain transformChain;
+    private final List<LoadPlan> loads;
+
+
+    private ExecutionPlan(List<ExtractPlan> extracts, TransformChain transformChain, List<LoadPlan> loads) {
+        this.extracts = Collections.unmodifiableList(extracts);
+        this.transformChain = transformChain;
+        this.loads = Collections.unmodifiableList(loads);
+    }
+
+    /**
+     * Prepares the specified configuration for execution by the specified processors
+     */
+    public static ExecutionPlan compile(Configuration configuration,
+                                        Collection<ExtractProcessor<? extends Extract>> extractProcessors,
+                                        Collection<LoadProcessor<? extends Load>> loadProcessors) {
+        List<ExtractPlan> extracts = new ArrayList<>();
+        for (ExtractProcessor<? extends Extract> processor : extractProcessors) {
+            ExtractPlan plan = processor.compile(configuration.extract());
+            if (nonNull(plan)) {
+                extracts.add(plan);
+            }
+        }
+
+        List<LoadPlan> loads = new ArrayList<>();
+        for (LoadProcessor<? extends Load> processor : loadProcessors) {
+            LoadPlan plan = processor.compile(configuration.load());
+            if (nonNull(plan)) {
+                loads.add(plan);
+            }
+        }
+
+        return new ExecutionPlan(extracts, TransformChain.compile(configuration.transform()), loads);
+    }
+
+    /**
+     * @return the extract steps, one for each processor that handles the configuration's extracts
+     */
+    public List<ExtractPlan> extracts() {
+        return extracts;
+    }
+
+    /**
+     * @return the compiled transform chain
+     */
+    public TransformChain transformChain() {
+        return transformChain;
+    }
+
+    /**
+     * @return the load steps, one for each processor that handles the configuration's loads
+     */
+    public List<LoadPlan> loads() {
+        return loads;
+    }
+}
@@ -1,7 +1,6 @@
 package com.salesforce.pyplyn.duct.etl.configuration;
 
 import static com.salesforce.pyplyn.util.CollectionUtils.immutableOrEmptySet;
-import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.stream.Collectors.toList;
 
 import java.time.Duration;
@@ -9,6 +8,7 @@ import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Stream;
 
 import org.reactivestreams.Subscription;
@@ -22,14 +22,20 @@ import com.salesforce.pyplyn.configuration.Configuration;
 import com.salesforce.pyplyn.duct.app.ShutdownHook;
 import com.salesforce.pyplyn.duct.appconfig.AppConfig;
 import com.salesforce.pyplyn.model.*;
+import com.salesforce.pyplyn.processor.ExtractPlan;
 import com.salesforce.pyplyn.processor.ExtractProcessor;
 import com.salesforce.pyplyn.processor.LoadProcessor;
+import com.salesforce.pyplyn.status.MeterType;
+import com.salesforce.pyplyn.status.SystemStatus;
 
+import io.reactivex.BackpressureStrategy;
 import io.reactivex.Flowable;
+import io.reactivex.FlowableEmitter;
 import io.reactivex.Scheduler;
 import io.reactivex.disposables.Disposable;
 import io.reactivex.parallel.ParallelFailureHandling;
 import io.reactivex.plugins.RxJavaPlugins;
+import io.reactivex.processors.PublishProcessor;
 import io.reactivex.schedulers.Schedulers;
 
 /**
@@ -45,15 +51,23 @@ public class TaskManager<T extends Configuration> {
     private final Set<ExtractProcessor<? extends Extract>> extractProcessors;
     private final Set<LoadProcessor<? extends Load>> loadProcessors;
     private final ShutdownHook shutdownHook;
+    private final SystemStatus systemStatus;
 
     // dedicated schedulers
+    private final TimerWheelScheduler taskScheduler;
     private final Scheduler extractScheduler;
     private final Scheduler transformScheduler;
     private final Scheduler loadScheduler;
 
-    private final ConcurrentHashMap<T, Subscription> ACTIVE_SUBSCRIPTIONS = new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<T, Disposable> ACTIVE_PUBLISHERS = new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<T, Instant> LAST_EXECUTED = new ConcurrentHashMap<>();
+    // tasks are identified by their configuration's fingerprint
+    private final ConcurrentHashMap<String, T> ACTIVE_TASKS = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Subscription> ACTIVE_SUBSCRIPTIONS = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Disposable> ACTIVE_PUBLISHERS = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Instant> LAST_EXECUTED = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, AtomicLong> OVERRUNS = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Double> COSTS = new ConcurrentHashMap<>();
+
+    private final PublishProcessor<Boolean> SHUTDOWN_SIGNAL = PublishProcessor.create();
 
     private final CountDownLatch HAS_STARTED_PROCESSING = new CountDownLatch(1);
     private final CountDownLatch HAS_COMPLETED_PROCESSING = new CountDownLatch(1);
@@ -63,6 +77,15 @@ public class TaskManager<T extends Configuration> {
 
     private final boolean runOnce;
 
+    // resolution of the task scheduler
+    private static final long SCHEDULER_TICK_MILLIS = 10L;
+
+    // weight of the latest run, when averaging a task's cost
+    private static final double COST_SMOOTHING = 0.2d;
+
+    // overruns and late runs are reported for the whole node
+    private static final String METER_NAME = "";
+
 
     /**
      * Class constructor
@@ -71,18 +94,25 @@ public class TaskManager<T extends Configuration> {
     public TaskManager(AppConfig config,
                        Set<ExtractProcessor<? extends Extract>> extractProcessors,
                        Set<LoadProcessor<? extends Load>> loadProcessors,
-                       ShutdownHook shutdownHook) {
+                       ShutdownHook shutdownHook,
+                       SystemStatus systemStatus) {
         this.extractProcessors = extractProcessors;
         this.loadProcessors = loadProcessors;
         this.runOnce = config.global().runOnce();
         this.shutdownHook = shutdownHook;
+        this.systemStatus = systemStatus;
 
         // prioritize tasks based on their place in the pipeline
         Integer ioPoolSize = config.global().ioPoolsThreadSize();
-        extractScheduler = initExtractScheduler(ioPoolSize);
+        ExecutorService extractExecutor = initExtractExecutor(ioPoolSize);
+        extractScheduler = Schedulers.from(extractExecutor);
+        taskScheduler = initTaskScheduler(extractExecutor);
         transformScheduler = initTransformScheduler(ioPoolSize);
         loadScheduler = initLoadScheduler(ioPoolSize);
 
+        // complete all tasks when shutting down, since the task scheduler will stop emitting
+        shutdownHook.registerOperation(() -> SHUTDOWN_SIGNAL.onNext(true));
+
         // handle irrecoverable errors: allow graceful shutdown
         RxJavaPlugins.setErrorHandler(throwable -> {
             onError(throwable);
@@ -93,16 +123,30 @@ public class TaskManager<T extends Configuration> {
     }
 
     /**
-     * Initializes a scheduler that will be used for offloading IO work performed by {@link Extract}s
+     * Initializes an executor that will be used for offloading IO work performed by {@link Extract}s
      * <p/>
-     * <p/> Threads executed on this scheduler have {@link Thread#NORM_PRIORITY}
-     * @param ioPoolSize Size of thread pool for this scheduler
+     * <p/> Threads executed on this executor have {@link Thread#NORM_PRIORITY}
+     * @param ioPoolSize Size of thread pool for this executor
      */
-    private Scheduler initExtractScheduler(Integer ioPoolSize) {
+    private ExecutorService initExtractExecutor(Integer ioPoolSize) {
         ThreadFactory factory = newThreadFactory("TaskManager-Extract-%s", Thread.NORM_PRIORITY);
         ExecutorService executor = Executors.newFixedThreadPool(ioPoolSize, factory);
         shutdownHook.registerExecutor(executor);
-        return Schedulers.from(executor);
+        return executor;
+    }
+
+    /**
+     * Initializes the scheduler which keeps track of when each task is due
+     * <p/>
+     * <p/> Due tasks are dispatched in batches on the extract executor, since extracting data is their first step;
+     *   runs dispatched after their deadline are counted as {@link MeterType#TaskLate}
+     * @param extractExecutor Executor that runs due tasks
+     */
+    private TimerWheelScheduler initTaskScheduler(ExecutorService extractExecutor) {
+        TimerWheelScheduler scheduler = new TimerWheelScheduler(SCHEDULER_TICK_MILLIS, extractExecutor,
+                late -> systemStatus.meter(METER_NAME, MeterType.TaskLate).mark(late));
+        shutdownHook.registerExecutor(scheduler.ticker());
+        return scheduler;
     }
 
     /**
@@ -154,47 +198,53 @@ public class TaskManager<T extends Configuration> {
      * <p/> - and to remove the task once it's been disposed
      */
     public void upsert(T task) {
+        // compile the task once: filter and prepare its definitions for each processor, and fuse its transforms
+        final ExecutionPlan plan = ExecutionPlan.compile(task, extractProcessors, loadProcessors);
+
         Disposable disposable = createTask(task)
 
                 // ETL cycle
                 .flatMap((T configuration) -> {
+                    final long startedNanos = System.nanoTime();
+
                     // EXTRACT
 
-                    // merge all Extract results
-                    Flowable<List<List<Transmutation>>> transformed = Flowable.fromIterable(extractProcessors)
+                    // merge all Extract results, as columnar batches
+                    Flowable<TransmutationBatch> transformed = Flowable.fromIterable(plan.extracts())
                             .parallel()
                             .runOn(extractScheduler)
-                            .map(processor -> processor.executeAsync(configuration.extract()), ParallelFailureHandling.ERROR)
+                            .map(ExtractPlan::processBatchAsync, ParallelFailureHandling.ERROR)
                             .flatMap(s -> s)
-                            .reduce((list, items) -> Stream.concat(list.stream(), items.stream()).collect(toList()));
+                            .reduce((batch, other) -> TransmutationBatch.concat(Arrays.asList(batch, other)));
 
 
                     // TRANSFORM
-                    for (Transform transform : configuration.transform()) {
-                        // PollingTransforms are executed on a dedicated scheduler
-                        if (transform instanceof PollingTransform) {
-                            transformed = transformed.flatMap(tr -> transform.applyAsync(tr, transformScheduler));
-
-                        // standard transforms are observed on the computation scheduler
-                        } else {
-                            transformed = transformed.flatMap(tr -> transform.applyAsync(tr, Schedulers.computation()));
-                        }
-                    }
+                    // synchronous transforms are fused and run in a single pass;
+                    //   PollingTransforms are executed on a dedicated scheduler
+                    transformed = plan.transformChain().apply(transformed, transformScheduler);
+
 
                     // LOAD
                     return transformed
-                            // process each row individually
-                            .flatMap(Flowable::fromIterable)
+                            // pass the whole result set to each load processor, in a single call;
+                            //   processors are responsible for splitting it into requests, if required
+                            .filter(batch -> !batch.isEmpty())
+                            .map(TransmutationBatch::toList)
 
-                            // for each row an loadProcessor combination, apply
-                            .flatMap(resultRow -> Flowable.fromIterable(loadProcessors)
+                            .flatMap(results -> Flowable.fromIterable(plan.loads())
                                             .parallel()
                                             .runOn(loadScheduler)
-                                            .map(loadProcessor -> loadProcessor.executeAsync(resultRow, configuration.load()), ParallelFailureHandling.RETRY)
+                                            .map(load -> load.processAsync(results), ParallelFailureHandling.RETRY)
                                             .flatMap(s -> s)
                                             .reduce((all, r) -> Stream.concat(all.stream(), r.stream()).collect(toList()))
-                            );
-                })
+                            )
+
+                            // measure how long the whole ETL cycle took, to determine the task's cost
+                            .doFinally(() -> recordCost(configuration, System.nanoTime() - startedNanos));
+
+                // only run one instance of each task at a time; runs that are due while the previous one
+                //   is still in progress are dropped and counted as overruns (see createTask)
+                }, 1)
 
                 // lifecycle management
                 .doFinally(this::hookAfterTaskProcessed)
@@ -210,81 +260,134 @@ public class TaskManager<T extends Configuration> {
                 .subscribe();
 
         // register publisher and dispose previous one (if exists)
-        Optional.ofNullable(ACTIVE_PUBLISHERS.put(task, disposable)).ifPresent(Disposable::dispose);
+        ACTIVE_TASKS.put(task.fingerprint(), task);
+        Optional.ofNullable(ACTIVE_PUBLISHERS.put(task.fingerprint(), disposable)).ifPresent(Disposable::dispose);
     }
 
+    /**
+     * Creates a publisher which emits the task each time it is due, as determined by the {@link TimerWheelScheduler}
+     * <p/>
+     * <p/> If the task was previously executed (i.e. it is being updated), its first run is delayed until
+     *   {@link Configuration#repeatIntervalMillis()} has passed since the last execution
+     */
     public Flowable<T> createTask(T task) {
-        return Flowable.interval(0, task.repeatIntervalMillis(), MILLISECONDS)
+        final String id = task.fingerprint();
+        return Flowable.<T>create(source -> {
+                    // due runs may be dispatched from different threads
+                    FlowableEmitter<T> emitter = source.serialize();
+
+                    // determine when the task should first run
+                    Instant lastRun = LAST_EXECUTED.get(id);
+                    long delayMillis = 0;
+                    if (lastRun != null) {
+                        delayMillis = Math.max(0, Duration.between(Instant.now(), lastRun.plusMillis(task.repeatIntervalMillis())).toMillis());
+                    }
+
+                    // emit the task each time it's due; if only running once, complete after the first run
+                    TimerWheelScheduler.Timeout timeout = taskScheduler.schedule(delayMillis, runOnce ? 0 : task.repeatIntervalMillis(), () -> {
+                        emitter.onNext(task);
+                        if (runOnce) {
+                            emitter.onComplete();
+                        }
+                    });
 
-                // prevent configurations from running too often
-                .onBackpressureDrop()
+                    // stop scheduling the task when the subscription is cancelled
+                    emitter.setCancellable(timeout::cancel);
+                }, BackpressureStrategy.MISSING)
+
+                // prevent configurations from running while a previous run is still in progress
+                .onBackpressureDrop(this::onOverrun)
 
-                .map(i -> task)
                 // stop if shutting down
                 .takeWhile(t -> !shutdownHook.isShutdown())
-
-                // stop after the first task if only running once
-                .takeUntil(ignored -> runOnce)
+                .takeUntil(SHUTDOWN_SIGNAL)
 
                 // remove subscriptions that are disposed or completed
-                .doFinally(() -> ACTIVE_SUBSCRIPTIONS.remove(task))
+                .doFinally(() -> ACTIVE_SUBSCRIPTIONS.remove(id))
 
                 // lifecycle management
-                .doOnSubscribe(subscription -> Optional.ofNullable(ACTIVE_SUBSCRIPTIONS.put(task, subscription)).ifPresent(Subscription::cancel))
+                .doOnSubscribe(subscription -> Optional.ofNullable(ACTIVE_SUBSCRIPTIONS.put(id, subscription)).ifPresent(Subscription::cancel))
                 .doOnNext(disposableTask -> HAS_STARTED_PROCESSING.countDown())
 
-                .delay((item) -> {
-                    // get last execution time
-                    Instant lastRun = LAST_EXECUTED.computeIfAbsent(task,
-                            // or trigger a run by creating an Instant at the point in time where the configuration should have run last
-                            t -> Instant.now().minusMillis(task.repeatIntervalMillis()));
+                // mark the time at which we ran last
+                .doOnNext(results -> LAST_EXECUTED.put(id, Instant.now()));
+    }
 
-                    // compute duration between lastRun and now; D=lastRun-lastRun
-                    Duration duration = Duration.between(Instant.now(), lastRun)
-                            // substract the repeat interval; D=repeatInterval-(lastRun-now)
-                            .plusMillis(task.repeatIntervalMillis());
+    /**
+     * Records a run that was skipped, because the previous one was still in progress
+     */
+    private void onOverrun(T task) {
+        long overruns = OVERRUNS.computeIfAbsent(task.fingerprint(), t -> new AtomicLong()).incrementAndGet();
+        systemStatus.meter(METER_NAME, MeterType.TaskOverrun).mark();
+        logger.warn("Task still running after {}ms, skipping current run (overruns={}): {}", task.repeatIntervalMillis(), overruns, task.fingerprint());
+    }
 
-                    // D<=0; need to run now
-                    if (duration.isNegative() || duration.isZero()) {
-                        return Flowable.just(0L);
+    /**
+     * @return the number of runs that were skipped for the specified task, because its previous run was still in progress
+     */
+    public long overruns(T task) {
+        return Optional.ofNullable(OVERRUNS.get(task.fingerprint())).map(AtomicLong::get).orElse(0L);
+    }
 
-                        // D>0; need to run in D
-                    } else {
-                        return Flowable.timer(duration.toMillis(), TimeUnit.MILLISECONDS);
-                    }
-                })
 
-                // mark the time at which we ran last
-                .doOnNext(results -> LAST_EXECUTED.put(task, Instant.now()));
+    /**
+     * Updates the task's cost with the duration of its latest run, as an exponentially weighted moving average
+     */
+    private void recordCost(T task, long durationNanos) {
+        // do not record costs for tasks which were removed while running
+        if (!ACTIVE_TASKS.containsKey(task.fingerprint())) {
+            return;
+        }
+
+        double durationMillis = durationNanos / 1_000_000d;
+        COSTS.merge(task.fingerprint(), durationMillis, (previous, latest) -> previous + COST_SMOOTHING * (latest - previous));
+    }
+
+    /**
+     * @return the average duration of the specified task's runs, in milliseconds; includes the time spent extracting,
+     *   transforming and loading data, and 0 if the task has not run yet
+     */
+    public double cost(T task) {
+        return COSTS.getOrDefault(task.fingerprint(), 0d);
     }
 
+    /**
+     * @return the cost of each task that ran at least once, indexed by fingerprint
+     */
+    public Map<String, Double> costs() {
+        return new HashMap<>(COSTS);
+    }
 
     /**
      * De-register tasks
      */
     public void remove(T task) {
+        final String id = task.fingerprint();
+        ACTIVE_TASKS.remove(id);
+
         // if a publisher is present, cancel it and remove it from the map
-        ACTIVE_PUBLISHERS.computeIfPresent(task, (key, publisher) -> {
+        ACTIVE_PUBLISHERS.computeIfPresent(id, (key, publisher) -> {
             publisher.dispose();
             return null;
         });
 
         // if a subscription is present, cancel it and remove it from the map
-        ACTIVE_SUBSCRIPTIONS.computeIfPresent(task, (key, subscription) -> {
+        ACTIVE_SUBSCRIPTIONS.computeIfPresent(id, (key, subscription) -> {
             subscription.cancel();
             return null;
         });
 
-        // finally remove the last execution time, for memory management
-        LAST_EXECUTED.remove(task);
+        // finally remove the last execution time, overrun counts, and cost, for memory management
+        LAST_EXECUTED.remove(id);
+        OVERRUNS.remove(id);
+        COSTS.remove(id);
     }
 
     /**
      * @return all known tasks
      */
     public Set<T> allTasks() {
-        ArrayList<T> taskList = Collections.list(ACTIVE_PUBLISHERS.keys());
-        return immutableOrEmptySet(new HashSet<>(taskList));
+        return immutableOrEmptySet(new HashSet<>(ACTIVE_TASKS.values()));
     }
 
 
@@ -0,0 +1,169 @@
+/*
+ *  Copyright (c) 2016-2017, Salesforce.com, Inc.
+ *  All rights reserved.
+ *  Licensed under the BSD 3-Clause license.
+ *  For full license text, see the LICENSE.txt file in repo root
+ *    or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.pyplyn.duct.etl.configuration;
+
+import static java.util.Objects.nonNull;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.hazelcast.core.IMap;
+import com.hazelcast.map.listener.MapListener;
+import com.hazelcast.query.Predicates;
+import com.salesforce.pyplyn.configuration.Configuration;
+import com.salesforce.pyplyn.duct.appconfig.AppConfig;
+import com.salesforce.pyplyn.duct.cluster.Cluster;
+import com.salesforce.pyplyn.duct.cluster.CostBalancer;
+
+/**
+ * Assigns tasks to cluster members based on their cost, as measured by {@link TaskManager#cost(Configuration)}
+ * <p/>
+ * <p/>Each member publishes the costs of the tasks it runs and its total load; the master then assigns all tasks
+ *   using a {@link CostBalancer}, writing the member that should run each task into a distributed map.
+ *   Members start and stop tasks as their entries in this map change (see {@link ConfigurationUpdateManager}).
+ * <p/>
+ * <p/>Only enabled if running in cluster mode and {@link AppConfig.Hazelcast#balanceByCost()} is set.
+ *
+ * @author Mihai Bojin &lt;mbojin@salesforce.com&gt;
+ * @since 10.0.0
+ */
+@Singleton
+public class TaskPlacement {
+    private static final Logger logger = LoggerFactory.getLogger(TaskPlacement.class);
+    private static final String COSTS_MAP_KEY = "task-costs";
+    private static final String PLACEMENT_MAP_KEY = "task-placement";
+    private static final String LOADS_MAP_KEY = "member-loads";
+
+    // cost of tasks which did not run yet, if no other costs are known
+    private static final double DEFAULT_COST = 1d;
+
+    private final Cluster cluster;
+    private final TaskManager<Configuration> taskManager;
+    private final boolean balanceByCost;
+    private final double tolerance;
+
+
+    @Inject
+    public TaskPlacement(AppConfig appConfig, Cluster cluster, TaskManager<Configuration> taskManager) {
+        AppConfig.Hazelcast hazelcast = appConfig.hazelcast();
+        this.balanceByCost = nonNull(hazelcast) && hazelcast.balanceByCost();
+        this.tolerance = nonNull(hazelcast) ? hazelcast.balanceTolerance() : 0d;
+        this.cluster = cluster;
+        this.taskManager = taskManager;
+    }
+
+    /**
+     * @return true if tasks are assigned to members based on their cost
+     */
+    public boolean isEnabled() {
+        return balanceByCost && cluster.isEnabled();
+    }
+
+    /**
+     * Shares the costs of the tasks running on the local member, and the member's total load, with the cluster
+     */
+    public void publishCosts() {
+        Map<String, Double> costs = taskManager.costs();
+        if (!costs.isEmpty()) {
+            costsMap().putAll(costs);
+        }
+
+        double load = costs.values().stream().mapToDouble(Double::doubleValue).sum();
+        loadsMap().set(cluster.localMemberId(), load);
+    }
+
+    /**
+     * Assigns the specified tasks to cluster members, balancing their total cost, and removes the assignments
+     *   of any other tasks; should only be called on the master
+     *
+     * @param keys keys of all the tasks which should run in the cluster
+     */
+    public synchronized void place(Set<String> keys) {
+        IMap<String, String> placement = placementMap();
+        Set<String> members = cluster.memberIds();
+
+        // tasks which did not run yet are estimated to cost as much as the average task
+        Map<String, String> current = placement.getAll(keys);
+        Map<String, Double> known = costsMap().getAll(keys);
+        double estimate = known.values().stream().mapToDouble(Double::doubleValue).average().orElse(DEFAULT_COST);
+        Map<String, Double> costs = keys.stream().collect(Collectors.toMap(key -> key, key -> known.getOrDefault(key, estimate)));
+
+        // only write the assignments which changed, since each one causes a task to be started and stopped
+        Map<String, String> assignment = CostBalancer.assign(costs, members, current, tolerance);
+        Map<String, String> changed = assignment.entrySet().stream()
+                .filter(entry -> !Objects.equals(current.get(entry.getKey()), entry.getValue()))
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+        if (!changed.isEmpty()) {
+            placement.putAll(changed);
+        }
+
+        // remove tasks which should no longer run, and members which left the cluster
+        placement.keySet().stream().filter(key -> !keys.contains(key)).forEach(key -> {
+            placement.delete(key);
+            costsMap().delete(key);
+        });
+        loadsMap().keySet().stream().filter(member -> !members.contains(member)).forEach(loadsMap()::delete);
+
+        // compare the estimated loads with the ones last measured by each member
+        logger.info("[CLUSTER] Placed {} tasks, {} moved; estimated cost per member: {}; measured load per member: {}",
+                assignment.size(), changed.size(), CostBalancer.loads(costs, assignment), memberLoads());
+    }
+
+    /**
+     * @return the keys of all tasks assigned to the local member
+     */
+    public Set<String> localKeys() {
+        return placementMap().keySet(Predicates.equal("this", cluster.localMemberId()));
+    }
+
+    /**
+     * @return true if the specified task is assigned to the local member
+     */
+    public boolean isLocal(String key) {
+        return isLocalMember(placementMap().get(key));
+    }
+
+    /**
+     * @return true if the specified member identifier is the local member's
+     */
+    boolean isLocalMember(String memberId) {
+        return Objects.equals(memberId, cluster.localMemberId());
+    }
+
+    /**
+     * @return the total cost of the tasks running on each member, as last published by each member
+     */
+    public Map<String, Double> memberLoads() {
+        return new HashMap<>(loadsMap());
+    }
+
+    /**
+     * Registers a listener which is notified when tasks are assigned to members
+     */
+    public void addListener(MapListener listener) {
+        placementMap().addEntryListener(listener, true);
+    }
+
+    private IMap<String, String> placementMap() {
+        return cluster.distributedMap(PLACEMENT_MAP_KEY);
+    }
+
+    private IMap<String, Double> costsMap() {
+        return cluster.distributedMap(COSTS_MAP_KEY);
+    }
+
+    private IMap<String, Double> loadsMap() {
+        return cluster.distributedMap(LOADS_MAP_KEY);
+    }
+}
@@ -0,0 +1,351 @@
+/*
+ *  Copyright (c) 2016-2017, Salesforce.com, Inc.
+ *  All rights reserved.
+ *  Licensed under the BSD 3-Clause license.
+ *  For full license text, see the LICENSE.txt file in repo root
+ *    or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.pyplyn.duct.etl.configuration;
+
+import static java.util.Objects.isNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongConsumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Hierarchical timer wheel, which owns the next due time of every scheduled task
+ * <p/>
+ * <p/>Time is divided in ticks of {@link #tickMillis}; the wheel is made of {@link #LEVELS} levels of {@link #WHEEL_SIZE}
+ *   buckets, each level covering {@link #WHEEL_SIZE} times the span of the previous one. Tasks are placed in the lowest
+ *   level that can hold their deadline and are cascaded to lower levels as time advances. Scheduling and cancelling
+ *   are O(1) operations (a linked list insert or unlink), regardless of the number of scheduled tasks.
+ * <p/>
+ * <p/>A single thread advances the wheel; all tasks that expire in the same tick are dispatched as a single batch
+ *   to the specified executor.
+ *
+ * @author Mihai Bojin &lt;mbojin@salesforce.com&gt;
+ * @since 10.0.0
+ */
+public class TimerWheelScheduler {
+    private static final Logger logger = LoggerFactory.getLogger(TimerWheelScheduler.class);
+
+    private static final int WHEEL_BITS = 6;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int LEVELS = 4;
+
+    private final long tickMillis;
+    private final Executor dispatcher;
+    private final LongConsumer lateListener;
+    private final ExecutorService ticker;
+    private final Bucket[][] wheel = new Bucket[LEVELS][WHEEL_SIZE];
+    private final long startNanos = System.nanoTime();
+
+    // tasks which expired before being placed in the wheel; dispatched on the next tick
+    private final Bucket overdue = new Bucket();
+
+    // all ticks up to (and including) this one have been processed
+    private long currentTick;
+
+
+    /**
+     * Class constructor
+     *
+     * @param tickMillis Resolution of the scheduler
+     * @param dispatcher Executor which runs batches of due tasks
+     */
+    public TimerWheelScheduler(long tickMillis, Executor dispatcher) {
+        this(tickMillis, dispatcher, late -> {});
+    }
+
+    /**
+     * Class constructor
+     *
+     * @param tickMillis Resolution of the scheduler
+     * @param dispatcher Executor which runs batches of due tasks
+     * @param lateListener Notified with the number of periodic tasks which were dispatched at least a tick
+     *   after their deadline, each time the wheel could not keep up
+     */
+    public TimerWheelScheduler(long tickMillis, Executor dispatcher, LongConsumer lateListener) {
+        this.tickMillis = tickMillis;
+        this.dispatcher = dispatcher;
+        this.lateListener = lateListener;
+
+        for (int level = 0; level < LEVELS; level++) {
+            for (int slot = 0; slot < WHEEL_SIZE; slot++) {
+                wheel[level][slot] = new Bucket();
+            }
+        }
+
+        ticker = Executors.newSingleThreadExecutor(
+                new ThreadFactoryBuilder().setNameFormat("TimerWheelScheduler-%s").setDaemon(true).build());
+        ticker.execute(this::run);
+    }
+
+    /**
+     * @return the executor that advances the wheel, to allow it to be shut down
+     */
+    public ExecutorService ticker() {
+        return ticker;
+    }
+
+    /**
+     * Schedules a task
+     *
+     * @param delayMillis How long to wait until the first run
+     * @param periodMillis How often to repeat the task; if 0 or less, the task only runs once
+     * @param action Action to run when the task is due
+     * @return a {@link Timeout} which can be used to cancel the task
+     */
+    public Timeout schedule(long delayMillis, long periodMillis, Runnable action) {
+        Timeout timeout = new Timeout(this, periodMillis, action);
+        synchronized (this) {
+            // the deadline is computed from the current time, since the wheel may be up to a tick behind
+            timeout.deadline = Math.max(currentTick, millisToTicks(elapsedMillis() + Math.max(0, delayMillis)));
+            place(timeout);
+        }
+        return timeout;
+    }
+
+    /**
+     * @return the number of milliseconds since the scheduler was started
+     */
+    private long elapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Converts milliseconds to ticks, rounding up
+     */
+    private long millisToTicks(long millis) {
+        return (millis + tickMillis - 1) / tickMillis;
+    }
+
+    /**
+     * Places a timeout in the lowest level that can hold its deadline
+     * <p/>Must be called while holding the wheel's lock.
+     */
+    private void place(Timeout timeout) {
+        long delta = timeout.deadline - currentTick;
+        if (delta <= 0) {
+            overdue.add(timeout);
+            return;
+        }
+
+        for (int level = 0; level < LEVELS; level++) {
+            if (delta < 1L << (WHEEL_BITS * (level + 1))) {
+                wheel[level][slot(timeout.deadline, level)].add(timeout);
+                return;
+            }
+        }
+
+        // deadlines that exceed the wheel's span are kept in the last level and re-placed when cascaded
+        wheel[LEVELS - 1][slot(currentTick - 1, LEVELS - 1)].add(timeout);
+    }
+
+    private static int slot(long tick, int level) {
+        return (int)((tick >>> (WHEEL_BITS * level)) & WHEEL_MASK);
+    }
+
+    /**
+     * Advances the wheel by one tick and collects all expired timeouts
+     * <p/>Must be called while holding the wheel's lock.
+     */
+    private void advance(List<Timeout> expired) {
+        currentTick++;
+
+        // cascade higher levels, when lower levels complete a full rotation
+        for (int level = LEVELS - 1; level > 0; level--) {
+            if ((currentTick & ((1L << (WHEEL_BITS * level)) - 1)) == 0) {
+                Timeout timeout = wheel[level][slot(currentTick, level)].clear();
+                while (timeout != null) {
+                    Timeout next = timeout.next;
+                    timeout.next = null;
+                    place(timeout);
+                    timeout = next;
+                }
+            }
+        }
+
+        // expire all timeouts in the current slot
+        drain(overdue, expired);
+        drain(wheel[0][slot(currentTick, 0)], expired);
+    }
+
+    private static void drain(Bucket bucket, List<Timeout> expired) {
+        Timeout timeout = bucket.clear();
+        while (timeout != null) {
+            Timeout next = timeout.next;
+            timeout.next = null;
+            expired.add(timeout);
+            timeout = next;
+        }
+    }
+
+    /**
+     * Advances the wheel as time passes and dispatches expired timeouts
+     */
+    private void run() {
+        while (!ticker.isShutdown() && !Thread.currentThread().isInterrupted()) {
+            long targetTick = elapsedMillis() / tickMillis;
+
+            List<Timeout> expired = new ArrayList<>();
+            long late = 0;
+            synchronized (this) {
+                while (currentTick < targetTick) {
+                    advance(expired);
+                }
+
+                // reschedule periodic tasks, before dispatching the current run
+                for (Timeout timeout : expired) {
+                    if (timeout.periodMillis > 0 && !timeout.cancelled) {
+                        if (timeout.deadline < currentTick) {
+                            late++;
+                        }
+                        timeout.deadline = Math.max(timeout.deadline + millisToTicks(timeout.periodMillis), currentTick + 1);
+                        place(timeout);
+                    }
+                }
+            }
+
+            if (!expired.isEmpty()) {
+                dispatch(expired);
+            }
+
+            if (late > 0) {
+                lateListener.accept(late);
+            }
+
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(tickMillis));
+        }
+    }
+
+    /**
+     * Dispatches a batch of due tasks
+     */
+    private void dispatch(List<Timeout> batch) {
+        try {
+            dispatcher.execute(() -> {
+                for (Timeout timeout : batch) {
+                    if (timeout.cancelled) {
+                        continue;
+                    }
+
+                    try {
+                        timeout.action.run();
+
+                    } catch (RuntimeException e) {
+                        logger.warn("Unexpected exception while running scheduled task", e);
+                    }
+                }
+            });
+
+        } catch (RuntimeException e) {
+            // the dispatcher may reject tasks while shutting down
+            logger.warn("Could not dispatch {} tasks: {}", batch.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Cancels a timeout, unlinking it from its bucket
+     */
+    private synchronized void cancel(Timeout timeout) {
+        timeout.cancelled = true;
+        if (!isNull(timeout.bucket)) {
+            timeout.bucket.remove(timeout);
+        }
+    }
+
+
+    /**
+     * Handle of a scheduled task
+     */
+    public static class Timeout {
+        private final TimerWheelScheduler scheduler;
+        private final long periodMillis;
+        private final Runnable action;
+
+        // guarded by the scheduler's lock
+        private long deadline;
+        private Bucket bucket;
+        private Timeout prev;
+        private Timeout next;
+
+        private volatile boolean cancelled;
+
+        Timeout(TimerWheelScheduler scheduler, long periodMillis, Runnable action) {
+            this.scheduler = scheduler;
+            this.periodMillis = periodMillis;
+            this.action = action;
+        }
+
+        /**
+         * Stops the task from running again
+         */
+        public void cancel() {
+            scheduler.cancel(this);
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    /**
+     * Doubly-linked list of timeouts
+     */
+    private static class Bucket {
+        private Timeout head;
+
+        void add(Timeout timeout) {
+            timeout.bucket = this;
+            timeout.prev = null;
+            timeout.next = head;
+            if (!isNull(head)) {
+                head.prev = timeout;
+            }
+            head = timeout;
+        }
+
+        void remove(Timeout timeout) {
+            if (!isNull(timeout.prev)) {
+                timeout.prev.next = timeout.next;
+            } else {
+                head = timeout.next;
+            }
+
+            if (!isNull(timeout.next)) {
+                timeout.next.prev = timeout.prev;
+            }
+
+            timeout.bucket = null;
+            timeout.prev = null;
+            timeout.next = null;
+        }
+
+        /**
+         * Detaches and returns all timeouts in this bucket, as a singly-linked list
+         */
+        Timeout clear() {
+            Timeout first = head;
+            head = null;
+            for (Timeout timeout = first; timeout != null; timeout = timeout.next) {
+                timeout.bucket = null;
+                timeout.prev = null;
+            }
+            return first;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ *  Copyright (c) 2016-2017, Salesforce.com, Inc.
+ *  All rights reserved.
+ *  Licensed under the BSD 3-Clause license.
+ *  For full license text, see the LICENSE.txt file in repo root
+ *    or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.pyplyn.duct.etl.configuration;
+
+import static java.util.Objects.nonNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.salesforce.pyplyn.model.BatchTransform;
+import com.salesforce.pyplyn.model.PollingTransform;
+import com.salesforce.pyplyn.model.Transform;
+import com.salesforce.pyplyn.model.Transmutation;
+import com.salesforce.pyplyn.model.TransmutationBatch;
+
+import io.reactivex.Flowable;
+import io.reactivex.Scheduler;
+
+/**
+ * Compiled form of a configuration's {@link Transform} chain
+ * <p/>
+ * <p/>Consecutive transforms that do not perform IO are fused into a single stage, which applies all of them
+ *   in one pass, on the thread that delivered the input. Only {@link PollingTransform}s are executed asynchronously,
+ *   on the specified scheduler; these are the only points where the chain switches threads.
+ * <p/>
+ * <p/>Inside a fused stage, data is only converted between the columnar {@link TransmutationBatch} and the matrix
+ *   representation when the next transform requires it; i.e. consecutive standard transforms pass the same
+ *   matrix to each other, while consecutive {@link BatchTransform}s operate on batches.
+ *
+ * @author Mihai Bojin &lt;mbojin@salesforce.com&gt;
+ * @since 10.0.0
+ */
+public class TransformChain {
+    private final List<Stage> stages;
+
+
+    private TransformChain(List<Stage> stages) {
+        this.stages = Collections.unmodifiableList(stages);
+    }
+
+    /**
+     * Groups the specified transforms into stages
+     */
+    public static TransformChain compile(List<Transform> transforms) {
+        List<Stage> stages = new ArrayList<>();
+
+        List<Transform> fused = new ArrayList<>();
+        for (Transform transform : transforms) {
+            if (transform instanceof PollingTransform) {
+                // end the current fused stage, if any
+                if (!fused.isEmpty()) {
+                    stages.add(new FusedStage(fused));
+                    fused = new ArrayList<>();
+                }
+
+                stages.add(new PollingStage(transform));
+
+            } else {
+                fused.add(transform);
+            }
+        }
+
+        if (!fused.isEmpty()) {
+            stages.add(new FusedStage(fused));
+        }
+
+        return new TransformChain(stages);
+    }
+
+    /**
+     * @return the number of stages in this chain; each stage boundary is a potential thread switch
+     */
+    public int stages() {
+        return stages.size();
+    }
+
+    /**
+     * Applies all transforms on the specified input
+     *
+     * @param input Extracted data
+     * @param pollingScheduler Scheduler used to observe the results of {@link PollingTransform}s
+     */
+    public Flowable<TransmutationBatch> apply(Flowable<TransmutationBatch> input, Scheduler pollingScheduler) {
+        Flowable<TransmutationBatch> result = input;
+        for (Stage stage : stages) {
+            result = stage.apply(result, pollingScheduler);
+        }
+        return result;
+    }
+
+
+    /**
+     * A step in the transform chain
+     */
+    private interface Stage {
+        Flowable<TransmutationBatch> apply(Flowable<TransmutationBatch> input, Scheduler pollingScheduler);
+    }
+
+    /**
+     * Runs a single {@link PollingTransform} on the specified scheduler
+     */
+    private static class PollingStage implements Stage {
+        private final Transform transform;
+
+        PollingStage(Transform transform) {
+            this.transform = transform;
+        }
+
+        @Override
+        public Flowable<TransmutationBatch> apply(Flowable<TransmutationBatch> input, Scheduler pollingScheduler) {
+            return input.flatMap(batch -> BatchTransform.applyAsyncTo(transform, batch, pollingScheduler));
+        }
+    }
+
+    /**
+     * Runs consecutive, synchronous transforms in a single pass
+     */
+    private static class FusedStage implements Stage {
+        private final List<Transform> transforms;
+
+        FusedStage(List<Transform> transforms) {
+            this.transforms = Collections.unmodifiableList(transforms);
+        }
+
+        @Override
+        public Flowable<TransmutationBatch> apply(Flowable<TransmutationBatch> input, Scheduler pollingScheduler) {
+            return input.map(this::applyAll);
+        }
+
+        /**
+         * Applies all transforms, converting the data only when switching between batch and standard transforms
+         */
+        TransmutationBatch applyAll(TransmutationBatch input) {
+            TransmutationBatch batch = input;
+            List<List<Transmutation>> matrix = null;
+
+            for (Transform transform : transforms) {
+                if (transform instanceof BatchTransform) {
+                    if (nonNull(matrix)) {
+                        batch = TransmutationBatch.from(matrix);
+                        matrix = null;
+                    }
+
+                    BatchTransform batchTransform = (BatchTransform)transform;
+                    if (!batchTransform.skipTransform(batch)) {
+                        batch = batchTransform.applyBatch(batch);
+                    }
+
+                } else {
+                    if (nonNull(batch)) {
+                        matrix = batch.toMatrix();
+                        batch = null;
+                    }
+
+                    if (!transform.skipTransform(matrix)) {
+                        matrix = transform.apply(matrix);
+                    }
+                }
+            }
+
+            if (nonNull(matrix)) {
+                return TransmutationBatch.from(matrix);
+            }
+            return batch;
+        }
+    }
+}
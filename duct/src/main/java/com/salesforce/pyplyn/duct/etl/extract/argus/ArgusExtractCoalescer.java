@@ -0,0 +1,301 @@
+/*
+ *  Copyright (c) 2016-2017, Salesforce.com, Inc.
+ *  All rights reserved.
+ *  Licensed under the BSD 3-Clause license.
+ *  For full license text, see the LICENSE.txt file in repo root
+ *    or https://opensource.org/licenses/BSD-3-Clause
+ */
+package com.salesforce.pyplyn.duct.etl.extract.argus;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.salesforce.argus.model.MetricResponse;
+import com.salesforce.pyplyn.client.UnauthorizedException;
+import com.salesforce.pyplyn.duct.appconfig.AppConfig;
+
+/**
+ * Coalesces Argus expressions requested by concurrently running tasks into a single
+ *   {@link com.salesforce.argus.ArgusClient#getMetrics(List)} call per endpoint
+ * <p/>
+ * <p/>The first task requesting data from an endpoint opens a batch; any other task requesting data from the same
+ *   endpoint in the meantime joins the batch. If another call to the endpoint is already in progress, the opening task
+ *   waits for {@link AppConfig.Global#extractCoalesceWindowMillis()} to give other tasks a chance to join; otherwise
+ *   it sends the batch right away, so that tasks which do not overlap with others are not delayed.
+ *   The opening task then de-duplicates all (aliased) expressions, retrieves them with one call and hands each
+ *   waiting task the responses to the expressions it asked for.
+ * <p/>
+ * <p/>Tasks requesting an expression under a name which is already used by a different expression in the open batch
+ *   do not join it, since Argus responses are identified by name; they retrieve their expressions separately.
+ * <p/>
+ * <p/>If the coalesced call fails, each task that joined it retrieves its own expressions, so that a single bad
+ *   expression does not fail all tasks; authentication failures and rejected requests are passed to all tasks.
+ *
+ * @author Mihai Bojin &lt;mbojin@salesforce.com&gt;
+ * @since 10.0.0
+ */
+@Singleton
+public class ArgusExtractCoalescer {
+    private static final Logger logger = LoggerFactory.getLogger(ArgusExtractCoalescer.class);
+
+    private final ConcurrentHashMap<String, Batch> pendingBatches = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, AtomicInteger> activeCalls = new ConcurrentHashMap<>();
+    private final long windowMillis;
+
+    @Inject
+    public ArgusExtractCoalescer(AppConfig appConfig) {
+        this.windowMillis = appConfig.global().extractCoalesceWindowMillis();
+    }
+
+    /**
+     * Retrieves the specified expressions, sharing the remote call with any other tasks
+     *   that requested data from the same endpoint in the current window
+     *
+     * @param endpointId Argus endpoint to load data from
+     * @param expressions Map of expression names to their aliased expressions
+     * @param fetcher Performs the actual remote call, if the current task ends up opening the batch
+     *   or has to retrieve its expressions separately
+     * @return the responses matching the passed expressions, or null if the remote call failed
+     * @throws UnauthorizedException if the remote call could not be authorized
+     */
+    public List<MetricResponse> getMetrics(String endpointId, Map<String, String> expressions, Fetcher fetcher)
+            throws UnauthorizedException {
+        while (true) {
+            // join the currently open batch, or open a new one
+            final Batch opened = new Batch();
+            final Batch batch = pendingBatches.computeIfAbsent(endpointId, key -> opened);
+
+            switch (batch.add(expressions)) {
+                case JOINED:
+                    // if we opened the batch, retrieve all the expressions
+                    if (batch == opened) {
+                        dispatch(endpointId, batch, fetcher);
+                    }
+
+                    return await(endpointId, batch, expressions, fetcher);
+
+                case CONFLICT:
+                    // another task requested a different expression with the same name; its response could not be told apart
+                    return fetchSeparately(endpointId, expressions, fetcher);
+
+                default:
+                    // the batch was closed before we could join it; discard it and retry
+                    pendingBatches.remove(endpointId, batch);
+            }
+        }
+    }
+
+    /**
+     * Waits for the coalescing window (if other calls to the endpoint are in progress),
+     *   closes the batch and executes the remote call
+     */
+    private void dispatch(String endpointId, Batch batch, Fetcher fetcher) {
+        try {
+            if (windowMillis > 0 && activeCalls(endpointId).get() > 0) {
+                Thread.sleep(windowMillis);
+            }
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // stop accepting new expressions and remove the batch, so that any new requests will open a new one
+        List<String> expressions = batch.close();
+        pendingBatches.remove(endpointId, batch);
+
+        logger.info("Coalesced {} expression requests from {} tasks into {} unique expressions, endpoint {}",
+                batch.requested(), batch.tasks(), expressions.size(), endpointId);
+
+        try {
+            List<MetricResponse> responses = fetch(endpointId, expressions, fetcher);
+
+            // let each task retrieve its own expressions, if more than one task joined the failed call
+            if (isNull(responses) && batch.tasks() > 1) {
+                batch.result.completeExceptionally(new CoalescedCallFailedException());
+
+            } else {
+                batch.result.complete(responses);
+            }
+
+        } catch (UnauthorizedException | RejectedExecutionException e) {
+            batch.result.completeExceptionally(e);
+
+        } catch (RuntimeException e) {
+            logger.warn("Coalesced request for {} expressions failed, endpoint {}; due to {}", expressions.size(), endpointId, e.getMessage());
+            batch.result.completeExceptionally(batch.tasks() > 1 ? new CoalescedCallFailedException() : e);
+        }
+    }
+
+    /**
+     * Retrieves the expressions requested by a single task
+     *
+     * @return the retrieved responses, or null if the remote call failed
+     */
+    private List<MetricResponse> fetchSeparately(String endpointId, Map<String, String> expressions, Fetcher fetcher)
+            throws UnauthorizedException {
+        try {
+            return fetch(endpointId, new ArrayList<>(expressions.values()), fetcher);
+
+        } catch (RuntimeException e) {
+            logger.warn("Unexpected error while retrieving expressions {}, endpoint {}", expressions.keySet(), endpointId, e);
+            return null;
+        }
+    }
+
+    /**
+     * Executes the remote call, keeping track of the calls in progress for the endpoint
+     */
+    private List<MetricResponse> fetch(String endpointId, List<String> expressions, Fetcher fetcher) throws UnauthorizedException {
+        AtomicInteger active = activeCalls(endpointId);
+        active.incrementAndGet();
+        try {
+            return fetcher.fetch(expressions);
+
+        } finally {
+            active.decrementAndGet();
+        }
+    }
+
+    /**
+     * @return the number of calls in progress for the specified endpoint
+     */
+    private AtomicInteger activeCalls(String endpointId) {
+        return activeCalls.computeIfAbsent(endpointId, key -> new AtomicInteger());
+    }
+
+    /**
+     * Waits for the batch to complete and only returns the responses to the expressions requested by the current task;
+     *   retrieves the task's expressions separately if the coalesced call failed
+     */
+    private List<MetricResponse> await(String endpointId, Batch batch, Map<String, String> expressions, Fetcher fetcher)
+            throws UnauthorizedException {
+        try {
+            List<MetricResponse> responses = batch.result.get();
+            if (isNull(responses)) {
+                return null;
+            }
+
+            return responses.stream()
+                    .filter(response -> batch.requested(response.metric(), expressions.get(response.metric())))
+                    .collect(Collectors.toList());
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UnauthorizedException) {
+                throw (UnauthorizedException)e.getCause();
+            }
+
+            if (e.getCause() instanceof CoalescedCallFailedException) {
+                logger.info("Retrieving {} expressions separately, after the coalesced request failed, endpoint {}", expressions.size(), endpointId);
+                return fetchSeparately(endpointId, expressions, fetcher);
+            }
+
+            logger.warn("Unexpected error while retrieving coalesced expressions", e.getCause());
+            return null;
+        }
+    }
+
+
+    /**
+     * Performs the remote call for a closed batch
+     */
+    @FunctionalInterface
+    public interface Fetcher {
+        List<MetricResponse> fetch(List<String> expressions) throws UnauthorizedException;
+    }
+
+
+    /**
+     * Signals the tasks that joined a failed batch that they should retrieve their expressions separately
+     */
+    private static class CoalescedCallFailedException extends RuntimeException {
+        private static final long serialVersionUID = -6155232318129424734L;
+
+        CoalescedCallFailedException() {
+            super("Coalesced request failed", null, false, false);
+        }
+    }
+
+
+    /**
+     * Outcome of adding expressions to a batch
+     */
+    private enum Join {
+        JOINED, CLOSED, CONFLICT
+    }
+
+
+    /**
+     * Holds the expressions requested by all tasks that joined the batch, mapped by their names, while it is open
+     */
+    private static class Batch {
+        private final Map<String, String> expressions = new LinkedHashMap<>();
+        private final CompletableFuture<List<MetricResponse>> result = new CompletableFuture<>();
+        private boolean closed;
+        private int requested;
+        private int tasks;
+
+        /**
+         * Adds the specified expressions to the batch
+         *
+         * @return {@link Join#CLOSED} if the batch was already closed, or {@link Join#CONFLICT} if any of the names
+         *   was already requested for a different expression
+         */
+        synchronized Join add(Map<String, String> aliasedExpressions) {
+            if (closed) {
+                return Join.CLOSED;
+            }
+
+            for (Map.Entry<String, String> expression : aliasedExpressions.entrySet()) {
+                String existing = expressions.get(expression.getKey());
+                if (nonNull(existing) && !existing.equals(expression.getValue())) {
+                    return Join.CONFLICT;
+                }
+            }
+
+            expressions.putAll(aliasedExpressions);
+            requested += aliasedExpressions.size();
+            tasks++;
+            return Join.JOINED;
+        }
+
+        /**
+         * Closes the batch and returns all unique expressions
+         */
+        synchronized List<String> close() {
+            closed = true;
+            return new ArrayList<>(expressions.values());
+        }
+
+        /**
+         * @return true if the batch retrieved the specified expression under the specified name
+         */
+        synchronized boolean requested(String name, String expression) {
+            return nonNull(expression) && expression.equals(expressions.get(name));
+        }
+
+        synchronized int requested() {
+            return requested;
+        }
+
+        synchronized int tasks() {
+            return tasks;
+        }
+    }
+}
@@ -11,11 +11,11 @@ import static com.salesforce.pyplyn.util.FormatUtils.*;
 import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
 
-import java.text.ParseException;
 import java.time.Instant;
-import java.time.ZonedDateTime;
-import java.time.format.DateTimeParseException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -23,18 +23,26 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.codahale.metrics.Timer;
-import com.google.common.collect.Iterables;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import com.salesforce.argus.ArgusClient;
+import com.salesforce.argus.model.MetricDatapoints;
 import com.salesforce.argus.model.MetricResponse;
 import com.salesforce.pyplyn.cache.Cache;
+import com.salesforce.pyplyn.cache.InFlightRequests;
 import com.salesforce.pyplyn.client.UnauthorizedException;
 import com.salesforce.pyplyn.duct.app.ShutdownHook;
 import com.salesforce.pyplyn.duct.connector.AppConnectors;
+import com.salesforce.pyplyn.duct.connector.Bulkhead;
 import com.salesforce.pyplyn.model.ImmutableTransmutation;
 import com.salesforce.pyplyn.model.Transmutation;
+import com.salesforce.pyplyn.model.TransmutationBatch;
 import com.salesforce.pyplyn.processor.AbstractMeteredExtractProcessor;
+import com.salesforce.pyplyn.processor.ExtractPlan;
+
+import io.reactivex.Flowable;
 
 /**
  * Extracts data from Argus endpoints
@@ -49,11 +57,14 @@ public class ArgusExtractProcessor extends AbstractMeteredExtractProcessor<Argus
 
     private final AppConnectors appConnectors;
     private final ShutdownHook shutdownHook;
+    private final ArgusExtractCoalescer coalescer;
+    private final InFlightRequests<MetricResponse> inFlight = new InFlightRequests<>();
 
     @Inject
-    public ArgusExtractProcessor(AppConnectors appConnectors, ShutdownHook shutdownHook) {
+    public ArgusExtractProcessor(AppConnectors appConnectors, ShutdownHook shutdownHook, ArgusExtractCoalescer coalescer) {
         this.appConnectors = appConnectors;
         this.shutdownHook = shutdownHook;
+        this.coalescer = coalescer;
     }
 
     /**
@@ -61,26 +72,42 @@ public class ArgusExtractProcessor extends AbstractMeteredExtractProcessor<Argus
      */
     @Override
     public List<List<Transmutation>> process(List<Argus> data) {
-        // prepare a map of the datapoints that can be cached
-        final Map<String, Integer> cacheSettings = data.stream().filter(argus -> argus.cacheMillis() > 0).collect(Collectors.toMap(Argus::cacheKey, Argus::cacheMillis));
+        return processBatch(data).toMatrix();
+    }
 
-        // prepare a map of default values, in case no data is found for some of the expressions
-        final Map<String, Double> defaultValueMap = data.stream().filter(argus -> nonNull(argus.defaultValue())).collect(Collectors.toMap(Argus::name, Argus::defaultValue));
+    /**
+     * @return a columnar batch of metrics returned by executing the passed Argus expressions;
+     *         datapoints are copied directly from the primitive arrays held by {@link MetricDatapoints}
+     */
+    @Override
+    public TransmutationBatch processBatch(List<Argus> data) {
+        return TransmutationBatch.concat(extract(new Plan(data)));
+    }
 
-        // stream of metrics to be loaded from the endpoints or from cache
-        return data.stream()
-                // separate each metric by endpoint
-                .collect(Collectors.groupingBy(Argus::endpoint))
+    /**
+     * Groups the passed Argus expressions by endpoint and builds their aliased queries once,
+     *   leaving only the retrieval of metrics for each execution
+     */
+    @Override
+    public ExtractPlan prepare(List<Argus> data) {
+        final Plan plan = new Plan(data);
+        return () -> Flowable.fromCallable(() -> TransmutationBatch.concat(extract(plan)));
+    }
 
-                // then process each endpoint in parallel
-                .entrySet().parallelStream()
+    /**
+     * Loads the planned Argus expressions and maps each returned metric as a row
+     */
+    private List<TransmutationBatch> extract(Plan plan) {
+        // stream of metrics to be loaded from the endpoints or from cache; endpoints are processed on the calling
+        //   (extract scheduler) thread, since the common ForkJoinPool is not meant for blocking IO
+        return plan.endpoints.stream()
 
                 // process expressions for each endpoint
-                .map(endpointExpressions -> {
-                    final String endpointId = endpointExpressions.getKey();
+                .map(endpoint -> {
+                    final String endpointId = endpoint.endpointId;
 
                     // retrieve Argus client and cache for the specified endpoint
-                    AppConnectors.ClientAndCache<ArgusClient, MetricResponse> cc = appConnectors.retrieveOrBuildClient(endpointId, ArgusClient.class, MetricResponse.class);
+                    AppConnectors.ClientAndCache<ArgusClient, MetricResponse> cc = endpoint.clientAndCache.get();
                     final ArgusClient client = cc.client();
                     final Cache<MetricResponse> endpointCache = cc.cache();
 
@@ -98,72 +125,86 @@ public class ArgusExtractProcessor extends AbstractMeteredExtractProcessor<Argus
                         return null;
                     }
 
-                    // first load the cached responses
-                    final List<MetricResponse> cachedResponses = endpointExpressions.getValue().stream()
-                            .map(s -> endpointCache.isCached(s.cacheKey()))
-                            .filter(Objects::nonNull)
-                            .collect(Collectors.toList());
+                    // short circuit if app was shutdown
+                    if (shutdownHook.isShutdown()) {
+                        return null;
+                    }
 
+                    // load the cached responses and prepare the Argus expressions that aren't cached as strings, mapped by their names;
+                    //   expressions that are already being retrieved by other tasks are joined, instead of being requested again
+                    final List<MetricResponse> cachedResponses = new ArrayList<>();
+                    final Map<String, String> expressions = new LinkedHashMap<>();
+                    final Map<String, CompletableFuture<MetricResponse>> joinedRequests = new LinkedHashMap<>();
+                    for (Expression expression : endpoint.expressions) {
+                        final Argus argus = expression.argus;
+                        MetricResponse cached = endpointCache.isCached(argus.cacheKey());
+                        if (nonNull(cached)) {
+                            cachedResponses.add(cached);
+                            continue;
+                        }
 
-                    // prepare Argus expressions as strings
-                    List<String> expressions = endpointExpressions.getValue().stream()
+                        CompletableFuture<MetricResponse> pending = inFlight.joinOrOwn(expression.inFlightKey);
+                        if (nonNull(pending)) {
+                            joinedRequests.put(argus.name(), pending);
+                            requestJoined();
+                            continue;
+                        }
 
-                            // only processes expressions that aren't already cached
-                            .filter(s -> isNull(endpointCache.isCached(s.cacheKey())))
+                        // the previous request may have completed (and cached its response) just before we took ownership
+                        cached = endpointCache.isCached(argus.cacheKey());
+                        if (nonNull(cached)) {
+                            inFlight.complete(expression.inFlightKey, cached);
+                            cachedResponses.add(cached);
+                            continue;
+                        }
 
-                            // always alias the expression with the expected name,
-                            //   in order to be able to identify it in the response
-                            .map(ArgusExtractProcessor::aliasExpression)
-                            .collect(Collectors.toList());
+                        expressions.put(argus.name(), expression.aliasedExpression);
+                        requestStarted();
+                    }
 
                     try {
-                        // short circuit if app was shutdown
-                        if (shutdownHook.isShutdown()) {
-                            return null;
-                        }
-
                         // retrieve metrics from Argus endpoint, only if we have expressions to retrieve
-                        List<MetricResponse> metricResponses;
+                        final List<MetricResponse> metricResponses;
                         if (!expressions.isEmpty()) {
-                            try (Timer.Context context = systemStatus.timer(meterName(), "get-metrics." + endpointId).time()) {
-                                metricResponses = client.getMetrics(expressions);
-                            }
+                            metricResponses = retrieveAndCache(endpointId, client, cc.bulkhead(), endpointCache, expressions, plan.cacheSettings);
 
                             // determine if the retrieval failed; stop here if that's the case
                             if (isNull(metricResponses)) {
                                 failed();
                                 return null;
                             }
-
-                            // cache expressions that should be cached, based on their cacheMillis() settings mapped in canCache
-                            metricResponses.stream()
-                                    // we are not caching results with no data
-                                    .filter(ArgusExtractProcessor::responseHasDatapoints)
-                                    .forEach(result -> tryCache(endpointCache, result, cacheSettings));
                         } else {
                             metricResponses = Collections.emptyList();
                         }
 
+                        // wait for the requests started by other tasks
+                        final List<MetricResponse> joinedResponses = awaitJoined(joinedRequests, endpointId);
+                        if (isNull(joinedResponses)) {
+                            failed();
+                            return null;
+                        }
+
                         // mark successful operation and continue processing
                         succeeded();
 
                         // log cache debugging data
-                        logger.info("{} metrics loaded from cache, {} from endpoint {}",
-                                cachedResponses.size(), metricResponses.size(), endpointId);
+                        logger.info("{} metrics loaded from cache, {} from endpoint {}, {} from requests started by other tasks",
+                                cachedResponses.size(), metricResponses.size(), endpointId, joinedResponses.size());
 
                         // check all metrics with noData and populate with defaults, if required
-                        return Stream.concat(cachedResponses.stream(), metricResponses.stream())
+                        return Stream.of(cachedResponses, metricResponses, joinedResponses)
+                                .flatMap(Collection::stream)
 
                                 // if there is missing data, add default datapoints
                                 .map(result -> {
                                     // nothing to do if the response already has datapoints
                                     if (responseHasDatapoints(result)) {
                                         logger.info("Loaded data for {}, endpoint {}", result.metric(), endpointId);
-                                        return mapDatapointsAsResults(result, endpointId);
+                                        return mapDatapoints(result, result.datapoints(), sourceMetadata(result).build(), endpointId);
                                     }
 
                                     // if the response does not have any datapoints and a default value was not specified
-                                    Double defaultValue = defaultValueMap.get(result.metric());
+                                    Double defaultValue = plan.defaultValues.get(result.metric());
                                     if (isNull(defaultValue)) {
                                         // log no-data events
                                         logger.warn("No data for {}, endpoint {}", result.metric(), endpointId);
@@ -174,41 +215,15 @@ public class ArgusExtractProcessor extends AbstractMeteredExtractProcessor<Argus
                                     }
 
                                     // creates a default datapoint, based on the specified defaultValueMap
-                                    final Map.Entry<String, String> defaultMetricEntry = createDefaultDatapoint(defaultValue);
+                                    final MetricDatapoints defaultDatapoint = createDefaultDatapoint(defaultValue);
 
                                     // tags the result with a message, to denote that this is a default value and not extracted from the endpoint
                                     final String defaultValueMessage =
                                             generateDefaultValueMessage(result.metric(), defaultValue);
 
-                                    // return the default value, tagged with
-                                    return Optional.ofNullable(
-                                            // attempt to create a result
-                                            createResult(defaultMetricEntry.getKey(),
-                                                    defaultMetricEntry.getValue(),
-                                                    result.metric(),
-                                                    endpointId))
-
-                                            // tag each datapoint with the originating MetricResponse object
-                                            .map(transmutation -> addOriginalDatapoint(transmutation, result))
-
-                                            // add a default message
-                                            .map(transResult -> {
-                                                logger.info("Default data provided for {}={}, endpoint {}", result.metric(), transResult.value(), endpointId);
-                                                return ImmutableTransmutation.builder().from(transResult)
-                                                        .metadata(ImmutableTransmutation.Metadata.builder()
-                                                                .from(transResult.metadata())
-                                                                .addMessages(defaultValueMessage)
-                                                                .build())
-                                                        .build();
-
-                                            })
-
-                                            // and map to a list, which is the expected return type
-                                            .map(Collections::singletonList)
-
-                                            // or return an empty collection, for any failures
-                                            .orElse(null);
-
+                                    logger.info("Default data provided for {}={}, endpoint {}", result.metric(), defaultValue, endpointId);
+                                    return mapDatapoints(result, defaultDatapoint,
+                                            sourceMetadata(result).addMessages(defaultValueMessage).build(), endpointId);
                                 })
 
                                 // filter out any errors due to no-data or when creating the default response
@@ -218,7 +233,7 @@ public class ArgusExtractProcessor extends AbstractMeteredExtractProcessor<Argus
 
                         // catch any endpoint failures
                     } catch (UnauthorizedException e) {
-                        logger.error("Could not complete request for {}; failed expressions={}; due to {}", endpointId, expressions, e.getMessage());
+                        logger.error("Could not complete request for {}; failed expressions={}; due to {}", endpointId, expressions.values(), e.getMessage());
                         failed();
                     }
 
@@ -226,66 +241,125 @@ public class ArgusExtractProcessor extends AbstractMeteredExtractProcessor<Argus
                     return null;
                 })
 
-                // filter failures and return as List<MetricResponse>
+                // filter failures and return all rows
                 .filter(Objects::nonNull)
                 .flatMap(Collection::stream)
                 .collect(Collectors.toList());
     }
 
     /**
-     * Maps datapoints returned by Argus as a {@link Transmutation} matrix
+     * Retrieves the specified expressions from the endpoint, caches the responses and then passes them
+     *   to any tasks that joined the requests
+     * <p/>
+     * <p/>The responses are cached before completing the in-flight requests, so that tasks arriving after
+     *   the requests completed find them in the cache.
+     * <p/>
+     * <p/>The remote call is subject to the endpoint's {@link Bulkhead}; rejected calls are treated as failures.
+     *
+     * @return the retrieved responses, or null if the retrieval failed
      */
-    private List<Transmutation> mapDatapointsAsResults(MetricResponse metricResponse, String endpointId) {
-        // store metric name, as it's the same for all data points
-        final String metricName = metricResponse.metric();
+    private List<MetricResponse> retrieveAndCache(String endpointId, ArgusClient client, Bulkhead bulkhead, Cache<MetricResponse> endpointCache,
+                                                  Map<String, String> expressions, Map<String, Integer> cacheSettings)
+            throws UnauthorizedException {
+        List<MetricResponse> metricResponses = null;
+        try {
+            // share the remote call with any other tasks querying the same endpoint
+            metricResponses = coalescer.getMetrics(endpointId, expressions, coalescedExpressions -> {
+                try (Timer.Context context = systemStatus.timer(meterName(), "get-metrics." + endpointId).time()) {
+                    return bulkhead.call(() -> client.getMetrics(coalescedExpressions));
+                }
+            });
+
+            // cache expressions that should be cached, based on their cacheMillis() settings mapped in canCache
+            if (nonNull(metricResponses)) {
+                metricResponses.stream()
+                        // we are not caching results with no data
+                        .filter(ArgusExtractProcessor::responseHasDatapoints)
+                        .forEach(result -> tryCache(endpointCache, result, cacheSettings));
+            }
+
+            return metricResponses;
+
+        } finally {
+            completeInFlight(endpointId, expressions.keySet(), metricResponses);
+        }
+    }
 
-        // map each datapoint to a Transmutation object
-        return metricResponse.datapoints().entrySet().stream()
-                // create TransformResultStage object
-                .map(metricEntry -> createResult(metricEntry.getKey(), metricEntry.getValue(), metricName, endpointId))
+    /**
+     * Passes the retrieved responses to all tasks that joined the requests for the specified expression names,
+     *   or fails the requests if no responses were retrieved
+     */
+    private void completeInFlight(String endpointId, Set<String> names, List<MetricResponse> metricResponses) {
+        if (isNull(metricResponses)) {
+            names.forEach(name -> inFlight.fail(inFlightKey(endpointId, name),
+                    new IllegalStateException("Could not retrieve " + name + " from endpoint " + endpointId)));
+            return;
+        }
 
-                // filter any failures and collect
-                .filter(Objects::nonNull)
+        Map<String, MetricResponse> responsesByName = metricResponses.stream()
+                .collect(Collectors.toMap(MetricResponse::metric, Function.identity(), (a, b) -> a));
+        names.forEach(name -> inFlight.complete(inFlightKey(endpointId, name), responsesByName.get(name)));
+    }
 
-                // tag each datapoint with the originating MetricResponse object
-                .map(result -> addOriginalDatapoint(result, metricResponse))
+    /**
+     * Waits for the requests started by other tasks
+     *
+     * @return the responses retrieved by the other tasks, or null if any of the requests failed
+     */
+    private static List<MetricResponse> awaitJoined(Map<String, CompletableFuture<MetricResponse>> joinedRequests, String endpointId) {
+        List<MetricResponse> responses = new ArrayList<>(joinedRequests.size());
+        for (Map.Entry<String, CompletableFuture<MetricResponse>> request : joinedRequests.entrySet()) {
+            try {
+                // the endpoint may not have returned a response for this expression
+                MetricResponse response = InFlightRequests.await(request.getValue());
+                if (nonNull(response)) {
+                    responses.add(response);
+                }
+
+            } catch (ExecutionException e) {
+                logger.warn("Joined request for {} failed, endpoint {}; due to {}", request.getKey(), endpointId, e.getCause().getMessage());
+                return null;
+            }
+        }
 
-                .collect(Collectors.toList());
+        return responses;
     }
 
     /**
-     * Adds a reference to the original datapoint in the {@link Transmutation}'s metadata
+     * @return the key identifying requests for the specified expression name, on the specified endpoint
      */
-    private Transmutation addOriginalDatapoint(Transmutation input, Object source) {
-        return ImmutableTransmutation.builder().from(input)
-                .metadata(ImmutableTransmutation.Metadata.builder()
-                        .from(input.metadata())
-                        // TODO: do this for Refocus too, and/or define global flag for skipping this step
-                        //       alternatively, either specify this flag per configuration (+1) or detect if it will be required (based on some annotation
-                        //       implemented by Transforms - i.e.: @RequiresSourceObject
-                        .source(source)
-                        .build())
-                .build();
-
+    private static String inFlightKey(String endpointId, String name) {
+        return endpointId + "|" + name;
     }
 
+    /**
+     * Maps all datapoints of the specified response as a single-row {@link TransmutationBatch},
+     *   tagging them with the same metadata object
+     */
+    private static TransmutationBatch mapDatapoints(MetricResponse response, MetricDatapoints datapoints,
+                                                    Transmutation.Metadata metadata, String endpointId) {
+        final String metricName = response.metric();
+        TransmutationBatch.Builder builder = TransmutationBatch.builder(datapoints.size());
+        for (int i = 0; i < datapoints.size(); i++) {
+            double value = datapoints.value(i);
+            builder.add(datapoints.timeMillis(i), metricName, value, value, metadata);
+        }
 
+        return builder.endRow().build();
+    }
 
     /**
-     * Creates a datapoint map, containing a single result
-     * <p/>Creates one point marked at the current time with the value specified in the defaultValueMap object
-     *
-     * @return returns a Map.Entry containing the time and value of the default point
+     * Tags each datapoint with the originating {@link MetricResponse} object
      */
-    private Map.Entry<String, String> createDefaultDatapoint(Double defaultValue) {
-        SortedMap<String, String> defaultDatapoint = new TreeMap<>();
-
-        // init time and value and add to map
-        String time = Long.toString(Instant.now().toEpochMilli());
-        String value = formatNumber(defaultValue);
-        defaultDatapoint.put(time, value);
+    private static ImmutableTransmutation.Metadata.Builder sourceMetadata(MetricResponse response) {
+        return ImmutableTransmutation.Metadata.builder().source(response);
+    }
 
-        return Iterables.getOnlyElement(defaultDatapoint.entrySet());
+    /**
+     * Creates a single datapoint, marked at the current time with the value specified in the defaultValueMap object
+     */
+    private static MetricDatapoints createDefaultDatapoint(double defaultValue) {
+        return MetricDatapoints.of(new long[]{Instant.now().toEpochMilli()}, new double[]{defaultValue}, 1);
     }
 
     /**
@@ -305,28 +379,6 @@ public class ArgusExtractProcessor extends AbstractMeteredExtractProcessor<Argus
         return !response.datapoints().isEmpty();
     }
 
-    /**
-     * Creates an extract result
-     *
-     * @param time time of data point
-     * @param value value of data point
-     * @param metric name of data point
-     * @return Null if either time or value could not be parsed
-     */
-    private Transmutation createResult(String time, String value, String metric, String endpointId) {
-        try {
-            ZonedDateTime parsedTime = parseUTCTime(time);
-            Number parsedNumber = parseNumber(value);
-            return ImmutableTransmutation.of(parsedTime, metric, parsedNumber, parsedNumber,
-                    ImmutableTransmutation.Metadata.builder().build());
-
-        } catch (DateTimeParseException |ParseException e) {
-            logger.warn("No data for {}, endpoint {}; invalid time or value: {}", metric, endpointId, e.getMessage());
-            noData();
-            return null;
-        }
-    }
-
     /**
      * Attempts to cache getMetrics responses, if they are registered for caching
      *
@@ -341,6 +393,70 @@ public class ArgusExtractProcessor extends AbstractMeteredExtractProcessor<Argus
         }
     }
 
+    /**
+     * Argus expressions prepared for repeated execution: grouped by endpoint, deduplicated and aliased,
+     *   along with their cache settings and default values
+     */
+    private class Plan {
+        private final List<EndpointExpressions> endpoints;
+        private final Map<String, Integer> cacheSettings;
+        private final Map<String, Double> defaultValues;
+
+        Plan(List<Argus> data) {
+            // prepare a map of the datapoints that can be cached
+            cacheSettings = data.stream().filter(argus -> argus.cacheMillis() > 0)
+                    .collect(Collectors.toMap(Argus::cacheKey, Argus::cacheMillis, (a, b) -> a));
+
+            // prepare a map of default values, in case no data is found for some of the expressions
+            defaultValues = data.stream().filter(argus -> nonNull(argus.defaultValue()))
+                    .collect(Collectors.toMap(Argus::name, Argus::defaultValue, (a, b) -> a));
+
+            // separate each metric by endpoint
+            endpoints = data.stream()
+                    .collect(Collectors.groupingBy(Argus::endpoint, LinkedHashMap::new, Collectors.toList()))
+                    .entrySet().stream()
+                    .map(entry -> new EndpointExpressions(entry.getKey(), entry.getValue()))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Expressions to retrieve from a single endpoint; the endpoint's client and cache are resolved on first use
+     */
+    private class EndpointExpressions {
+        private final String endpointId;
+        private final List<Expression> expressions;
+        private final Supplier<AppConnectors.ClientAndCache<ArgusClient, MetricResponse>> clientAndCache;
+
+        EndpointExpressions(String endpointId, List<Argus> data) {
+            this.endpointId = endpointId;
+            this.clientAndCache = Suppliers.memoize(() -> appConnectors.retrieveOrBuildClient(endpointId, ArgusClient.class, MetricResponse.class));
+
+            // skip duplicate expressions
+            Map<String, Expression> byName = new LinkedHashMap<>();
+            data.forEach(argus -> byName.putIfAbsent(argus.name(), new Expression(endpointId, argus)));
+            this.expressions = new ArrayList<>(byName.values());
+        }
+    }
+
+    /**
+     * Argus expression, along with its aliased query and the key identifying its in-flight requests
+     */
+    private static class Expression {
+        private final Argus argus;
+        private final String aliasedExpression;
+        private final String inFlightKey;
+
+        Expression(String endpointId, Argus argus) {
+            this.argus = argus;
+
+            // always alias the expression with the expected name,
+            //   in order to be able to identify it in the response
+            this.aliasedExpression = aliasExpression(argus);
+            this.inFlightKey = inFlightKey(endpointId, argus.name());
+        }
+    }
+
     @Override
     public Class<Argus> filteredType() {
         return Argus.class;
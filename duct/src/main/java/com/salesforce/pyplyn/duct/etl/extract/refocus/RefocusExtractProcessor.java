@@ -15,32 +15,46 @@ import java.text.ParseException;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeParseException;
-import java.util.Collection;
-import java.util.Collections;
-import java.util.List;
-import java.util.Objects;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.codahale.metrics.Timer;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import com.salesforce.pyplyn.cache.Cache;
+import com.salesforce.pyplyn.cache.InFlightRequests;
 import com.salesforce.pyplyn.client.UnauthorizedException;
 import com.salesforce.pyplyn.duct.app.ShutdownHook;
+import com.salesforce.pyplyn.duct.appconfig.AppConfig;
 import com.salesforce.pyplyn.duct.connector.AppConnectors;
+import com.salesforce.pyplyn.duct.connector.Bulkhead;
 import com.salesforce.pyplyn.model.ImmutableTransmutation;
 import com.salesforce.pyplyn.model.Transmutation;
+import com.salesforce.pyplyn.model.TransmutationBatch;
 import com.salesforce.pyplyn.processor.AbstractMeteredExtractProcessor;
+import com.salesforce.pyplyn.processor.ExtractPlan;
 import com.salesforce.refocus.RefocusClient;
 import com.salesforce.refocus.model.ImmutableSample;
 import com.salesforce.refocus.model.Sample;
 
+import io.reactivex.Flowable;
+
 /**
  * Queries data from Refocus
  * <p/>Annotated as Singleton as there should only be one instance of this class in operation.
+ * <p/>
+ * <p/>Expressions with the same aspect, whose subjects share a parent, are retrieved with a single wildcard request;
+ *   the remaining requests run in parallel on the endpoint's {@link Bulkhead#scheduler()}, bounded by
+ *   {@link AppConfig.Global#extractMaxParallelLookups()}.
  *
  * @author Mihai Bojin &lt;mbojin@salesforce.com&gt;
  * @since 3.0
@@ -52,11 +66,14 @@ public class RefocusExtractProcessor extends AbstractMeteredExtractProcessor<Ref
 
     private final AppConnectors appConnectors;
     private final ShutdownHook shutdownHook;
+    private final InFlightRequests<List<Sample>> inFlight = new InFlightRequests<>();
+    private final int maxParallelLookups;
 
     @Inject
-    public RefocusExtractProcessor(AppConnectors appConnectors, ShutdownHook shutdownHook) {
+    public RefocusExtractProcessor(AppConnectors appConnectors, ShutdownHook shutdownHook, AppConfig appConfig) {
         this.appConnectors = appConnectors;
         this.shutdownHook = shutdownHook;
+        this.maxParallelLookups = appConfig.global().extractMaxParallelLookups();
     }
 
     /**
@@ -64,19 +81,31 @@ public class RefocusExtractProcessor extends AbstractMeteredExtractProcessor<Ref
      */
     @Override
     public List<List<Transmutation>> process(List<Refocus> data) {
-        return data.stream()
-                // group by Refocus endpoint
-                .collect(Collectors.groupingBy(Refocus::endpoint))
+        return extract(new Plan(data));
+    }
 
-                // process each endpoint in parallel
-                .entrySet().parallelStream()
+    /**
+     * Groups the passed Refocus expressions by endpoint once, leaving only the retrieval of samples for each execution
+     */
+    @Override
+    public ExtractPlan prepare(List<Refocus> data) {
+        final Plan plan = new Plan(data);
+        return () -> Flowable.fromCallable(() -> TransmutationBatch.from(extract(plan)));
+    }
+
+    /**
+     * Loads the planned Refocus expressions and returns their results
+     */
+    private List<List<Transmutation>> extract(Plan plan) {
+        // endpoints are processed on the calling (extract scheduler) thread, since the common ForkJoinPool is not meant for blocking IO
+        return plan.endpoints.stream()
 
                 // process each (endpointId, expressions) pair
-                .map(endpointExpressions -> {
-                    final String endpointId = endpointExpressions.getKey();
+                .map(endpoint -> {
+                    final String endpointId = endpoint.endpointId;
 
                     // retrieve Refocus client and cache for the specified endpoint
-                    AppConnectors.ClientAndCache<RefocusClient, Sample> cc = appConnectors.retrieveOrBuildClient(endpointId, RefocusClient.class, Sample.class);
+                    AppConnectors.ClientAndCache<RefocusClient, Sample> cc = endpoint.clientAndCache.get();
                     final RefocusClient client = cc.client();
                     final Cache<Sample> endpointCache = cc.cache();
 
@@ -94,74 +123,69 @@ public class RefocusExtractProcessor extends AbstractMeteredExtractProcessor<Ref
                         return null;
                     }
 
+                    // load cached samples
+                    final Map<Expression, Sample> cached = new HashMap<>();
+                    endpoint.expressions.forEach(expression -> {
+                        Sample sample = endpointCache.isCached(expression.refocus.cacheKey());
+                        if (nonNull(sample)) {
+                            cached.put(expression, sample);
+                        }
+                    });
+
+                    // retrieve the samples for all expressions that were not cached, combining expressions which
+                    //   are part of the same subject subtree; lookups are skipped if the app was shutdown
+                    final List<Lookup> lookups = endpoint.lookups.stream()
+                            .filter(lookup -> lookup.expressions.stream().anyMatch(expression -> !cached.containsKey(expression)))
+                            .collect(Collectors.toList());
+                    final Map<Lookup, List<Sample>> retrieved = shutdownHook.isShutdown() ? Collections.emptyMap()
+                            : retrieveAll(endpointId, cc, lookups);
+
                     // go through all expressions to load for the current endpoint
-                    return endpointExpressions.getValue().stream()
-                            .map(refocus -> {
+                    return endpoint.expressions.stream()
+                            .map(expression -> {
+                                final Refocus refocus = expression.refocus;
+
                                 // attempt to load from cache
                                 boolean isDefault = false;
-                                Sample sample = endpointCache.isCached(refocus.cacheKey());
+                                Sample sample = cached.get(expression);
 
-                                // if not found in cache, load from cache
+                                // if not found in cache, use the retrieved samples
                                 if (isNull(sample)) {
-                                    try {
-                                        // short circuit if app was shutdown
-                                        if (shutdownHook.isShutdown()) {
-                                            return null;
-                                        }
-
-                                        // load Sample from Refocus endpoint
-                                        try (Timer.Context context = systemStatus.timer(meterName(), "get-samples." + endpointId).time()) {
-                                            // retrive all samples by name
-                                            List<Sample> samples = client.getSamples(refocus.name());
-                                            if (samples.isEmpty()) {
-                                                failed();
-                                                return null;
-                                            }
-
-                                            // if we are looking to cache these samples, do so
-                                            if (refocus.cacheMillis() > 0) {
-                                                long cachedSamples = samples.stream()
-                                                        // filter out timed out samples
-                                                        .filter(s -> !isTimedOut(s))
-
-                                                        // cache all remaining ones
-                                                        .peek(s -> endpointCache.cache(s, refocus.cacheMillis()))
-
-                                                        // count how many samples we've cached
-                                                        .count();
-                                                logger.info("Cached {} samples for {}, endpoint {}", cachedSamples, refocus.name(), endpointId);
-                                            }
-
-                                            // find the required sample by endpoint
-                                            sample = samples.stream().filter(s -> Objects.equals(s.cacheKey(), refocus.cacheKey())).findFirst().orElse(null);
-                                        }
-
-                                        // if a null response was returned or the response is timed out, and we have a default value specified, generate a sample from it
-                                        if ((isNull(sample) || isTimedOut(sample)) && nonNull(refocus.defaultValue())) {
-                                            String now = ZonedDateTime.now(ZoneOffset.UTC).toString();
-                                            sample = ImmutableSample.builder()
-                                                    .name(refocus.filteredName())
-                                                    .value(formatNumber(refocus.defaultValue()))
-                                                    .updatedAt(now)
-                                                    .build();
-                                            logger.info("Default data provided for sample {}={}, endpoint {}", sample.name(), sample.value(), endpointId);
-                                            isDefault = true;
-                                        }
-
-                                        // if a null response was returned from endpoint and we didn't have a default value, mark no-data and stop
-                                        if (isNull(sample)) {
-                                            logger.error("No data for sample {}, endpoint {}; null response", refocus.filteredName(), endpointId);
-                                            noData();
-
-                                            return null;
-                                        }
-
-                                    } catch (UnauthorizedException e) {
-                                        logger.error("Could not complete sample get request for endpoint {}; failed metric={}; due to {}", endpointId, refocus.name(), e.getMessage());
+                                    // short circuit if app was shutdown
+                                    if (shutdownHook.isShutdown()) {
+                                        return null;
+                                    }
+
+                                    // stop if the samples could not be retrieved
+                                    final List<Sample> samples = retrieved.get(expression.lookup);
+                                    if (isNull(samples) || samples.isEmpty()) {
                                         failed();
                                         return null;
                                     }
 
+                                    // find the required sample by endpoint
+                                    sample = samples.stream().filter(s -> Objects.equals(s.cacheKey(), refocus.cacheKey())).findFirst().orElse(null);
+
+                                    // if a null response was returned or the response is timed out, and we have a default value specified, generate a sample from it
+                                    if ((isNull(sample) || isTimedOut(sample)) && nonNull(refocus.defaultValue())) {
+                                        String now = ZonedDateTime.now(ZoneOffset.UTC).toString();
+                                        sample = ImmutableSample.builder()
+                                                .name(refocus.filteredName())
+                                                .value(formatNumber(refocus.defaultValue()))
+                                                .updatedAt(now)
+                                                .build();
+                                        logger.info("Default data provided for sample {}={}, endpoint {}", sample.name(), sample.value(), endpointId);
+                                        isDefault = true;
+                                    }
+
+                                    // if a null response was returned from endpoint and we didn't have a default value, mark no-data and stop
+                                    if (isNull(sample)) {
+                                        logger.error("No data for sample {}, endpoint {}; null response", refocus.filteredName(), endpointId);
+                                        noData();
+
+                                        return null;
+                                    }
+
                                 } else {
                                     // log cache debugging data
                                     logger.info("Sample loaded from cache {}, endpoint {}", sample.name(), endpointId);
@@ -210,6 +234,249 @@ public class RefocusExtractProcessor extends AbstractMeteredExtractProcessor<Ref
     }
 
 
+    /**
+     * Refocus expressions prepared for repeated execution, grouped by endpoint
+     */
+    private class Plan {
+        private final List<EndpointExpressions> endpoints;
+
+        Plan(List<Refocus> data) {
+            endpoints = data.stream()
+                    // group by Refocus endpoint
+                    .collect(Collectors.groupingBy(Refocus::endpoint, LinkedHashMap::new, Collectors.toList()))
+                    .entrySet().stream()
+                    .map(entry -> new EndpointExpressions(entry.getKey(), entry.getValue()))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Expressions to retrieve from a single endpoint; the endpoint's client and cache are resolved on first use
+     */
+    private class EndpointExpressions {
+        private final String endpointId;
+        private final List<Expression> expressions;
+        private final List<Lookup> lookups;
+        private final Supplier<AppConnectors.ClientAndCache<RefocusClient, Sample>> clientAndCache;
+
+        EndpointExpressions(String endpointId, List<Refocus> data) {
+            this.endpointId = endpointId;
+            this.expressions = data.stream().map(Expression::new).collect(Collectors.toList());
+            this.lookups = planLookups(endpointId, expressions);
+            this.clientAndCache = Suppliers.memoize(() -> appConnectors.retrieveOrBuildClient(endpointId, RefocusClient.class, Sample.class));
+        }
+    }
+
+    /**
+     * Refocus expression, along with the lookup which retrieves its samples
+     */
+    private static class Expression {
+        private final Refocus refocus;
+        private Lookup lookup;
+
+        Expression(Refocus refocus) {
+            this.refocus = refocus;
+        }
+    }
+
+    /**
+     * A single getSamples request, retrieving the samples of one or more expressions, along with the key
+     *   identifying its in-flight requests
+     */
+    private static class Lookup {
+        private final String name;
+        private final List<Expression> expressions;
+        private final String inFlightKey;
+
+        Lookup(String endpointId, String name, List<Expression> expressions) {
+            this.name = name;
+            this.expressions = expressions;
+            this.inFlightKey = inFlightKey(endpointId, name);
+            expressions.forEach(expression -> expression.lookup = this);
+        }
+
+        /**
+         * @return how long to cache the specified sample, based on the expressions retrieved by this lookup;
+         *   a single expression caches all samples matching its name (which can include wildcards),
+         *   while combined expressions only cache the samples they requested
+         */
+        int cacheMillis(Sample sample) {
+            if (expressions.size() == 1) {
+                return expressions.get(0).refocus.cacheMillis();
+            }
+
+            return expressions.stream()
+                    .filter(expression -> Objects.equals(expression.refocus.cacheKey(), sample.cacheKey()))
+                    .mapToInt(expression -> expression.refocus.cacheMillis())
+                    .max()
+                    .orElse(0);
+        }
+    }
+
+    /**
+     * Combines expressions with the same aspect, whose subjects share the same parent,
+     *   into a single wildcard lookup (i.e.: Parent.Subject.*|ASPECT)
+     * <p/>
+     * <p/>Expressions that include wildcards, or which do not share their parent with other expressions,
+     *   are retrieved individually; expressions with the same name share a lookup.
+     */
+    private static List<Lookup> planLookups(String endpointId, List<Expression> expressions) {
+        // group expressions by the lookup that can retrieve them
+        Map<String, List<Expression>> byName = new LinkedHashMap<>();
+        Map<String, Set<String>> subjectsByName = new HashMap<>();
+        for (Expression expression : expressions) {
+            String name = subtreeName(expression.refocus);
+            byName.computeIfAbsent(name, key -> new ArrayList<>()).add(expression);
+            subjectsByName.computeIfAbsent(name, key -> new HashSet<>()).add(expression.refocus.name());
+        }
+
+        List<Lookup> lookups = new ArrayList<>();
+        byName.forEach((name, members) -> {
+            // only combine expressions if more than one sample is requested from the subtree
+            if (subjectsByName.get(name).size() > 1) {
+                lookups.add(new Lookup(endpointId, name, members));
+                return;
+            }
+
+            members.stream()
+                    .collect(Collectors.groupingBy(expression -> expression.refocus.name(), LinkedHashMap::new, Collectors.toList()))
+                    .forEach((individualName, sameName) -> lookups.add(new Lookup(endpointId, individualName, sameName)));
+        });
+
+        return lookups;
+    }
+
+    /**
+     * @return a name matching all samples with the same aspect, in the expression's parent subject;
+     *   or the expression's name, if it includes wildcards or does not have a parent
+     */
+    private static String subtreeName(Refocus refocus) {
+        String subject = refocus.subject();
+        int parentEnd = subject.lastIndexOf('.');
+        if (subject.contains("*") || parentEnd <= 0) {
+            return refocus.name();
+        }
+
+        return String.format("%s.*|%s", subject.substring(0, parentEnd), refocus.aspect());
+    }
+
+
+    /**
+     * Retrieves the samples for the specified lookups, running at most {@link #maxParallelLookups} in parallel
+     * <p/>
+     * <p/>Lookups run on the endpoint's {@link Bulkhead#scheduler()}, which bounds the number of threads used by
+     *   all tasks retrieving samples from the same endpoint.
+     *
+     * @return the samples retrieved by each lookup; failed lookups are not included
+     */
+    private Map<Lookup, List<Sample>> retrieveAll(String endpointId, AppConnectors.ClientAndCache<RefocusClient, Sample> cc,
+                                                  List<Lookup> lookups) {
+        final Map<Lookup, List<Sample>> retrieved = new ConcurrentHashMap<>();
+
+        // avoid switching threads when lookups cannot run in parallel
+        if (lookups.size() <= 1 || maxParallelLookups <= 1) {
+            lookups.forEach(lookup -> retrieve(endpointId, cc, lookup, retrieved));
+            return retrieved;
+        }
+
+        final Bulkhead bulkhead = cc.bulkhead();
+        Flowable.fromIterable(lookups)
+                .parallel(Math.min(lookups.size(), Math.min(maxParallelLookups, bulkhead.parallelism())))
+                .runOn(bulkhead.scheduler())
+                .doOnNext(lookup -> retrieve(endpointId, cc, lookup, retrieved))
+                .sequential()
+                .blockingSubscribe();
+        return retrieved;
+    }
+
+    /**
+     * Retrieves the samples for the specified lookup, or joins the request if another task is already retrieving them
+     * <p/>
+     * <p/>Failures are logged and only drop the current lookup, allowing the others to complete.
+     */
+    private void retrieve(String endpointId, AppConnectors.ClientAndCache<RefocusClient, Sample> cc, Lookup lookup,
+                          Map<Lookup, List<Sample>> retrieved) {
+        try {
+            final List<Sample> samples;
+            CompletableFuture<List<Sample>> pending = inFlight.joinOrOwn(lookup.inFlightKey);
+            if (isNull(pending)) {
+                requestStarted();
+                samples = retrieveAndCache(endpointId, cc.client(), cc.bulkhead(), cc.cache(), lookup);
+
+            } else {
+                requestJoined();
+                samples = InFlightRequests.await(pending);
+            }
+
+            retrieved.put(lookup, samples);
+
+        } catch (UnauthorizedException | RejectedExecutionException e) {
+            logger.error("Could not complete sample get request for endpoint {}; failed metric={}; due to {}", endpointId, lookup.name, e.getMessage());
+
+        } catch (ExecutionException e) {
+            logger.error("Joined sample get request failed for endpoint {}; failed metric={}; due to {}", endpointId, lookup.name, e.getCause().getMessage());
+
+        } catch (RuntimeException e) {
+            logger.error("Unexpected error while retrieving samples for endpoint {}; failed metric={}", endpointId, lookup.name, e);
+        }
+    }
+
+    /**
+     * Retrieves all samples matching the specified lookup, caches them if required, and then passes
+     *   them to any tasks that joined the request
+     * <p/>
+     * <p/>The remote call is subject to the endpoint's {@link Bulkhead}.
+     *
+     * @throws RejectedExecutionException if the endpoint is saturated
+     */
+    private List<Sample> retrieveAndCache(String endpointId, RefocusClient client, Bulkhead bulkhead, Cache<Sample> endpointCache,
+                                          Lookup lookup) throws UnauthorizedException {
+        List<Sample> samples = null;
+        try (Timer.Context context = systemStatus.timer(meterName(), "get-samples." + endpointId).time()) {
+            // retrive all samples by name
+            samples = bulkhead.call(() -> client.getSamples(lookup.name));
+
+            // cache the samples that should be cached
+            long cachedSamples = samples.stream()
+                    // filter out timed out samples
+                    .filter(s -> !isTimedOut(s))
+
+                    // cache all remaining ones, based on the settings of the expressions that requested them
+                    .filter(s -> {
+                        int cacheMillis = lookup.cacheMillis(s);
+                        if (cacheMillis > 0) {
+                            endpointCache.cache(s, cacheMillis);
+                            return true;
+                        }
+                        return false;
+                    })
+
+                    // count how many samples we've cached
+                    .count();
+            if (cachedSamples > 0) {
+                logger.info("Cached {} samples for {}, endpoint {}", cachedSamples, lookup.name, endpointId);
+            }
+
+            return samples;
+
+        } finally {
+            // samples are cached before completing the request, so that tasks arriving afterwards find them in the cache
+            if (isNull(samples)) {
+                inFlight.fail(lookup.inFlightKey, new IllegalStateException("Could not retrieve samples for " + lookup.name + " from endpoint " + endpointId));
+
+            } else {
+                inFlight.complete(lookup.inFlightKey, samples);
+            }
+        }
+    }
+
+    /**
+     * @return the key identifying requests for the specified expression name, on the specified endpoint
+     */
+    private static String inFlightKey(String endpointId, String name) {
+        return endpointId + "|" + name;
+    }
+
     /**
      * Creates an extract result
      *
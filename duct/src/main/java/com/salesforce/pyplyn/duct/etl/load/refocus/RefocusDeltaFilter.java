@@ -0,0 +1,178 @@
+/*
+ *  Copyright (c) 2016-2017, Salesforce.com, Inc.
+ *  All rights reserved.
+ *  Licensed under the BSD 3-Clause license.
+ *  For full license text, see the LICENSE.txt file in repo root
+ *    or https://opensource.org/licenses/BSD-3-Clause
+ */
+package com.salesforce.pyplyn.duct.etl.load.refocus;
+
+import static java.util.Objects.isNull;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.salesforce.pyplyn.duct.appconfig.AppConfig;
+import com.salesforce.refocus.model.Sample;
+
+/**
+ * Suppresses samples which were already upserted into Refocus, with the same value, messageCode and messageBody
+ * <p/>
+ * <p/>Remembers a hash of the last sample upserted, for each (endpoint, sample name) pair; samples which do not
+ *   change are only sent again once {@link AppConfig.Global#loadDeltaRefreshMillis()} passed since they were last
+ *   upserted, to ensure they do not time out in Refocus. This interval should be lower than the timeout of the
+ *   corresponding Refocus aspects.
+ * <p/>
+ * <p/>Hashes older than the refresh interval no longer suppress any samples and are pruned, at most once per interval,
+ *   so that samples which are not upserted anymore are not remembered indefinitely.
+ * <p/>
+ * <p/>A refresh interval of 0 disables suppression.
+ *
+ * @author Mihai Bojin &lt;mbojin@salesforce.com&gt;
+ * @since 10.0.0
+ */
+@Singleton
+public class RefocusDeltaFilter {
+    private static final HashFunction HASH = Hashing.murmur3_128();
+
+    private final ConcurrentHashMap<String, Upserted> upserted = new ConcurrentHashMap<>();
+    private final long refreshMillis;
+    private final LongSupplier clock;
+    private final AtomicLong lastPruneMillis;
+
+
+    @Inject
+    public RefocusDeltaFilter(AppConfig appConfig) {
+        this(appConfig.global().loadDeltaRefreshMillis(), System::currentTimeMillis);
+    }
+
+    /**
+     * Class constructor, allowing the clock to be specified
+     */
+    RefocusDeltaFilter(long refreshMillis, LongSupplier clock) {
+        this.refreshMillis = refreshMillis;
+        this.clock = clock;
+        this.lastPruneMillis = new AtomicLong(clock.getAsLong());
+    }
+
+    /**
+     * @return true if unchanged samples should be suppressed
+     */
+    public boolean isEnabled() {
+        return refreshMillis > 0;
+    }
+
+    /**
+     * Returns the samples which need to be upserted: samples that changed since they were last upserted,
+     *   or which are due for a refresh
+     *
+     * @param endpointId Refocus endpoint the samples are upserted to
+     * @param samples samples to filter
+     */
+    public List<Sample> changed(String endpointId, List<Sample> samples) {
+        if (!isEnabled()) {
+            return samples;
+        }
+
+        final long now = clock.getAsLong();
+        return samples.stream()
+                .filter(sample -> {
+                    Upserted last = upserted.get(key(endpointId, sample));
+                    return isNull(last) || last.hash != hash(sample) || isDue(last, now);
+                })
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Records the specified samples as upserted; should only be called after the upsert succeeded,
+     *   so that failed samples will be sent again
+     */
+    public void upserted(String endpointId, List<Sample> samples) {
+        if (!isEnabled()) {
+            return;
+        }
+
+        final long now = clock.getAsLong();
+        samples.forEach(sample -> upserted.put(key(endpointId, sample), new Upserted(hash(sample), now)));
+        prune(now);
+    }
+
+    /**
+     * Removes the hashes which are due for a refresh, if at least one refresh interval passed since the last prune
+     */
+    private void prune(long now) {
+        long last = lastPruneMillis.get();
+        if (now - last < refreshMillis || !lastPruneMillis.compareAndSet(last, now)) {
+            return;
+        }
+
+        upserted.values().removeIf(upsert -> isDue(upsert, now));
+    }
+
+    /**
+     * @return true if the refresh interval passed since the sample was last upserted
+     */
+    private boolean isDue(Upserted last, long now) {
+        return now - last.timeMillis >= refreshMillis;
+    }
+
+    /**
+     * @return the number of samples whose hashes are currently remembered
+     */
+    int size() {
+        return upserted.size();
+    }
+
+    /**
+     * @return the key identifying the specified sample, on the specified endpoint
+     */
+    private static String key(String endpointId, Sample sample) {
+        return endpointId + "|" + sample.name();
+    }
+
+    /**
+     * Hashes the sample's value, messageCode and messageBody
+     */
+    private static long hash(Sample sample) {
+        Hasher hasher = HASH.newHasher();
+        putNullable(hasher, sample.value());
+        putNullable(hasher, sample.messageCode());
+        putNullable(hasher, sample.messageBody());
+        return hasher.hash().asLong();
+    }
+
+    /**
+     * Hashes the specified string, distinguishing between null and empty values
+     */
+    private static void putNullable(Hasher hasher, String value) {
+        if (isNull(value)) {
+            hasher.putInt(-1);
+            return;
+        }
+
+        hasher.putInt(value.length()).putString(value, StandardCharsets.UTF_8);
+    }
+
+
+    /**
+     * Hash of the last upserted sample and the time it was upserted at
+     */
+    private static class Upserted {
+        private final long hash;
+        private final long timeMillis;
+
+        Upserted(long hash, long timeMillis) {
+            this.hash = hash;
+            this.timeMillis = timeMillis;
+        }
+    }
+}
@@ -0,0 +1,392 @@
+/*
+ *  Copyright (c) 2016-2017, Salesforce.com, Inc.
+ *  All rights reserved.
+ *  Licensed under the BSD 3-Clause license.
+ *  For full license text, see the LICENSE.txt file in repo root
+ *    or https://opensource.org/licenses/BSD-3-Clause
+ */
+package com.salesforce.pyplyn.duct.etl.load.refocus;
+
+import static java.util.Objects.isNull;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.salesforce.pyplyn.client.UnauthorizedException;
+import com.salesforce.pyplyn.duct.appconfig.AppConfig;
+import com.salesforce.pyplyn.duct.connector.Bulkhead;
+import com.salesforce.refocus.model.Link;
+import com.salesforce.refocus.model.Sample;
+
+import io.reactivex.Flowable;
+
+/**
+ * Aggregates samples posted by concurrently running tasks into a single
+ *   {@link com.salesforce.refocus.RefocusClient#upsertSamplesBulk(List)} call per endpoint
+ * <p/>
+ * <p/>The first task posting to an endpoint opens a batch; any other task posting to the same endpoint in the meantime
+ *   adds its samples to the batch. If another upsert to the endpoint is already in progress, the opening task waits for
+ *   {@link AppConfig.Global#loadAggregateWindowMillis()}, or until the batch holds
+ *   {@link AppConfig.Global#loadAggregateMaxSamples()}; otherwise it sends the batch right away, so that tasks
+ *   which do not overlap with others are not delayed. Every task that contributed to the batch receives the result
+ *   of the shared upsert.
+ * <p/>
+ * <p/>If more than one task posts a sample with the same name, only the last one is sent, since Refocus would
+ *   overwrite the previous values anyway.
+ * <p/>
+ * <p/>Large batches are split into chunks of at most {@link AppConfig.Global#loadChunkMaxSamples()} samples and
+ *   {@link AppConfig.Global#loadChunkMaxBytes()} (estimated) bytes, which are upserted in parallel, on the endpoint's
+ *   {@link Bulkhead#scheduler()}. Failed chunks are retried {@link AppConfig.Global#loadChunkRetries()} times,
+ *   without resending the others, waiting {@link AppConfig.Global#loadChunkRetryBackoffMillis()} before the first
+ *   retry and doubling the wait for each subsequent one, up to {@link #MAX_BACKOFF_MULTIPLIER} times the initial value.
+ * <p/>
+ * <p/>A window of 0 disables the wait entirely; tasks will still join a batch that is being opened at the same time.
+ *
+ * @author Mihai Bojin &lt;mbojin@salesforce.com&gt;
+ * @since 10.0.0
+ */
+@Singleton
+public class RefocusLoadAggregator {
+    private static final Logger logger = LoggerFactory.getLogger(RefocusLoadAggregator.class);
+
+    // approximate size of the JSON field names, quotes and separators surrounding each sample's and link's values
+    private static final int SAMPLE_OVERHEAD_BYTES = 80;
+    private static final int LINK_OVERHEAD_BYTES = 25;
+
+    // maximum wait between retries, relative to the initial backoff
+    static final int MAX_BACKOFF_MULTIPLIER = 8;
+
+    private final ConcurrentHashMap<String, Batch> pendingBatches = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, AtomicInteger> activeUpserts = new ConcurrentHashMap<>();
+    private final long windowMillis;
+    private final int maxSamples;
+    private final int chunkMaxSamples;
+    private final long chunkMaxBytes;
+    private final int chunkRetries;
+    private final long retryBackoffMillis;
+
+    @Inject
+    public RefocusLoadAggregator(AppConfig appConfig) {
+        this.windowMillis = appConfig.global().loadAggregateWindowMillis();
+        this.maxSamples = appConfig.global().loadAggregateMaxSamples();
+        this.chunkMaxSamples = appConfig.global().loadChunkMaxSamples();
+        this.chunkMaxBytes = appConfig.global().loadChunkMaxBytes();
+        this.chunkRetries = appConfig.global().loadChunkRetries();
+        this.retryBackoffMillis = appConfig.global().loadChunkRetryBackoffMillis();
+    }
+
+    /**
+     * Upserts the specified samples, sharing the remote call with any other tasks
+     *   that posted to the same endpoint in the current window
+     *
+     * @param endpointId Refocus endpoint to post data to
+     * @param bulkhead the endpoint's bulkhead, whose scheduler runs the chunks in parallel
+     * @param samples samples to upsert
+     * @param upserter performs the actual remote call for each chunk, if the current task ends up opening the batch
+     * @return the result of the shared upsert; false if any of the chunks could not be upserted
+     * @throws UnauthorizedException if the remote call could not be authorized
+     */
+    public boolean upsert(String endpointId, Bulkhead bulkhead, List<Sample> samples, Upserter upserter) throws UnauthorizedException {
+        while (true) {
+            // join the currently open batch, or open a new one
+            final Batch opened = new Batch(maxSamples);
+            final Batch batch = pendingBatches.computeIfAbsent(endpointId, key -> opened);
+
+            if (batch.add(samples)) {
+                // if we opened the batch, wait for the window to close (or for the batch to fill) and upsert all samples
+                if (batch == opened) {
+                    dispatch(endpointId, bulkhead, batch, upserter);
+                }
+
+                return await(batch);
+            }
+
+            // the batch was closed before we could join it; discard it and retry
+            pendingBatches.remove(endpointId, batch);
+        }
+    }
+
+    /**
+     * Waits for the aggregation window (if other upserts to the endpoint are in progress),
+     *   closes the batch and executes the remote call
+     */
+    private void dispatch(String endpointId, Bulkhead bulkhead, Batch batch, Upserter upserter) {
+        try {
+            if (windowMillis > 0 && activeUpserts(endpointId).get() > 0) {
+                batch.full.await(windowMillis, TimeUnit.MILLISECONDS);
+            }
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // stop accepting new samples and remove the batch, so that any new requests will open a new one
+        List<Sample> samples = batch.close();
+        pendingBatches.remove(endpointId, batch);
+
+        List<List<Sample>> chunks = chunk(samples, chunkMaxSamples, chunkMaxBytes);
+        logger.info("Aggregated {} samples from {} tasks into {} unique samples, sent in {} chunks, endpoint {}",
+                batch.posted(), batch.tasks(), samples.size(), chunks.size(), endpointId);
+
+        AtomicInteger active = activeUpserts(endpointId);
+        active.incrementAndGet();
+        try {
+            batch.result.complete(upsertChunks(endpointId, bulkhead, chunks, upserter));
+
+        } catch (UnauthorizedException | RuntimeException e) {
+            batch.result.completeExceptionally(e);
+
+        } finally {
+            active.decrementAndGet();
+        }
+    }
+
+    /**
+     * @return the number of upserts in progress for the specified endpoint
+     */
+    private AtomicInteger activeUpserts(String endpointId) {
+        return activeUpserts.computeIfAbsent(endpointId, key -> new AtomicInteger());
+    }
+
+    /**
+     * Upserts all chunks, in parallel, on the endpoint's bounded scheduler
+     *
+     * @return true if all chunks were upserted
+     * @throws UnauthorizedException if any of the chunks could not be authorized
+     */
+    private boolean upsertChunks(String endpointId, Bulkhead bulkhead, List<List<Sample>> chunks, Upserter upserter) throws UnauthorizedException {
+        // avoid switching threads when there is only one chunk to send
+        if (chunks.size() == 1) {
+            return upsertChunk(endpointId, chunks.get(0), upserter);
+        }
+
+        try {
+            // collect all results before matching, to ensure that a failed chunk does not cancel the others
+            return Flowable.fromIterable(chunks)
+                    .parallel(Math.min(chunks.size(), bulkhead.parallelism()))
+                    .runOn(bulkhead.scheduler())
+                    .map(chunk -> upsertChunk(endpointId, chunk, upserter))
+                    .sequential()
+                    .toList()
+                    .blockingGet()
+                    .stream()
+                    .allMatch(Boolean::booleanValue);
+
+        } catch (RuntimeException e) {
+            // checked exceptions are wrapped when rethrown by blockingGet()
+            if (e.getCause() instanceof UnauthorizedException) {
+                throw (UnauthorizedException)e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Upserts the specified chunk, retrying with an increasing backoff if it fails
+     *
+     * @return true if the chunk was upserted
+     */
+    private boolean upsertChunk(String endpointId, List<Sample> chunk, Upserter upserter) throws UnauthorizedException {
+        for (int attempt = 0; attempt <= chunkRetries; attempt++) {
+            // wait before retrying, to avoid adding load to an endpoint which is already struggling
+            if (attempt > 0 && !sleep(backoffMillis(retryBackoffMillis, attempt))) {
+                return false;
+            }
+
+            try {
+                if (upserter.upsert(chunk)) {
+                    return true;
+                }
+
+            } catch (RuntimeException e) {
+                logger.warn("Could not upsert chunk of {} samples, endpoint {}, attempt {}; due to {}",
+                        chunk.size(), endpointId, attempt + 1, e.getMessage());
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Keeps only the last sample posted for each name, since Refocus would overwrite the previous values anyway;
+     *   samples are returned in the order their names were first posted
+     */
+    static List<Sample> lastPerName(List<Sample> samples) {
+        Map<String, Sample> lastSamples = new LinkedHashMap<>();
+        samples.forEach(sample -> lastSamples.put(sample.name(), sample));
+        return new ArrayList<>(lastSamples.values());
+    }
+
+    /**
+     * Splits the samples into chunks holding at most <b>maxSamples</b> samples and <b>maxBytes</b> (estimated) bytes;
+     *   samples that exceed <b>maxBytes</b> on their own are sent in a chunk of their own
+     * <p/>
+     * <p/>Limits lower or equal to 0 are ignored.
+     */
+    static List<List<Sample>> chunk(List<Sample> samples, int maxSamples, long maxBytes) {
+        List<List<Sample>> chunks = new ArrayList<>();
+        List<Sample> chunk = new ArrayList<>();
+        long chunkBytes = 0;
+
+        for (Sample sample : samples) {
+            long sampleBytes = estimateSize(sample);
+            boolean full = (maxSamples > 0 && chunk.size() >= maxSamples)
+                    || (maxBytes > 0 && chunkBytes + sampleBytes > maxBytes);
+
+            // start a new chunk, unless the current one is empty
+            if (full && !chunk.isEmpty()) {
+                chunks.add(chunk);
+                chunk = new ArrayList<>();
+                chunkBytes = 0;
+            }
+
+            chunk.add(sample);
+            chunkBytes += sampleBytes;
+        }
+
+        if (!chunk.isEmpty()) {
+            chunks.add(chunk);
+        }
+
+        return chunks;
+    }
+
+    /**
+     * Estimates the size of the specified sample, when serialized as JSON
+     */
+    static long estimateSize(Sample sample) {
+        long size = SAMPLE_OVERHEAD_BYTES + length(sample.name()) + length(sample.value())
+                + length(sample.messageCode()) + length(sample.messageBody());
+        for (Link link : sample.relatedLinks()) {
+            size += LINK_OVERHEAD_BYTES + length(link.name()) + length(link.url());
+        }
+        return size;
+    }
+
+    /**
+     * @return how long to wait before the specified retry attempt (1 for the first retry);
+     *   doubles with each attempt, up to {@link #MAX_BACKOFF_MULTIPLIER} times the initial backoff
+     */
+    static long backoffMillis(long initialMillis, int attempt) {
+        return initialMillis * Math.min(1L << Math.min(attempt - 1, 30), MAX_BACKOFF_MULTIPLIER);
+    }
+
+    /**
+     * Waits for the specified duration
+     *
+     * @return false if the thread was interrupted while waiting
+     */
+    private static boolean sleep(long millis) {
+        if (millis <= 0) {
+            return true;
+        }
+
+        try {
+            Thread.sleep(millis);
+            return true;
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static int length(String value) {
+        return isNull(value) ? 0 : value.length();
+    }
+
+    /**
+     * Waits for the batch to complete and returns the shared result
+     */
+    private static boolean await(Batch batch) throws UnauthorizedException {
+        try {
+            return Boolean.TRUE.equals(batch.result.get());
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UnauthorizedException) {
+                throw (UnauthorizedException)e.getCause();
+            }
+
+            logger.warn("Unexpected error while upserting aggregated samples", e.getCause());
+            return false;
+        }
+    }
+
+
+    /**
+     * Performs the remote call for a chunk of a closed batch
+     */
+    @FunctionalInterface
+    public interface Upserter {
+        boolean upsert(List<Sample> samples) throws UnauthorizedException;
+    }
+
+
+    /**
+     * Holds the samples posted by all tasks that joined the batch, while it is open
+     */
+    private static class Batch {
+        private final Map<String, Sample> samples = new LinkedHashMap<>();
+        private final CompletableFuture<Boolean> result = new CompletableFuture<>();
+        private final CountDownLatch full = new CountDownLatch(1);
+        private final int maxSamples;
+        private boolean closed;
+        private int posted;
+        private int tasks;
+
+        Batch(int maxSamples) {
+            this.maxSamples = maxSamples;
+        }
+
+        /**
+         * Adds the specified samples to the batch; signals the dispatching task when the batch is full
+         *
+         * @return false if the batch was already closed or full
+         */
+        synchronized boolean add(List<Sample> toAdd) {
+            if (closed || (maxSamples > 0 && samples.size() >= maxSamples)) {
+                return false;
+            }
+
+            toAdd.forEach(sample -> samples.put(sample.name(), sample));
+            posted += toAdd.size();
+            tasks++;
+
+            if (maxSamples > 0 && samples.size() >= maxSamples) {
+                full.countDown();
+            }
+
+            return true;
+        }
+
+        /**
+         * Closes the batch and returns all unique samples
+         */
+        synchronized List<Sample> close() {
+            closed = true;
+            return new ArrayList<>(samples.values());
+        }
+
+        synchronized int posted() {
+            return posted;
+        }
+
+        synchronized int tasks() {
+            return tasks;
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.salesforce.pyplyn.duct.etl.load.refocus;
 import static com.salesforce.pyplyn.util.FormatUtils.formatNumber;
 
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -11,6 +12,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.codahale.metrics.Timer;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import com.salesforce.pyplyn.client.UnauthorizedException;
@@ -18,11 +21,14 @@ import com.salesforce.pyplyn.duct.app.ShutdownHook;
 import com.salesforce.pyplyn.duct.connector.AppConnectors;
 import com.salesforce.pyplyn.model.Transmutation;
 import com.salesforce.pyplyn.processor.AbstractMeteredLoadProcessor;
+import com.salesforce.pyplyn.processor.LoadPlan;
 import com.salesforce.refocus.RefocusClient;
 import com.salesforce.refocus.model.ImmutableSample;
 import com.salesforce.refocus.model.Link;
 import com.salesforce.refocus.model.Sample;
 
+import io.reactivex.Flowable;
+
 /**
  * Pushes data into Refocus
  * <p/>Annotated as Singleton as there should only be one instance of this class in operation.
@@ -36,11 +42,16 @@ public class RefocusLoadProcessor extends AbstractMeteredLoadProcessor<Refocus>
 
     private final AppConnectors appConnectors;
     private final ShutdownHook shutdownHook;
+    private final RefocusLoadAggregator aggregator;
+    private final RefocusDeltaFilter deltaFilter;
 
     @Inject
-    public RefocusLoadProcessor(AppConnectors appConnectors, ShutdownHook shutdownHook) {
+    public RefocusLoadProcessor(AppConnectors appConnectors, ShutdownHook shutdownHook, RefocusLoadAggregator aggregator,
+                                RefocusDeltaFilter deltaFilter) {
         this.appConnectors = appConnectors;
         this.shutdownHook = shutdownHook;
+        this.aggregator = aggregator;
+        this.deltaFilter = deltaFilter;
     }
 
     /**
@@ -50,25 +61,38 @@ public class RefocusLoadProcessor extends AbstractMeteredLoadProcessor<Refocus>
      */
     @Override
     public List<Boolean> process(final List<Transmutation> data, List<Refocus> destinations) {
+        return load(data, new Plan(destinations));
+    }
+
+    /**
+     * Groups the passed destinations by endpoint once, leaving only the upserting of samples for each execution
+     */
+    @Override
+    public LoadPlan prepare(List<Refocus> destinations) {
+        final Plan plan = new Plan(destinations);
+        return data -> Flowable.fromCallable(() -> load(data, plan));
+    }
+
+    /**
+     * Posts the data as Refocus samples on the planned endpoints
+     *
+     * @return Empty list if nothing was processed
+     */
+    private List<Boolean> load(final List<Transmutation> data, Plan plan) {
         // if data is empty, stop here as there is nothing to do
         if (data.isEmpty()) {
             return Collections.emptyList();
         }
 
-        boolean allUpserted = destinations.stream()
-                // group by endpoint
-                .collect(Collectors.groupingBy(Refocus::endpoint))
-
-                // process each endpoint individually
-                .entrySet().parallelStream()
-
-                .map(destinationEntry -> {
+        // endpoints are processed on the calling (load scheduler) thread, since the common ForkJoinPool is not meant for blocking IO
+        List<Boolean> upserted = plan.endpoints.stream()
+                .map(endpoint -> {
                     // retrieve client endpoint
-                    String endpointId = destinationEntry.getKey();
-                    final List<Refocus> loadDestinations = destinationEntry.getValue();
+                    String endpointId = endpoint.endpointId;
+                    final List<Refocus> loadDestinations = endpoint.destinations;
 
                     // retrieve Refocus client and cache for the specified endpoint
-                    AppConnectors.ClientAndCache<RefocusClient, Sample> cc = appConnectors.retrieveOrBuildClient(endpointId, RefocusClient.class, Sample.class);
+                    final AppConnectors.ClientAndCache<RefocusClient, Sample> cc = endpoint.clientAndCache.get();
                     final RefocusClient client = cc.client();
 
                     // TODO: move this someplace better
@@ -117,19 +141,52 @@ public class RefocusLoadProcessor extends AbstractMeteredLoadProcessor<Refocus>
                         return Boolean.FALSE;
                     }
 
-                    // send expressions to Refocus endpoint
-                    try (Timer.Context context = systemStatus.timer(meterName(), "upsert-samples-bulk." + endpointId).time()) {
-                        return client.upsertSamplesBulk(allSamplesForEndpoint);
+                    // only the last value of each sample would be kept by Refocus; reduce the samples before comparing
+                    //   them with the last upserted values, otherwise an earlier value would be sent as a change
+                    final List<Sample> lastSamples = RefocusLoadAggregator.lastPerName(allSamplesForEndpoint);
+
+                    // skip samples which Refocus already holds, unless they are due for a refresh
+                    final List<Sample> changedSamples = deltaFilter.changed(endpointId, lastSamples);
+                    final int suppressedSamples = lastSamples.size() - changedSamples.size();
+                    if (suppressedSamples > 0) {
+                        suppressed(suppressedSamples);
+                    }
+
+                    // nothing to send
+                    if (changedSamples.isEmpty()) {
+                        return Boolean.TRUE;
+                    }
+
+                    // send expressions to Refocus endpoint, together with the samples posted by other tasks,
+                    //   in chunks, within the limits of the endpoint's bulkhead
+                    try {
+                        return aggregator.upsert(endpointId, cc.bulkhead(), changedSamples, chunk -> {
+                            boolean chunkUpserted;
+                            try (Timer.Context context = systemStatus.timer(meterName(), "upsert-samples-bulk." + endpointId).time()) {
+                                chunkUpserted = cc.bulkhead().call(() -> client.upsertSamplesBulk(chunk));
+                            }
+
+                            // only remember samples which were successfully upserted
+                            if (chunkUpserted) {
+                                deltaFilter.upserted(endpointId, chunk);
+                                sent(chunk.size());
+                            }
+
+                            return chunkUpserted;
+                        });
 
                         // return failure
                     } catch (UnauthorizedException e) {
-                        logger.error("Could not complete request for {}; failed samples={}", endpointId, allSamplesForEndpoint);
+                        logger.error("Could not complete request for {}; failed samples={}; due to {}", endpointId, changedSamples, e.getMessage());
                         return Boolean.FALSE;
                     }
                 })
 
-                // return true if all Samples are successfully upserted into all endpoints
-                .allMatch(s -> s.equals(Boolean.TRUE));
+                // collect before matching, to ensure all endpoints are processed
+                .collect(Collectors.toList());
+
+        // return true if all Samples are successfully upserted into all endpoints
+        boolean allUpserted = upserted.stream().allMatch(Boolean.TRUE::equals);
 
         // log result of operation
         //   Note: the upsertSamplesBulk Refocus API call, will always return OK, so failures will be marked
@@ -145,6 +202,37 @@ public class RefocusLoadProcessor extends AbstractMeteredLoadProcessor<Refocus>
     }
 
 
+    /**
+     * Refocus destinations prepared for repeated execution, grouped by endpoint
+     */
+    private class Plan {
+        private final List<EndpointDestinations> endpoints;
+
+        Plan(List<Refocus> destinations) {
+            endpoints = destinations.stream()
+                    // group by endpoint
+                    .collect(Collectors.groupingBy(Refocus::endpoint, LinkedHashMap::new, Collectors.toList()))
+                    .entrySet().stream()
+                    .map(entry -> new EndpointDestinations(entry.getKey(), entry.getValue()))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Destinations on a single endpoint; the endpoint's client is resolved on first use
+     */
+    private class EndpointDestinations {
+        private final String endpointId;
+        private final List<Refocus> destinations;
+        private final Supplier<AppConnectors.ClientAndCache<RefocusClient, Sample>> clientAndCache;
+
+        EndpointDestinations(String endpointId, List<Refocus> destinations) {
+            this.endpointId = endpointId;
+            this.destinations = destinations;
+            this.clientAndCache = Suppliers.memoize(() -> appConnectors.retrieveOrBuildClient(endpointId, RefocusClient.class, Sample.class));
+        }
+    }
+
     /**
      * Create a string containing the sample's metadata messages, each on an individual line
      *
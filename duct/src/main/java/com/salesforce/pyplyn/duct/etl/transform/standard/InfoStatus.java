@@ -8,18 +8,14 @@
 
 package com.salesforce.pyplyn.duct.etl.transform.standard;
 
-import java.util.List;
-import java.util.stream.Collectors;
-
 import org.immutables.value.Value;
 
 import com.fasterxml.jackson.annotation.JsonTypeName;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.salesforce.pyplyn.annotations.PyplynImmutableStyle;
-import com.salesforce.pyplyn.model.ImmutableTransmutation;
-import com.salesforce.pyplyn.model.Transform;
-import com.salesforce.pyplyn.model.Transmutation;
+import com.salesforce.pyplyn.model.BatchTransform;
+import com.salesforce.pyplyn.model.TransmutationBatch;
 
 /**
  * Forces at least a status of INFO, if the status is currently OK
@@ -36,28 +32,22 @@ import com.salesforce.pyplyn.model.Transmutation;
 @JsonDeserialize(as = ImmutableInfoStatus.class)
 @JsonSerialize(as = ImmutableInfoStatus.class)
 @JsonTypeName("InfoStatus")
-public abstract class InfoStatus implements Transform {
+public abstract class InfoStatus implements BatchTransform {
     private static final long serialVersionUID = -1927779729819920375L;
 
     /**
-     * Applies this transformation and returns a new {@link Transmutation} matrix
+     * Applies this transformation and returns a new {@link TransmutationBatch}; only the values column is rewritten
      */
     @Override
-    public List<List<Transmutation>> apply(List<List<Transmutation>> input) {
-        // for all rows and columns
-        return input.stream()
-                .map(rows -> rows.stream()
-                        .map(point -> {
-                            // if the value indicates a status of OK, remap to a status of 1 (INFO)
-                            if (point.value().intValue() == 0) {
-                                return ImmutableTransmutation.builder().from(point).value(1).build();
-                            }
+    public TransmutationBatch applyBatch(TransmutationBatch input) {
+        final double[] values = input.copyValues();
+        for (int i = 0; i < values.length; i++) {
+            // if the value indicates a status of OK, remap to a status of 1 (INFO)
+            if ((int)values[i] == 0) {
+                values[i] = 1;
+            }
+        }
 
-                            // otherwise, return the point as is
-                            return point;
-                        })
-                        .collect(Collectors.toList())
-                )
-                .collect(Collectors.toList());
+        return input.withValues(values);
     }
 }
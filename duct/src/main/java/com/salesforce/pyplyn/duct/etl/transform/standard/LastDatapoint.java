@@ -8,22 +8,14 @@
 
 package com.salesforce.pyplyn.duct.etl.transform.standard;
 
-import static java.util.Objects.nonNull;
-
-import java.util.Collections;
-import java.util.List;
-import java.util.Objects;
-import java.util.stream.Collectors;
-
 import org.immutables.value.Value;
 
 import com.fasterxml.jackson.annotation.JsonTypeName;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
-import com.google.common.collect.Iterables;
 import com.salesforce.pyplyn.annotations.PyplynImmutableStyle;
-import com.salesforce.pyplyn.model.Transform;
-import com.salesforce.pyplyn.model.Transmutation;
+import com.salesforce.pyplyn.model.BatchTransform;
+import com.salesforce.pyplyn.model.TransmutationBatch;
 
 /**
  * Filters out all but the last data point
@@ -40,26 +32,25 @@ import com.salesforce.pyplyn.model.Transmutation;
 @JsonDeserialize(as = ImmutableLastDatapoint.class)
 @JsonSerialize(as = ImmutableLastDatapoint.class)
 @JsonTypeName("LastDatapoint")
-public abstract class LastDatapoint implements Transform {
+public abstract class LastDatapoint implements BatchTransform {
     private static final long serialVersionUID = -2187464148729449576L;
 
     /**
-     * Applies this transformation and returns a new {@link Transmutation} matrix
+     * Applies this transformation and returns a new {@link TransmutationBatch}, containing the last datapoint
+     *   of each non-empty row
      */
     @Override
-    public List<List<Transmutation>> apply(List<List<Transmutation>> input) {
-        return input.stream()
-                .map(points -> {
-                    // load last result point and return a list containing a single element
-                    Transmutation result = Iterables.getLast(points, null);
-                    if (nonNull(result)) {
-                        return Collections.singletonList(result);
-                    }
-
-                    // or return null if no result was found
-                    return null;
-                })
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
+    public TransmutationBatch applyBatch(TransmutationBatch input) {
+        TransmutationBatch.Builder builder = TransmutationBatch.builder(input.rows());
+        for (int row = 0; row < input.rows(); row++) {
+            // skip rows with no datapoints
+            if (input.rowEnd(row) == input.rowStart(row)) {
+                continue;
+            }
+
+            builder.add(input, input.rowEnd(row) - 1).endRow();
+        }
+
+        return builder.build();
     }
 }
@@ -1,8 +1,7 @@
 package com.salesforce.pyplyn.duct.etl.transform.standard;
 
-import java.util.List;
+import java.util.IdentityHashMap;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 import org.immutables.value.Value;
 
@@ -10,9 +9,10 @@ import com.fasterxml.jackson.annotation.JsonTypeName;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.salesforce.pyplyn.annotations.PyplynImmutableStyle;
+import com.salesforce.pyplyn.model.BatchTransform;
 import com.salesforce.pyplyn.model.ImmutableTransmutation;
-import com.salesforce.pyplyn.model.Transform;
 import com.salesforce.pyplyn.model.Transmutation;
+import com.salesforce.pyplyn.model.TransmutationBatch;
 
 /**
  * Defines tags in the {@link Transmutation}'s {@link Metadata}
@@ -27,29 +27,29 @@ import com.salesforce.pyplyn.model.Transmutation;
 @JsonDeserialize(as = ImmutableMetadata.class)
 @JsonSerialize(as = ImmutableMetadata.class)
 @JsonTypeName("Metadata")
-public abstract class Metadata implements Transform {
+public abstract class Metadata implements BatchTransform {
     private static final long serialVersionUID = 2563927446245611395L;
 
     public abstract Map<String, String> tags();
 
     /**
-     * Processes all input {@link Transmutation} objects and appends the {@link #tags()} to each one
+     * Processes all input datapoints and appends the {@link #tags()} to each one
+     * <p/>
+     * <p/>Datapoints which share the same metadata object will also share the resulting metadata.
      */
     @Override
-    public List<List<Transmutation>> apply(List<List<Transmutation>> input) {
-        return input.stream()
-            // for all result rows
-            .map(datapoints -> datapoints.stream()
-                    // for all result columns (datapoints)
-                    .map(datapoint -> ImmutableTransmutation.builder()
-                            .from(datapoint)
-                            .metadata(ImmutableTransmutation.Metadata.builder()
-                                    .from(datapoint.metadata())
-                                    // append all metadata tags
-                                    .putAllTags(tags())
-                                    .build())
-                            .build())
-                    .collect(Collectors.toList())
-            ).collect(Collectors.toList());
+    public TransmutationBatch applyBatch(TransmutationBatch input) {
+        final Transmutation.Metadata[] metadata = input.copyMetadata();
+        final Map<Transmutation.Metadata, Transmutation.Metadata> tagged = new IdentityHashMap<>();
+
+        for (int i = 0; i < metadata.length; i++) {
+            metadata[i] = tagged.computeIfAbsent(metadata[i], original -> ImmutableTransmutation.Metadata.builder()
+                    .from(original)
+                    // append all metadata tags
+                    .putAllTags(tags())
+                    .build());
+        }
+
+        return input.withMetadata(metadata);
     }
 }
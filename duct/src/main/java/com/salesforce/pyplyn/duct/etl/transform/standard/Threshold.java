@@ -13,8 +13,8 @@ import static com.salesforce.pyplyn.util.FormatUtils.formatNumber;
 import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
 
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.HashMap;
+import java.util.Map;
 
 import javax.annotation.Nullable;
 
@@ -49,7 +49,7 @@ import com.salesforce.pyplyn.model.*;
 @JsonDeserialize(as = ImmutableThreshold.class)
 @JsonSerialize(as = ImmutableThreshold.class)
 @JsonTypeName("Threshold")
-public abstract class Threshold implements Transform {
+public abstract class Threshold implements BatchTransform {
     private static final long serialVersionUID = 1883668176362666986L;
     private static final String MESSAGE_TEMPLATE = "%s threshold hit by %s, with value=%s %s %.2f";
 
@@ -84,54 +84,83 @@ public abstract class Threshold implements Transform {
     public abstract ThresholdType type();
 
     /**
-     * Applies this transformation and returns a new {@link Transmutation} matrix
+     * Applies this transformation on all datapoints and returns a new {@link TransmutationBatch}
+     * <p/>
+     * <p/>Only the values column is rewritten; metadata is only copied for datapoints that hit a threshold.
      */
     @Override
-    public List<List<Transmutation>> apply(List<List<Transmutation>> input) {
-        return input.stream()
-                .map(metrics -> metrics.stream()
-
-                        // applies threshold on all ExtractResult objects
-                        .map(this::applyThreshold)
+    public TransmutationBatch applyBatch(TransmutationBatch input) {
+        final double[] values = input.copyValues();
+        Transmutation.Metadata[] metadata = null;
+        Map<Transmutation.Metadata, Map<String, Transmutation.Metadata>> withMessages = null;
+
+        for (int i = 0; i < input.size(); i++) {
+            // if this transform should apply only to a specific id,
+            //   check against passed transform result and leave unchanged if it doesn't matches
+            if (nonNull(applyToMetricName()) && !applyToMetricName().equals(input.name(i))) {
+                continue;
+            }
+
+            StatusCode status = status(input.value(i));
+            values[i] = status.value();
+
+            // append a message explaining what threshold was hit
+            Double threshold = threshold(status);
+            if (nonNull(threshold)) {
+                if (isNull(metadata)) {
+                    metadata = input.copyMetadata();
+                    withMessages = new HashMap<>();
+                }
+
+                // datapoints with the same metadata and message share the resulting metadata object
+                final Transmutation.Metadata original = metadata[i];
+                String message = thresholdHitMessage(status.code(), input.name(i), input.originalValue(i), threshold);
+                metadata[i] = withMessages.computeIfAbsent(original, key -> new HashMap<>())
+                        .computeIfAbsent(message, key -> appendMessage(original, key));
+            }
+        }
 
-                        .collect(Collectors.toList())
-                ).collect(Collectors.toList());
+        TransmutationBatch result = input.withValues(values);
+        return isNull(metadata) ? result : result.withMetadata(metadata);
     }
 
     /**
      * Buckets the passed value according to the correct threshold
-     *   returns an updated result object
-     *
-     * @param result the result object to analyze
-     * @return
+     * <p/>
+     * <p/>If type is not specified, the value is considered OK; otherwise it's compared to all thresholds
+     *   and if any threshold is not specified (null), it will be ignored
      */
-    Transmutation applyThreshold(Transmutation result) {
-        // if this transform should apply only to a specific id,
-        //   check against passed transform result and return unchanged if it doesn't matches
-        if (nonNull(applyToMetricName()) && !applyToMetricName().equals(result.name())) {
-            return result;
-        }
-
-        // if type is not specified, transform to OK
+    StatusCode status(double value) {
         if (isNull(type())) {
-            return changeValue(result, OK.value());
-        }
+            return OK;
 
-        // otherwise compare value to all thresholds and determine it's status
-        //   if any threshold is not specified (null), it will be ignored
-        //   if all thresholds are not specified, the result will be transformed to OK
-        Number value = result.value();
-        if (type().matches(value, criticalThreshold())) {
-            return appendMessage(changeValue(result, CRIT.value()), CRIT.code(), criticalThreshold());
+        } else if (type().matches(value, criticalThreshold())) {
+            return CRIT;
 
         } else if (type().matches(value, warningThreshold())) {
-            return appendMessage(changeValue(result, WARN.value()), WARN.code(), warningThreshold());
+            return WARN;
 
         } else if (type().matches(value, infoThreshold())) {
-            return appendMessage(changeValue(result, INFO.value()), INFO.code(), infoThreshold());
+            return INFO;
+        }
 
-        } else {
-            return changeValue(result, OK.value());
+        return OK;
+    }
+
+    /**
+     * @return the threshold corresponding to the specified status, or null if the status does not
+     *         denote a threshold being hit
+     */
+    private Double threshold(StatusCode status) {
+        switch (status) {
+            case CRIT:
+                return criticalThreshold();
+            case WARN:
+                return warningThreshold();
+            case INFO:
+                return infoThreshold();
+            default:
+                return null;
         }
     }
 
@@ -144,21 +173,24 @@ public abstract class Threshold implements Transform {
     }
 
     /**
-     * Appends a message with the explanation of what threshold was hit
+     * Creates a message with the explanation of what threshold was hit
      */
-    Transmutation appendMessage(Transmutation result, String code, Double threshold) {
-        String thresholdHitAlert = String.format(MESSAGE_TEMPLATE,
+    private String thresholdHitMessage(String code, String name, Number originalValue, Double threshold) {
+        return String.format(MESSAGE_TEMPLATE,
                 code,
-                result.name(),
-                formatNumber(result.originalValue()),
+                name,
+                formatNumber(originalValue),
                 type().name(),
                 threshold);
+    }
 
-        return ImmutableTransmutation.builder().from(result)
-                .metadata(ImmutableTransmutation.Metadata.builder()
-                        .from(result.metadata())
-                        .addMessages(thresholdHitAlert)
-                        .build())
+    /**
+     * Appends a message to the specified metadata
+     */
+    private static Transmutation.Metadata appendMessage(Transmutation.Metadata metadata, String message) {
+        return ImmutableTransmutation.Metadata.builder()
+                .from(metadata)
+                .addMessages(message)
                 .build();
     }
 }
@@ -28,6 +28,7 @@ import org.testng.annotations.Test;
 import com.salesforce.pyplyn.duct.app.ShutdownHook;
 import com.salesforce.pyplyn.duct.com.salesforce.pyplyn.test.AppBootstrapFixtures;
 import com.salesforce.pyplyn.duct.etl.extract.argus.Argus;
+import com.salesforce.pyplyn.duct.etl.extract.argus.ArgusExtractCoalescer;
 import com.salesforce.pyplyn.duct.etl.extract.argus.ArgusExtractProcessor;
 import com.salesforce.pyplyn.duct.etl.extract.argus.ImmutableArgus;
 import com.salesforce.pyplyn.duct.etl.extract.refocus.ImmutableRefocus;
@@ -61,7 +62,7 @@ public class DuctExtractTest {
     public void processArgus() throws Exception {
         //ARRANGE
         @SuppressWarnings("unchecked")
-        ArgusExtractProcessor argusExtractprocessor = spy(new ArgusExtractProcessor(fixtures.appConnectors(), shutdownHook));
+        ArgusExtractProcessor argusExtractprocessor = spy(new ArgusExtractProcessor(fixtures.appConnectors(), shutdownHook, new ArgusExtractCoalescer(fixtures.appConfigMocks().get())));
         Argus argus = ImmutableArgus.of("endpoint", "expression", "name", 1, 2d);
 
         //ACT
@@ -78,7 +79,7 @@ public class DuctExtractTest {
     public void processRefocus() throws Exception {
         //ARRANGE
         @SuppressWarnings("unchecked")
-        RefocusExtractProcessor refocusExtractProcessor = spy(new RefocusExtractProcessor(fixtures.appConnectors(), shutdownHook));
+        RefocusExtractProcessor refocusExtractProcessor = spy(new RefocusExtractProcessor(fixtures.appConnectors(), shutdownHook, fixtures.appConfigMocks().get()));
         Refocus refocus = ImmutableRefocus.of("endpoint", "subject", null, "aspect", 1, 2d);
 
         //ACT
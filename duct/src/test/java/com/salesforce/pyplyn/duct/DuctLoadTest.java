@@ -28,6 +28,8 @@ import com.salesforce.pyplyn.duct.app.ShutdownHook;
 import com.salesforce.pyplyn.duct.com.salesforce.pyplyn.test.AppBootstrapFixtures;
 import com.salesforce.pyplyn.duct.etl.load.refocus.ImmutableRefocus;
 import com.salesforce.pyplyn.duct.etl.load.refocus.Refocus;
+import com.salesforce.pyplyn.duct.etl.load.refocus.RefocusDeltaFilter;
+import com.salesforce.pyplyn.duct.etl.load.refocus.RefocusLoadAggregator;
 import com.salesforce.pyplyn.duct.etl.load.refocus.RefocusLoadProcessor;
 import com.salesforce.pyplyn.model.ImmutableTransmutation;
 import com.salesforce.pyplyn.model.Transmutation;
@@ -57,7 +59,8 @@ public class DuctLoadTest {
     public void processRefocus() throws Exception {
         //ARRANGE
         @SuppressWarnings("unchecked")
-        RefocusLoadProcessor refocusLoadProcessor = spy(new RefocusLoadProcessor(fixtures.appConnectors(), shutdownHook));
+        RefocusLoadProcessor refocusLoadProcessor = spy(new RefocusLoadProcessor(fixtures.appConnectors(), shutdownHook, new RefocusLoadAggregator(fixtures.appConfigMocks().get()),
+                new RefocusDeltaFilter(fixtures.appConfigMocks().get())));
         Refocus refocus = ImmutableRefocus.of("endpoint", "subject", "aspect",
                 "defaultMessageCode", "defaultMessageBody", Collections.emptyList());
         Boolean boolVal = Boolean.TRUE;
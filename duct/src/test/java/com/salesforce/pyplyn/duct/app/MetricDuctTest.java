@@ -91,7 +91,7 @@ public class MetricDuctTest {
         // ASSERT
         @SuppressWarnings("unchecked")
         ArgumentCaptor<List<Transmutation>> dataCaptor = ArgumentCaptor.forClass(List.class);
-        verify(fixtures.refocusLoadProcessor()).executeAsync(dataCaptor.capture(), any());
+        verify(fixtures.refocusLoadProcessor()).processAsync(dataCaptor.capture(), any());
 
         List<Transmutation> data = dataCaptor.getValue();
         assertThat(data, hasSize(1));
@@ -61,7 +61,7 @@ public class ClusterTest {
         shutdownHook = spy(new ShutdownHook());
 
         doReturn(hazelcastConfig).when(appConfig).hazelcast();
-        cluster = spy(new Cluster(appConfig, shutdownHook));
+        cluster = spy(new Cluster(appConfig, shutdownHook, mock(ConfigurationSerializer.class)));
 
         doReturn(hazelcastInstance).when(cluster).initHazelcast();
         doReturn(hazelcastCluster).when(hazelcastInstance).getCluster();
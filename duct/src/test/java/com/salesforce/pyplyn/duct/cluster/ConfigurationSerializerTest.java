@@ -0,0 +1,97 @@
+/*
+ *  Copyright (c) 2016-2017, Salesforce.com, Inc.
+ *  All rights reserved.
+ *  Licensed under the BSD 3-Clause license.
+ *  For full license text, see the LICENSE.txt file in repo root
+ *    or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.pyplyn.duct.cluster;
+
+import static java.util.Collections.emptyList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hazelcast.config.SerializationConfig;
+import com.hazelcast.config.SerializerConfig;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.spi.serialization.SerializationService;
+import com.salesforce.pyplyn.configuration.Configuration;
+import com.salesforce.pyplyn.configuration.ImmutableConfiguration;
+import com.salesforce.pyplyn.duct.com.salesforce.pyplyn.test.AppBootstrapFixtures;
+import com.salesforce.pyplyn.duct.etl.extract.argus.ImmutableArgus;
+import com.salesforce.pyplyn.duct.etl.extract.refocus.ImmutableRefocus;
+import com.salesforce.pyplyn.duct.etl.transform.standard.ImmutableLastDatapoint;
+import com.salesforce.pyplyn.duct.etl.transform.standard.ImmutableThreshold;
+import com.salesforce.pyplyn.model.ThresholdType;
+
+/**
+ * Test class
+ *
+ * @author Mihai Bojin &lt;mbojin@salesforce.com&gt;
+ * @since 10.0.0
+ */
+public class ConfigurationSerializerTest {
+    private Configuration configuration;
+    private SerializationService javaSerialization;
+    private SerializationService binarySerialization;
+
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        // ARRANGE
+        ObjectMapper mapper = new AppBootstrapFixtures().initializeFixtures().injector().getInstance(ObjectMapper.class);
+
+        configuration = ImmutableConfiguration.of(100,
+                Arrays.asList(
+                        ImmutableArgus.of("argus", "-1h:scope:metric:avg", "argus-metric", 100, null),
+                        ImmutableRefocus.of("refocus", "root.subject", "root.subject", "aspect", 100, null)
+                ),
+                Arrays.asList(
+                        ImmutableLastDatapoint.builder().build(),
+                        ImmutableThreshold.of("argus-metric", 1d, 2d, 3d, ThresholdType.GREATER_THAN)
+                ),
+                Collections.singletonList(
+                        com.salesforce.pyplyn.duct.etl.load.refocus.ImmutableRefocus.of("refocus", "root.subject", "aspect", null, null, emptyList())
+                ),
+                false);
+
+        javaSerialization = new DefaultSerializationServiceBuilder().build();
+        binarySerialization = new DefaultSerializationServiceBuilder()
+                .setConfig(new SerializationConfig().addSerializerConfig(new SerializerConfig()
+                        .setTypeClass(Configuration.class)
+                        .setImplementation(new ConfigurationSerializer(mapper))))
+                .build();
+    }
+
+    @Test
+    public void testConfigurationsAreSerializedAndDeserialized() throws Exception {
+        // ACT
+        Data data = binarySerialization.toData(configuration);
+        Configuration deserialized = binarySerialization.toObject(data);
+
+        // ASSERT
+        assertThat(data.getType(), equalTo(ConfigurationSerializer.TYPE_ID));
+        assertThat(deserialized, equalTo(configuration));
+        assertThat("Expecting the same fingerprint, since it is used as the key in the cluster map",
+                deserialized.fingerprint(), equalTo(configuration.fingerprint()));
+    }
+
+    @Test
+    public void testPayloadIsSmallerThanJavaSerialization() throws Exception {
+        // ACT
+        int javaSize = javaSerialization.toData(configuration).totalSize();
+        int binarySize = binarySerialization.toData(configuration).totalSize();
+
+        // ASSERT
+        assertThat(binarySize, lessThan(javaSize));
+    }
+}
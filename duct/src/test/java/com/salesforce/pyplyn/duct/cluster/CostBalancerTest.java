@@ -0,0 +1,103 @@
+/*
+ *  Copyright (c) 2016-2017, Salesforce.com, Inc.
+ *  All rights reserved.
+ *  Licensed under the BSD 3-Clause license.
+ *  For full license text, see the LICENSE.txt file in repo root
+ *    or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.pyplyn.duct.cluster;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+import java.util.*;
+
+import org.testng.annotations.Test;
+
+/**
+ * Test class
+ *
+ * @author Mihai Bojin &lt;mbojin@salesforce.com&gt;
+ * @since 10.0.0
+ */
+public class CostBalancerTest {
+    private static final List<String> MEMBERS = Arrays.asList("member1", "member2", "member3");
+
+    @Test
+    public void testTasksAreBalancedByCost() throws Exception {
+        // ARRANGE
+        // one expensive task and many cheap ones
+        Map<String, Double> costs = new HashMap<>();
+        costs.put("expensive", 300d);
+        for (int i = 0; i < 60; i++) {
+            costs.put("cheap" + i, 10d);
+        }
+
+        // ACT
+        Map<String, String> assignment = CostBalancer.assign(costs, MEMBERS, Collections.emptyMap(), 0.1d);
+        Map<String, Double> loads = CostBalancer.loads(costs, assignment);
+
+        // ASSERT
+        assertThat(assignment.keySet(), equalTo(costs.keySet()));
+        assertThat(loads.keySet(), containsInAnyOrder(MEMBERS.toArray()));
+        loads.values().forEach(load -> assertThat(load, equalTo(300d)));
+    }
+
+    @Test
+    public void testBalancedAssignmentsAreNotChanged() throws Exception {
+        // ARRANGE
+        Map<String, Double> costs = new HashMap<>();
+        Map<String, String> current = new HashMap<>();
+        for (int i = 0; i < 30; i++) {
+            costs.put("task" + i, 10d + i % 3);
+            current.put("task" + i, MEMBERS.get(i % 3));
+        }
+
+        // ACT
+        Map<String, String> assignment = CostBalancer.assign(costs, MEMBERS, current, 0.2d);
+
+        // ASSERT
+        assertThat(assignment, equalTo(current));
+    }
+
+    @Test
+    public void testOnlyRequiredTasksAreMoved() throws Exception {
+        // ARRANGE
+        // all tasks run on the first member
+        Map<String, Double> costs = new HashMap<>();
+        Map<String, String> current = new HashMap<>();
+        for (int i = 0; i < 30; i++) {
+            costs.put("task" + i, 10d);
+            current.put("task" + i, "member1");
+        }
+
+        // ACT
+        Map<String, String> assignment = CostBalancer.assign(costs, MEMBERS, current, 0d);
+
+        // ASSERT
+        long moved = assignment.entrySet().stream().filter(entry -> !entry.getValue().equals(current.get(entry.getKey()))).count();
+        assertThat(moved, equalTo(20L));
+        CostBalancer.loads(costs, assignment).values().forEach(load -> assertThat(load, equalTo(100d)));
+    }
+
+    @Test
+    public void testTasksOfRemovedMembersAreReassigned() throws Exception {
+        // ARRANGE
+        Map<String, Double> costs = new HashMap<>();
+        Map<String, String> current = new HashMap<>();
+        for (int i = 0; i < 4; i++) {
+            costs.put("task" + i, 10d);
+            current.put("task" + i, i < 2 ? "removed" : "member1");
+        }
+
+        // ACT
+        Map<String, String> assignment = CostBalancer.assign(costs, Arrays.asList("member1", "member2"), current, 0d);
+
+        // ASSERT
+        assertThat(assignment.get("task2"), equalTo("member1"));
+        assertThat(assignment.get("task3"), equalTo("member1"));
+        assertThat(assignment.get("task0"), equalTo("member2"));
+        assertThat(assignment.get("task1"), equalTo("member2"));
+    }
+}
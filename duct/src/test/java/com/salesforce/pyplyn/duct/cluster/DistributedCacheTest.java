@@ -0,0 +1,140 @@
+/*
+ *  Copyright (c) 2016-2017, Salesforce.com, Inc.
+ *  All rights reserved.
+ *  Licensed under the BSD 3-Clause license.
+ *  For full license text, see the LICENSE.txt file in repo root
+ *    or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.pyplyn.duct.cluster;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.util.concurrent.TimeUnit;
+
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.codahale.metrics.Meter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hazelcast.core.EntryView;
+import com.hazelcast.core.IMap;
+import com.salesforce.pyplyn.cache.Cache;
+import com.salesforce.pyplyn.cache.CacheFactory;
+import com.salesforce.pyplyn.status.MeterType;
+import com.salesforce.pyplyn.status.SystemStatus;
+import com.salesforce.refocus.model.ImmutableSample;
+import com.salesforce.refocus.model.Sample;
+
+/**
+ * Test class
+ *
+ * @author Mihai Bojin &lt;mbojin@salesforce.com&gt;
+ * @since 10.0.0
+ */
+public class DistributedCacheTest {
+    private static final String NAME = "endpoint.Sample";
+
+    @Mock
+    private IMap<String, byte[]> map;
+
+    @Mock
+    private EntryView<String, byte[]> entryView;
+
+    @Mock
+    private SystemStatus systemStatus;
+
+    @Mock
+    private Meter meter;
+
+    @Mock
+    private Cache<Sample> nearCache;
+
+    private ObjectMapper mapper;
+    private Sample sample;
+    private DistributedCache<Sample> cache;
+
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+
+        // ARRANGE
+        doReturn(meter).when(systemStatus).meter(any(), any());
+
+        mapper = new ObjectMapper();
+        sample = ImmutableSample.builder().name("subject|aspect").value("1").build();
+        cache = new DistributedCache<>(NAME, map, new CacheFactory().newCache(), Sample.class, mapper, 10_000L, systemStatus);
+    }
+
+    @Test
+    public void testCachedObjectsAreSharedWithTheCluster() throws Exception {
+        // ACT
+        cache.cache(sample, 60_000L);
+        Sample actual = cache.isCached(sample.cacheKey());
+
+        // ASSERT
+        ArgumentCaptor<byte[]> bytes = ArgumentCaptor.forClass(byte[].class);
+        verify(map).set(eq(sample.cacheKey()), bytes.capture(), eq(60_000L), eq(TimeUnit.MILLISECONDS));
+        assertThat(mapper.readValue(bytes.getValue(), Sample.class), equalTo(sample));
+
+        assertThat("Expecting the object to be returned from the near cache", actual, equalTo(sample));
+        verify(map, times(0)).getEntryView(anyString());
+        verify(systemStatus).meter(NAME, MeterType.CacheLocalHit);
+    }
+
+    @Test
+    public void testObjectsCachedByOtherNodesAreReadOnce() throws Exception {
+        // ARRANGE
+        doReturn(mapper.writeValueAsBytes(sample)).when(entryView).getValue();
+        doReturn(60_000L).when(entryView).getTtl();
+        doReturn(entryView).when(map).getEntryView(sample.cacheKey());
+
+        // ACT
+        Sample remote = cache.isCached(sample.cacheKey());
+        Sample local = cache.isCached(sample.cacheKey());
+
+        // ASSERT
+        assertThat(remote, equalTo(sample));
+        assertThat(local, equalTo(sample));
+        verify(map, times(1)).getEntryView(sample.cacheKey());
+        verify(systemStatus).meter(NAME, MeterType.CacheRemoteHit);
+        verify(systemStatus).meter(NAME, MeterType.CacheLocalHit);
+    }
+
+    @Test
+    public void testObjectsNotReturnedByTheClusterAreMisses() throws Exception {
+        // ACT
+        // the map does not return entries which are missing or have expired
+        Sample missing = cache.isCached("missing|aspect");
+
+        // ASSERT
+        assertThat(missing, nullValue());
+        verify(systemStatus).meter(NAME, MeterType.CacheMiss);
+    }
+
+    @Test
+    public void testNearCacheLifetimeIsCappedByTheClusterTtl() throws Exception {
+        // ARRANGE
+        cache = new DistributedCache<>(NAME, map, nearCache, Sample.class, mapper, 10_000L, systemStatus);
+        doReturn(mapper.writeValueAsBytes(sample)).when(entryView).getValue();
+        doReturn(5_000L).when(entryView).getTtl();
+        doReturn(entryView).when(map).getEntryView(sample.cacheKey());
+
+        // ACT
+        Sample remote = cache.isCached(sample.cacheKey());
+
+        // ASSERT
+        assertThat(remote, equalTo(sample));
+        verify(nearCache).cache(sample, 5_000L);
+        verify(entryView, times(0)).getExpirationTime();
+    }
+}
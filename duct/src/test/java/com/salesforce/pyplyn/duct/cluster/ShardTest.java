@@ -0,0 +1,137 @@
+/*
+ *  Copyright (c) 2016-2017, Salesforce.com, Inc.
+ *  All rights reserved.
+ *  Licensed under the BSD 3-Clause license.
+ *  For full license text, see the LICENSE.txt file in repo root
+ *    or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.pyplyn.duct.cluster;
+
+import static com.salesforce.pyplyn.duct.etl.configuration.JsonConfigSerializationTest.ONE_CONFIGURATION;
+import static com.salesforce.pyplyn.util.SerializationHelper.loadResourceInsecure;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+import org.testng.annotations.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.salesforce.pyplyn.configuration.Configuration;
+import com.salesforce.pyplyn.duct.appconfig.AppConfig;
+import com.salesforce.pyplyn.duct.com.salesforce.pyplyn.test.AppBootstrapFixtures;
+
+/**
+ * Test class
+ *
+ * @author Mihai Bojin &lt;mbojin@salesforce.com&gt;
+ * @since 10.0.0
+ */
+public class ShardTest {
+    private static final int KEYS = 10_000;
+
+    @Test
+    public void testKeysAreSpreadEvenlyBetweenShards() throws Exception {
+        // ACT
+        Map<Integer, Long> perShard = keys().stream()
+                .collect(Collectors.groupingBy(key -> Shard.shardOf(key, 4), Collectors.counting()));
+
+        // ASSERT
+        assertThat(perShard.keySet(), containsInAnyOrder(0, 1, 2, 3));
+        perShard.values().forEach(count -> assertThat(count, allOf(greaterThan(KEYS / 4 * 9 / 10L), lessThan(KEYS / 4 * 11 / 10L))));
+    }
+
+    @Test
+    public void testAddingAShardOnlyMovesKeysToTheNewShard() throws Exception {
+        // ARRANGE
+        List<String> keys = keys();
+        Map<String, Integer> before = keys.stream().collect(Collectors.toMap(Function.identity(), key -> Shard.shardOf(key, 4)));
+
+        // ACT
+        Map<String, Integer> after = keys.stream().collect(Collectors.toMap(Function.identity(), key -> Shard.shardOf(key, 5)));
+
+        // ASSERT
+        List<String> moved = keys.stream().filter(key -> !before.get(key).equals(after.get(key))).collect(Collectors.toList());
+        assertThat("Expecting roughly 1/5 of the keys to move", moved.size(), allOf(greaterThan(KEYS / 5 * 9 / 10), lessThan(KEYS / 5 * 11 / 10)));
+        moved.forEach(key -> assertThat(after.get(key), equalTo(4)));
+    }
+
+    @Test
+    public void testShardCountIsReadFromFile() throws Exception {
+        // ARRANGE
+        Path countFile = Files.createTempFile("shards", ".txt");
+        countFile.toFile().deleteOnExit();
+
+        AppConfig.Sharding sharding = mock(AppConfig.Sharding.class);
+        doReturn(0).when(sharding).index();
+        doReturn(2).when(sharding).count();
+        doReturn(countFile.toString()).when(sharding).countFile();
+
+        AppConfig appConfig = mock(AppConfig.class);
+        doReturn(sharding).when(appConfig).sharding();
+        Shard shard = new Shard(appConfig);
+
+        // ACT
+        Files.write(countFile, "3\n".getBytes(StandardCharsets.UTF_8));
+        int fromFile = shard.count();
+
+        Files.write(countFile, "invalid".getBytes(StandardCharsets.UTF_8));
+        int lastKnown = shard.count();
+
+        // ASSERT
+        assertThat(fromFile, equalTo(3));
+        assertThat("Expecting the last known count to be used, if the file is invalid", lastKnown, equalTo(3));
+    }
+
+    @Test
+    public void testConfigurationsAreAssignedToTheSameShardOnAllNodes() throws Exception {
+        // ARRANGE
+        ObjectMapper node1 = new AppBootstrapFixtures().initializeFixtures().injector().getInstance(ObjectMapper.class);
+        ObjectMapper node2 = new AppBootstrapFixtures().initializeFixtures().injector().getInstance(ObjectMapper.class);
+
+        Configuration[] configurations1 = node1.readValue(loadResourceInsecure(ONE_CONFIGURATION), Configuration[].class);
+        Configuration[] configurations2 = node2.readValue(loadResourceInsecure(ONE_CONFIGURATION), Configuration[].class);
+
+        // ACT/ASSERT
+        assertThat(configurations2.length, equalTo(configurations1.length));
+        for (int i = 0; i < configurations1.length; i++) {
+            int shard = Shard.shardOf(configurations1[i].fingerprint(), 4);
+            Predicate<Configuration> localConfigurations = shard(shard, 4).localConfigurations();
+
+            assertThat("Expecting both nodes to identify the configuration the same",
+                    configurations2[i].fingerprint(), equalTo(configurations1[i].fingerprint()));
+            assertThat(localConfigurations.test(configurations1[i]), is(true));
+            assertThat(localConfigurations.test(configurations2[i]), is(true));
+        }
+    }
+
+
+    /**
+     * @return a {@link Shard} with the specified index, out of <b>count</b> shards
+     */
+    private static Shard shard(int index, int count) {
+        AppConfig.Sharding sharding = mock(AppConfig.Sharding.class);
+        doReturn(index).when(sharding).index();
+        doReturn(count).when(sharding).count();
+
+        AppConfig appConfig = mock(AppConfig.class);
+        doReturn(sharding).when(appConfig).sharding();
+        return new Shard(appConfig);
+    }
+
+
+    private static List<String> keys() {
+        return IntStream.range(0, KEYS).mapToObj(i -> "configuration-" + i).collect(Collectors.toList());
+    }
+}
@@ -9,6 +9,7 @@
 package com.salesforce.pyplyn.duct.com.salesforce.pyplyn.test;
 
 import static java.util.Collections.emptyList;
+import static java.util.Objects.nonNull;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
@@ -16,12 +17,14 @@ import java.nio.charset.Charset;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.util.*;
+import java.util.concurrent.CountDownLatch;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.invocation.InvocationOnMock;
 
 import com.codahale.metrics.Meter;
 import com.codahale.metrics.Timer;
@@ -29,8 +32,8 @@ import com.google.inject.*;
 import com.hazelcast.core.IMap;
 import com.salesforce.argus.ArgusClient;
 import com.salesforce.argus.model.MetricResponse;
+import com.salesforce.pyplyn.cache.Cache;
 import com.salesforce.pyplyn.cache.CacheFactory;
-import com.salesforce.pyplyn.cache.ConcurrentCacheMap;
 import com.salesforce.pyplyn.client.UnauthorizedException;
 import com.salesforce.pyplyn.configuration.Configuration;
 import com.salesforce.pyplyn.configuration.Connector;
@@ -42,22 +45,29 @@ import com.salesforce.pyplyn.duct.app.DuctMain;
 import com.salesforce.pyplyn.duct.app.ShutdownHook;
 import com.salesforce.pyplyn.duct.appconfig.AppConfig;
 import com.salesforce.pyplyn.duct.cluster.Cluster;
+import com.salesforce.pyplyn.duct.cluster.Shard;
 import com.salesforce.pyplyn.duct.connector.AppConnectors;
 import com.salesforce.pyplyn.duct.etl.configuration.ConfigurationLoader;
 import com.salesforce.pyplyn.duct.etl.configuration.ConfigurationUpdateManager;
 import com.salesforce.pyplyn.duct.etl.configuration.TaskManager;
+import com.salesforce.pyplyn.duct.etl.configuration.TaskPlacement;
 import com.salesforce.pyplyn.duct.etl.extract.argus.Argus;
+import com.salesforce.pyplyn.duct.etl.extract.argus.ArgusExtractCoalescer;
 import com.salesforce.pyplyn.duct.etl.extract.argus.ArgusExtractProcessor;
 import com.salesforce.pyplyn.duct.etl.extract.argus.ImmutableArgus;
 import com.salesforce.pyplyn.duct.etl.extract.refocus.ImmutableRefocus;
 import com.salesforce.pyplyn.duct.etl.extract.refocus.Refocus;
 import com.salesforce.pyplyn.duct.etl.extract.refocus.RefocusExtractProcessor;
+import com.salesforce.pyplyn.duct.etl.load.refocus.RefocusDeltaFilter;
+import com.salesforce.pyplyn.duct.etl.load.refocus.RefocusLoadAggregator;
 import com.salesforce.pyplyn.duct.etl.load.refocus.RefocusLoadProcessor;
 import com.salesforce.pyplyn.duct.etl.transform.standard.ImmutableLastDatapoint;
 import com.salesforce.pyplyn.duct.systemstatus.ConsoleOutputConsumer;
 import com.salesforce.pyplyn.duct.systemstatus.SystemStatusRunnable;
 import com.salesforce.pyplyn.model.*;
+import com.salesforce.pyplyn.processor.ExtractPlan;
 import com.salesforce.pyplyn.processor.ExtractProcessor;
+import com.salesforce.pyplyn.processor.LoadPlan;
 import com.salesforce.pyplyn.processor.LoadProcessor;
 import com.salesforce.pyplyn.status.SystemStatus;
 import com.salesforce.pyplyn.status.SystemStatusConsumer;
@@ -111,10 +121,10 @@ public class AppBootstrapFixtures {
     private CacheFactory cacheFactory;
 
     @Mock
-    private ConcurrentCacheMap<MetricResponse> metricResponseCache;
+    private Cache<MetricResponse> metricResponseCache;
 
     @Mock
-    private ConcurrentCacheMap<Sample> sampleCache;
+    private Cache<Sample> sampleCache;
 
     @Mock
     private RefocusLoadProcessor refocusLoadProcessor;
@@ -132,7 +142,7 @@ public class AppBootstrapFixtures {
     private ConfigurationUpdateManager configurationManager;
 
     @Mock
-    private IMap<Configuration, Configuration> hazelcastConfigurationMap;
+    private IMap<String, Configuration> hazelcastConfigurationMap;
 
     private AppConfigMocks appConfigMocks;
     private List<EndpointConnector> connectors = new ArrayList<>();
@@ -193,18 +203,26 @@ public class AppBootstrapFixtures {
         // Extract Processors
         doReturn(Flowable.empty()).when(argusExtractProcessor).processAsync(any());
         doReturn(Flowable.empty()).when(argusExtractProcessor).executeAsync(any());
+        doReturn(Flowable.empty()).when(argusExtractProcessor).processBatchAsync(any());
         doCallRealMethod().when(argusExtractProcessor).filter(any());
+        doCallRealMethod().when(argusExtractProcessor).compile(any());
+        doAnswer(invocation -> delegatingPlan(argusExtractProcessor, invocation)).when(argusExtractProcessor).prepare(any());
         doReturn(Argus.class).when(argusExtractProcessor).filteredType();
 
         doReturn(Flowable.empty()).when(refocusExtractProcessor).processAsync(any());
         doReturn(Flowable.empty()).when(refocusExtractProcessor).executeAsync(any());
+        doReturn(Flowable.empty()).when(refocusExtractProcessor).processBatchAsync(any());
         doCallRealMethod().when(refocusExtractProcessor).filter(any());
+        doCallRealMethod().when(refocusExtractProcessor).compile(any());
+        doAnswer(invocation -> delegatingPlan(refocusExtractProcessor, invocation)).when(refocusExtractProcessor).prepare(any());
         doReturn(Refocus.class).when(refocusExtractProcessor).filteredType();
 
         // Load Processors
         doReturn(Flowable.just(Collections.singletonList(true))).when(refocusLoadProcessor).processAsync(any(), any());
         doReturn(Flowable.just(Collections.singletonList(true))).when(refocusLoadProcessor).executeAsync(any(), any());
         doCallRealMethod().when(refocusLoadProcessor).filter(any());
+        doCallRealMethod().when(refocusLoadProcessor).compile(any());
+        doAnswer(invocation -> delegatingPlan(refocusLoadProcessor, invocation)).when(refocusLoadProcessor).prepare(any());
         doReturn(com.salesforce.pyplyn.duct.etl.load.refocus.Refocus.class).when(refocusLoadProcessor).filteredType();
 
         // Clients and caches
@@ -254,67 +272,73 @@ public class AppBootstrapFixtures {
      * Note: this will cause issues if not using real extract/load processors!
      */
     private void applyExtractAndLoadProcessorLatches() {
-        // Argus extract processor
-
-        // we are replacing the default filtering logic, since the passed object will be a mock
-        doAnswer(invocation -> {
-            AppBootstrapLatches.beforeExtractProcessorStarts().countDown();
-            AppBootstrapLatches.holdOffBeforeExtractProcessorStarts().await();
-
-            return invocation.callRealMethod();
-        }).when(argusExtractProcessor).filter(any());
-
-        // note when extract processing has completed
-        doAnswer(invocation -> {
-            try {
-                return invocation.callRealMethod();
-
-            } finally {
-                AppBootstrapLatches.holdOffUntilExtractProcessorFinishes().countDown();
-            }
-        }).when(argusExtractProcessor).process(any());
-
-
-        // Refocus extract processor
+        // plans are prepared when the configuration is scheduled; latches are applied when they are executed
+        doAnswer(invocation -> withExtractLatches(preparedPlan(argusExtractProcessor, invocation)))
+                .when(argusExtractProcessor).prepare(any());
+        doAnswer(invocation -> withExtractLatches(preparedPlan(refocusExtractProcessor, invocation)))
+                .when(refocusExtractProcessor).prepare(any());
+        doAnswer(invocation -> withLoadLatches(preparedPlan(refocusLoadProcessor, invocation)))
+                .when(refocusLoadProcessor).prepare(any());
+    }
 
-        // we are replacing the default filtering logic, since the passed object will be a mock
-        doAnswer(invocation -> {
+    /**
+     * Wraps the specified plan, noting when extract processing starts and when it has completed
+     */
+    private static ExtractPlan withExtractLatches(ExtractPlan plan) {
+        return () -> {
             AppBootstrapLatches.beforeExtractProcessorStarts().countDown();
-            AppBootstrapLatches.holdOffBeforeExtractProcessorStarts().await();
+            await(AppBootstrapLatches.holdOffBeforeExtractProcessorStarts());
 
-            return invocation.callRealMethod();
-        }).when(refocusExtractProcessor).filter(any());
+            return plan.processBatchAsync()
+                    .doFinally(() -> AppBootstrapLatches.holdOffUntilExtractProcessorFinishes().countDown());
+        };
+    }
 
-        // note when extract processing has completed
-        doAnswer(invocation -> {
-            try {
-                return invocation.callRealMethod();
+    /**
+     * Wraps the specified plan, noting when load processing starts and when it has completed
+     */
+    private static LoadPlan withLoadLatches(LoadPlan plan) {
+        return data -> {
+            AppBootstrapLatches.beforeLoadProcessorStarts().countDown();
+            await(AppBootstrapLatches.holdOffBeforeLoadProcessorStarts());
 
-            } finally {
-                AppBootstrapLatches.holdOffUntilExtractProcessorFinishes().countDown();
-            }
-        }).when(refocusExtractProcessor).process(any());
+            return plan.processAsync(data)
+                    .doFinally(() -> AppBootstrapLatches.holdOffUntilLoadProcessorFinishes().countDown());
+        };
+    }
 
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
 
-        // Refocus load processor
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
 
-        // we are replacing the default filtering logic, since the passed object will be a mock
-        doAnswer(invocation -> {
-            AppBootstrapLatches.beforeLoadProcessorStarts().countDown();
-            AppBootstrapLatches.holdOffBeforeLoadProcessorStarts().await();
+    /**
+     * Returns the plan prepared by real processors, or a plan delegating to the mocked processing methods
+     */
+    @SuppressWarnings("unchecked")
+    private static <P> P preparedPlan(Object processor, InvocationOnMock invocation) throws Throwable {
+        if (nonNull(mockingDetails(processor).getMockCreationSettings().getSpiedInstance())) {
+            return (P) invocation.callRealMethod();
+        }
 
-            return invocation.callRealMethod();
-        }).when(refocusLoadProcessor).filter(any());
+        return (P) delegatingPlan(processor, invocation);
+    }
 
-        // note when load has completed
-        doAnswer(invocation -> {
-            try {
-                return invocation.callRealMethod();
+    /**
+     * Mocked processors return plans which call their (mocked) processing methods,
+     *   as the default {@link ExtractProcessor#prepare(List)} and {@link LoadProcessor#prepare(List)} implementations do
+     */
+    @SuppressWarnings("unchecked")
+    private static Object delegatingPlan(Object processor, InvocationOnMock invocation) {
+        if (processor instanceof ExtractProcessor) {
+            return (ExtractPlan) () -> ((ExtractProcessor<Extract>) processor).processBatchAsync(invocation.getArgument(0));
+        }
 
-            } finally {
-                AppBootstrapLatches.holdOffUntilLoadProcessorFinishes().countDown();
-            }
-        }).when(refocusLoadProcessor).process(any(), any());
+        return (LoadPlan) data -> ((LoadProcessor<Load>) processor).processAsync(data, invocation.getArgument(0));
     }
 
 
@@ -337,12 +361,13 @@ public class AppBootstrapFixtures {
      */
 
     private void initTaskManager() {
-        taskManager = spy(new TaskManagerWithLatches<>(appConfigMocks().appConfig, extractProcessors, loadProcessors, shutdownHook));
+        taskManager = spy(new TaskManagerWithLatches<>(appConfigMocks().appConfig, extractProcessors, loadProcessors, shutdownHook, systemStatus));
     }
 
     public AppBootstrapFixtures initConfigurationManager() {
         initTaskManager();
-        configurationManager = spy(new ConfigurationUpdateManager(configurationLoader, taskManager, cluster, shutdownHook));
+        configurationManager = spy(new ConfigurationUpdateManager(configurationLoader, taskManager, cluster, new Shard(appConfigMocks.get()),
+                new TaskPlacement(appConfigMocks.get(), cluster, taskManager), shutdownHook, systemStatus));
         configurationManager.initialize();
         return this;
     }
@@ -439,12 +464,18 @@ public class AppBootstrapFixtures {
         doCallRealMethod().when(argusExtractProcessor).execute(any());
         doCallRealMethod().when(argusExtractProcessor).processAsync(any());
         doCallRealMethod().when(argusExtractProcessor).executeAsync(any());
+        doReturn(TransmutationBatch.from(Collections.singletonList(Collections.singletonList(transmutation)))).when(argusExtractProcessor).processBatch(any());
+        doCallRealMethod().when(argusExtractProcessor).processBatchAsync(any());
+        doAnswer(invocation -> delegatingPlan(argusExtractProcessor, invocation)).when(argusExtractProcessor).prepare(any());
 
         doReturn(Collections.singletonList(Collections.singletonList(transmutation))).when(refocusExtractProcessor).process(any());
         doCallRealMethod().when(refocusExtractProcessor).filter(any());
         doCallRealMethod().when(refocusExtractProcessor).execute(any());
         doCallRealMethod().when(refocusExtractProcessor).processAsync(any());
         doCallRealMethod().when(refocusExtractProcessor).executeAsync(any());
+        doReturn(TransmutationBatch.from(Collections.singletonList(Collections.singletonList(transmutation)))).when(refocusExtractProcessor).processBatch(any());
+        doCallRealMethod().when(refocusExtractProcessor).processBatchAsync(any());
+        doAnswer(invocation -> delegatingPlan(refocusExtractProcessor, invocation)).when(refocusExtractProcessor).prepare(any());
 
         return this;
     }
@@ -455,19 +486,25 @@ public class AppBootstrapFixtures {
         doCallRealMethod().when(argusExtractProcessor).execute(any());
         doCallRealMethod().when(argusExtractProcessor).processAsync(any());
         doCallRealMethod().when(argusExtractProcessor).executeAsync(any());
+        doReturn(TransmutationBatch.from(results)).when(argusExtractProcessor).processBatch(any());
+        doCallRealMethod().when(argusExtractProcessor).processBatchAsync(any());
+        doAnswer(invocation -> delegatingPlan(argusExtractProcessor, invocation)).when(argusExtractProcessor).prepare(any());
 
         doReturn(results).when(refocusExtractProcessor).process(any());
         doCallRealMethod().when(refocusExtractProcessor).filter(any());
         doCallRealMethod().when(refocusExtractProcessor).execute(any());
         doCallRealMethod().when(refocusExtractProcessor).processAsync(any());
         doCallRealMethod().when(refocusExtractProcessor).executeAsync(any());
+        doReturn(TransmutationBatch.from(results)).when(refocusExtractProcessor).processBatch(any());
+        doCallRealMethod().when(refocusExtractProcessor).processBatchAsync(any());
+        doAnswer(invocation -> delegatingPlan(refocusExtractProcessor, invocation)).when(refocusExtractProcessor).prepare(any());
 
         return this;
     }
 
     public AppBootstrapFixtures callRealArgusExtractProcessor() {
         // we need to reinitialize the object to provide access to the real failed/succeeded (protected) methods
-        argusExtractProcessor = spy(new ArgusExtractProcessor(appConnectors, shutdownHook));
+        argusExtractProcessor = spy(new ArgusExtractProcessor(appConnectors, shutdownHook, new ArgusExtractCoalescer(appConfigMocks.get())));
         doCallRealMethod().when(argusExtractProcessor).filter(any());
         return this;
     }
@@ -490,7 +527,7 @@ public class AppBootstrapFixtures {
 
     public AppBootstrapFixtures callRealRefocusExtractProcessor() {
         // we need to reinitialize the object to provide access to the real failed/succeeded (protected) methods
-        refocusExtractProcessor = spy(new RefocusExtractProcessor(appConnectors, shutdownHook));
+        refocusExtractProcessor = spy(new RefocusExtractProcessor(appConnectors, shutdownHook, appConfigMocks.get()));
         doCallRealMethod().when(refocusExtractProcessor).filter(any());
         return this;
     }
@@ -513,7 +550,8 @@ public class AppBootstrapFixtures {
 
     public AppBootstrapFixtures callRealRefocusLoadProcessor() {
         // we need to reinitialize the object to provide access to the real failed/succeeded (protected) methods
-        refocusLoadProcessor = spy(new RefocusLoadProcessor(appConnectors, shutdownHook));
+        refocusLoadProcessor = spy(new RefocusLoadProcessor(appConnectors, shutdownHook, new RefocusLoadAggregator(appConfigMocks.get()),
+                new RefocusDeltaFilter(appConfigMocks.get())));
         doCallRealMethod().when(refocusLoadProcessor).filter(any());
         return this;
     }
@@ -549,11 +587,12 @@ public class AppBootstrapFixtures {
     public AppBootstrapFixtures clusterReturns(Configuration ... configurations) {
         doReturn(hazelcastConfigurationMap).when(cluster).distributedMap(any());
 
-        Map<Configuration, Configuration> configurationMap =
-                Stream.of(configurations).collect(Collectors.toMap(Function.identity(), Function.identity()));
+        Map<String, Configuration> configurationMap =
+                Stream.of(configurations).collect(Collectors.toMap(Configuration::fingerprint, Function.identity()));
 
         doReturn(configurationMap.keySet()).when(hazelcastConfigurationMap).localKeySet();
         doReturn(configurationMap).when(hazelcastConfigurationMap).getAll(configurationMap.keySet());
+        doReturn(configurationMap.values()).when(hazelcastConfigurationMap).values();
 
         return this;
     }
@@ -593,6 +632,10 @@ public class AppBootstrapFixtures {
         return configurationManager;
     }
 
+    public IMap<String, Configuration> hazelcastConfigurationMap() {
+        return hazelcastConfigurationMap;
+    }
+
     public ConfigurationLoader configurationLoader() {
         return configurationLoader;
     }
@@ -601,10 +644,26 @@ public class AppBootstrapFixtures {
         return taskManager;
     }
 
+    public Cluster cluster() {
+        return cluster;
+    }
+
+    public ArgusExtractProcessor argusExtractProcessor() {
+        return argusExtractProcessor;
+    }
+
+    public RefocusExtractProcessor refocusExtractProcessor() {
+        return refocusExtractProcessor;
+    }
+
     public RefocusLoadProcessor refocusLoadProcessor() {
         return refocusLoadProcessor;
     }
 
+    public ArgusClient argusClient() {
+        return argusClient;
+    }
+
     public AppConnectors appConnectors() {
         return appConnectors;
     }
@@ -613,14 +672,18 @@ public class AppBootstrapFixtures {
         return cacheFactory;
     }
 
-    public ConcurrentCacheMap<MetricResponse> metricResponseCache() {
+    public Cache<MetricResponse> metricResponseCache() {
         return metricResponseCache;
     }
 
-    public ConcurrentCacheMap<Sample> sampleCache() {
+    public Cache<Sample> sampleCache() {
         return sampleCache;
     }
 
+    public RefocusClient refocusClient() {
+        return refocusClient;
+    }
+
 
 
     //
@@ -733,6 +796,14 @@ public class AppBootstrapFixtures {
             return this;
         }
 
+        public AppConfigMocks sharding(int index, int count) {
+            AppConfig.Sharding sharding = mock(AppConfig.Sharding.class);
+            doReturn(index).when(sharding).index();
+            doReturn(count).when(sharding).count();
+            doReturn(sharding).when(appConfig).sharding();
+            return this;
+        }
+
         public AppConfig get() {
             return appConfig;
         }
@@ -811,8 +882,9 @@ public class AppBootstrapFixtures {
      * Attaches a latch to detect when all tasks have been processed
      */
     private static class TaskManagerWithLatches<T extends Configuration> extends TaskManager<T> {
-        public TaskManagerWithLatches(AppConfig config, Set<ExtractProcessor<? extends Extract>> extractProcessors, Set<LoadProcessor<? extends Load>> loadProcessors, ShutdownHook shutdownHook) {
-            super(config, extractProcessors, loadProcessors, shutdownHook);
+        public TaskManagerWithLatches(AppConfig config, Set<ExtractProcessor<? extends Extract>> extractProcessors, Set<LoadProcessor<? extends Load>> loadProcessors, ShutdownHook shutdownHook,
+                                      SystemStatus systemStatus) {
+            super(config, extractProcessors, loadProcessors, shutdownHook, systemStatus);
         }
 
         /**
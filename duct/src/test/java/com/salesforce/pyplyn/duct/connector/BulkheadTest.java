@@ -0,0 +1,201 @@
+/*
+ *  Copyright (c) 2016-2017, Salesforce.com, Inc.
+ *  All rights reserved.
+ *  Licensed under the BSD 3-Clause license.
+ *  For full license text, see the LICENSE.txt file in repo root
+ *    or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.pyplyn.duct.connector;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.util.concurrent.*;
+
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Timer;
+import com.salesforce.pyplyn.configuration.EndpointConnector;
+import com.salesforce.pyplyn.configuration.EndpointConnector.RejectionPolicy;
+import com.salesforce.pyplyn.configuration.ImmutableConnector;
+import com.salesforce.pyplyn.status.MeterType;
+import com.salesforce.pyplyn.status.SystemStatus;
+
+/**
+ * Test class
+ *
+ * @author Mihai Bojin &lt;mbojin@salesforce.com&gt;
+ * @since 10.0.0
+ */
+public class BulkheadTest {
+    @Mock
+    private SystemStatus systemStatus;
+
+    @Mock
+    private Meter queuedMeter;
+
+    @Mock
+    private Meter rejectedMeter;
+
+    private ExecutorService executor;
+    private CountDownLatch release;
+
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        // ARRANGE
+        MockitoAnnotations.initMocks(this);
+        doReturn(queuedMeter).when(systemStatus).meter(any(), eq(MeterType.BulkheadQueued));
+        doReturn(rejectedMeter).when(systemStatus).meter(any(), eq(MeterType.BulkheadRejected));
+        doReturn(mock(Timer.class)).when(systemStatus).timer(any(), any());
+
+        executor = Executors.newCachedThreadPool();
+        release = new CountDownLatch(1);
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        release.countDown();
+        executor.shutdownNow();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testUnlimitedConnectorsAreNotBounded() throws Exception {
+        // ARRANGE
+        EndpointConnector connector = connector(0, 0, RejectionPolicy.REJECT);
+
+        // ACT
+        Bulkhead bulkhead = Bulkhead.forConnector(connector, systemStatus);
+
+        // ASSERT
+        assertThat(bulkhead, sameInstance(Bulkhead.unbounded()));
+        assertThat(bulkhead.call(() -> "value"), equalTo("value"));
+    }
+
+    @Test
+    public void testRequestsAreRejectedWhenSaturated() throws Exception {
+        // ARRANGE
+        Bulkhead bulkhead = Bulkhead.forConnector(connector(1, 0, RejectionPolicy.REJECT), systemStatus);
+        Future<String> blocked = occupyPermit(bulkhead);
+
+        // ACT
+        try {
+            bulkhead.call(() -> "rejected");
+            throw new AssertionError("Expected the request to be rejected");
+
+        } catch (RejectedExecutionException e) {
+            // expected
+        }
+
+        // ASSERT
+        verify(rejectedMeter).mark();
+        release.countDown();
+        assertThat(blocked.get(10, TimeUnit.SECONDS), equalTo("blocked"));
+        assertThat("The permit should be released after the call completes", bulkhead.availablePermits(), equalTo(1));
+    }
+
+    @Test
+    public void testSaturatedRequestsWaitForPermit() throws Exception {
+        // ARRANGE
+        Bulkhead bulkhead = Bulkhead.forConnector(connector(1, 0, RejectionPolicy.WAIT), systemStatus);
+        occupyPermit(bulkhead);
+
+        // ACT
+        Future<String> waiting = executor.submit(() -> bulkhead.call(() -> "waiting"));
+        verify(queuedMeter, timeout(10000)).mark();
+
+        // ASSERT
+        assertThat("The waiting request should not run while the permit is held", waiting.isDone(), is(false));
+        release.countDown();
+        assertThat(waiting.get(10, TimeUnit.SECONDS), equalTo("waiting"));
+        verify(rejectedMeter, never()).mark();
+    }
+
+    @Test
+    public void testWaitingRequestsAreRejectedAfterTimeout() throws Exception {
+        // ARRANGE
+        Bulkhead bulkhead = Bulkhead.forConnector(connector(1, 0, RejectionPolicy.WAIT, 50L), systemStatus);
+        occupyPermit(bulkhead);
+
+        // ACT
+        try {
+            bulkhead.call(() -> "rejected");
+            throw new AssertionError("Expected the request to be rejected");
+
+        } catch (RejectedExecutionException e) {
+            // expected
+        }
+
+        // ASSERT
+        verify(rejectedMeter).mark();
+        assertThat("The request should not run without a permit", bulkhead.availablePermits(), equalTo(0));
+    }
+
+    @Test
+    public void testQueuedRequestsWaitForPermit() throws Exception {
+        // ARRANGE
+        Bulkhead bulkhead = Bulkhead.forConnector(connector(1, 1, RejectionPolicy.REJECT), systemStatus);
+        occupyPermit(bulkhead);
+
+        // ACT
+        Future<String> queued = executor.submit(() -> bulkhead.call(() -> "queued"));
+        verify(queuedMeter, timeout(10000)).mark();
+
+        // ASSERT
+        assertThat("The queued request should not run while the permit is held", queued.isDone(), is(false));
+        release.countDown();
+        assertThat(queued.get(10, TimeUnit.SECONDS), equalTo("queued"));
+        verify(rejectedMeter, never()).mark();
+    }
+
+
+    /**
+     * Starts a call which holds the bulkhead's only permit, until {@link #release} is counted down
+     */
+    private Future<String> occupyPermit(Bulkhead bulkhead) throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        Future<String> blocked = executor.submit(() -> bulkhead.call(() -> {
+            started.countDown();
+            awaitRelease();
+            return "blocked";
+        }));
+
+        assertThat(started.await(10, TimeUnit.SECONDS), is(true));
+        return blocked;
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await();
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static EndpointConnector connector(int maxConcurrent, int maxQueued, RejectionPolicy rejectionPolicy) {
+        return connector(maxConcurrent, maxQueued, rejectionPolicy, 10_000L);
+    }
+
+    private static EndpointConnector connector(int maxConcurrent, int maxQueued, RejectionPolicy rejectionPolicy, long queueTimeoutMillis) {
+        return ImmutableConnector.builder()
+                .id("endpoint")
+                .endpoint("http://localhost/")
+                .password("".getBytes())
+                .maxConcurrentRequests(maxConcurrent)
+                .maxQueuedRequests(maxQueued)
+                .rejectionPolicy(rejectionPolicy)
+                .queueTimeoutMillis(queueTimeoutMillis)
+                .build();
+    }
+}
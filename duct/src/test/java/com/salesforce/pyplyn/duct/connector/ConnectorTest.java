@@ -31,6 +31,7 @@ import com.salesforce.pyplyn.configuration.EndpointConnector;
 import com.salesforce.pyplyn.configuration.ImmutableConnector;
 import com.salesforce.pyplyn.duct.app.BootstrapException;
 import com.salesforce.pyplyn.duct.com.salesforce.pyplyn.test.AppBootstrapFixtures;
+import com.salesforce.pyplyn.status.SystemStatus;
 
 /**
  * Test class
@@ -80,7 +81,7 @@ public class ConnectorTest {
         Set<List<EndpointConnector>> connectorSet = createConnectorSet(connectors);
 
         try {
-            new AppConnectors(connectorSet, mock(CacheFactory.class));
+            new AppConnectors(connectorSet, mock(CacheFactory.class), mock(SystemStatus.class));
             fail("Expected this test to fail as we don't allow duplicate connector ids");
 
         } catch (BootstrapException e) {
@@ -103,7 +104,7 @@ public class ConnectorTest {
         Set<List<EndpointConnector>> connectorSet = createConnectorSet(connectors);
 
         // initialize the AppConnectors object
-        AppConnectors appConnectors = new AppConnectors(connectorSet, mock(CacheFactory.class));
+        AppConnectors appConnectors = new AppConnectors(connectorSet, mock(CacheFactory.class), mock(SystemStatus.class));
 
         assertConnectorsWereDeserialized(connectors);
         assertThat(appConnectors.findConnector("invalid-unknown-id"), nullValue());
@@ -12,16 +12,23 @@ import static com.salesforce.pyplyn.duct.com.salesforce.pyplyn.test.Configuratio
 import static com.salesforce.pyplyn.duct.com.salesforce.pyplyn.test.ConfigurationsTestHelper.createFullConfiguration;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
-import static org.mockito.Mockito.times;
-import static org.mockito.Mockito.verify;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Set;
 
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import com.codahale.metrics.Meter;
+import com.hazelcast.core.EntryEvent;
 import com.salesforce.pyplyn.configuration.Configuration;
+import com.salesforce.pyplyn.duct.cluster.Cluster;
 import com.salesforce.pyplyn.duct.com.salesforce.pyplyn.test.AppBootstrapFixtures;
+import com.salesforce.pyplyn.status.MeterType;
 
 /**
  * Test class
@@ -85,4 +92,229 @@ public class ClusterConfigurationUpdateManagerTest {
         // ASSERT
         verify(fixtures.configurationLoader(), times(0)).load();
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testUnchangedConfigurationsAreNotWrittenToTheCluster() throws Exception {
+        // ARRANGE
+        Configuration configuration = createFullConfiguration(100L, false);
+
+        fixtures.configurationProviderReturns(configuration)
+                .clusterReturns(configuration)
+                .clusterMasterNode()
+                .initializeFixtures();
+
+        ConfigurationUpdateManager configurationUpdateManager = fixtures.configurationManager();
+
+        // ACT
+        configurationUpdateManager.run();
+
+        // ASSERT
+        verify(fixtures.hazelcastConfigurationMap(), times(0)).set(any(), any());
+        verify(fixtures.hazelcastConfigurationMap(), times(0)).put(any(), any());
+        verify(fixtures.hazelcastConfigurationMap(), times(0)).delete(any());
+    }
+
+    @Test
+    public void testOnlyChangedConfigurationsAreWrittenToTheCluster() throws Exception {
+        // ARRANGE
+        Configuration unchanged = createFullConfiguration(100L, false);
+        Configuration previous = createCustomConfiguration("argus", "refocus",
+                "expression", "name",
+                "subject", "aspect",
+                100L, false);
+        Configuration changed = createCustomConfiguration("argus", "refocus",
+                "expression", "name",
+                "subject", "aspect",
+                200L, false);
+
+        fixtures.configurationProviderReturns(unchanged, changed)
+                .clusterReturns(unchanged, previous)
+                .clusterMasterNode()
+                .initializeFixtures();
+
+        ConfigurationUpdateManager configurationUpdateManager = fixtures.configurationManager();
+
+        // ACT
+        configurationUpdateManager.run();
+
+        // ASSERT
+        verify(fixtures.hazelcastConfigurationMap(), times(1)).set(any(), any());
+        verify(fixtures.hazelcastConfigurationMap(), times(0)).put(any(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testIdenticalUpdateEventsDoNotRestartTasks() throws Exception {
+        // ARRANGE
+        Configuration configuration = createFullConfiguration(100L, false);
+        Configuration changed = createFullConfiguration(200L, false);
+
+        fixtures.clusterReturns()
+                .clusterSlaveNode()
+                .initializeFixtures();
+
+        ConfigurationUpdateManager.ConfigurationMapListener listener = fixtures.configurationManager().new ConfigurationMapListener();
+
+        EntryEvent<String, Configuration> identical = mock(EntryEvent.class);
+        doReturn(configuration).when(identical).getOldValue();
+        doReturn(createFullConfiguration(100L, false)).when(identical).getValue();
+
+        EntryEvent<String, Configuration> updated = mock(EntryEvent.class);
+        doReturn(configuration).when(updated).getOldValue();
+        doReturn(changed).when(updated).getValue();
+
+        // ACT
+        listener.entryUpdated(identical);
+        listener.entryUpdated(updated);
+
+        // ASSERT
+        verify(fixtures.taskManager(), times(1)).upsert(any());
+        verify(fixtures.taskManager()).upsert(changed);
+    }
+
+    @Test
+    public void testMigrationsOnlyRebalanceTasksInMigratedPartitions() throws Exception {
+        // ARRANGE
+        Configuration movedAway = createCustomConfiguration("argus", "refocus", "expression1", "name", "subject", "aspect", 100L, false);
+        Configuration unaffected = createCustomConfiguration("argus", "refocus", "expression2", "name", "subject", "aspect", 100L, false);
+        Configuration movedHere = createCustomConfiguration("argus", "refocus", "expression3", "name", "subject", "aspect", 100L, false);
+
+        fixtures.clusterReturns(unaffected, movedHere)
+                .clusterSlaveNode()
+                .initializeFixtures();
+
+        Cluster cluster = fixtures.cluster();
+        doReturn(1).when(cluster).partitionId(movedAway.fingerprint());
+        doReturn(2).when(cluster).partitionId(unaffected.fingerprint());
+        doReturn(3).when(cluster).partitionId(movedHere.fingerprint());
+        doReturn(false).when(cluster).isLocalPartition(1);
+        doReturn(true).when(cluster).isLocalPartition(3);
+
+        doReturn(new HashSet<>(Arrays.asList(movedAway, unaffected))).when(fixtures.taskManager()).allTasks();
+        doReturn(Collections.singletonMap(movedHere.fingerprint(), movedHere))
+                .when(fixtures.hazelcastConfigurationMap()).getAll(Collections.singleton(movedHere.fingerprint()));
+
+        ConfigurationUpdateManager configurationUpdateManager = fixtures.configurationManager();
+
+        // ACT
+        configurationUpdateManager.rebalance(new HashSet<>(Arrays.asList(1, 3)));
+
+        // ASSERT
+        verify(fixtures.taskManager()).remove(movedAway);
+        verify(fixtures.taskManager()).upsert(movedHere);
+        verify(fixtures.taskManager(), times(1)).remove(any());
+        verify(fixtures.taskManager(), times(1)).upsert(any());
+    }
+
+    @Test
+    public void testSynchronizingTasksDoesNotRestartRunningTasks() throws Exception {
+        // ARRANGE
+        Configuration running = createCustomConfiguration("argus", "refocus", "expression1", "name", "subject", "aspect", 100L, false);
+        Configuration missing = createCustomConfiguration("argus", "refocus", "expression2", "name", "subject", "aspect", 100L, false);
+
+        fixtures.clusterReturns(running, missing)
+                .clusterSlaveNode()
+                .initializeFixtures();
+
+        doReturn(Collections.singleton(running)).when(fixtures.taskManager()).allTasks();
+        doReturn(Collections.singletonMap(missing.fingerprint(), missing))
+                .when(fixtures.hazelcastConfigurationMap()).getAll(Collections.singleton(missing.fingerprint()));
+
+        ConfigurationUpdateManager configurationUpdateManager = fixtures.configurationManager();
+
+        // ACT
+        configurationUpdateManager.run();
+
+        // ASSERT
+        verify(fixtures.taskManager(), times(1)).upsert(any());
+        verify(fixtures.taskManager()).upsert(missing);
+        verify(fixtures.taskManager(), times(0)).remove(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testTasksAreStartedAndStoppedWhenAssignedToMembers() throws Exception {
+        // ARRANGE
+        Configuration assigned = createCustomConfiguration("argus", "refocus", "expression1", "name", "subject", "aspect", 100L, false);
+        Configuration moved = createCustomConfiguration("argus", "refocus", "expression2", "name", "subject", "aspect", 100L, false);
+
+        fixtures.clusterReturns()
+                .clusterSlaveNode()
+                .initializeFixtures();
+
+        doReturn("local").when(fixtures.cluster()).localMemberId();
+        doReturn(assigned).when(fixtures.hazelcastConfigurationMap()).get(assigned.fingerprint());
+        doReturn(Collections.singleton(moved)).when(fixtures.taskManager()).allTasks();
+
+        ConfigurationUpdateManager.TaskPlacementListener listener = fixtures.configurationManager().new TaskPlacementListener();
+
+        EntryEvent<String, String> assignedEvent = mock(EntryEvent.class);
+        doReturn(assigned.fingerprint()).when(assignedEvent).getKey();
+        doReturn("other").when(assignedEvent).getOldValue();
+        doReturn("local").when(assignedEvent).getValue();
+
+        EntryEvent<String, String> movedEvent = mock(EntryEvent.class);
+        doReturn(moved.fingerprint()).when(movedEvent).getKey();
+        doReturn("local").when(movedEvent).getOldValue();
+        doReturn("other").when(movedEvent).getValue();
+
+        // ACT
+        listener.entryUpdated(assignedEvent);
+        listener.entryUpdated(movedEvent);
+
+        // ASSERT
+        verify(fixtures.taskManager(), times(1)).upsert(any());
+        verify(fixtures.taskManager()).upsert(assigned);
+        verify(fixtures.taskManager(), times(1)).remove(any());
+        verify(fixtures.taskManager()).remove(moved);
+    }
+
+    @Test
+    public void testConfigurationChurnIsReportedWhenUpdatingTheCluster() throws Exception {
+        // ARRANGE
+        Configuration unchanged = createFullConfiguration(100L, false);
+        Configuration previous = createCustomConfiguration("argus", "refocus",
+                "expression", "name",
+                "subject", "aspect",
+                100L, false);
+        Configuration changed = createCustomConfiguration("argus", "refocus",
+                "expression", "name",
+                "subject", "aspect",
+                200L, false);
+        Configuration removed = createCustomConfiguration("argus", "refocus",
+                "removed", "name",
+                "subject", "aspect",
+                100L, false);
+        Configuration added = createCustomConfiguration("argus", "refocus",
+                "added", "name",
+                "subject", "aspect",
+                100L, false);
+
+        fixtures.configurationProviderReturns(unchanged, changed, added)
+                .clusterReturns(unchanged, previous, removed)
+                .clusterMasterNode()
+                .initializeFixtures();
+
+        Meter addedMeter = mock(Meter.class);
+        Meter changedMeter = mock(Meter.class);
+        Meter removedMeter = mock(Meter.class);
+        Meter writtenMeter = mock(Meter.class);
+        doReturn(addedMeter).when(fixtures.systemStatus()).meter("", MeterType.ConfigurationAdded);
+        doReturn(changedMeter).when(fixtures.systemStatus()).meter("", MeterType.ConfigurationChanged);
+        doReturn(removedMeter).when(fixtures.systemStatus()).meter("", MeterType.ConfigurationRemoved);
+        doReturn(writtenMeter).when(fixtures.systemStatus()).meter("", MeterType.ConfigurationWritten);
+
+        ConfigurationUpdateManager configurationUpdateManager = fixtures.configurationManager();
+
+        // ACT
+        configurationUpdateManager.run();
+
+        // ASSERT
+        verify(addedMeter).mark(1);
+        verify(changedMeter).mark(1);
+        verify(removedMeter).mark(1);
+        verify(writtenMeter).mark(3);
+        verify(fixtures.hazelcastConfigurationMap(), times(2)).set(any(), any());
+        verify(fixtures.hazelcastConfigurationMap(), times(1)).delete(any());
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ *  Copyright (c) 2016-2017, Salesforce.com, Inc.
+ *  All rights reserved.
+ *  Licensed under the BSD 3-Clause license.
+ *  For full license text, see the LICENSE.txt file in repo root
+ *    or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.pyplyn.duct.etl.configuration;
+
+import static com.salesforce.pyplyn.duct.com.salesforce.pyplyn.test.ConfigurationsTestHelper.createCustomConfiguration;
+import static com.salesforce.pyplyn.duct.com.salesforce.pyplyn.test.ConfigurationsTestHelper.createFullConfiguration;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.testng.annotations.Test;
+
+import com.salesforce.pyplyn.configuration.Configuration;
+import com.salesforce.pyplyn.configuration.ImmutableConfiguration;
+import com.salesforce.pyplyn.duct.etl.extract.argus.ImmutableArgus;
+
+/**
+ * Test class
+ *
+ * @author Mihai Bojin &lt;mbojin@salesforce.com&gt;
+ * @since 10.0.0
+ */
+public class ConfigurationDiffTest {
+    @Test
+    public void testIdenticalConfigurationsAreUnchanged() throws Exception {
+        // ARRANGE
+        Configuration previous = createFullConfiguration(100L, false);
+        Configuration latest = createFullConfiguration(100L, false);
+
+        // ACT
+        ConfigurationDiff diff = ConfigurationDiff.between(Collections.singleton(previous), Collections.singleton(latest));
+
+        // ASSERT
+        assertThat(diff.upserted(), empty());
+        assertThat(diff.removed(), empty());
+        assertThat(diff.unchanged(), equalTo(1));
+    }
+
+    @Test
+    public void testAuxiliaryFieldChangesAreDetected() throws Exception {
+        // ARRANGE
+        Configuration previous = createFullConfiguration(100L, false);
+        Configuration latest = createFullConfiguration(200L, false);
+
+        // ACT
+        ConfigurationDiff diff = ConfigurationDiff.between(Collections.singleton(previous), Collections.singleton(latest));
+
+        // ASSERT
+        assertThat(diff.changed(), hasSize(1));
+        assertThat("The latest version of the configuration should be upserted",
+                diff.upserted().iterator().next().repeatIntervalMillis(), equalTo(200L));
+        assertThat(diff.added(), empty());
+        assertThat(diff.removed(), empty());
+        assertThat(diff.unchanged(), equalTo(0));
+    }
+
+    @Test
+    public void testAddedAndRemovedConfigurations() throws Exception {
+        // ARRANGE
+        Configuration kept = createFullConfiguration(100L, false);
+        Configuration removed = createCustomConfiguration("argus", "refocus",
+                "expression", "name",
+                "subject", "aspect",
+                100L, false);
+        Configuration added = createCustomConfiguration("argus", "refocus",
+                "expression2", "name2",
+                "subject2", "aspect2",
+                100L, false);
+
+        // ACT
+        ConfigurationDiff diff = ConfigurationDiff.between(Arrays.asList(kept, removed), Arrays.asList(kept, added));
+
+        // ASSERT
+        assertThat(diff.added(), contains(added));
+        assertThat(diff.removed(), contains(removed));
+        assertThat(diff.changed(), empty());
+        assertThat(diff.unchanged(), equalTo(1));
+    }
+
+    @Test
+    public void testNestedAuxiliaryFieldChangesAreDetected() throws Exception {
+        // ARRANGE
+        Configuration previous = ImmutableConfiguration.of(100L,
+                singletonList(ImmutableArgus.of("endpoint", "expression", "name", 1, 2d)), emptyList(), emptyList(), false);
+        Configuration latest = ImmutableConfiguration.of(100L,
+                singletonList(ImmutableArgus.of("endpoint", "expression", "name", 60000, 2d)), emptyList(), emptyList(), false);
+
+        // ACT
+        ConfigurationDiff diff = ConfigurationDiff.between(Collections.singleton(previous), Collections.singleton(latest));
+
+        // ASSERT
+        assertThat("Changing the cache duration should not change the configuration's identity", diff.added(), empty());
+        assertThat(diff.changed(), contains(latest));
+    }
+}
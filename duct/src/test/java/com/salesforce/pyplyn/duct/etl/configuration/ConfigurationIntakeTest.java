@@ -10,16 +10,23 @@ package com.salesforce.pyplyn.duct.etl.configuration;
 
 import static com.salesforce.pyplyn.duct.appconfig.AppConfigProviderTest.fixSerializationHelper;
 import static org.hamcrest.MatcherAssert.assertThat;
-import static org.hamcrest.Matchers.containsString;
-import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.*;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
 import static org.testng.Assert.fail;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
@@ -38,11 +45,23 @@ public class ConfigurationIntakeTest {
     public static final String INVALID_CONFIGURATIONS = "/configurations/invalid/";
 
     private AppBootstrapFixtures fixtures;
+    private Path configurationsDir;
 
     @BeforeMethod
     public void setUp() throws Exception {
         // ARRANGE
         fixtures = new AppBootstrapFixtures();
+        configurationsDir = Files.createTempDirectory("configurations");
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        try (Stream<Path> files = Files.list(configurationsDir)) {
+            for (Path file : files.collect(Collectors.toList())) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(configurationsDir);
     }
 
     @Test
@@ -117,4 +136,96 @@ public class ConfigurationIntakeTest {
             assertThat(e.getMessage(), containsString(ConfigurationIntake.CONFIGURATIONS_READ_ERROR));
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testUnmodifiedFilesAreNotParsedAgain() throws Exception {
+        // ARRANGE
+        ObjectMapper mapper = fixSerializationHelper(fixtures);
+        ConfigurationIntake configurationIntake = new ConfigurationIntake(mapper);
+        writeConfiguration("configuration.json", 100L, 1);
+        Set<Configuration> initial = configurationIntake.parseAll(configurationsDir.toString());
+
+        // ACT
+        Set<Configuration> reloaded = configurationIntake.parseAll(configurationsDir.toString());
+
+        // ASSERT
+        assertThat(reloaded, hasSize(1));
+        assertThat("Unmodified files should not be deserialized again",
+                reloaded.iterator().next(), sameInstance(initial.iterator().next()));
+    }
+
+    @Test
+    public void testModifiedFilesAreParsedAgain() throws Exception {
+        // ARRANGE
+        ObjectMapper mapper = fixSerializationHelper(fixtures);
+        ConfigurationIntake configurationIntake = new ConfigurationIntake(mapper);
+        writeConfiguration("unchanged.json", 100L, 1);
+        writeConfiguration("changed.json", 200L, 1);
+        Set<Configuration> initial = configurationIntake.parseAll(configurationsDir.toString());
+
+        // ACT
+        writeConfiguration("changed.json", 300L, 2);
+        Set<Configuration> reloaded = configurationIntake.parseAll(configurationsDir.toString());
+
+        // ASSERT
+        assertThat(repeatIntervals(reloaded), containsInAnyOrder(100L, 300L));
+        assertThat("Configurations from unmodified files should be reused", reloaded, hasItem(
+                sameInstance(initial.stream().filter(c -> c.repeatIntervalMillis() == 100L).findFirst().get())));
+    }
+
+    @Test
+    public void testDeletedFilesAreForgotten() throws Exception {
+        // ARRANGE
+        ObjectMapper mapper = fixSerializationHelper(fixtures);
+        ConfigurationIntake configurationIntake = new ConfigurationIntake(mapper);
+        writeConfiguration("kept.json", 100L, 1);
+        writeConfiguration("deleted.json", 200L, 1);
+        configurationIntake.parseAll(configurationsDir.toString());
+
+        // ACT
+        Files.delete(configurationsDir.resolve("deleted.json"));
+        Set<Configuration> reloaded = configurationIntake.parseAll(configurationsDir.toString());
+
+        // ASSERT
+        assertThat(repeatIntervals(reloaded), contains(100L));
+    }
+
+    @Test
+    public void testErrorsAreOnlyReportedForTheLatestIntake() throws Exception {
+        // ARRANGE
+        ObjectMapper mapper = fixSerializationHelper(fixtures);
+        ConfigurationIntake configurationIntake = new ConfigurationIntake(mapper);
+        Path invalid = configurationsDir.resolve("invalid.json");
+        Files.write(invalid, "[{".getBytes(StandardCharsets.UTF_8));
+        configurationIntake.parseAll(configurationsDir.toString());
+
+        // ACT
+        Files.delete(invalid);
+        writeConfiguration("configuration.json", 100L, 1);
+        Set<Configuration> reloaded = configurationIntake.parseAll(configurationsDir.toString());
+
+        // ASSERT
+        assertThat(reloaded, hasSize(1));
+        configurationIntake.throwRuntimeExceptionOnErrors();
+    }
+
+
+    /**
+     * Writes a configuration file with the specified repeat interval (identified by the file's <b>name</b>),
+     *   and sets its last modified time to <b>minutesAgo</b> in the past, so that it is not considered to have been modified recently
+     */
+    private void writeConfiguration(String name, long repeatIntervalMillis, int minutesAgo) throws IOException {
+        String configuration = "[{\"repeatIntervalMillis\":" + repeatIntervalMillis + ","
+                + "\"extract\":[{\"format\":\"Argus\",\"endpoint\":\"argus\",\"expression\":\"expression\",\"name\":\"" + name + "\"}],"
+                + "\"transform\":[{\"name\":\"LastDatapoint\"}],"
+                + "\"load\":[{\"format\":\"Refocus\",\"endpoint\":\"refocus\",\"subject\":\"subject\",\"aspect\":\"aspect\",\"relatedLinks\":[]}]}]";
+
+        Path file = configurationsDir.resolve(name);
+        Files.write(file, configuration.getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(minutesAgo)));
+    }
+
+    private static List<Long> repeatIntervals(Set<Configuration> configurations) {
+        return configurations.stream().map(Configuration::repeatIntervalMillis).collect(Collectors.toList());
+    }
+}
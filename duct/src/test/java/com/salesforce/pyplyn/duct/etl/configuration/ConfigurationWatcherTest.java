@@ -0,0 +1,103 @@
+/*
+ *  Copyright (c) 2016-2017, Salesforce.com, Inc.
+ *  All rights reserved.
+ *  Licensed under the BSD 3-Clause license.
+ *  For full license text, see the LICENSE.txt file in repo root
+ *    or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.pyplyn.duct.etl.configuration;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Test class
+ *
+ * @author Mihai Bojin &lt;mbojin@salesforce.com&gt;
+ * @since 10.0.0
+ */
+public class ConfigurationWatcherTest {
+    private Path configurationsDir;
+    private ExecutorService executor;
+
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        // ARRANGE
+        configurationsDir = Files.createTempDirectory("configurations");
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        executor.shutdownNow();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+
+        Files.deleteIfExists(configurationsDir.resolve("configuration.json"));
+        Files.deleteIfExists(configurationsDir.resolve("notes.txt"));
+        Files.delete(configurationsDir);
+    }
+
+    @Test
+    public void testChangesToConfigurationFilesTriggerOneReload() throws Exception {
+        // ARRANGE
+        CountDownLatch reloaded = new CountDownLatch(1);
+        AtomicInteger reloads = new AtomicInteger();
+        ConfigurationWatcher watcher = new ConfigurationWatcher(configurationsDir.toString(), () -> {
+            reloads.incrementAndGet();
+            reloaded.countDown();
+        });
+
+        try {
+            executor.execute(watcher);
+
+            // ACT
+            Path file = configurationsDir.resolve("configuration.json");
+            Files.write(file, "[]".getBytes(StandardCharsets.UTF_8));
+            Files.write(file, "[ ]".getBytes(StandardCharsets.UTF_8));
+
+            // ASSERT
+            assertThat("Expecting a reload after the configuration file was written", reloaded.await(30, TimeUnit.SECONDS), is(true));
+            assertThat("Successive changes should be coalesced", reloads.get(), equalTo(1));
+
+        } finally {
+            watcher.close();
+        }
+    }
+
+    @Test
+    public void testChangesToOtherFilesAreIgnored() throws Exception {
+        // ARRANGE
+        AtomicInteger reloads = new AtomicInteger();
+        ConfigurationWatcher watcher = new ConfigurationWatcher(configurationsDir.toString(), reloads::incrementAndGet);
+
+        try {
+            executor.execute(watcher);
+
+            // ACT
+            Files.write(configurationsDir.resolve("notes.txt"), "notes".getBytes(StandardCharsets.UTF_8));
+            Thread.sleep(ConfigurationWatcher.QUIET_PERIOD_MILLIS * 3);
+
+            // ASSERT
+            assertThat(reloads.get(), equalTo(0));
+
+        } finally {
+            watcher.close();
+        }
+    }
+}
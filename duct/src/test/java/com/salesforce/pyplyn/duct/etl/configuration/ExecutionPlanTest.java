@@ -0,0 +1,107 @@
+/*
+ *  Copyright (c) 2016-2017, Salesforce.com, Inc.
+ *  All rights reserved.
+ *  Licensed under the BSD 3-Clause license.
+ *  For full license text, see the LICENSE.txt file in repo root
+ *    or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.pyplyn.duct.etl.configuration;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.salesforce.argus.ArgusClient;
+import com.salesforce.argus.model.ImmutableMetricResponse;
+import com.salesforce.argus.model.MetricDatapoints;
+import com.salesforce.argus.model.MetricResponse;
+import com.salesforce.pyplyn.configuration.Configuration;
+import com.salesforce.pyplyn.duct.com.salesforce.pyplyn.test.AppBootstrapFixtures;
+import com.salesforce.pyplyn.model.Extract;
+import com.salesforce.pyplyn.model.Load;
+import com.salesforce.pyplyn.model.TransmutationBatch;
+import com.salesforce.pyplyn.processor.ExtractPlan;
+import com.salesforce.pyplyn.processor.ExtractProcessor;
+import com.salesforce.pyplyn.processor.LoadProcessor;
+
+/**
+ * Test class
+ *
+ * @author Mihai Bojin &lt;mbojin@salesforce.com&gt;
+ * @since 10.0.0
+ */
+public class ExecutionPlanTest {
+    private AppBootstrapFixtures fixtures;
+
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        // ARRANGE
+        fixtures = new AppBootstrapFixtures();
+    }
+
+    @Test
+    public void testOnlyProcessorsHandlingTheConfigurationArePlanned() throws Exception {
+        // ARRANGE
+        fixtures.initializeFixtures();
+        Configuration configuration = new AppBootstrapFixtures.ConfigurationMocks().argusExtract(null).build();
+
+        // ACT
+        ExecutionPlan plan = ExecutionPlan.compile(configuration, extractProcessors(), loadProcessors());
+
+        // ASSERT
+        assertThat(plan.extracts(), hasSize(1));
+        assertThat(plan.loads(), hasSize(1));
+        assertThat(plan.transformChain().stages(), equalTo(1));
+    }
+
+    @Test
+    public void testDefinitionsArePreparedOnlyOnce() throws Exception {
+        // ARRANGE
+        String now = Long.valueOf(Instant.now().toEpochMilli()).toString();
+        MetricResponse response = ImmutableMetricResponse.builder()
+                .metric("argus-metric")
+                .datapoints(MetricDatapoints.from(Collections.singletonMap(now, "1.2")))
+                .build();
+
+        fixtures.callRealArgusExtractProcessor()
+                .argusClientReturns(Collections.singletonList(response))
+                .initializeFixtures();
+
+        Configuration configuration = new AppBootstrapFixtures.ConfigurationMocks().argusExtract(null).build();
+        ExecutionPlan plan = ExecutionPlan.compile(configuration, extractProcessors(), loadProcessors());
+        ExtractPlan extract = plan.extracts().get(0);
+
+        // ACT
+        TransmutationBatch first = extract.processBatchAsync().blockingFirst();
+        TransmutationBatch second = extract.processBatchAsync().blockingFirst();
+
+        // ASSERT
+        assertThat(first.rows(), equalTo(1));
+        assertThat(second.rows(), equalTo(1));
+        verify(fixtures.argusExtractProcessor(), times(1)).filter(any());
+        verify(fixtures.appConnectors(), times(1)).retrieveOrBuildClient(eq(AppBootstrapFixtures.MOCK_CONNECTOR_NAME), eq(ArgusClient.class), eq(MetricResponse.class));
+        verify(fixtures.argusClient(), times(2)).getMetrics(any());
+    }
+
+
+    private List<ExtractProcessor<? extends Extract>> extractProcessors() {
+        return Arrays.asList(fixtures.argusExtractProcessor(), fixtures.refocusExtractProcessor());
+    }
+
+    private List<LoadProcessor<? extends Load>> loadProcessors() {
+        return Collections.singletonList(fixtures.refocusLoadProcessor());
+    }
+}
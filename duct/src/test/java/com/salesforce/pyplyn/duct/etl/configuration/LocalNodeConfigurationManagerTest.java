@@ -12,14 +12,22 @@ import static com.salesforce.pyplyn.duct.com.salesforce.pyplyn.test.Configuratio
 import static com.salesforce.pyplyn.duct.com.salesforce.pyplyn.test.ConfigurationsTestHelper.createFullConfiguration;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
 
+import java.util.Arrays;
 import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import com.codahale.metrics.Meter;
 import com.salesforce.pyplyn.configuration.Configuration;
+import com.salesforce.pyplyn.duct.cluster.Shard;
 import com.salesforce.pyplyn.duct.com.salesforce.pyplyn.test.AppBootstrapFixtures;
+import com.salesforce.pyplyn.status.MeterType;
 
 /**
  * Test class
@@ -67,6 +75,41 @@ public class LocalNodeConfigurationManagerTest {
     }
 
 
+    @Test
+    public void testOnlyChangedConfigurationsAreUpserted() throws Exception {
+        // ARRANGE
+        Configuration unchanged = createFullConfiguration(100L, false);
+        Configuration changed = createCustomConfiguration("argus", "refocus",
+                "expression", "name",
+                "subject", "aspect",
+                100L, false);
+        Configuration changedInterval = createCustomConfiguration("argus", "refocus",
+                "expression", "name",
+                "subject", "aspect",
+                200L, false);
+
+        fixtures.configurationProviderReturns(unchanged, changed)
+                .initializeFixtures();
+
+        ConfigurationUpdateManager configurationUpdateManager = fixtures.configurationManager();
+        configurationUpdateManager.run();
+
+        // ACT
+        fixtures.configurationProviderReturns(unchanged, changedInterval);
+        configurationUpdateManager.run();
+        fixtures.configurationProviderReturns(unchanged, changedInterval);
+        configurationUpdateManager.run();
+
+        // ASSERT
+        verify(fixtures.taskManager(), times(1)).upsert(unchanged);
+        verify(fixtures.taskManager(), times(2)).upsert(changed);
+        verify(fixtures.taskManager(), times(0)).remove(any());
+        assertThat("The latest repeat interval should be known",
+                configurationUpdateManager.get().stream().map(Configuration::repeatIntervalMillis).collect(Collectors.toSet()),
+                containsInAnyOrder(100L, 200L));
+    }
+
+
     @Test
     public void testUpdateConfigurationsFailure() throws Exception {
         // ARRANGE
@@ -91,4 +134,84 @@ public class LocalNodeConfigurationManagerTest {
         assertThat("Expecting the old configuration list to be preserved on any failures", secondSet, hasSize(1));
         //verify(configurationUpdateManager, times(1)).markFailure();
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testOnlyConfigurationsInTheLocalShardAreRun() throws Exception {
+        // ARRANGE
+        Configuration[] configurations = IntStream.range(0, 20)
+                .mapToObj(i -> createCustomConfiguration("argus", "refocus",
+                        "expression" + i, "name",
+                        "subject", "aspect",
+                        100L, false))
+                .toArray(Configuration[]::new);
+
+        fixtures.appConfigMocks()
+                .sharding(1, 3);
+
+        fixtures.configurationProviderReturns(configurations)
+                .initializeFixtures();
+
+        ConfigurationUpdateManager configurationUpdateManager = fixtures.configurationManager();
+        Set<Configuration> expected = Arrays.stream(configurations)
+                .filter(new Shard(fixtures.appConfigMocks().get()).localConfigurations())
+                .collect(Collectors.toSet());
+
+        // ACT
+        configurationUpdateManager.run();
+        Set<Configuration> local = configurationUpdateManager.get();
+
+        // ASSERT
+        assertThat(local, not(empty()));
+        assertThat(local, hasSize(lessThan(configurations.length)));
+        assertThat(local, equalTo(expected));
+        verify(fixtures.taskManager(), times(expected.size())).upsert(any());
+    }
+
+    @Test
+    public void testConfigurationChurnIsReportedOnReload() throws Exception {
+        // ARRANGE
+        Configuration unchanged = createFullConfiguration(100L, false);
+        Configuration previous = createCustomConfiguration("argus", "refocus",
+                "expression", "name",
+                "subject", "aspect",
+                100L, false);
+        Configuration changed = createCustomConfiguration("argus", "refocus",
+                "expression", "name",
+                "subject", "aspect",
+                200L, false);
+        Configuration removed = createCustomConfiguration("argus", "refocus",
+                "removed", "name",
+                "subject", "aspect",
+                100L, false);
+        Configuration added = createCustomConfiguration("argus", "refocus",
+                "added", "name",
+                "subject", "aspect",
+                100L, false);
+
+        fixtures.configurationProviderReturns(unchanged, previous, removed)
+                .initializeFixtures();
+
+        Meter addedMeter = mock(Meter.class);
+        Meter changedMeter = mock(Meter.class);
+        Meter removedMeter = mock(Meter.class);
+        Meter writtenMeter = mock(Meter.class);
+        doReturn(addedMeter).when(fixtures.systemStatus()).meter("", MeterType.ConfigurationAdded);
+        doReturn(changedMeter).when(fixtures.systemStatus()).meter("", MeterType.ConfigurationChanged);
+        doReturn(removedMeter).when(fixtures.systemStatus()).meter("", MeterType.ConfigurationRemoved);
+        doReturn(writtenMeter).when(fixtures.systemStatus()).meter("", MeterType.ConfigurationWritten);
+
+        ConfigurationUpdateManager configurationUpdateManager = fixtures.configurationManager();
+        configurationUpdateManager.run();
+        clearInvocations(addedMeter, changedMeter, removedMeter, writtenMeter);
+
+        // ACT
+        fixtures.configurationProviderReturns(unchanged, changed, added);
+        configurationUpdateManager.run();
+
+        // ASSERT
+        verify(addedMeter).mark(1);
+        verify(changedMeter).mark(1);
+        verify(removedMeter).mark(1);
+        verify(writtenMeter).mark(3);
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ *  Copyright (c) 2016-2017, Salesforce.com, Inc.
+ *  All rights reserved.
+ *  Licensed under the BSD 3-Clause license.
+ *  For full license text, see the LICENSE.txt file in repo root
+ *    or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.pyplyn.duct.etl.configuration;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.codahale.metrics.Meter;
+import com.salesforce.pyplyn.configuration.Configuration;
+import com.salesforce.pyplyn.duct.app.ShutdownHook;
+import com.salesforce.pyplyn.duct.com.salesforce.pyplyn.test.AppBootstrapFixtures;
+import com.salesforce.pyplyn.status.MeterType;
+import com.salesforce.pyplyn.status.SystemStatus;
+
+import io.reactivex.subscribers.TestSubscriber;
+
+/**
+ * Test class
+ *
+ * @author Mihai Bojin &lt;mbojin@salesforce.com&gt;
+ * @since 10.0.0
+ */
+public class TaskManagerTest {
+    private ShutdownHook shutdownHook;
+    private SystemStatus systemStatus;
+    private Meter overrunMeter;
+    private TaskManager<Configuration> taskManager;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        // ARRANGE
+        AppBootstrapFixtures fixtures = new AppBootstrapFixtures();
+        shutdownHook = new ShutdownHook();
+        systemStatus = mock(SystemStatus.class);
+        overrunMeter = mock(Meter.class);
+        doReturn(mock(Meter.class)).when(systemStatus).meter(any(), any());
+        doReturn(overrunMeter).when(systemStatus).meter(any(), eq(MeterType.TaskOverrun));
+
+        taskManager = new TaskManager<>(fixtures.appConfigMocks().get(), Collections.emptySet(), Collections.emptySet(),
+                shutdownHook, systemStatus);
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        shutdownHook.shutdown();
+    }
+
+    @Test
+    public void testRunsDueWhileThePreviousRunIsInProgressAreCountedAsOverruns() throws Exception {
+        // ARRANGE
+        Configuration task = new AppBootstrapFixtures.ConfigurationMocks().repeatIntervalMillis(20L).build();
+
+        // only request the first run, simulating a run which never completes
+        TestSubscriber<Configuration> subscriber = new TestSubscriber<>(1);
+
+        // ACT
+        taskManager.createTask(task).subscribe(subscriber);
+        verify(overrunMeter, timeout(5_000).atLeast(3)).mark();
+        subscriber.cancel();
+
+        // ASSERT
+        subscriber.assertValueCount(1);
+        assertThat(taskManager.overruns(task), greaterThanOrEqualTo(3L));
+    }
+}
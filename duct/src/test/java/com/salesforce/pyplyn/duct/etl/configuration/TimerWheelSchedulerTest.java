@@ -0,0 +1,118 @@
+/*
+ *  Copyright (c) 2016-2017, Salesforce.com, Inc.
+ *  All rights reserved.
+ *  Licensed under the BSD 3-Clause license.
+ *  For full license text, see the LICENSE.txt file in repo root
+ *    or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.pyplyn.duct.etl.configuration;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Test class
+ *
+ * @author Mihai Bojin &lt;mbojin@salesforce.com&gt;
+ * @since 10.0.0
+ */
+public class TimerWheelSchedulerTest {
+    private ExecutorService dispatcher;
+    private TimerWheelScheduler scheduler;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        // ARRANGE
+        dispatcher = Executors.newSingleThreadExecutor();
+        scheduler = new TimerWheelScheduler(1L, dispatcher);
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        scheduler.ticker().shutdownNow();
+        dispatcher.shutdownNow();
+    }
+
+    @Test
+    public void testOneOffTaskRunsOnce() throws Exception {
+        // ARRANGE
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch latch = new CountDownLatch(1);
+
+        // ACT
+        scheduler.schedule(0, 0, () -> {
+            runs.incrementAndGet();
+            latch.countDown();
+        });
+        boolean completed = latch.await(1, TimeUnit.SECONDS);
+        Thread.sleep(50);
+
+        // ASSERT
+        assertThat(completed, is(true));
+        assertThat(runs.get(), equalTo(1));
+    }
+
+    @Test
+    public void testTasksAreCascadedFromHigherLevels() throws Exception {
+        // ARRANGE
+        CountDownLatch latch = new CountDownLatch(1);
+        long start = System.nanoTime();
+
+        // ACT
+        // a delay of 300 ticks is placed in the second level of the wheel
+        scheduler.schedule(300, 0, latch::countDown);
+        boolean completed = latch.await(5, TimeUnit.SECONDS);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // ASSERT
+        assertThat(completed, is(true));
+        assertThat(elapsedMillis, greaterThanOrEqualTo(300L));
+    }
+
+    @Test
+    public void testPeriodicTaskRunsUntilCancelled() throws Exception {
+        // ARRANGE
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch latch = new CountDownLatch(3);
+
+        // ACT
+        TimerWheelScheduler.Timeout timeout = scheduler.schedule(0, 20, () -> {
+            runs.incrementAndGet();
+            latch.countDown();
+        });
+        boolean completed = latch.await(5, TimeUnit.SECONDS);
+        timeout.cancel();
+        int runsWhenCancelled = runs.get();
+        Thread.sleep(100);
+
+        // ASSERT
+        assertThat(completed, is(true));
+        assertThat(timeout.isCancelled(), is(true));
+        assertThat("Expecting at most one more run, if already dispatched", runs.get(), lessThanOrEqualTo(runsWhenCancelled + 1));
+    }
+
+    @Test
+    public void testCancelledTaskDoesNotRun() throws Exception {
+        // ARRANGE
+        AtomicInteger runs = new AtomicInteger();
+
+        // ACT
+        TimerWheelScheduler.Timeout timeout = scheduler.schedule(50, 0, runs::incrementAndGet);
+        timeout.cancel();
+        Thread.sleep(150);
+
+        // ASSERT
+        assertThat(runs.get(), equalTo(0));
+    }
+}
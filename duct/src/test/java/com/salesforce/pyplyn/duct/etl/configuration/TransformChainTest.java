@@ -0,0 +1,125 @@
+/*
+ *  Copyright (c) 2016-2017, Salesforce.com, Inc.
+ *  All rights reserved.
+ *  Licensed under the BSD 3-Clause license.
+ *  For full license text, see the LICENSE.txt file in repo root
+ *    or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.pyplyn.duct.etl.configuration;
+
+import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.mock;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.salesforce.pyplyn.duct.etl.transform.standard.ImmutableInfoStatus;
+import com.salesforce.pyplyn.duct.etl.transform.standard.ImmutableLastDatapoint;
+import com.salesforce.pyplyn.duct.etl.transform.standard.ImmutableMetadata;
+import com.salesforce.pyplyn.duct.etl.transform.standard.ImmutableThreshold;
+import com.salesforce.pyplyn.model.*;
+
+import io.reactivex.Flowable;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Test class
+ *
+ * @author Mihai Bojin &lt;mbojin@salesforce.com&gt;
+ * @since 10.0.0
+ */
+public class TransformChainTest {
+    private List<List<Transmutation>> data;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        // ARRANGE
+        ZonedDateTime now = ZonedDateTime.now(ZoneOffset.UTC).withNano(0);
+        Transmutation.Metadata metadata = ImmutableTransmutation.Metadata.builder().build();
+
+        List<Transmutation> row = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            row.add(ImmutableTransmutation.of(now.plusSeconds(i), "metric", (double)i, (double)i, metadata));
+        }
+        data = singletonList(row);
+    }
+
+    @Test
+    public void testOnlyPollingTransformsSplitTheChain() throws Exception {
+        // ARRANGE
+        List<Transform> transforms = Arrays.asList(
+                ImmutableThreshold.of("metric", 5d, 3d, 1d, ThresholdType.GREATER_THAN),
+                ImmutableInfoStatus.builder().build(),
+                mock(PollingTransform.class),
+                ImmutableMetadata.of(singletonMap("key", "value")),
+                ImmutableLastDatapoint.builder().build());
+
+        // ACT
+        TransformChain chain = TransformChain.compile(transforms);
+
+        // ASSERT
+        assertThat("Expecting two fused stages, separated by the polling transform", chain.stages(), equalTo(3));
+    }
+
+    @Test
+    public void testFusedChainMatchesSequentialApplication() throws Exception {
+        // ARRANGE
+        // mixes batch transforms with a standard transform
+        List<Transform> transforms = Arrays.asList(
+                ImmutableThreshold.of("metric", 5d, 3d, 1d, ThresholdType.GREATER_THAN),
+                (Transform)input -> singletonList(input.get(0).subList(0, 5)),
+                ImmutableMetadata.of(singletonMap("key", "value")),
+                ImmutableLastDatapoint.builder().build());
+
+        List<List<Transmutation>> expected = data;
+        for (Transform transform : transforms) {
+            expected = transform.apply(expected);
+        }
+
+        // ACT
+        TransmutationBatch result = TransformChain.compile(transforms)
+                .apply(Flowable.just(TransmutationBatch.from(data)), Schedulers.single())
+                .blockingFirst();
+
+        // ASSERT
+        assertThat(result.toMatrix(), equalTo(expected));
+        assertThat(result.size(), equalTo(1));
+        assertThat(result.metadata(0).tags(), hasEntry("key", "value"));
+    }
+
+    @Test
+    public void testFusedStagesRunOnTheCallingThread() throws Exception {
+        // ARRANGE
+        AtomicReference<Thread> first = new AtomicReference<>();
+        AtomicReference<Thread> second = new AtomicReference<>();
+        List<Transform> transforms = Arrays.asList(
+                (Transform)input -> {
+                    first.set(Thread.currentThread());
+                    return input;
+                },
+                (Transform)input -> {
+                    second.set(Thread.currentThread());
+                    return input;
+                });
+
+        // ACT
+        TransformChain.compile(transforms)
+                .apply(Flowable.just(TransmutationBatch.from(data)), Schedulers.single())
+                .blockingFirst();
+
+        // ASSERT
+        assertThat(first.get(), sameInstance(Thread.currentThread()));
+        assertThat(second.get(), sameInstance(Thread.currentThread()));
+    }
+}
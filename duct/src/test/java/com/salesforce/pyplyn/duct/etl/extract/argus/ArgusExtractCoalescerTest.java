@@ -0,0 +1,252 @@
+/*
+ *  Copyright (c) 2016-2017, Salesforce.com, Inc.
+ *  All rights reserved.
+ *  Licensed under the BSD 3-Clause license.
+ *  For full license text, see the LICENSE.txt file in repo root
+ *    or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.pyplyn.duct.etl.extract.argus;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.doReturn;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.salesforce.argus.model.ImmutableMetricResponse;
+import com.salesforce.argus.model.MetricResponse;
+import com.salesforce.pyplyn.client.UnauthorizedException;
+import com.salesforce.pyplyn.duct.appconfig.AppConfig;
+import com.salesforce.pyplyn.duct.com.salesforce.pyplyn.test.AppBootstrapFixtures;
+
+/**
+ * Test class
+ *
+ * @author Mihai Bojin &lt;mbojin@salesforce.com&gt;
+ * @since 10.0.0
+ */
+public class ArgusExtractCoalescerTest {
+    private AppBootstrapFixtures fixtures;
+    private ExecutorService executor;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        // ARRANGE
+        fixtures = new AppBootstrapFixtures();
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testConcurrentRequestsAreCoalescedIntoOneCall() throws Exception {
+        // ARRANGE
+        ArgusExtractCoalescer coalescer = coalescer(500L);
+        CountDownLatch release = occupyEndpoint(coalescer);
+
+        AtomicInteger calls = new AtomicInteger();
+        List<List<String>> requestedExpressions = new CopyOnWriteArrayList<>();
+        ArgusExtractCoalescer.Fetcher fetcher = expressions -> {
+            calls.incrementAndGet();
+            requestedExpressions.add(expressions);
+            return Arrays.asList(response("name1"), response("name2"), response("name3"));
+        };
+
+
+        // ACT
+        Future<List<MetricResponse>> first = executor.submit(() -> coalescer.getMetrics("endpoint", expressions("name1", "name2"), fetcher));
+        Future<List<MetricResponse>> second = executor.submit(() -> coalescer.getMetrics("endpoint", expressions("name2"), fetcher));
+        Future<List<MetricResponse>> third = executor.submit(() -> coalescer.getMetrics("endpoint", expressions("name3"), fetcher));
+        List<MetricResponse> firstResult = first.get(5, TimeUnit.SECONDS);
+        List<MetricResponse> secondResult = second.get(5, TimeUnit.SECONDS);
+        List<MetricResponse> thirdResult = third.get(5, TimeUnit.SECONDS);
+        release.countDown();
+
+
+        // ASSERT
+        assertThat("Expecting a single remote call", calls.get(), equalTo(1));
+        assertThat("Expecting duplicated expressions to be retrieved once", requestedExpressions.get(0), hasSize(3));
+        assertThat(metrics(firstResult), containsInAnyOrder("name1", "name2"));
+        assertThat(metrics(secondResult), contains("name2"));
+        assertThat(metrics(thirdResult), contains("name3"));
+    }
+
+    @Test
+    public void testRequestsDoNotWaitIfTheEndpointIsIdle() throws Exception {
+        // ARRANGE
+        ArgusExtractCoalescer coalescer = coalescer(60_000L);
+
+
+        // ACT
+        Future<List<MetricResponse>> result = executor.submit(() ->
+                coalescer.getMetrics("endpoint", expressions("name"), expressions -> Collections.singletonList(response("name"))));
+
+
+        // ASSERT
+        assertThat(metrics(result.get(5, TimeUnit.SECONDS)), contains("name"));
+    }
+
+    @Test
+    public void testFailedCoalescedCallsAreRetriedPerTask() throws Exception {
+        // ARRANGE
+        ArgusExtractCoalescer coalescer = coalescer(500L);
+        CountDownLatch release = occupyEndpoint(coalescer);
+
+        AtomicInteger calls = new AtomicInteger();
+        ArgusExtractCoalescer.Fetcher fetcher = expressions -> {
+            calls.incrementAndGet();
+
+            // fail the coalesced call, which includes a bad expression
+            if (expressions.stream().anyMatch(expression -> expression.contains("bad"))) {
+                throw new IllegalStateException("Invalid expression");
+            }
+
+            return Collections.singletonList(response("good"));
+        };
+
+
+        // ACT
+        Future<List<MetricResponse>> good = executor.submit(() -> coalescer.getMetrics("endpoint", expressions("good"), fetcher));
+        Future<List<MetricResponse>> bad = executor.submit(() -> coalescer.getMetrics("endpoint", expressions("bad"), fetcher));
+        List<MetricResponse> goodResult = good.get(5, TimeUnit.SECONDS);
+        List<MetricResponse> badResult = bad.get(5, TimeUnit.SECONDS);
+        release.countDown();
+
+
+        // ASSERT
+        assertThat("Expecting the coalesced call, followed by one call per task", calls.get(), equalTo(3));
+        assertThat(metrics(goodResult), contains("good"));
+        assertThat(badResult, nullValue());
+    }
+
+    @Test
+    public void testResponsesAreMatchedByExpression() throws Exception {
+        // ARRANGE
+        ArgusExtractCoalescer coalescer = coalescer(500L);
+        CountDownLatch release = occupyEndpoint(coalescer);
+
+        // responses hold the expression they were retrieved for, in their scope
+        ArgusExtractCoalescer.Fetcher fetcher = expressions -> expressions.stream()
+                .map(expression -> ImmutableMetricResponse.builder().metric("name").scope(expression).build())
+                .collect(Collectors.toList());
+
+
+        // ACT
+        Future<List<MetricResponse>> first = executor.submit(() ->
+                coalescer.getMetrics("endpoint", Collections.singletonMap("name", "first-expression"), fetcher));
+        Future<List<MetricResponse>> second = executor.submit(() ->
+                coalescer.getMetrics("endpoint", Collections.singletonMap("name", "second-expression"), fetcher));
+        List<MetricResponse> firstResult = first.get(5, TimeUnit.SECONDS);
+        List<MetricResponse> secondResult = second.get(5, TimeUnit.SECONDS);
+        release.countDown();
+
+
+        // ASSERT
+        assertThat(scopes(firstResult), contains("first-expression"));
+        assertThat(scopes(secondResult), contains("second-expression"));
+    }
+
+    @Test
+    public void testSequentialRequestsAreNotCoalesced() throws Exception {
+        // ARRANGE
+        ArgusExtractCoalescer coalescer = new ArgusExtractCoalescer(fixtures.appConfigMocks().get());
+
+        AtomicInteger calls = new AtomicInteger();
+        ArgusExtractCoalescer.Fetcher fetcher = expressions -> {
+            calls.incrementAndGet();
+            return Collections.singletonList(response("name"));
+        };
+
+
+        // ACT
+        List<MetricResponse> firstResult = coalescer.getMetrics("endpoint", expressions("name"), fetcher);
+        List<MetricResponse> secondResult = coalescer.getMetrics("endpoint", expressions("name"), fetcher);
+
+
+        // ASSERT
+        assertThat(calls.get(), equalTo(2));
+        assertThat(firstResult, hasSize(1));
+        assertThat(secondResult, hasSize(1));
+    }
+
+    @Test(expectedExceptions = UnauthorizedException.class)
+    public void testAuthenticationFailuresArePropagated() throws Exception {
+        // ARRANGE
+        ArgusExtractCoalescer coalescer = new ArgusExtractCoalescer(fixtures.appConfigMocks().get());
+
+
+        // ACT/ASSERT
+        coalescer.getMetrics("endpoint", expressions("name"), expressions -> {
+            throw new UnauthorizedException("Could not authenticate");
+        });
+    }
+
+
+    /**
+     * Creates a coalescer which waits for the specified window
+     */
+    private ArgusExtractCoalescer coalescer(long windowMillis) {
+        AppConfig appConfig = fixtures.appConfigMocks().get();
+        AppConfig.Global global = appConfig.global();
+        doReturn(windowMillis).when(global).extractCoalesceWindowMillis();
+        return new ArgusExtractCoalescer(appConfig);
+    }
+
+    /**
+     * Starts a call to the endpoint, which stays in progress until the returned latch is counted down;
+     *   causes the following requests to wait for the coalescing window
+     */
+    private CountDownLatch occupyEndpoint(ArgusExtractCoalescer coalescer) throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.submit(() -> coalescer.getMetrics("endpoint", expressions("in-progress"), expressions -> {
+            started.countDown();
+            try {
+                release.await();
+
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return Collections.singletonList(response("in-progress"));
+        }));
+
+        assertThat(started.await(5, TimeUnit.SECONDS), is(true));
+        return release;
+    }
+
+    /**
+     * Generates aliased expressions for the specified names
+     */
+    private static Map<String, String> expressions(String... names) {
+        Map<String, String> result = new LinkedHashMap<>();
+        for (String name : names) {
+            result.put(name, "ALIAS(expression," + name + ",#literal#)");
+        }
+        return result;
+    }
+
+    private static MetricResponse response(String metric) {
+        return ImmutableMetricResponse.builder().metric(metric).build();
+    }
+
+    private static List<String> metrics(List<MetricResponse> responses) {
+        List<String> result = new ArrayList<>();
+        responses.forEach(response -> result.add(response.metric()));
+        return result;
+    }
+
+    private static List<String> scopes(List<MetricResponse> responses) {
+        return responses.stream().map(MetricResponse::scope).collect(Collectors.toList());
+    }
+}
@@ -105,7 +105,7 @@ public class ArgusExtractProcessorTest {
 
         @SuppressWarnings("unchecked")
         ArgumentCaptor<List<Transmutation>> dataCaptor = ArgumentCaptor.forClass(List.class);
-        verify(fixtures.refocusLoadProcessor()).executeAsync(dataCaptor.capture(), any());
+        verify(fixtures.refocusLoadProcessor()).processAsync(dataCaptor.capture(), any());
 
         List<Transmutation> data = dataCaptor.getValue();
         assertThat(data, hasSize(1));
@@ -149,7 +149,8 @@ public class ArgusExtractProcessorTest {
 
         // ASSERT
         verify(fixtures.systemStatus(), times(2)).meter("Argus", MeterType.ExtractSuccess);
-        verify(fixtures.metricResponseCache(), times(4)).isCached("argus-metric");
+        // one lookup per run, plus a second lookup after taking ownership of the request in the first run
+        verify(fixtures.metricResponseCache(), times(3)).isCached("argus-metric");
         verify(fixtures.metricResponseCache(), times(1)).cache(any(), anyLong());
     }
 
@@ -12,19 +12,21 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
-import static org.mockito.Mockito.times;
-import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.*;
 
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import org.mockito.ArgumentCaptor;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import com.salesforce.pyplyn.client.UnauthorizedException;
+import com.salesforce.pyplyn.duct.appconfig.AppConfig;
 import com.salesforce.pyplyn.duct.com.salesforce.pyplyn.test.AppBootstrapFixtures;
 import com.salesforce.pyplyn.duct.etl.configuration.ConfigurationUpdateManager;
 import com.salesforce.pyplyn.model.Transmutation;
@@ -107,7 +109,7 @@ public class RefocusExtractProcessorTest {
 
         @SuppressWarnings("unchecked")
         ArgumentCaptor<List<Transmutation>> dataCaptor = ArgumentCaptor.forClass(List.class);
-        verify(fixtures.refocusLoadProcessor()).executeAsync(dataCaptor.capture(), any());
+        verify(fixtures.refocusLoadProcessor()).processAsync(dataCaptor.capture(), any());
 
         List<Transmutation> data = dataCaptor.getValue();
         assertThat(data, hasSize(1));
@@ -253,6 +255,74 @@ public class RefocusExtractProcessorTest {
         verify(fixtures.systemStatus(), times(1)).meter("Refocus", MeterType.ExtractFailure);
     }
 
+    @Test
+    public void testSiblingSubjectsAreRetrievedWithOneRequest() throws Exception {
+        // ARRANGE
+        String now = ZonedDateTime.now(ZoneOffset.UTC).toString();
+        List<Sample> samples = Arrays.asList(
+                ImmutableSample.builder().name("Parent.Child1|ASPECT").updatedAt(now).value("1").build(),
+                ImmutableSample.builder().name("Parent.Child2|ASPECT").updatedAt(now).value("2").build(),
+                ImmutableSample.builder().name("Parent.Child3|ASPECT").updatedAt(now).value("3").build());
+
+        fixtures.refocusClientReturns(samples)
+                .initializeFixtures();
+
+        RefocusExtractProcessor processor = new RefocusExtractProcessor(fixtures.appConnectors(), fixtures.shutdownHook(), fixtures.appConfigMocks().get());
+        processor.setSystemStatus(fixtures.systemStatus());
+
+        List<Refocus> extracts = Arrays.asList(
+                ImmutableRefocus.of(AppBootstrapFixtures.MOCK_CONNECTOR_NAME, "Parent.Child1", "Parent.Child1", "ASPECT", 0, null),
+                ImmutableRefocus.of(AppBootstrapFixtures.MOCK_CONNECTOR_NAME, "Parent.Child2", "Parent.Child2", "ASPECT", 0, null),
+                ImmutableRefocus.of(AppBootstrapFixtures.MOCK_CONNECTOR_NAME, "Other", "Other", "ASPECT", 0, null));
+
+
+        // ACT
+        List<List<Transmutation>> results = processor.process(extracts);
+
+
+        // ASSERT
+        verify(fixtures.refocusClient(), times(1)).getSamples("Parent.*|ASPECT");
+        verify(fixtures.refocusClient(), times(1)).getSamples("Other|ASPECT");
+        verify(fixtures.refocusClient(), times(2)).getSamples(any());
+
+        // only the requested samples should be returned; the stub does not return a sample for Other|ASPECT
+        assertThat(results.stream().flatMap(List::stream).map(Transmutation::name).collect(Collectors.toList()),
+                contains("Parent.Child1|ASPECT", "Parent.Child2|ASPECT"));
+    }
+
+    @Test
+    public void testFailedLookupsDoNotFailOtherLookups() throws Exception {
+        // ARRANGE
+        String now = ZonedDateTime.now(ZoneOffset.UTC).toString();
+        List<Sample> samples = Arrays.asList(
+                ImmutableSample.builder().name("Parent.Child1|ASPECT").updatedAt(now).value("1").build(),
+                ImmutableSample.builder().name("Parent.Child2|ASPECT").updatedAt(now).value("2").build());
+
+        fixtures.refocusClientReturns(samples)
+                .initializeFixtures();
+        doThrow(new IllegalStateException("Unexpected response")).when(fixtures.refocusClient()).getSamples("Other|ASPECT");
+
+        AppConfig appConfig = fixtures.appConfigMocks().get();
+        AppConfig.Global global = appConfig.global();
+        doReturn(2).when(global).extractMaxParallelLookups();
+        RefocusExtractProcessor processor = new RefocusExtractProcessor(fixtures.appConnectors(), fixtures.shutdownHook(), appConfig);
+        processor.setSystemStatus(fixtures.systemStatus());
+
+        List<Refocus> extracts = Arrays.asList(
+                ImmutableRefocus.of(AppBootstrapFixtures.MOCK_CONNECTOR_NAME, "Parent.Child1", "Parent.Child1", "ASPECT", 0, null),
+                ImmutableRefocus.of(AppBootstrapFixtures.MOCK_CONNECTOR_NAME, "Parent.Child2", "Parent.Child2", "ASPECT", 0, null),
+                ImmutableRefocus.of(AppBootstrapFixtures.MOCK_CONNECTOR_NAME, "Other", "Other", "ASPECT", 0, null));
+
+
+        // ACT
+        List<List<Transmutation>> results = processor.process(extracts);
+
+
+        // ASSERT
+        assertThat(results.stream().flatMap(List::stream).map(Transmutation::name).collect(Collectors.toList()),
+                contains("Parent.Child1|ASPECT", "Parent.Child2|ASPECT"));
+    }
+
     /**
      * Executes a test that assumes a failure when a bad sample is returned from the Endpoint
      */
@@ -0,0 +1,148 @@
+/*
+ *  Copyright (c) 2016-2017, Salesforce.com, Inc.
+ *  All rights reserved.
+ *  Licensed under the BSD 3-Clause license.
+ *  For full license text, see the LICENSE.txt file in repo root
+ *    or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.pyplyn.duct.etl.load.refocus;
+
+import static java.util.Collections.singletonList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.salesforce.refocus.model.ImmutableSample;
+import com.salesforce.refocus.model.Sample;
+
+/**
+ * Test class
+ *
+ * @author Mihai Bojin &lt;mbojin@salesforce.com&gt;
+ * @since 10.0.0
+ */
+public class RefocusDeltaFilterTest {
+    private static final long REFRESH_MILLIS = 60_000L;
+
+    private AtomicLong now;
+    private RefocusDeltaFilter filter;
+
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        // ARRANGE
+        now = new AtomicLong(1_000_000L);
+        filter = new RefocusDeltaFilter(REFRESH_MILLIS, now::get);
+    }
+
+    @Test
+    public void testUnchangedSamplesAreSuppressed() throws Exception {
+        // ARRANGE
+        filter.upserted("endpoint", singletonList(sample("s|a", "1", "message")));
+        now.addAndGet(REFRESH_MILLIS - 1);
+
+        // ACT
+        List<Sample> changed = filter.changed("endpoint", singletonList(sample("s|a", "1", "message")));
+
+        // ASSERT
+        assertThat(changed, empty());
+    }
+
+    @Test
+    public void testChangedSamplesAreSent() throws Exception {
+        // ARRANGE
+        filter.upserted("endpoint", Arrays.asList(sample("s1|a", "1", "message"), sample("s2|a", "1", "message")));
+        List<Sample> samples = Arrays.asList(sample("s1|a", "2", "message"), sample("s2|a", "1", "other message"));
+
+        // ACT
+        List<Sample> changed = filter.changed("endpoint", samples);
+
+        // ASSERT
+        assertThat(changed, equalTo(samples));
+    }
+
+    @Test
+    public void testUnchangedSamplesAreRefreshed() throws Exception {
+        // ARRANGE
+        filter.upserted("endpoint", singletonList(sample("s|a", "1", "message")));
+        now.addAndGet(REFRESH_MILLIS);
+
+        // ACT
+        List<Sample> changed = filter.changed("endpoint", singletonList(sample("s|a", "1", "message")));
+
+        // ASSERT
+        assertThat(changed, hasSize(1));
+    }
+
+    @Test
+    public void testSamplesAreTrackedPerEndpoint() throws Exception {
+        // ARRANGE
+        filter.upserted("endpoint", singletonList(sample("s|a", "1", "message")));
+
+        // ACT
+        List<Sample> changed = filter.changed("other-endpoint", singletonList(sample("s|a", "1", "message")));
+
+        // ASSERT
+        assertThat(changed, hasSize(1));
+    }
+
+    @Test
+    public void testSamplesDueForRefreshAreForgotten() throws Exception {
+        // ARRANGE
+        filter.upserted("endpoint", Arrays.asList(sample("s1|a", "1", "message"), sample("s2|a", "1", "message")));
+        now.addAndGet(REFRESH_MILLIS);
+
+        // ACT
+        filter.upserted("endpoint", singletonList(sample("s1|a", "1", "message")));
+        List<Sample> changed = filter.changed("endpoint", singletonList(sample("s1|a", "1", "message")));
+
+        // ASSERT
+        assertThat("Expecting samples which were not upserted within the refresh interval to be pruned", filter.size(), equalTo(1));
+        assertThat(changed, empty());
+    }
+
+    @Test
+    public void testOnlyTheLastValueOfEachSampleIsComparedAcrossRuns() throws Exception {
+        // ARRANGE
+        List<Sample> points = RefocusLoadAggregator.lastPerName(
+                Arrays.asList(sample("s|a", "1", "message"), sample("s|a", "2", "message")));
+
+        // ACT
+        List<Sample> firstRun = filter.changed("endpoint", points);
+        filter.upserted("endpoint", firstRun);
+        List<Sample> secondRun = filter.changed("endpoint", points);
+        filter.upserted("endpoint", secondRun);
+        List<Sample> thirdRun = filter.changed("endpoint", points);
+
+        // ASSERT
+        assertThat(firstRun, contains(sample("s|a", "2", "message")));
+        assertThat("Expecting an earlier value of the same sample not to be sent as a change", secondRun, empty());
+        assertThat(thirdRun, empty());
+    }
+
+    @Test
+    public void testNothingIsSuppressedWhenDisabled() throws Exception {
+        // ARRANGE
+        RefocusDeltaFilter disabled = new RefocusDeltaFilter(0, now::get);
+        disabled.upserted("endpoint", singletonList(sample("s|a", "1", "message")));
+
+        // ACT
+        List<Sample> changed = disabled.changed("endpoint", singletonList(sample("s|a", "1", "message")));
+
+        // ASSERT
+        assertThat(disabled.isEnabled(), is(false));
+        assertThat(changed, hasSize(1));
+    }
+
+
+    private static Sample sample(String name, String value, String messageBody) {
+        return ImmutableSample.builder().name(name).value(value).messageBody(messageBody).build();
+    }
+}
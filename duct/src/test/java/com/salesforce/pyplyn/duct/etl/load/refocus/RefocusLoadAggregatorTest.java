@@ -0,0 +1,331 @@
+/*
+ *  Copyright (c) 2016-2017, Salesforce.com, Inc.
+ *  All rights reserved.
+ *  Licensed under the BSD 3-Clause license.
+ *  For full license text, see the LICENSE.txt file in repo root
+ *    or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.pyplyn.duct.etl.load.refocus;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.doReturn;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.salesforce.pyplyn.client.UnauthorizedException;
+import com.salesforce.pyplyn.duct.appconfig.AppConfig;
+import com.salesforce.pyplyn.duct.com.salesforce.pyplyn.test.AppBootstrapFixtures;
+import com.salesforce.pyplyn.duct.connector.Bulkhead;
+import com.salesforce.refocus.model.ImmutableSample;
+import com.salesforce.refocus.model.Sample;
+
+/**
+ * Test class
+ *
+ * @author Mihai Bojin &lt;mbojin@salesforce.com&gt;
+ * @since 10.0.0
+ */
+public class RefocusLoadAggregatorTest {
+    private AppBootstrapFixtures fixtures;
+    private ExecutorService executor;
+
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        // ARRANGE
+        fixtures = new AppBootstrapFixtures();
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testConcurrentUpsertsAreAggregatedIntoOneCall() throws Exception {
+        // ARRANGE
+        AppConfig appConfig = fixtures.appConfigMocks().get();
+        AppConfig.Global global = appConfig.global();
+        doReturn(500L).when(global).loadAggregateWindowMillis();
+        RefocusLoadAggregator aggregator = new RefocusLoadAggregator(appConfig);
+        CountDownLatch release = occupyEndpoint(aggregator);
+
+        AtomicInteger calls = new AtomicInteger();
+        List<List<Sample>> upserted = new CopyOnWriteArrayList<>();
+        RefocusLoadAggregator.Upserter upserter = samples -> {
+            calls.incrementAndGet();
+            upserted.add(samples);
+            return true;
+        };
+
+
+        // ACT
+        Future<Boolean> first = executor.submit(() -> aggregator.upsert("endpoint", Bulkhead.unbounded(), samples("s1|a", "s2|a"), upserter));
+        Future<Boolean> second = executor.submit(() -> aggregator.upsert("endpoint", Bulkhead.unbounded(), samples("s2|a"), upserter));
+        Future<Boolean> third = executor.submit(() -> aggregator.upsert("endpoint", Bulkhead.unbounded(), samples("s3|a"), upserter));
+        boolean firstResult = first.get(5, TimeUnit.SECONDS);
+        boolean secondResult = second.get(5, TimeUnit.SECONDS);
+        boolean thirdResult = third.get(5, TimeUnit.SECONDS);
+        release.countDown();
+
+
+        // ASSERT
+        assertThat("Expecting a single remote call", calls.get(), equalTo(1));
+        assertThat("Expecting duplicated samples to be upserted once", names(upserted.get(0)), containsInAnyOrder("s1|a", "s2|a", "s3|a"));
+        assertThat(firstResult, is(true));
+        assertThat(secondResult, is(true));
+        assertThat(thirdResult, is(true));
+    }
+
+    @Test
+    public void testUpsertsDoNotWaitIfTheEndpointIsIdle() throws Exception {
+        // ARRANGE
+        AppConfig appConfig = fixtures.appConfigMocks().get();
+        AppConfig.Global global = appConfig.global();
+        doReturn(60_000L).when(global).loadAggregateWindowMillis();
+        RefocusLoadAggregator aggregator = new RefocusLoadAggregator(appConfig);
+
+
+        // ACT
+        Future<Boolean> result = executor.submit(() -> aggregator.upsert("endpoint", Bulkhead.unbounded(), samples("s1|a"), samples -> true));
+
+
+        // ASSERT
+        assertThat(result.get(5, TimeUnit.SECONDS), is(true));
+    }
+
+    @Test
+    public void testFullBatchesAreSentBeforeTheWindowCloses() throws Exception {
+        // ARRANGE
+        AppConfig appConfig = fixtures.appConfigMocks().get();
+        AppConfig.Global global = appConfig.global();
+        doReturn(60_000L).when(global).loadAggregateWindowMillis();
+        doReturn(2).when(global).loadAggregateMaxSamples();
+        RefocusLoadAggregator aggregator = new RefocusLoadAggregator(appConfig);
+        CountDownLatch release = occupyEndpoint(aggregator);
+
+        AtomicInteger calls = new AtomicInteger();
+
+
+        // ACT
+        Future<Boolean> result = executor.submit(() -> aggregator.upsert("endpoint", Bulkhead.unbounded(), samples("s1|a", "s2|a"), samples -> {
+            calls.incrementAndGet();
+            return true;
+        }));
+
+
+        // ASSERT
+        assertThat(result.get(5, TimeUnit.SECONDS), is(true));
+        assertThat(calls.get(), equalTo(1));
+        release.countDown();
+    }
+
+    @Test
+    public void testSequentialUpsertsAreNotAggregated() throws Exception {
+        // ARRANGE
+        RefocusLoadAggregator aggregator = new RefocusLoadAggregator(fixtures.appConfigMocks().get());
+
+        AtomicInteger calls = new AtomicInteger();
+        RefocusLoadAggregator.Upserter upserter = samples -> {
+            calls.incrementAndGet();
+            return true;
+        };
+
+
+        // ACT
+        boolean firstResult = aggregator.upsert("endpoint", Bulkhead.unbounded(), samples("s1|a"), upserter);
+        boolean secondResult = aggregator.upsert("endpoint", Bulkhead.unbounded(), samples("s1|a"), upserter);
+
+
+        // ASSERT
+        assertThat(calls.get(), equalTo(2));
+        assertThat(firstResult, is(true));
+        assertThat(secondResult, is(true));
+    }
+
+    @Test
+    public void testFailuresAreSharedWithAllTasks() throws Exception {
+        // ARRANGE
+        RefocusLoadAggregator aggregator = new RefocusLoadAggregator(fixtures.appConfigMocks().get());
+
+
+        // ACT
+        boolean result = aggregator.upsert("endpoint", Bulkhead.unbounded(), samples("s1|a"), samples -> {
+            throw new IllegalStateException("Endpoint unavailable");
+        });
+
+
+        // ASSERT
+        assertThat(result, is(false));
+    }
+
+    @Test(expectedExceptions = UnauthorizedException.class)
+    public void testAuthenticationFailuresArePropagated() throws Exception {
+        // ARRANGE
+        RefocusLoadAggregator aggregator = new RefocusLoadAggregator(fixtures.appConfigMocks().get());
+
+
+        // ACT/ASSERT
+        aggregator.upsert("endpoint", Bulkhead.unbounded(), samples("s1|a"), samples -> {
+            throw new UnauthorizedException("Could not authenticate");
+        });
+    }
+
+
+    @Test
+    public void testSamplesAreChunkedByCountAndSize() throws Exception {
+        // ARRANGE
+        List<Sample> samples = samples("s1|a", "s2|a", "s3|a", "s4|a", "s5|a");
+        long sampleBytes = RefocusLoadAggregator.estimateSize(samples.get(0));
+
+        // ACT
+        List<List<Sample>> byCount = RefocusLoadAggregator.chunk(samples, 2, 0);
+        List<List<Sample>> bySize = RefocusLoadAggregator.chunk(samples, 0, sampleBytes * 3);
+        List<List<Sample>> oversized = RefocusLoadAggregator.chunk(samples, 0, sampleBytes - 1);
+        List<List<Sample>> unlimited = RefocusLoadAggregator.chunk(samples, 0, 0);
+
+        // ASSERT
+        assertThat(byCount.stream().map(List::size).collect(Collectors.toList()), contains(2, 2, 1));
+        assertThat(bySize.stream().map(List::size).collect(Collectors.toList()), contains(3, 2));
+        assertThat("Samples larger than the limit should be sent on their own", oversized, hasSize(5));
+        assertThat(unlimited, hasSize(1));
+    }
+
+    @Test
+    public void testOnlyFailedChunksAreRetried() throws Exception {
+        // ARRANGE
+        AppConfig appConfig = fixtures.appConfigMocks().get();
+        AppConfig.Global global = appConfig.global();
+        doReturn(1).when(global).loadChunkMaxSamples();
+        doReturn(1).when(global).loadChunkRetries();
+        RefocusLoadAggregator aggregator = new RefocusLoadAggregator(appConfig);
+
+        Map<String, AtomicInteger> attempts = new ConcurrentHashMap<>();
+        RefocusLoadAggregator.Upserter upserter = chunk -> {
+            String name = chunk.get(0).name();
+            int attempt = attempts.computeIfAbsent(name, key -> new AtomicInteger()).incrementAndGet();
+
+            // fail the first attempt to upsert s2
+            return !"s2|a".equals(name) || attempt > 1;
+        };
+
+
+        // ACT
+        boolean result = aggregator.upsert("endpoint", Bulkhead.unbounded(), samples("s1|a", "s2|a", "s3|a"), upserter);
+
+
+        // ASSERT
+        assertThat(result, is(true));
+        assertThat(attempts.get("s1|a").get(), equalTo(1));
+        assertThat(attempts.get("s2|a").get(), equalTo(2));
+        assertThat(attempts.get("s3|a").get(), equalTo(1));
+    }
+
+    @Test
+    public void testChunksThatKeepFailingFailTheUpsert() throws Exception {
+        // ARRANGE
+        AppConfig appConfig = fixtures.appConfigMocks().get();
+        AppConfig.Global global = appConfig.global();
+        doReturn(1).when(global).loadChunkMaxSamples();
+        RefocusLoadAggregator aggregator = new RefocusLoadAggregator(appConfig);
+
+        List<String> upserted = new CopyOnWriteArrayList<>();
+        RefocusLoadAggregator.Upserter upserter = chunk -> {
+            String name = chunk.get(0).name();
+            if ("s2|a".equals(name)) {
+                return false;
+            }
+
+            upserted.add(name);
+            return true;
+        };
+
+
+        // ACT
+        boolean result = aggregator.upsert("endpoint", Bulkhead.unbounded(), samples("s1|a", "s2|a", "s3|a"), upserter);
+
+
+        // ASSERT
+        assertThat(result, is(false));
+        assertThat("A failed chunk should not prevent the others from being sent", upserted, containsInAnyOrder("s1|a", "s3|a"));
+    }
+
+    @Test
+    public void testChunksRunOnTheBulkheadScheduler() throws Exception {
+        // ARRANGE
+        AppConfig appConfig = fixtures.appConfigMocks().get();
+        AppConfig.Global global = appConfig.global();
+        doReturn(1).when(global).loadChunkMaxSamples();
+        RefocusLoadAggregator aggregator = new RefocusLoadAggregator(appConfig);
+
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        RefocusLoadAggregator.Upserter upserter = chunk -> {
+            threads.add(Thread.currentThread().getName());
+            return true;
+        };
+
+
+        // ACT
+        boolean result = aggregator.upsert("endpoint", Bulkhead.unbounded(), samples("s1|a", "s2|a", "s3|a"), upserter);
+
+
+        // ASSERT
+        assertThat(result, is(true));
+        assertThat(threads, everyItem(startsWith("Bulkhead-")));
+    }
+
+    @Test
+    public void testRetryBackoffIsBounded() throws Exception {
+        // ACT/ASSERT
+        assertThat(RefocusLoadAggregator.backoffMillis(100, 1), equalTo(100L));
+        assertThat(RefocusLoadAggregator.backoffMillis(100, 2), equalTo(200L));
+        assertThat(RefocusLoadAggregator.backoffMillis(100, 4), equalTo(800L));
+        assertThat(RefocusLoadAggregator.backoffMillis(100, 50), equalTo(100L * RefocusLoadAggregator.MAX_BACKOFF_MULTIPLIER));
+    }
+
+
+    /**
+     * Starts an upsert to the endpoint, which stays in progress until the returned latch is counted down;
+     *   causes the following upserts to wait for the aggregation window
+     */
+    private CountDownLatch occupyEndpoint(RefocusLoadAggregator aggregator) throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.submit(() -> aggregator.upsert("endpoint", Bulkhead.unbounded(), samples("in-progress|a"), samples -> {
+            started.countDown();
+            try {
+                release.await();
+
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return true;
+        }));
+
+        assertThat(started.await(5, TimeUnit.SECONDS), is(true));
+        return release;
+    }
+
+    /**
+     * Generates samples with the specified names
+     */
+    private static List<Sample> samples(String... names) {
+        return Arrays.stream(names)
+                .map(name -> ImmutableSample.builder().name(name).value("1").build())
+                .collect(Collectors.toList());
+    }
+
+    private static List<String> names(List<Sample> samples) {
+        return samples.stream().map(Sample::name).collect(Collectors.toList());
+    }
+}
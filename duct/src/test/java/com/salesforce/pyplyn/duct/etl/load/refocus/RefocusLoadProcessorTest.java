@@ -8,15 +8,27 @@
 
 package com.salesforce.pyplyn.duct.etl.load.refocus;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.mockito.ArgumentCaptor;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import com.salesforce.pyplyn.duct.com.salesforce.pyplyn.test.AppBootstrapFixtures;
 import com.salesforce.pyplyn.duct.etl.configuration.ConfigurationUpdateManager;
+import com.salesforce.pyplyn.model.ImmutableTransmutation;
+import com.salesforce.pyplyn.model.Transmutation;
 import com.salesforce.pyplyn.status.MeterType;
+import com.salesforce.refocus.model.Sample;
 
 /**
  * Test class
@@ -60,4 +72,40 @@ public class RefocusLoadProcessorTest {
         // since we had no real client, expecting ArgusExtractProcessor to have logged a failure
         verify(fixtures.systemStatus(), times(1)).meter("Refocus", MeterType.LoadFailure);
     }
+
+    @Test
+    public void testOnlyTheLastValueIsSentForEachDestination() throws Exception {
+        // ARRANGE
+        ZonedDateTime now = ZonedDateTime.now(ZoneOffset.UTC);
+        Transmutation.Metadata metadata = ImmutableTransmutation.Metadata.builder().build();
+        List<Transmutation> series1 = Collections.singletonList(ImmutableTransmutation.of(now, "metric1", 1d, 1d, metadata));
+        List<Transmutation> series2 = Collections.singletonList(ImmutableTransmutation.of(now, "metric2", 2d, 2d, metadata));
+
+        // bootstrap
+        fixtures.appConfigMocks()
+                .runOnce();
+
+        fixtures.oneArgusToRefocusConfiguration()
+                .returnTransformationResultFromAllExtractProcessors(Arrays.asList(series1, series2))
+                .callRealRefocusLoadProcessor()
+                .initializeFixtures();
+
+        // init app
+        ConfigurationUpdateManager manager = fixtures.configurationManager();
+
+
+        // ACT
+        manager.run();
+        fixtures.awaitUntilAllTasksHaveBeenProcessed(true);
+
+
+        // ASSERT
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Sample>> samplesCaptor = ArgumentCaptor.forClass(List.class);
+        verify(fixtures.refocusClient()).upsertSamplesBulk(samplesCaptor.capture());
+
+        List<Sample> samples = samplesCaptor.getValue();
+        assertThat("Expecting one sample per destination", samples, hasSize(1));
+        assertThat(samples.get(0).value(), equalTo("2.00"));
+    }
 }
\ No newline at end of file
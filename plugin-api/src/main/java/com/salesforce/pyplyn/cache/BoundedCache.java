@@ -0,0 +1,204 @@
+/*
+ *  Copyright (c) 2016-2017, Salesforce.com, Inc.
+ *  All rights reserved.
+ *  Licensed under the BSD 3-Clause license.
+ *  For full license text, see the LICENSE.txt file in repo root
+ *    or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.pyplyn.cache;
+
+import static java.util.Objects.nonNull;
+
+import java.util.concurrent.TimeUnit;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.salesforce.pyplyn.status.MeterType;
+import com.salesforce.pyplyn.status.SystemStatus;
+
+/**
+ * Cache which holds up to a maximum total weight of objects, as determined by {@link Cacheable#cacheWeight()}
+ * <p/>
+ * <p/>When the budget is exceeded, entries are evicted using the W-TinyLFU policy: new entries are only admitted
+ *   if they are estimated to be used more frequently than the entries they would replace, which keeps frequently
+ *   read metrics cached, even when many one-off metrics are loaded.
+ * <p/>
+ * <p/>Entries expire after the duration they were cached for, as measured by the cache's {@link Ticker};
+ *   expired entries are removed when read, or by calling {@link #cleanUp()}, which {@link CacheFactory}
+ *   schedules periodically.
+ * <p/>
+ * <p/>Hits, misses, and evictions are counted; if constructed with a {@link SystemStatus}, they are also reported
+ *   with the {@link MeterType#CacheLocalHit}, {@link MeterType#CacheMiss}, and {@link MeterType#CacheEviction} meters,
+ *   under the cache's name.
+ *
+ * @author Mihai Bojin &lt;mbojin@salesforce.com&gt;
+ * @since 10.0.0
+ */
+public class BoundedCache<T extends Cacheable> implements Cache<T> {
+    private final com.github.benmanes.caffeine.cache.Cache<String, TimedEntry<T>> cache;
+    private final String name;
+    private final SystemStatus systemStatus;
+
+
+    /**
+     * Constructs a new cache, which does not report any meters
+     *
+     * @param maximumWeight the total weight of objects that can be held by this cache
+     */
+    public BoundedCache(long maximumWeight) {
+        this(maximumWeight, null, null);
+    }
+
+    /**
+     * Constructs a new cache
+     *
+     * @param maximumWeight the total weight of objects that can be held by this cache
+     * @param name identifies the cache in the reported meters
+     * @param systemStatus reports hits, misses, and evictions; if null, no meters are reported
+     */
+    public BoundedCache(long maximumWeight, String name, SystemStatus systemStatus) {
+        this(maximumWeight, name, systemStatus, Ticker.systemTicker());
+    }
+
+    /**
+     * Constructs a new cache, which measures the passage of time with the specified <b>ticker</b>
+     */
+    BoundedCache(long maximumWeight, String name, SystemStatus systemStatus, Ticker ticker) {
+        this.name = name;
+        this.systemStatus = systemStatus;
+        cache = Caffeine.newBuilder()
+                .ticker(ticker)
+                .maximumWeight(maximumWeight)
+                .weigher((String key, TimedEntry<T> entry) -> entry.value().cacheWeight())
+                .expireAfter(new EntryExpiry<>())
+                .removalListener((String key, TimedEntry<T> entry, RemovalCause cause) -> {
+                    if (cause.wasEvicted()) {
+                        mark(MeterType.CacheEviction);
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Caches an <b>object</b> for <b>millis</b> milliseconds
+     *
+     * @param object the value to cache
+     * @param millis the number of milliseconds to cache for
+     */
+    @Override
+    public void cache(T object, long millis) {
+        cache.put(object.cacheKey(), new TimedEntry<>(object, millis));
+    }
+
+    /**
+     * @param key cache key to retrieve
+     * @return the cached value if found, or null if it expired or was evicted
+     */
+    @Override
+    public T isCached(final String key) {
+        TimedEntry<T> entry = cache.getIfPresent(key);
+        if (entry == null) {
+            mark(MeterType.CacheMiss);
+            return null;
+        }
+
+        mark(MeterType.CacheLocalHit);
+        return entry.value();
+    }
+
+    /**
+     * Marks the specified meter, if this cache reports meters
+     */
+    private void mark(MeterType type) {
+        if (nonNull(systemStatus)) {
+            systemStatus.meter(name, type).mark();
+        }
+    }
+
+    /**
+     * Removes expired entries and performs any pending maintenance
+     */
+    public void cleanUp() {
+        cache.cleanUp();
+    }
+
+    /**
+     * @return the total weight of the cached objects
+     */
+    public long weight() {
+        return cache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0L)).orElse(0L);
+    }
+
+    /**
+     * @return the number of lookups that returned a cached value
+     */
+    public long hits() {
+        return stats().hitCount();
+    }
+
+    /**
+     * @return the number of lookups that did not find a value (not cached, expired, or evicted)
+     */
+    public long misses() {
+        return stats().missCount();
+    }
+
+    /**
+     * @return the number of entries evicted because of the weight budget, or because they expired
+     */
+    public long evictions() {
+        return stats().evictionCount();
+    }
+
+    private CacheStats stats() {
+        return cache.stats();
+    }
+
+
+    /**
+     * Cached value, along with the duration it was cached for
+     */
+    private static class TimedEntry<T> {
+        private final T value;
+        private final long millis;
+
+        TimedEntry(T value, long millis) {
+            this.value = value;
+            this.millis = millis;
+        }
+
+        T value() {
+            return value;
+        }
+
+        long millis() {
+            return millis;
+        }
+    }
+
+    /**
+     * Expires each entry after the duration it was cached for, regardless of reads;
+     *   Caffeine measures the duration from the time of the write, as read from the cache's {@link Ticker}
+     */
+    private static class EntryExpiry<T> implements Expiry<String, TimedEntry<T>> {
+        @Override
+        public long expireAfterCreate(String key, TimedEntry<T> entry, long currentTime) {
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, entry.millis()));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, TimedEntry<T> entry, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, entry, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, TimedEntry<T> entry, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
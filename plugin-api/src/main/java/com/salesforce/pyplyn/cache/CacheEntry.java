@@ -46,6 +46,13 @@ public class CacheEntry<T> {
         return value;
     }
 
+    /**
+     * @return the time (epoch millis) when this entry expires
+     */
+    public long expiresAt() {
+        return expiresAt;
+    }
+
     /**
      * @return true if the current time is past the <b>expiresAt</b> value
      */
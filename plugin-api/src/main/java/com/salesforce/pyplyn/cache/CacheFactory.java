@@ -8,23 +8,122 @@
 
 package com.salesforce.pyplyn.cache;
 
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.salesforce.pyplyn.status.SystemStatus;
+
 /**
  * Constructs new caches when required
  * <p/>
- * <p/>At this moment this class only return {@link ConcurrentCacheMap}s. It was written like this to support
- * adding more types in the future, but also to be able to globally control the cache implementation used
- * throughout the project
+ * <p/>By default, this class returns unbounded {@link ConcurrentCacheMap}s; when constructed with a weight budget,
+ *   it returns {@link BoundedCache}s instead, allowing the cache implementation used throughout the project
+ *   to be globally controlled.
+ * <p/>
+ * <p/>Bounded caches constructed by {@link #newCache(String, Class)} report their hits, misses, and evictions
+ *   under the specified name, if this factory was constructed with a {@link SystemStatus}.
  *
  * @author Mihai Bojin &lt;mbojin@salesforce.com&gt;
  * @since 3.0
  */
 public class CacheFactory {
+    private final long maximumWeight;
+    private final long sweepIntervalMillis;
+    private final SystemStatus systemStatus;
+
+    /**
+     * Periodically removes expired entries from all bounded caches; only initialized if required
+     */
+    private ScheduledExecutorService sweeper;
+
+
+    /**
+     * Constructs a factory which returns unbounded {@link ConcurrentCacheMap}s
+     */
+    public CacheFactory() {
+        this(0L, 0L);
+    }
+
+    /**
+     * Constructs a factory which returns {@link BoundedCache}s
+     *
+     * @param maximumWeight the total weight of objects each cache can hold; if not positive, unbounded caches are returned
+     * @param sweepIntervalMillis how often to remove expired entries; if not positive, expired entries are only removed when read
+     */
+    public CacheFactory(long maximumWeight, long sweepIntervalMillis) {
+        this(maximumWeight, sweepIntervalMillis, null);
+    }
+
+    /**
+     * Constructs a factory which returns {@link BoundedCache}s, which report their meters to <b>systemStatus</b>
+     *
+     * @param maximumWeight the total weight of objects each cache can hold; if not positive, unbounded caches are returned
+     * @param sweepIntervalMillis how often to remove expired entries; if not positive, expired entries are only removed when read
+     * @param systemStatus reports the hits, misses, and evictions of named caches
+     */
+    public CacheFactory(long maximumWeight, long sweepIntervalMillis, SystemStatus systemStatus) {
+        this.maximumWeight = maximumWeight;
+        this.sweepIntervalMillis = sweepIntervalMillis;
+        this.systemStatus = systemStatus;
+    }
+
     /**
      * Constructs a new Cache object
      *
      * @param <T> type of elements that the returned cache can hold
      */
-    public <T extends Cacheable> ConcurrentCacheMap<T> newCache() {
-        return new ConcurrentCacheMap<>();
+    public <T extends Cacheable> Cache<T> newCache() {
+        return newLocalCache(null, null);
+    }
+
+    /**
+     * Constructs a new local cache; bounded caches report meters under the specified <b>name</b>,
+     *   if <b>systemStatus</b> is specified
+     */
+    private <T extends Cacheable> Cache<T> newLocalCache(String name, SystemStatus systemStatus) {
+        if (maximumWeight <= 0) {
+            return new ConcurrentCacheMap<>();
+        }
+
+        BoundedCache<T> cache = new BoundedCache<>(maximumWeight, name, systemStatus);
+        if (sweepIntervalMillis > 0) {
+            sweeper().scheduleWithFixedDelay(cache::cleanUp, sweepIntervalMillis, sweepIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+        return cache;
+    }
+
+    /**
+     * Constructs a new Cache object, identified by <b>name</b>, which holds objects of the specified <b>type</b>
+     * <p/>
+     * <p/>Returns a local cache by default; subclasses can use the name and type to return caches which are shared
+     *   with other processes.
+     *
+     * @param name identifies the cache (i.e.: the connector it is used for)
+     * @param type class of elements that the returned cache can hold
+     * @param <T> type of elements that the returned cache can hold
+     */
+    public <T extends Cacheable> Cache<T> newCache(String name, Class<T> type) {
+        return newLocalCache(name, systemStatus);
+    }
+
+    /**
+     * Stops sweeping expired entries
+     */
+    public synchronized void shutdown() {
+        if (sweeper != null) {
+            sweeper.shutdown();
+        }
+    }
+
+    private synchronized ScheduledExecutorService sweeper() {
+        if (sweeper == null) {
+            sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "CacheFactory-Sweeper");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return sweeper;
     }
 }
@@ -20,4 +20,14 @@ public interface Cacheable {
      * @return unique cache identifier (key)
      */
     String cacheKey();
+
+    /**
+     * Used by bounded caches to determine how much of their budget this object consumes;
+     *   override this method for objects with a variable size (i.e.: proportional to the number of contained datapoints)
+     *
+     * @return relative weight of this object; must be positive
+     */
+    default int cacheWeight() {
+        return 1;
+    }
 }
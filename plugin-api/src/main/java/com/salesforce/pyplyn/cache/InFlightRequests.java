@@ -0,0 +1,85 @@
+/*
+ *  Copyright (c) 2016-2017, Salesforce.com, Inc.
+ *  All rights reserved.
+ *  Licensed under the BSD 3-Clause license.
+ *  For full license text, see the LICENSE.txt file in repo root
+ *    or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.pyplyn.cache;
+
+import static java.util.Objects.nonNull;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Registry of remote requests that are currently in progress, used to avoid cache stampedes
+ * <p/>
+ * <p/>When several tasks miss the cache for the same key at the same time, only the first one (the owner)
+ *   retrieves the value from the endpoint; all others join the owner's request and wait for its result.
+ * <p/>
+ * <p/>Owners must cache the retrieved value before calling {@link #complete(String, Object)}, so that tasks
+ *   arriving after the request was removed from this registry will find it in the cache.
+ *
+ * @author Mihai Bojin &lt;mbojin@salesforce.com&gt;
+ * @since 10.0.0
+ */
+public class InFlightRequests<T> {
+    private final ConcurrentHashMap<String, CompletableFuture<T>> inFlight = new ConcurrentHashMap<>();
+
+
+    /**
+     * Registers the caller as the owner of the request for the specified key, unless another caller already owns it
+     *
+     * @return null if the caller became the owner and must call {@link #complete(String, Object)}
+     *         or {@link #fail(String, Throwable)}, or the pending result of the request, if it was joined
+     */
+    public CompletableFuture<T> joinOrOwn(String key) {
+        return inFlight.putIfAbsent(key, new CompletableFuture<>());
+    }
+
+    /**
+     * Completes the request for the specified key, passing the value to all callers that joined it
+     */
+    public void complete(String key, T value) {
+        CompletableFuture<T> request = inFlight.remove(key);
+        if (nonNull(request)) {
+            request.complete(value);
+        }
+    }
+
+    /**
+     * Fails the request for the specified key, passing the cause to all callers that joined it
+     */
+    public void fail(String key, Throwable cause) {
+        CompletableFuture<T> request = inFlight.remove(key);
+        if (nonNull(request)) {
+            request.completeExceptionally(cause);
+        }
+    }
+
+    /**
+     * Waits for a joined request to complete
+     *
+     * @return the value retrieved by the owner, which can be null
+     * @throws ExecutionException if the owner failed to retrieve the value
+     */
+    public static <T> T await(CompletableFuture<T> request) throws ExecutionException {
+        try {
+            return request.get();
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ExecutionException(e);
+        }
+    }
+
+    /**
+     * @return the number of requests currently in progress
+     */
+    public int size() {
+        return inFlight.size();
+    }
+}
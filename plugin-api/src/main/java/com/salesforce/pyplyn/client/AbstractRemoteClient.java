@@ -9,6 +9,7 @@
 package com.salesforce.pyplyn.client;
 
 import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
 
 import java.io.*;
 import java.net.InetSocketAddress;
@@ -20,8 +21,13 @@ import java.security.*;
 import java.security.cert.CertificateException;
 import java.util.Arrays;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
 
 import javax.annotation.Nonnull;
 import javax.net.ssl.KeyManagerFactory;
@@ -33,6 +39,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.salesforce.pyplyn.configuration.Connector;
 import com.salesforce.pyplyn.configuration.EndpointConnector;
 
@@ -40,6 +47,7 @@ import okhttp3.Headers;
 import okhttp3.HttpUrl;
 import okhttp3.OkHttpClient;
 import retrofit2.Call;
+import retrofit2.Callback;
 import retrofit2.Response;
 import retrofit2.Retrofit;
 import retrofit2.converter.jackson.JacksonConverterFactory;
@@ -56,6 +64,20 @@ public abstract class AbstractRemoteClient<S> implements RemoteClient {
     private static final Logger logger = LoggerFactory.getLogger(AbstractRemoteClient.class);
     private ReentrantLock authLock = new ReentrantLock();
 
+    /**
+     * Re-authenticates clients after asynchronous calls fail as unauthorized, keeping blocking auth operations
+     *   off the HTTP client's callback threads
+     */
+    private static final ExecutorService REAUTHENTICATION_EXECUTOR = Executors.newCachedThreadPool(
+            new ThreadFactoryBuilder().setNameFormat("RemoteClient-Reauthentication-%s").setDaemon(true).build());
+
+    /**
+     * The last re-authentication started by an asynchronous call; shared by all calls that fail as unauthorized
+     *   while it is in progress
+     */
+    private final AtomicReference<CompletableFuture<Void>> reauthentication =
+            new AtomicReference<>(CompletableFuture.completedFuture(null));
+
     private static int UNAUTHORIZED = 401;
     private static int ERR_CODES = 400;
 
@@ -301,44 +323,175 @@ public abstract class AbstractRemoteClient<S> implements RemoteClient {
      * @throws UnauthorizedException if the endpoint is not authenticated
      */
     private <T> Response<T> executeCallInternal(Call<T> call) throws UnauthorizedException {
-        final HttpUrl requestUrl = call.request().url();
-        final String requestMethod = call.request().method();
-
         try {
-            Response<T> response = call.execute();
+            return handleResponse(call, call.execute());
+
+        } catch (IOException e) {
+            handleFailure(call, e);
+            return null;
+        }
+    }
+
+    /**
+     * Executes the remote call asynchronously, without blocking the calling thread while waiting for the response
+     * <p/>
+     * <p/>The call is retried once if the operation fails due to an {@link UnauthorizedException}.
+     *   Authentication is attempted before the retry to account for expired tokens; since the authorization
+     *   header is part of the call, the retried call is created by <b>callFactory</b> after re-authenticating.
+     * <p/>
+     * <p/>Re-authentication is performed once for all calls that fail as unauthorized at the same time, on a separate
+     *   thread; calls started while it is in progress are only sent after it completes. Calls which were sent before
+     *   the latest re-authentication completed are retried without re-authenticating again, so that they do not
+     *   reset the newly obtained credentials.
+     *
+     * @param callFactory creates the call to execute; invoked a second time if the call needs to be retried
+     * @return a future holding the result of calling {@link Response}.body() on the resulting response,
+     *         or <b>defaultFailResponse</b> if the operation fails; the future is completed exceptionally
+     *         with {@link UnauthorizedException} if the endpoint could not be authenticated
+     */
+    protected <T> CompletableFuture<T> executeAsync(Supplier<Call<T>> callFactory, T defaultFailResponse) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+
+        // wait for any re-authentication in progress, since the call would otherwise be sent with stale credentials
+        final CompletableFuture<Void> authenticated = reauthentication.get();
+        authenticated.whenComplete((ignored, authFailure) ->
+                enqueueCallInternal(callFactory, defaultFailResponse, result, () ->
+                        reauthenticate(authenticated).whenComplete((done, e) -> {
+                            if (nonNull(e)) {
+                                result.completeExceptionally(e);
+                                return;
+                            }
+
+                            enqueueCallInternal(callFactory, defaultFailResponse, result, null);
+                        })));
+
+        return result;
+    }
 
-            // success
-            if(response.code() < ERR_CODES && response.isSuccessful()) {
-                logger.info("Successful remote call {}/{} {}; response={}",
-                    getClass().getSimpleName(), requestMethod, requestUrl, response);
-                return response;
+    /**
+     * Returns a re-authentication that completes after the specified one; starts a new re-authentication
+     *   only if no other call has done so since <b>previous</b> completed
+     *
+     * @param previous the re-authentication that had completed when the failed call was sent
+     */
+    private CompletableFuture<Void> reauthenticate(CompletableFuture<Void> previous) {
+        CompletableFuture<Void> next = new CompletableFuture<>();
+        if (!reauthentication.compareAndSet(previous, next)) {
+            // another call already started re-authenticating, after this call was sent
+            return reauthentication.get();
+        }
+
+        REAUTHENTICATION_EXECUTOR.execute(() -> {
+            try {
+                // resets any authentication tokens and attempts to re-authenticate
+                resetAuth();
+                authenticate();
+                next.complete(null);
+
+            } catch (UnauthorizedException | RuntimeException e) {
+                next.completeExceptionally(e);
             }
+        });
 
-            // check if we are not authorized
-            if (response.code() == UNAUTHORIZED) {
-                try {
-                    throw new UnauthorizedException(generateExceptionDetails(response));
+        return next;
+    }
 
-                } finally {
-                    call.cancel();
+    /**
+     * Creates and enqueues the {@link Retrofit} call and completes the <b>result</b> once a response is received
+     *
+     * @param onUnauthorized invoked if the endpoint is not authenticated; if null, <b>result</b>
+     *                       is completed exceptionally with {@link UnauthorizedException}
+     */
+    private <T> void enqueueCallInternal(Supplier<Call<T>> callFactory, T defaultFailResponse, CompletableFuture<T> result,
+                                         Runnable onUnauthorized) {
+        final Call<T> call;
+        try {
+            call = callFactory.get();
+
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+            return;
+        }
+
+        call.enqueue(new Callback<T>() {
+            @Override
+            public void onResponse(Call<T> call, Response<T> response) {
+                try {
+                    T body = Optional.ofNullable(handleResponse(call, response))
+                            .map(Response::body)
+                            .orElse(defaultFailResponse);
+                    result.complete(body);
+
+                } catch (UnauthorizedException e) {
+                    if (isNull(onUnauthorized)) {
+                        result.completeExceptionally(e);
+                    } else {
+                        onUnauthorized.run();
+                    }
+
+                } catch (IOException | RuntimeException e) {
+                    handleFailure(call, e);
+                    result.complete(defaultFailResponse);
                 }
             }
 
-            // log any failures
-            final String errorBody = response.errorBody().string();
-            logger.info("Unsuccessful remote call {}/{} {}; response={}",
-                getClass().getSimpleName(), requestMethod, requestUrl, errorBody);
+            @Override
+            public void onFailure(Call<T> call, Throwable t) {
+                handleFailure(call, t);
+                result.complete(defaultFailResponse);
+            }
+        });
+    }
 
-        } catch (IOException e) {
-            logger.error("Error during remote call {}/{} {}: {}",
-                getClass().getSimpleName(), requestMethod, requestUrl, e.getMessage());
-            logger.debug("Error during remote call " + requestMethod + " " + requestUrl + " [stacktrace]: ", e);
-            call.cancel();
+    /**
+     * Handles the response of a {@link Retrofit} call, logging any errors
+     *
+     * @return the response, if the call succeeded, or null otherwise
+     * @throws UnauthorizedException if the endpoint is not authenticated
+     * @throws IOException if the error body could not be read
+     */
+    private <T> Response<T> handleResponse(Call<T> call, Response<T> response) throws UnauthorizedException, IOException {
+        final HttpUrl requestUrl = call.request().url();
+        final String requestMethod = call.request().method();
+
+        // success
+        if(response.code() < ERR_CODES && response.isSuccessful()) {
+            logger.info("Successful remote call {}/{} {}; response={}",
+                getClass().getSimpleName(), requestMethod, requestUrl, response);
+            return response;
         }
 
+        // check if we are not authorized
+        if (response.code() == UNAUTHORIZED) {
+            try {
+                throw new UnauthorizedException(generateExceptionDetails(response));
+
+            } finally {
+                call.cancel();
+            }
+        }
+
+        // log any failures
+        final String errorBody = response.errorBody().string();
+        logger.info("Unsuccessful remote call {}/{} {}; response={}",
+            getClass().getSimpleName(), requestMethod, requestUrl, errorBody);
+
         return null;
     }
 
+    /**
+     * Logs errors that prevented a {@link Retrofit} call from completing and cancels the call
+     */
+    private void handleFailure(Call<?> call, Throwable t) {
+        final HttpUrl requestUrl = call.request().url();
+        final String requestMethod = call.request().method();
+
+        logger.error("Error during remote call {}/{} {}: {}",
+            getClass().getSimpleName(), requestMethod, requestUrl, t.getMessage());
+        logger.debug("Error during remote call " + requestMethod + " " + requestUrl + " [stacktrace]: ", t);
+        call.cancel();
+    }
+
 
     /**
      * Generates a standardized exception string from details passed in a {@link Response} object
@@ -8,13 +8,28 @@
 
 package com.salesforce.pyplyn.configuration;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 import org.immutables.value.Value;
 
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.google.common.hash.Funnels;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 import com.salesforce.pyplyn.annotations.PyplynImmutableStyle;
 import com.salesforce.pyplyn.model.Extract;
 import com.salesforce.pyplyn.model.Load;
@@ -41,6 +56,18 @@ import com.salesforce.pyplyn.model.Transform;
 @JsonSerialize(as = ImmutableConfiguration.class)
 public abstract class Configuration implements Serializable {
     private static final long serialVersionUID = 3589803365589594172L;
+    private static final HashFunction FINGERPRINT = Hashing.murmur3_128();
+
+    /**
+     * Serializes definitions in a canonical form, which does not depend on the process that loaded them:
+     *   all fields are included, in alphabetical order, as are map entries
+     */
+    private static final ObjectMapper CANONICAL_MAPPER = new ObjectMapper()
+            .setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY)
+            .configure(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY, true)
+            .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true)
+            .configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false)
+            .configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
 
     /**
      * @return how often this configuration should be processed
@@ -68,4 +95,108 @@ public abstract class Configuration implements Serializable {
     public boolean disabled() {
         return false;
     }
+
+    /**
+     * 128-bit fingerprint of this configuration's identity, computed once, when the configuration is created
+     * <p/>
+     * <p/>It is derived from the same (non-auxiliary) fields as {@link #equals(Object)} and is used as a compact key
+     *   for identifying tasks and distributed map entries, avoiding deep equality checks and large keys;
+     *   it is the same on all nodes that load the configuration.
+     * <p/>
+     * <p/>Each {@link Extract}/{@link Transform}/{@link Load} definition is identified by its {@link Object#toString()}
+     *   representation, which for Immutables includes all non-auxiliary fields, or by the JSON representation
+     *   of all its fields, if the implementation does not override {@link Object#toString()}.
+     *
+     * @throws IllegalArgumentException if a definition does not override {@link Object#toString()}
+     *   and its fields cannot be serialized
+     * @return the fingerprint, as a 32 character hex string
+     */
+    @Value.Derived
+    @Value.Auxiliary
+    @JsonIgnore
+    public String fingerprint() {
+        Hasher hasher = FINGERPRINT.newHasher();
+        putIdentity(hasher, extract());
+        putIdentity(hasher, transform());
+        putIdentity(hasher, load());
+        return hasher.hash().toString();
+    }
+
+    /**
+     * Adds the identity of each of the specified definitions to the <b>hasher</b>
+     */
+    private static void putIdentity(Hasher hasher, List<?> definitions) {
+        hasher.putInt(definitions.size());
+        for (Object definition : definitions) {
+            hasher.putString(definition.getClass().getName(), StandardCharsets.UTF_8);
+
+            if (overridesToString(definition)) {
+                hasher.putString(definition.toString(), StandardCharsets.UTF_8);
+            } else {
+                hasher.putBytes(canonicalForm(definition));
+            }
+        }
+    }
+
+    /**
+     * @return the JSON representation of all the definition's fields
+     * @throws IllegalArgumentException if the definition cannot be serialized
+     */
+    private static byte[] canonicalForm(Object definition) {
+        try {
+            return CANONICAL_MAPPER.writeValueAsBytes(definition);
+
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot identify " + definition.getClass().getName()
+                    + "; override toString() or ensure its fields can be serialized as JSON", e);
+        }
+    }
+
+    /**
+     * @return true if the object's class provides its own {@link Object#toString()} implementation
+     */
+    private static boolean overridesToString(Object object) {
+        try {
+            return object.getClass().getMethod("toString").getDeclaringClass() != Object.class;
+
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 128-bit fingerprint of this configuration's full content, including auxiliary fields of nested
+     *   {@link Extract}/{@link Transform}/{@link Load} definitions (e.g.: cache durations, default values)
+     * <p/>
+     * <p/>Two configurations with the same {@link #fingerprint()} but different content fingerprints should be
+     *   processed by the same task, which needs to be updated.
+     * <p/>
+     * <p/>The value is computed from the canonical JSON representation of all definitions, and can be compared
+     *   between configurations loaded by different nodes (e.g.: read back from the cluster).
+     *
+     * @return the fingerprint, as a 32 character hex string
+     */
+    @Value.Lazy
+    @JsonIgnore
+    public String contentFingerprint() {
+        Hasher hasher = FINGERPRINT.newHasher()
+                .putLong(repeatIntervalMillis())
+                .putBoolean(disabled());
+
+        try (OutputStream out = Funnels.asOutputStream(hasher)) {
+            CANONICAL_MAPPER.writeValue(out, extract());
+            CANONICAL_MAPPER.writeValue(out, transform());
+            CANONICAL_MAPPER.writeValue(out, load());
+
+        } catch (IOException e) {
+            // if any definitions cannot be serialized, fall back to the fields that define this configuration's identity
+            return FINGERPRINT.newHasher()
+                    .putLong(repeatIntervalMillis())
+                    .putBoolean(disabled())
+                    .putString(fingerprint(), StandardCharsets.UTF_8)
+                    .hash().toString();
+        }
+
+        return hasher.hash().toString();
+    }
 }
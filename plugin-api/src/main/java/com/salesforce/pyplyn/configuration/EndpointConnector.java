@@ -92,6 +92,48 @@ public abstract class EndpointConnector {
         return 10L;
     }
     
+    /**
+     * Maximum number of requests that can be executed concurrently against this endpoint
+     * <p/>
+     * <p/>Limits the number of threads that a slow endpoint can hold, preventing it from starving
+     *   the other endpoints; 0 disables the limit.
+     */
+    @Value.Default
+    @Value.Auxiliary
+    public int maxConcurrentRequests() {
+        return 0;
+    }
+
+    /**
+     * Maximum number of requests that can wait for one of the {@link #maxConcurrentRequests()} to complete;
+     *   any other requests are handled according to the {@link #rejectionPolicy()}
+     */
+    @Value.Default
+    @Value.Auxiliary
+    public int maxQueuedRequests() {
+        return 0;
+    }
+
+    /**
+     * Specifies how to handle requests when both {@link #maxConcurrentRequests()} and {@link #maxQueuedRequests()}
+     *   are exhausted
+     */
+    @Value.Default
+    @Value.Auxiliary
+    public RejectionPolicy rejectionPolicy() {
+        return RejectionPolicy.REJECT;
+    }
+
+    /**
+     * Maximum time (in milliseconds) that a request can wait for one of the {@link #maxConcurrentRequests()}
+     *   to complete, before being rejected
+     */
+    @Value.Default
+    @Value.Auxiliary
+    public long queueTimeoutMillis() {
+        return 10_000L;
+    }
+    
     /**
      * Path to the keystore containing certificate to use for mutual authentication.
      */
@@ -165,4 +207,21 @@ public abstract class EndpointConnector {
         h += (h << 5) + id().hashCode();
         return h;
     }
+
+
+    /**
+     * Policies for handling requests that exceed an endpoint's concurrency limits
+     */
+    public enum RejectionPolicy {
+        /**
+         * Fail the request, without contacting the endpoint
+         */
+        REJECT,
+
+        /**
+         * Wait for a permit, regardless of the {@link #maxQueuedRequests()} limit; the request is rejected
+         *   if a permit does not become available within {@link #queueTimeoutMillis()}
+         */
+        WAIT
+    }
 }
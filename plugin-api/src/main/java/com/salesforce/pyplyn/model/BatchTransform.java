@@ -0,0 +1,95 @@
+/*
+ *  Copyright (c) 2016-2017, Salesforce.com, Inc.
+ *  All rights reserved.
+ *  Licensed under the BSD 3-Clause license.
+ *  For full license text, see the LICENSE.txt file in repo root
+ *    or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.pyplyn.model;
+
+import java.util.List;
+
+import io.reactivex.Flowable;
+import io.reactivex.Scheduler;
+
+/**
+ * Fast-path {@link Transform}, which operates directly on a columnar {@link TransmutationBatch}
+ * <p/>
+ * <p/>Implementations only need to define {@link #applyBatch(TransmutationBatch)}; the matrix-based
+ *   {@link Transform#apply(List)} is adapted to it, so that these transforms can still be used by any code
+ *   that expects a standard {@link Transform}.
+ * <p/>
+ * <p/>Use {@link #applyTo(Transform, TransmutationBatch)} to run any {@link Transform} on a batch; standard
+ *   transforms are adapted by converting the batch to a matrix and back.
+ *
+ * @author Mihai Bojin &lt;mbojin@salesforce.com&gt;
+ * @since 10.0.0
+ */
+public interface BatchTransform extends Transform {
+
+    /**
+     * This method should implement the desired transformation and return the processed results
+     * <p/>
+     * <p/>Implementations should avoid creating objects per datapoint; prefer copying and altering the columns
+     *   that change, or building a new batch with {@link TransmutationBatch#builder(int)}.
+     */
+    TransmutationBatch applyBatch(TransmutationBatch input);
+
+    /**
+     * Override this method for any {@link BatchTransform} that needs to not run when certain conditions are met
+     */
+    default boolean skipTransform(TransmutationBatch input) {
+        return false;
+    }
+
+    /**
+     * Adapts the matrix-based API to {@link #applyBatch(TransmutationBatch)}
+     */
+    @Override
+    default List<List<Transmutation>> apply(List<List<Transmutation>> input) {
+        return applyBatch(TransmutationBatch.from(input)).toMatrix();
+    }
+
+    @Override
+    default boolean skipTransform(List<List<Transmutation>> input) {
+        return skipTransform(TransmutationBatch.from(input));
+    }
+
+    /**
+     * Applies the specified transform on a batch, using the fast path if available
+     */
+    static TransmutationBatch applyTo(Transform transform, TransmutationBatch input) {
+        if (transform instanceof BatchTransform) {
+            BatchTransform batchTransform = (BatchTransform)transform;
+            if (batchTransform.skipTransform(input)) {
+                return input;
+            }
+            return batchTransform.applyBatch(input);
+        }
+
+        // adapt standard transforms
+        List<List<Transmutation>> matrix = input.toMatrix();
+        if (transform.skipTransform(matrix)) {
+            return input;
+        }
+        return TransmutationBatch.from(transform.apply(matrix));
+    }
+
+    /**
+     * Async version of {@link #applyTo(Transform, TransmutationBatch)}, observed on the specified {@link Scheduler}
+     * <p/>
+     * <p/>Standard transforms are adapted to their {@link Transform#applyAsync(List, Scheduler)} implementation,
+     *   which allows {@link PollingTransform}s to run their polling logic.
+     */
+    static Flowable<TransmutationBatch> applyAsyncTo(Transform transform, TransmutationBatch input, Scheduler scheduler) {
+        if (transform instanceof BatchTransform) {
+            return Flowable.just(input)
+                    .observeOn(scheduler)
+                    .map(batch -> applyTo(transform, batch));
+        }
+
+        return transform.applyAsync(input.toMatrix(), scheduler)
+                .map(TransmutationBatch::from);
+    }
+}
@@ -17,10 +17,19 @@ public enum ThresholdType {
      * @return true if the comparison succeeds, or false if the passed threshold is null
      */
     public boolean matches(Number compared, Double threshold) {
+        return matches(compared.doubleValue(), threshold);
+    }
+
+    /**
+     * Primitive version of {@link #matches(Number, Double)}, used when processing {@link TransmutationBatch}es
+     *
+     * @return true if the comparison succeeds, or false if the passed threshold is null
+     */
+    public boolean matches(double compared, Double threshold) {
         if (nonNull(threshold) && this == GREATER_THAN) {
-            return compared.doubleValue() >= threshold;
+            return compared >= threshold;
         } else if (nonNull(threshold) && this == LESS_THAN) {
-            return compared.doubleValue() <= threshold;
+            return compared <= threshold;
         }
 
         return false;
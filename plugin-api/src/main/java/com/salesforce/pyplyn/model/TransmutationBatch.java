@@ -0,0 +1,390 @@
+/*
+ *  Copyright (c) 2016-2017, Salesforce.com, Inc.
+ *  All rights reserved.
+ *  Licensed under the BSD 3-Clause license.
+ *  For full license text, see the LICENSE.txt file in repo root
+ *    or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.pyplyn.model;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.*;
+
+/**
+ * Columnar representation of a {@link Transmutation} matrix
+ * <p/>
+ * <p/>Instead of holding one object per datapoint, times (epoch millis), values and original values are stored
+ *   in primitive arrays; names and {@link Transmutation.Metadata} are interned, so that all datapoints sharing
+ *   the same name or metadata reference a single instance. Rows are delimited by offsets into these arrays.
+ * <p/>
+ * <p/>This object is immutable; methods that alter the data return new batches, which share all unchanged columns
+ *   with the original.
+ *
+ * @author Mihai Bojin &lt;mbojin@salesforce.com&gt;
+ * @since 10.0.0
+ */
+public final class TransmutationBatch {
+    private static final TransmutationBatch EMPTY = new Builder(0).build();
+
+    private final int[] rowOffsets;
+    private final long[] times;
+    private final double[] values;
+    private final double[] originalValues;
+    private final String[] names;
+    private final Transmutation.Metadata[] metadata;
+
+    private TransmutationBatch(int[] rowOffsets, long[] times, double[] values, double[] originalValues,
+                               String[] names, Transmutation.Metadata[] metadata) {
+        this.rowOffsets = rowOffsets;
+        this.times = times;
+        this.values = values;
+        this.originalValues = originalValues;
+        this.names = names;
+        this.metadata = metadata;
+    }
+
+    /**
+     * @return an empty batch
+     */
+    public static TransmutationBatch empty() {
+        return EMPTY;
+    }
+
+    /**
+     * @return a new builder, which can hold the specified number of datapoints without resizing
+     */
+    public static Builder builder(int expectedSize) {
+        return new Builder(expectedSize);
+    }
+
+    /**
+     * Converts a {@link Transmutation} matrix into a columnar batch
+     */
+    public static TransmutationBatch from(List<List<Transmutation>> matrix) {
+        int size = 0;
+        for (List<Transmutation> row : matrix) {
+            size += row.size();
+        }
+
+        Builder builder = new Builder(size);
+        for (List<Transmutation> row : matrix) {
+            for (Transmutation point : row) {
+                builder.add(point.time().toInstant().toEpochMilli(), point.name(),
+                        point.value().doubleValue(), point.originalValue().doubleValue(), point.metadata());
+            }
+            builder.endRow();
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Concatenates the rows of all specified batches
+     */
+    public static TransmutationBatch concat(List<TransmutationBatch> batches) {
+        if (batches.size() == 1) {
+            return batches.get(0);
+        }
+
+        int size = 0;
+        for (TransmutationBatch batch : batches) {
+            size += batch.size();
+        }
+
+        Builder builder = new Builder(size);
+        for (TransmutationBatch batch : batches) {
+            builder.addRows(batch);
+        }
+        return builder.build();
+    }
+
+    /**
+     * @return the number of rows in this batch
+     */
+    public int rows() {
+        return rowOffsets.length - 1;
+    }
+
+    /**
+     * @return the total number of datapoints in this batch
+     */
+    public int size() {
+        return times.length;
+    }
+
+    public boolean isEmpty() {
+        return times.length == 0;
+    }
+
+    /**
+     * @return the index of the first datapoint in the specified row
+     */
+    public int rowStart(int row) {
+        return rowOffsets[row];
+    }
+
+    /**
+     * @return the index after the last datapoint in the specified row
+     */
+    public int rowEnd(int row) {
+        return rowOffsets[row + 1];
+    }
+
+    public long timeMillis(int index) {
+        return times[index];
+    }
+
+    public String name(int index) {
+        return names[index];
+    }
+
+    public double value(int index) {
+        return values[index];
+    }
+
+    public double originalValue(int index) {
+        return originalValues[index];
+    }
+
+    public Transmutation.Metadata metadata(int index) {
+        return metadata[index];
+    }
+
+    /**
+     * @return a new batch with the specified values; all other columns are shared with this batch
+     */
+    public TransmutationBatch withValues(double[] newValues) {
+        checkSize(newValues.length);
+        return new TransmutationBatch(rowOffsets, times, newValues, originalValues, names, metadata);
+    }
+
+    /**
+     * @return a new batch with the specified metadata; all other columns are shared with this batch
+     */
+    public TransmutationBatch withMetadata(Transmutation.Metadata[] newMetadata) {
+        checkSize(newMetadata.length);
+        return new TransmutationBatch(rowOffsets, times, values, originalValues, names, newMetadata);
+    }
+
+    /**
+     * @return a copy of the values column, which can be altered and passed to {@link #withValues(double[])}
+     */
+    public double[] copyValues() {
+        return values.clone();
+    }
+
+    /**
+     * @return a copy of the metadata column, which can be altered and passed to {@link #withMetadata(Transmutation.Metadata[])}
+     */
+    public Transmutation.Metadata[] copyMetadata() {
+        return metadata.clone();
+    }
+
+    private void checkSize(int length) {
+        if (length != size()) {
+            throw new IllegalArgumentException("Expected " + size() + " elements, got " + length);
+        }
+    }
+
+    /**
+     * Creates a single {@link Transmutation} object for the specified datapoint
+     */
+    public Transmutation get(int index) {
+        return ImmutableTransmutation.of(toTime(times[index]), names[index], values[index], originalValues[index], metadata[index]);
+    }
+
+    /**
+     * Converts this batch to the matrix representation expected by {@link Transform#apply(List)}
+     */
+    public List<List<Transmutation>> toMatrix() {
+        List<List<Transmutation>> matrix = new ArrayList<>(rows());
+        for (int row = 0; row < rows(); row++) {
+            matrix.add(row(row));
+        }
+        return matrix;
+    }
+
+    /**
+     * Converts all the points in this batch, row after row, to the list expected by
+     *   {@link com.salesforce.pyplyn.processor.LoadProcessor}s
+     */
+    public List<Transmutation> toList() {
+        List<Transmutation> points = new ArrayList<>(size());
+        for (int i = 0; i < size(); i++) {
+            points.add(get(i));
+        }
+        return points;
+    }
+
+    /**
+     * @return the specified row as a list of {@link Transmutation}s
+     */
+    public List<Transmutation> row(int row) {
+        List<Transmutation> points = new ArrayList<>(rowEnd(row) - rowStart(row));
+        for (int i = rowStart(row); i < rowEnd(row); i++) {
+            points.add(get(i));
+        }
+        return points;
+    }
+
+    private static ZonedDateTime toTime(long epochMillis) {
+        return Instant.ofEpochMilli(epochMillis).atZone(ZoneOffset.UTC);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        TransmutationBatch that = (TransmutationBatch)o;
+        return Arrays.equals(rowOffsets, that.rowOffsets)
+                && Arrays.equals(times, that.times)
+                && Arrays.equals(values, that.values)
+                && Arrays.equals(originalValues, that.originalValues)
+                && Arrays.equals(names, that.names)
+                && Arrays.equals(metadata, that.metadata);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Arrays.hashCode(rowOffsets);
+        result = 31 * result + Arrays.hashCode(times);
+        result = 31 * result + Arrays.hashCode(values);
+        result = 31 * result + Arrays.hashCode(names);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "TransmutationBatch{rows=" + rows() + ", size=" + size() + "}";
+    }
+
+
+    /**
+     * Builds {@link TransmutationBatch}es one datapoint at a time
+     * <p/>
+     * <p/>Names and metadata are interned while building; this object is not thread-safe.
+     */
+    public static final class Builder {
+        private final Map<String, String> internedNames = new HashMap<>();
+        private final Map<Transmutation.Metadata, Transmutation.Metadata> internedMetadata = new HashMap<>();
+
+        private int[] rowOffsets = new int[]{0, 0};
+        private int rows;
+        private long[] times;
+        private double[] values;
+        private double[] originalValues;
+        private String[] names;
+        private Transmutation.Metadata[] metadata;
+        private int size;
+
+        private Builder(int expectedSize) {
+            int capacity = Math.max(expectedSize, 1);
+            times = new long[capacity];
+            values = new double[capacity];
+            originalValues = new double[capacity];
+            names = new String[capacity];
+            metadata = new Transmutation.Metadata[capacity];
+        }
+
+        /**
+         * Adds a datapoint to the current row
+         */
+        public Builder add(long timeMillis, String name, double value, double originalValue, Transmutation.Metadata pointMetadata) {
+            ensureCapacity(size + 1);
+            times[size] = timeMillis;
+            values[size] = value;
+            originalValues[size] = originalValue;
+            names[size] = intern(name);
+            metadata[size] = intern(pointMetadata);
+            size++;
+            return this;
+        }
+
+        /**
+         * Copies the specified datapoint into the current row
+         */
+        public Builder add(TransmutationBatch batch, int index) {
+            return add(batch.times[index], batch.names[index], batch.values[index], batch.originalValues[index], batch.metadata[index]);
+        }
+
+        /**
+         * Copies all rows of the specified batch; the current row must be empty
+         */
+        public Builder addRows(TransmutationBatch batch) {
+            for (int row = 0; row < batch.rows(); row++) {
+                for (int i = batch.rowStart(row); i < batch.rowEnd(row); i++) {
+                    add(batch, i);
+                }
+                endRow();
+            }
+            return this;
+        }
+
+        /**
+         * Ends the current row
+         */
+        public Builder endRow() {
+            rows++;
+            if (rows + 1 >= rowOffsets.length) {
+                rowOffsets = Arrays.copyOf(rowOffsets, rowOffsets.length * 2);
+            }
+            rowOffsets[rows] = size;
+            return this;
+        }
+
+        /**
+         * Consecutive datapoints generally share the same name and metadata; avoid hashing them in that case
+         */
+        private String intern(String name) {
+            if (size > 0 && names[size - 1] == name) {
+                return name;
+            }
+            return internedNames.computeIfAbsent(name, key -> key);
+        }
+
+        private Transmutation.Metadata intern(Transmutation.Metadata pointMetadata) {
+            if (size > 0 && metadata[size - 1] == pointMetadata) {
+                return pointMetadata;
+            }
+            return internedMetadata.computeIfAbsent(pointMetadata, key -> key);
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity <= times.length) {
+                return;
+            }
+
+            int newCapacity = Math.max(capacity, times.length * 2);
+            times = Arrays.copyOf(times, newCapacity);
+            values = Arrays.copyOf(values, newCapacity);
+            originalValues = Arrays.copyOf(originalValues, newCapacity);
+            names = Arrays.copyOf(names, newCapacity);
+            metadata = Arrays.copyOf(metadata, newCapacity);
+        }
+
+        /**
+         * Builds the batch; any datapoints added after the last {@link #endRow()} are included as the last row
+         */
+        public TransmutationBatch build() {
+            if (size > rowOffsets[rows]) {
+                endRow();
+            }
+
+            return new TransmutationBatch(
+                    Arrays.copyOf(rowOffsets, rows + 1),
+                    Arrays.copyOf(times, size),
+                    Arrays.copyOf(values, size),
+                    Arrays.copyOf(originalValues, size),
+                    Arrays.copyOf(names, size),
+                    Arrays.copyOf(metadata, size));
+        }
+    }
+}
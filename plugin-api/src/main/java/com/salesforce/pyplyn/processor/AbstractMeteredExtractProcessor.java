@@ -57,6 +57,21 @@ public abstract class AbstractMeteredExtractProcessor<T extends Extract> impleme
         systemStatus.meter(meterName(), MeterType.ExtractNoDataReturned).mark();
     }
 
+    /**
+     * Call this method when a remote request is started, for data that is not cached
+     */
+    protected void requestStarted() {
+        systemStatus.meter(meterName(), MeterType.ExtractRequestStarted).mark();
+    }
+
+    /**
+     * Call this method when, instead of starting a remote request, the processor joins an identical request
+     *   which is already in progress
+     */
+    protected void requestJoined() {
+        systemStatus.meter(meterName(), MeterType.ExtractRequestJoined).mark();
+    }
+
     /**
      * Call this method when attempting to authenticate to the endpoint failed
      */
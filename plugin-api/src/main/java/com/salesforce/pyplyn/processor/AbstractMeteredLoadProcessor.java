@@ -50,6 +50,20 @@ public abstract class AbstractMeteredLoadProcessor<T extends Load> implements Lo
         systemStatus.meter(meterName(), MeterType.LoadFailure).mark();
     }
 
+    /**
+     * Call this method to record how many data points were sent to the destination
+     */
+    protected void sent(long count) {
+        systemStatus.meter(meterName(), MeterType.LoadSent).mark(count);
+    }
+
+    /**
+     * Call this method to record how many data points were not sent, since the destination already holds them
+     */
+    protected void suppressed(long count) {
+        systemStatus.meter(meterName(), MeterType.LoadSuppressed).mark(count);
+    }
+
     /**
      * Call this method when attempting to authenticate the endpoint failed
      */
@@ -0,0 +1,31 @@
+/*
+ *  Copyright (c) 2016-2017, Salesforce.com, Inc.
+ *  All rights reserved.
+ *  Licensed under the BSD 3-Clause license.
+ *  For full license text, see the LICENSE.txt file in repo root
+ *    or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.pyplyn.processor;
+
+import com.salesforce.pyplyn.model.TransmutationBatch;
+
+import io.reactivex.Flowable;
+
+/**
+ * Extract step which was prepared by an {@link ExtractProcessor} for a specific dataset
+ * <p/>
+ * <p/>Plans are created once per configuration, and then executed each time the configuration runs; any work
+ *   which only depends on the dataset (filtering, grouping, building queries) should be performed when the plan
+ *   is created, leaving only IO for each execution.
+ *
+ * @author Mihai Bojin &lt;mbojin@salesforce.com&gt;
+ * @since 10.0.0
+ */
+@FunctionalInterface
+public interface ExtractPlan {
+    /**
+     * Extracts the planned dataset and returns its results as a columnar {@link TransmutationBatch}
+     */
+    Flowable<TransmutationBatch> processBatchAsync();
+}
@@ -13,6 +13,7 @@ import java.util.List;
 
 import com.salesforce.pyplyn.model.Extract;
 import com.salesforce.pyplyn.model.Transmutation;
+import com.salesforce.pyplyn.model.TransmutationBatch;
 
 import io.reactivex.Flowable;
 
@@ -35,6 +36,18 @@ public interface ExtractProcessor<T extends Extract> extends Filterable<T, Extra
      */
     List<List<Transmutation>> process(List<T> datasource);
 
+    /**
+     * Processes the dataset and returns its results as a columnar {@link TransmutationBatch}
+     * <p/>
+     * <p/>The default implementation adapts the results of {@link #process(List)}; implementations that extract
+     *   large amounts of datapoints should override this method and build the batch directly.
+     *
+     * @param datasource dataset that should be processed
+     */
+    default TransmutationBatch processBatch(List<T> datasource) {
+        return TransmutationBatch.from(process(datasource));
+    }
+
 
     /**
      * This method leverages the {@link #process(List)} method to asynchronously)}
@@ -46,6 +59,15 @@ public interface ExtractProcessor<T extends Extract> extends Filterable<T, Extra
         return Flowable.fromCallable(() -> process(datasource));
     }
 
+    /**
+     * This method leverages the {@link #processBatch(List)} method to asynchronously handle the dataset
+     *
+     * @param datasource dataset that should be processed
+     */
+    default Flowable<TransmutationBatch> processBatchAsync(List<T> datasource) {
+        return Flowable.fromCallable(() -> processBatch(datasource));
+    }
+
     /**
      * Default processor logic that will first filter the required data then process all valid entries
      *
@@ -74,4 +96,29 @@ public interface ExtractProcessor<T extends Extract> extends Filterable<T, Extra
 
         return Flowable.empty();
     }
+
+    /**
+     * Prepares an {@link ExtractPlan} for the specified dataset, which can be executed repeatedly
+     * <p/>
+     * <p/>The default implementation calls {@link #processBatchAsync(List)} on each execution; implementations
+     *   should override this method to perform any preparations that only depend on the dataset once.
+     *
+     * @param datasource dataset that should be processed
+     */
+    default ExtractPlan prepare(List<T> datasource) {
+        return () -> processBatchAsync(datasource);
+    }
+
+    /**
+     * Filters the required data once and prepares an {@link ExtractPlan} for all valid entries
+     *
+     * @return the prepared plan, or null when there is nothing to process
+     */
+    default ExtractPlan compile(List<Extract> data) {
+        List<T> filtered = filter(data);
+        if (!filtered.isEmpty()) {
+            return prepare(filtered);
+        }
+        return null;
+    }
 }
@@ -0,0 +1,33 @@
+/*
+ *  Copyright (c) 2016-2017, Salesforce.com, Inc.
+ *  All rights reserved.
+ *  Licensed under the BSD 3-Clause license.
+ *  For full license text, see the LICENSE.txt file in repo root
+ *    or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.pyplyn.processor;
+
+import java.util.List;
+
+import com.salesforce.pyplyn.model.Transmutation;
+
+import io.reactivex.Flowable;
+
+/**
+ * Load step which was prepared by a {@link LoadProcessor} for a specific set of destinations
+ *
+ * @see ExtractPlan similar implementation for {@link com.salesforce.pyplyn.model.Extract} types
+ *
+ * @author Mihai Bojin &lt;mbojin@salesforce.com&gt;
+ * @since 10.0.0
+ */
+@FunctionalInterface
+public interface LoadPlan {
+    /**
+     * Loads the specified data to the planned destinations
+     *
+     * @param data dataset that should be processed
+     */
+    Flowable<List<Boolean>> processAsync(List<Transmutation> data);
+}
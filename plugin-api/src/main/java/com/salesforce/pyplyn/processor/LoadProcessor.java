@@ -76,4 +76,29 @@ public interface LoadProcessor<T extends Load> extends Filterable<T, Load> {
 
         return Flowable.empty();
     }
+
+    /**
+     * Prepares a {@link LoadPlan} for the specified destinations, which can be executed repeatedly
+     * <p/>
+     * <p/>The default implementation calls {@link #processAsync(List, List)} on each execution; implementations
+     *   should override this method to perform any preparations that only depend on the destinations once.
+     *
+     * @param destinations where the data should be loaded to
+     */
+    default LoadPlan prepare(List<T> destinations) {
+        return data -> processAsync(data, destinations);
+    }
+
+    /**
+     * Filters the required destinations once and prepares a {@link LoadPlan} for all valid entries
+     *
+     * @return the prepared plan, or null when there is nothing to process
+     */
+    default LoadPlan compile(List<Load> destinations) {
+        List<T> filtered = filter(destinations);
+        if (!filtered.isEmpty()) {
+            return prepare(filtered);
+        }
+        return null;
+    }
 }
@@ -24,10 +24,28 @@ public enum MeterType {
     ExtractSuccess(LESS_THAN),
     ExtractFailure(GREATER_THAN),
     ExtractNoDataReturned(GREATER_THAN),
+    ExtractRequestStarted(GREATER_THAN),
+    ExtractRequestJoined(GREATER_THAN),
     LoadSuccess(LESS_THAN),
     LoadFailure(GREATER_THAN),
+    LoadSent(GREATER_THAN),
+    LoadSuppressed(GREATER_THAN),
     AuthenticationFailure(GREATER_THAN),
-    ConfigurationUpdateFailure(GREATER_THAN);
+    ConfigurationUpdateFailure(GREATER_THAN),
+    ConfigurationAdded(GREATER_THAN),
+    ConfigurationChanged(GREATER_THAN),
+    ConfigurationRemoved(GREATER_THAN),
+    ConfigurationWritten(GREATER_THAN),
+    BulkheadQueued(GREATER_THAN),
+    BulkheadRejected(GREATER_THAN),
+    ClusterTasksStarted(GREATER_THAN),
+    ClusterTasksStopped(GREATER_THAN),
+    CacheLocalHit(LESS_THAN),
+    CacheRemoteHit(LESS_THAN),
+    CacheMiss(GREATER_THAN),
+    CacheEviction(GREATER_THAN),
+    TaskOverrun(GREATER_THAN),
+    TaskLate(GREATER_THAN);
 
     private final ThresholdType alertType;
 
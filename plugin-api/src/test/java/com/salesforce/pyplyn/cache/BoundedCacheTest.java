@@ -0,0 +1,183 @@
+/*
+ *  Copyright (c) 2016-2017, Salesforce.com, Inc.
+ *  All rights reserved.
+ *  Licensed under the BSD 3-Clause license.
+ *  For full license text, see the LICENSE.txt file in repo root
+ *    or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.pyplyn.cache;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.codahale.metrics.Meter;
+import com.salesforce.pyplyn.status.MeterType;
+import com.salesforce.pyplyn.status.SystemStatus;
+
+/**
+ * Test class
+ *
+ * @author Mihai Bojin &lt;mbojin@salesforce.com&gt;
+ * @since 10.0.0
+ */
+public class BoundedCacheTest {
+    private static final long CACHE_MILLIS = 86_400_000L;
+
+    private static final String NAME = "cache";
+
+    @Mock
+    SystemStatus systemStatus;
+
+    @Mock
+    Meter hitMeter;
+
+    @Mock
+    Meter missMeter;
+
+    @Mock
+    Meter evictionMeter;
+
+    AtomicLong nanos;
+    BoundedCache<Weighted> cache;
+
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        // ARRANGE
+        MockitoAnnotations.initMocks(this);
+        doReturn(hitMeter).when(systemStatus).meter(NAME, MeterType.CacheLocalHit);
+        doReturn(missMeter).when(systemStatus).meter(NAME, MeterType.CacheMiss);
+        doReturn(evictionMeter).when(systemStatus).meter(NAME, MeterType.CacheEviction);
+
+        nanos = new AtomicLong(System.nanoTime());
+        cache = new BoundedCache<>(100, NAME, systemStatus, nanos::get);
+    }
+
+    @Test
+    public void testCachedObjectIsReturned() throws Exception {
+        // ARRANGE
+        Weighted expected = new Weighted("key", 10);
+        cache.cache(expected, CACHE_MILLIS);
+
+        // ACT
+        Weighted actual = cache.isCached("key");
+        Weighted missing = cache.isCached("missing");
+
+        // ASSERT
+        assertThat(actual, is(expected));
+        assertThat(missing, nullValue());
+        assertThat(cache.hits(), equalTo(1L));
+        assertThat(cache.misses(), equalTo(1L));
+        verify(hitMeter).mark();
+        verify(missMeter).mark();
+    }
+
+    @Test
+    public void testWeightBudgetIsEnforced() throws Exception {
+        // ARRANGE
+        for (int i = 0; i < 50; i++) {
+            cache.cache(new Weighted("key" + i, 10), CACHE_MILLIS);
+        }
+
+        // ACT
+        cache.cleanUp();
+
+        // ASSERT
+        assertThat("The cache should not hold more than its budget", cache.weight(), lessThanOrEqualTo(100L));
+        assertThat(cache.evictions(), greaterThanOrEqualTo(40L));
+        // evictions are reported asynchronously
+        verify(evictionMeter, timeout(5_000).atLeast(40)).mark();
+    }
+
+    @Test
+    public void testFrequentlyReadEntriesAreRetained() throws Exception {
+        // ARRANGE
+        Weighted frequent = new Weighted("frequent", 10);
+        cache.cache(frequent, CACHE_MILLIS);
+        for (int i = 0; i < 9; i++) {
+            cache.cache(new Weighted("filler" + i, 10), CACHE_MILLIS);
+        }
+        cache.cleanUp();
+        for (int i = 0; i < 20; i++) {
+            cache.isCached("frequent");
+        }
+        cache.cleanUp();
+
+        // ACT
+        for (int i = 0; i < 100; i++) {
+            cache.cache(new Weighted("oneOff" + i, 10), CACHE_MILLIS);
+            cache.cleanUp();
+        }
+
+        // ASSERT
+        assertThat("A frequently read entry should not be evicted by one-off entries", cache.isCached("frequent"), is(frequent));
+    }
+
+    @Test
+    public void testExpiredEntriesAreSwept() throws Exception {
+        // ARRANGE
+        cache.cache(new Weighted("key", 10), 1_000);
+
+        // ACT
+        nanos.addAndGet(TimeUnit.MINUTES.toNanos(1));
+        cache.cleanUp();
+
+        // ASSERT
+        assertThat("Expired entries should not count towards the budget", cache.weight(), equalTo(0L));
+        assertThat(cache.isCached("key"), nullValue());
+        assertThat(cache.evictions(), equalTo(1L));
+        verify(evictionMeter, timeout(5_000)).mark();
+    }
+
+    @Test
+    public void testEntriesExpireAccordingToTheTicker() throws Exception {
+        // ARRANGE
+        Weighted expected = new Weighted("key", 10);
+        cache.cache(expected, 1_000);
+
+        // ACT
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(999));
+        Weighted beforeExpiry = cache.isCached("key");
+
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+        Weighted afterExpiry = cache.isCached("key");
+
+        // ASSERT
+        assertThat(beforeExpiry, is(expected));
+        assertThat(afterExpiry, nullValue());
+    }
+
+
+    /**
+     * Cacheable object with a predefined weight
+     */
+    static class Weighted implements Cacheable {
+        private final String key;
+        private final int weight;
+
+        Weighted(String key, int weight) {
+            this.key = key;
+            this.weight = weight;
+        }
+
+        @Override
+        public String cacheKey() {
+            return key;
+        }
+
+        @Override
+        public int cacheWeight() {
+            return weight;
+        }
+    }
+}
@@ -10,14 +10,19 @@ package com.salesforce.pyplyn.cache;
 
 import static com.salesforce.pyplyn.cache.ConcurrentCacheMapTest.CACHE_KEY;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
-import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.*;
 
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import com.codahale.metrics.Meter;
+import com.salesforce.pyplyn.status.MeterType;
+import com.salesforce.pyplyn.status.SystemStatus;
+
 /**
  * Test class
  *
@@ -28,7 +33,7 @@ public class CacheFactoryTest {
     @Mock
     Cacheable expected;
 
-    ConcurrentCacheMap<Cacheable> cache;
+    Cache<Cacheable> cache;
 
 
     @BeforeMethod
@@ -50,4 +55,34 @@ public class CacheFactoryTest {
         // ASSERT
         assertThat("The same object should have been returned from the cache", actual, is(expected));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testBoundedCacheIsReturnedWhenWeightIsSpecified() throws Exception {
+        // ARRANGE
+        CacheFactory factory = new CacheFactory(100, 0);
+
+        // ACT
+        Cache<Cacheable> bounded = factory.newCache();
+
+        // ASSERT
+        assertThat(bounded, instanceOf(BoundedCache.class));
+        assertThat(new CacheFactory().newCache(), instanceOf(ConcurrentCacheMap.class));
+    }
+
+    @Test
+    public void testNamedBoundedCachesReportMeters() throws Exception {
+        // ARRANGE
+        SystemStatus systemStatus = mock(SystemStatus.class);
+        Meter meter = mock(Meter.class);
+        doReturn(meter).when(systemStatus).meter(any(), any());
+        CacheFactory factory = new CacheFactory(100, 0, systemStatus);
+
+        // ACT
+        factory.newCache("name", Cacheable.class).isCached(CACHE_KEY);
+        factory.newCache().isCached(CACHE_KEY);
+
+        // ASSERT
+        verify(systemStatus, times(1)).meter("name", MeterType.CacheMiss);
+        verify(meter, times(1)).mark();
+    }
+}
@@ -41,7 +41,7 @@ public class ConcurrentCacheMapTest {
         // ARRANGE
         doReturn(CACHE_KEY).when(expected).cacheKey(); // FindBugs: RV_RETURN_VALUE_IGNORED_NO_SIDE_EFFECT - IGNORE
 
-        cache = new CacheFactory().newCache();
+        cache = new ConcurrentCacheMap<>();
         cache.cache(expected, 86400);
     }
 
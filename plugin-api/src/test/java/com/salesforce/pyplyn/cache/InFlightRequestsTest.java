@@ -0,0 +1,103 @@
+/*
+ *  Copyright (c) 2016-2017, Salesforce.com, Inc.
+ *  All rights reserved.
+ *  Licensed under the BSD 3-Clause license.
+ *  For full license text, see the LICENSE.txt file in repo root
+ *    or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.pyplyn.cache;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Test class
+ *
+ * @author Mihai Bojin &lt;mbojin@salesforce.com&gt;
+ * @since 10.0.0
+ */
+public class InFlightRequestsTest {
+    InFlightRequests<String> inFlight;
+
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        // ARRANGE
+        inFlight = new InFlightRequests<>();
+    }
+
+    @Test
+    public void testSecondCallerJoinsTheOwnersRequest() throws Exception {
+        // ACT
+        CompletableFuture<String> owner = inFlight.joinOrOwn("key");
+        CompletableFuture<String> joined = inFlight.joinOrOwn("key");
+        inFlight.complete("key", "value");
+
+        // ASSERT
+        assertThat("The first caller should own the request", owner, nullValue());
+        assertThat(InFlightRequests.await(joined), equalTo("value"));
+        assertThat("Completed requests should be removed", inFlight.size(), equalTo(0));
+        assertThat("A new request can be started after completion", inFlight.joinOrOwn("key"), nullValue());
+    }
+
+    @Test(expectedExceptions = ExecutionException.class)
+    public void testFailureIsPassedToJoinedCallers() throws Exception {
+        // ARRANGE
+        inFlight.joinOrOwn("key");
+        CompletableFuture<String> joined = inFlight.joinOrOwn("key");
+
+        // ACT
+        inFlight.fail("key", new IllegalStateException("failed"));
+
+        // ASSERT
+        InFlightRequests.await(joined);
+    }
+
+    @Test
+    public void testConcurrentMissesResultInOneRequest() throws Exception {
+        // ARRANGE
+        final int callers = 8;
+        final AtomicInteger remoteCalls = new AtomicInteger();
+        final CountDownLatch allRegistered = new CountDownLatch(callers);
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> {
+                    CompletableFuture<String> pending = inFlight.joinOrOwn("key");
+                    allRegistered.countDown();
+                    if (pending != null) {
+                        return InFlightRequests.await(pending);
+                    }
+
+                    // wait for all other callers to join, before completing the request
+                    allRegistered.await();
+                    remoteCalls.incrementAndGet();
+                    inFlight.complete("key", "value");
+                    return "value";
+                }));
+            }
+
+            // ACT
+            for (Future<String> result : results) {
+                assertThat(result.get(10, TimeUnit.SECONDS), equalTo("value"));
+            }
+
+            // ASSERT
+            assertThat(remoteCalls.get(), equalTo(1));
+
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
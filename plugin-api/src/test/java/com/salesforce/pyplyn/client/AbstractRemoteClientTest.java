@@ -20,7 +20,14 @@ import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.security.KeyStore;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
@@ -35,6 +42,7 @@ import okhttp3.Request;
 import okhttp3.ResponseBody;
 import okio.BufferedSource;
 import retrofit2.Call;
+import retrofit2.Callback;
 import retrofit2.Response;
 
 /**
@@ -169,6 +177,131 @@ public class AbstractRemoteClientTest {
         assertThat(headers.get("Custom"), is("Header"));
     }
 
+    @Test
+    public void testExecuteAsyncSuccess() throws Exception {
+        // ARRANGE
+        respondAsync(call, createSuccessfulResponse());
+
+        // ACT
+        CompletableFuture<String> response = client.executeAsync(() -> call, "failed");
+
+        // ASSERT
+        assertThat(response.get(), containsString("OK"));
+        verify(call, times(0)).execute();
+    }
+
+    @Test
+    public void testExecuteAsyncRetriesAfterReauthenticating() throws Exception {
+        // ARRANGE
+        @SuppressWarnings("unchecked")
+        Call<String> retryCall = mock(Call.class);
+        doReturn(call.request()).when(retryCall).request();
+        respondAsync(call, createFailedResponse(401));
+        respondAsync(retryCall, createSuccessfulResponse());
+
+        AtomicInteger createdCalls = new AtomicInteger();
+
+        // ACT
+        CompletableFuture<String> response = client.executeAsync(() -> createdCalls.getAndIncrement() == 0 ? call : retryCall, "failed");
+
+        // ASSERT
+        assertThat(response.get(), containsString("OK"));
+        assertThat("A new call should be created for the retry", createdCalls.get(), equalTo(2));
+        verify(client).resetAuth();
+        verify(client).authenticate();
+    }
+
+    @Test
+    public void testConcurrentUnauthorizedCallsShareOneReauthentication() throws Exception {
+        // ARRANGE
+        final int calls = 5;
+        List<Callback<String>> unauthorizedCallbacks = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocation -> {
+            unauthorizedCallbacks.add(invocation.getArgument(0));
+            return null;
+        }).when(call).enqueue(any());
+
+        @SuppressWarnings("unchecked")
+        Call<String> retryCall = mock(Call.class);
+        doReturn(call.request()).when(retryCall).request();
+        respondAsync(retryCall, createSuccessfulResponse());
+
+        // hold the re-authentication until all calls failed
+        CountDownLatch allFailed = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            allFailed.await(5, TimeUnit.SECONDS);
+            client.setAuth(true);
+            return true;
+        }).when(client).auth();
+
+        AtomicInteger createdCalls = new AtomicInteger();
+        List<CompletableFuture<String>> responses = new ArrayList<>();
+        for (int i = 0; i < calls; i++) {
+            responses.add(client.executeAsync(() -> createdCalls.getAndIncrement() < calls ? call : retryCall, "failed"));
+        }
+
+        // ACT
+        unauthorizedCallbacks.forEach(callback -> callback.onResponse(call, createFailedResponse(401)));
+        allFailed.countDown();
+
+        // ASSERT
+        for (CompletableFuture<String> response : responses) {
+            assertThat(response.get(5, TimeUnit.SECONDS), containsString("OK"));
+        }
+        assertThat("Each call should be retried once", createdCalls.get(), equalTo(2 * calls));
+        verify(client, times(1)).resetAuth();
+        verify(client, times(1)).auth();
+        verify(retryCall, times(calls)).enqueue(any());
+    }
+
+    @Test
+    public void testExecuteAsyncAndFailUnauthorized() throws Exception {
+        // ARRANGE
+        respondAsync(call, createFailedResponse(401));
+
+        // ACT
+        CompletableFuture<String> response = client.executeAsync(() -> call, "failed");
+
+        try {
+            response.get();
+            fail("Expected this call to fail");
+
+        } catch (ExecutionException e) {
+            // ASSERT
+            assertThat(e.getCause(), instanceOf(UnauthorizedException.class));
+            verify(call, times(2)).enqueue(any());
+        }
+    }
+
+    @Test
+    public void testExecuteAsyncAndFailOtherError() throws Exception {
+        // ARRANGE
+        respondAsync(call, createFailedResponse(500));
+
+        // ACT
+        CompletableFuture<String> response = client.executeAsync(() -> call, "failed");
+
+        // ASSERT
+        assertThat(response.get(), containsString("failed"));
+    }
+
+    @Test
+    public void testExecuteAsyncAndFailConnection() throws Exception {
+        // ARRANGE
+        doAnswer(invocation -> {
+            Callback<String> callback = invocation.getArgument(0);
+            callback.onFailure(call, new ConnectException("Connection refused"));
+            return null;
+        }).when(call).enqueue(any());
+
+        // ACT
+        CompletableFuture<String> response = client.executeAsync(() -> call, "failed");
+
+        // ASSERT
+        assertThat(response.get(), containsString("failed"));
+        verify(call).cancel();
+    }
+
     @Test
     public void testClientWithProxy() throws Exception {
         // ARRANGE
@@ -249,6 +382,17 @@ public class AbstractRemoteClientTest {
         assertThat("Cache key should be the connector id", cacheKey, equalTo("connector"));
     }
 
+    /**
+     * Completes any enqueued <b>remoteCall</b> with the specified <b>response</b>, on the calling thread
+     */
+    private static void respondAsync(Call<String> remoteCall, Response<String> response) {
+        doAnswer(invocation -> {
+            Callback<String> callback = invocation.getArgument(0);
+            callback.onResponse(remoteCall, response);
+            return null;
+        }).when(remoteCall).enqueue(any());
+    }
+
     /**
      * Creates a failure response with the specified code
      */
@@ -101,6 +101,60 @@ public class ConfigurationTest {
     }
 
 
+    @Test
+    public void testFingerprintIsCompact() throws Exception {
+        // ARRANGE
+        Configuration configuration = ImmutableConfiguration.of(0, singletonList(new ExtractImpl("id")), emptyList(), emptyList(), false);
+
+        // ACT
+        String fingerprint = configuration.fingerprint();
+
+        // ASSERT
+        assertThat("Expecting a 128-bit hex string", fingerprint.length(), equalTo(32));
+        assertThat("Expecting the same fingerprint on each call", configuration.fingerprint(), sameInstance(fingerprint));
+    }
+
+    @Test
+    public void testFingerprintDoesNotDependOnIdentityHashCodes() throws Exception {
+        // ARRANGE
+        Configuration configuration1 = ImmutableConfiguration.of(0, singletonList(new FieldsOnlyExtract("same")), emptyList(), emptyList(), false);
+        Configuration configuration2 = ImmutableConfiguration.of(0, singletonList(new FieldsOnlyExtract("same")), emptyList(), emptyList(), false);
+        Configuration configuration3 = ImmutableConfiguration.of(0, singletonList(new FieldsOnlyExtract("other")), emptyList(), emptyList(), false);
+
+        // ACT/ASSERT
+        assertThat("Expecting definitions with the same fields to be identified the same on all nodes",
+                configuration1.fingerprint(), equalTo(configuration2.fingerprint()));
+        assertThat(configuration1.contentFingerprint(), equalTo(configuration2.contentFingerprint()));
+        assertThat(configuration1.fingerprint(), not(equalTo(configuration3.fingerprint())));
+        assertThat(configuration1.contentFingerprint(), not(equalTo(configuration3.contentFingerprint())));
+    }
+
+    @Test
+    public void testContentFingerprintIncludesAuxiliaryFields() throws Exception {
+        // ARRANGE
+        Configuration configuration1 = ImmutableConfiguration.of(0, singletonList(new ExtractImpl("same")), emptyList(), emptyList(), false);
+        Configuration configuration2 = ImmutableConfiguration.of(0, singletonList(new ExtractImpl("same")), emptyList(), emptyList(), false);
+        Configuration configuration3 = ImmutableConfiguration.of(1, singletonList(new ExtractImpl("same")), emptyList(), emptyList(), false);
+
+        // ACT/ASSERT
+        assertThat(configuration1.contentFingerprint(), equalTo(configuration2.contentFingerprint()));
+        assertThat(configuration1.contentFingerprint(), not(equalTo(configuration3.contentFingerprint())));
+        assertThat("Identity should not depend on auxiliary fields", configuration1.fingerprint(), equalTo(configuration3.fingerprint()));
+    }
+
+
+    /**
+     * Does not override {@link Object#toString()} or {@link Object#hashCode()}
+     */
+    private static class FieldsOnlyExtract implements Extract {
+        private final String id;
+
+        FieldsOnlyExtract(String id) {
+            this.id = id;
+        }
+    }
+
+
     /**
      * Tests if two configurations are equal
      */
@@ -113,6 +167,7 @@ public class ConfigurationTest {
         assertThat("Expecting equal configurations", equal, is(true));
         assertThat("Expecting different instances", configuration1, not(sameInstance(configuration2)));
         assertThat("Expecting hashcodes to be the same", sameHashcode, is(true)); // Findbugs: PRMC_POSSIBLY_REDUNDANT_METHOD_CALLS - IGNORE
+        assertThat("Expecting fingerprints to be the same", configuration1.fingerprint(), equalTo(configuration2.fingerprint()));
     }
 
 
@@ -128,5 +183,6 @@ public class ConfigurationTest {
         assertThat("Expecting configurations to be different", equal, is(false));
         assertThat("Expecting different instances", configuration1, not(sameInstance(configuration2)));
         assertThat("Expecting hashcodes to be different", sameHashcode, is(false));
+        assertThat("Expecting fingerprints to be different", configuration1.fingerprint(), not(equalTo(configuration2.fingerprint())));
     }
 }
\ No newline at end of file
@@ -0,0 +1,125 @@
+/*
+ *  Copyright (c) 2016-2017, Salesforce.com, Inc.
+ *  All rights reserved.
+ *  Licensed under the BSD 3-Clause license.
+ *  For full license text, see the LICENSE.txt file in repo root
+ *    or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.pyplyn.model;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+/**
+ * Test class
+ *
+ * @author Mihai Bojin &lt;mbojin@salesforce.com&gt;
+ * @since 10.0.0
+ */
+public class TransmutationBatchTest {
+    private static final ZonedDateTime NOW = ZonedDateTime.now(ZoneOffset.UTC).withNano(0);
+
+    @Test
+    public void testConvertingFromAndToMatrixPreservesData() throws Exception {
+        // ARRANGE
+        List<List<Transmutation>> matrix = Arrays.asList(
+                Arrays.asList(point("name1", 1.0), point("name1", 2.0)),
+                Collections.emptyList(),
+                Collections.singletonList(point("name2", 3.0)));
+
+        // ACT
+        TransmutationBatch batch = TransmutationBatch.from(matrix);
+        List<List<Transmutation>> result = batch.toMatrix();
+
+        // ASSERT
+        assertThat(batch.rows(), equalTo(3));
+        assertThat(batch.size(), equalTo(3));
+        assertThat(result, equalTo(matrix));
+    }
+
+    @Test
+    public void testNamesAndMetadataAreInterned() throws Exception {
+        // ARRANGE
+        // equal, but distinct instances
+        List<List<Transmutation>> matrix = Collections.singletonList(Arrays.asList(
+                point(new String("name"), 1.0),
+                point(new String("name"), 2.0)));
+
+        // ACT
+        TransmutationBatch batch = TransmutationBatch.from(matrix);
+
+        // ASSERT
+        assertThat(batch.name(0), sameInstance(batch.name(1)));
+        assertThat(batch.metadata(0), sameInstance(batch.metadata(1)));
+    }
+
+    @Test
+    public void testConcatPreservesRows() throws Exception {
+        // ARRANGE
+        TransmutationBatch first = TransmutationBatch.from(Collections.singletonList(Collections.singletonList(point("name1", 1.0))));
+        TransmutationBatch second = TransmutationBatch.from(Arrays.asList(
+                Collections.singletonList(point("name2", 2.0)),
+                Collections.singletonList(point("name3", 3.0))));
+
+        // ACT
+        TransmutationBatch batch = TransmutationBatch.concat(Arrays.asList(first, second));
+
+        // ASSERT
+        assertThat(batch.rows(), equalTo(3));
+        assertThat(batch.name(batch.rowStart(2)), equalTo("name3"));
+        assertThat(batch.value(batch.rowStart(1)), equalTo(2.0));
+    }
+
+    @Test
+    public void testWithValuesDoesNotAlterTheOriginalBatch() throws Exception {
+        // ARRANGE
+        TransmutationBatch batch = TransmutationBatch.from(Collections.singletonList(Collections.singletonList(point("name", 1.0))));
+        double[] values = batch.copyValues();
+        values[0] = 5.0;
+
+        // ACT
+        TransmutationBatch result = batch.withValues(values);
+
+        // ASSERT
+        assertThat(batch.value(0), equalTo(1.0));
+        assertThat(result.value(0), equalTo(5.0));
+        assertThat(result.originalValue(0), equalTo(1.0));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testColumnsOfDifferentSizesAreRejected() throws Exception {
+        // ARRANGE
+        TransmutationBatch batch = TransmutationBatch.from(Collections.singletonList(Collections.singletonList(point("name", 1.0))));
+
+        // ACT/ASSERT
+        batch.withValues(new double[2]);
+    }
+
+    @Test
+    public void testStandardTransformsAreAdapted() throws Exception {
+        // ARRANGE
+        TransmutationBatch batch = TransmutationBatch.from(Collections.singletonList(Arrays.asList(point("name", 1.0), point("name", 2.0))));
+        Transform reverse = input -> Collections.singletonList(Arrays.asList(input.get(0).get(1), input.get(0).get(0)));
+
+        // ACT
+        TransmutationBatch result = BatchTransform.applyTo(reverse, batch);
+
+        // ASSERT
+        assertThat(result.value(0), equalTo(2.0));
+        assertThat(result.value(1), equalTo(1.0));
+    }
+
+
+    private static Transmutation point(String name, double value) {
+        return ImmutableTransmutation.of(NOW, name, value, value, ImmutableTransmutation.Metadata.builder().source("source").build());
+    }
+}
@@ -89,11 +89,13 @@ public class AbstractMeteredExtractProcessorTest {
         processor.failed();
         processor.noData();
         processor.authenticationFailure();
+        processor.requestStarted();
+        processor.requestJoined();
 
         // ASSERT
-        verify(processor, times(4)).meterName(); // FindBugs: RV_RETURN_VALUE_IGNORED_NO_SIDE_EFFECT - IGNORE
-        verify(systemStatus, times(4)).meter(anyString(), any());
-        verify(meter, times(4)).mark();
+        verify(processor, times(6)).meterName(); // FindBugs: RV_RETURN_VALUE_IGNORED_NO_SIDE_EFFECT - IGNORE
+        verify(systemStatus, times(6)).meter(anyString(), any());
+        verify(meter, times(6)).mark();
     }
 
     /**
@@ -24,6 +24,7 @@ import com.codahale.metrics.Meter;
 import com.salesforce.pyplyn.model.Load;
 import com.salesforce.pyplyn.model.LoadImpl;
 import com.salesforce.pyplyn.model.Transmutation;
+import com.salesforce.pyplyn.status.MeterType;
 import com.salesforce.pyplyn.status.SystemStatus;
 
 /**
@@ -90,6 +91,28 @@ public class AbstractMeteredLoadProcessorTest {
         verify(meter, times(3)).mark();
     }
 
+    @Test
+    public void testCountsAreMarkedOnTheirMeters() throws Exception {
+        // ARRANGE
+        SystemStatus systemStatus = mock(SystemStatus.class);
+
+        Meter sentMeter = mock(Meter.class);
+        Meter suppressedMeter = mock(Meter.class);
+        doReturn(sentMeter).when(systemStatus).meter(anyString(), eq(MeterType.LoadSent));
+        doReturn(suppressedMeter).when(systemStatus).meter(anyString(), eq(MeterType.LoadSuppressed));
+
+        AbstractMeteredLoadProcessorImpl processor = new AbstractMeteredLoadProcessorImpl(0, null, 0, null);
+        processor.setSystemStatus(systemStatus);
+
+        // ACT
+        processor.sent(3);
+        processor.suppressed(7);
+
+        // ASSERT
+        verify(sentMeter).mark(3);
+        verify(suppressedMeter).mark(7);
+    }
+
     /**
      * Implementation class
      *   runs assertions in process, since this stage only returns booleans